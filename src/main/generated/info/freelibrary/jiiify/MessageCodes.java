@@ -0,0 +1,1159 @@
+package info.freelibrary.jiiify;
+/**
+ * MVN-008
+ */
+public interface MessageCodes {
+
+	/**
+	 * Message: Raster pool size: {} MB
+	 */
+	public static final String INFO_030 = "INFO-030";
+	/**
+	 * Message: Native (OpenCV) image processing: {}
+	 */
+	public static final String INFO_029 = "INFO-029";
+	/**
+	 * Message: Image encoding profile: {}
+	 */
+	public static final String INFO_028 = "INFO-028";
+	/**
+	 * Message: Tiles are streamed from source images that decode to more than: {} MB
+	 */
+	public static final String INFO_027 = "INFO-027";
+	/**
+	 * Message: HTTP server instances (event loops serving requests): {}
+	 */
+	public static final String INFO_026 = "INFO-026";
+	/**
+	 * Message: Document cache '{}' size: {} MB
+	 */
+	public static final String INFO_025 = "INFO-025";
+	/**
+	 * Message: Offering HTTP/2 over {} ALPN
+	 */
+	public static final String INFO_024 = "INFO-024";
+	/**
+	 * Message: HTTP/2 enabled: {} (max concurrent streams: {}, flow-control window: {} KB)
+	 */
+	public static final String INFO_023 = "INFO-023";
+	/**
+	 * Message: Setting Jiiify's handling of non-canonical image requests to: {}
+	 */
+	public static final String INFO_022 = "INFO-022";
+	/**
+	 * Message: Setting Jiiify negative cache time to live to: {} seconds
+	 */
+	public static final String INFO_021 = "INFO-021";
+	/**
+	 * Message: Setting Jiiify tile cache to: {} MB ({})
+	 */
+	public static final String INFO_020 = "INFO-020";
+	/**
+	 * Message: Setting Jiiify on-demand image generation to: {}
+	 */
+	public static final String INFO_019 = "INFO-019";
+	/**
+	 * Message: Setting Jiiify ingest watch folder to: {}
+	 */
+	public static final String INFO_018 = "INFO-018";
+	/**
+	 * Message: Setting default Jiiify data directory to: {}
+	 */
+	public static final String INFO_017 = "INFO-017";
+	/**
+	 * Message: Setting S3 endpoint: {}
+	 */
+	public static final String INFO_016 = "INFO-016";
+	/**
+	 * Message: Setting AWS credentials: {}
+	 */
+	public static final String INFO_015 = "INFO-015";
+	/**
+	 * Message: Setting Jiiify file uploads directory to: {}
+	 */
+	public static final String INFO_014 = "INFO-014";
+	/**
+	 * Message: Setting Jiiify service prefix to: {}
+	 */
+	public static final String INFO_013 = "INFO-013";
+	/**
+	 * Message: Setting Jiiify tile size to: {}
+	 */
+	public static final String INFO_012 = "INFO-012";
+	/**
+	 * Message: Setting Jiiify HTTP redirect port to: {}
+	 */
+	public static final String INFO_011 = "INFO-011";
+	/**
+	 * Message: Setting Jiiify HTTP port to: {}
+	 */
+	public static final String INFO_010 = "INFO-010";
+	/**
+	 * Message: Setting Jiiify HTTP host to: {}
+	 */
+	public static final String INFO_009 = "INFO-009";
+	/**
+	 * Message: Setting Jiiify URL scheme to: {}
+	 */
+	public static final String INFO_008 = "INFO-008";
+	/**
+	 * Message: Requested image file not found: {}
+	 */
+	public static final String INFO_007 = "INFO-007";
+	/**
+	 * Message: Not ready for download
+	 */
+	public static final String INFO_006 = "INFO-006";
+	/**
+	 * Message: Invalid ImageInfo JSON
+	 */
+	public static final String INFO_005 = "INFO-005";
+	/**
+	 * Message: Using a system JKS configuration: {}
+	 */
+	public static final String INFO_004 = "INFO-004";
+	/**
+	 * Message: Successfully started '{}' [{}]
+	 */
+	public static final String INFO_003 = "INFO-003";
+	/**
+	 * Message: Watching '{}' for new images to ingest
+	 */
+	public static final String INFO_002 = "INFO-002";
+	/**
+	 * Message: Ingesting an added or updated image file: {}
+	 */
+	public static final String INFO_001 = "INFO-001";
+	/**
+	 * Message: Request for S3 object failed: {} [{} {}]
+	 */
+	public static final String EXC_098 = "EXC-098";
+	/**
+	 * Message: Image worker couldn't find the image from which to create: {}
+	 */
+	public static final String EXC_097 = "EXC-097";
+	/**
+	 * Message: Image ({} x {}) has too many pixels to be resampled to: {} x {}
+	 */
+	public static final String EXC_096 = "EXC-096";
+	/**
+	 * Message: Image couldn't be read from storage: {} ({})
+	 */
+	public static final String EXC_095 = "EXC-095";
+	/**
+	 * Message: No ingest session '{}' was found for source image: {}
+	 */
+	public static final String EXC_094 = "EXC-094";
+	/**
+	 * Message: Image region {} doesn't overlap the {}x{} image
+	 */
+	public static final String EXC_093 = "EXC-093";
+	/**
+	 * Message: The HTTP server can't start before Jiiify's configuration has been created
+	 */
+	public static final String EXC_092 = "EXC-092";
+	/**
+	 * Message: Not a valid IIIF image request path: {}
+	 */
+	public static final String EXC_091 = "EXC-091";
+	/**
+	 * Message: Image properties file does not list an image source: {}
+	 */
+	public static final String EXC_089 = "EXC-089";
+	/**
+	 * Message: Unable to generate image on demand: {}
+	 */
+	public static final String EXC_088 = "EXC-088";
+	/**
+	 * Message: Unsupported OAuth service
+	 */
+	public static final String EXC_087 = "EXC-087";
+	/**
+	 * Message: (No details)
+	 */
+	public static final String EXC_086 = "EXC-086";
+	/**
+	 * Message: Expected to index '{}' but didn't(!?)
+	 */
+	public static final String EXC_085 = "EXC-085";
+	/**
+	 * Message: Fedora image source URL was not a valid URL!? {}
+	 */
+	public static final String EXC_084 = "EXC-084";
+	/**
+	 * Message: Failed to clean up source image as requested: {}
+	 */
+	public static final String EXC_083 = "EXC-083";
+	/**
+	 * Message: Invalid or unexpected ID received from Fedora: {}
+	 */
+	public static final String EXC_082 = "EXC-082";
+	/**
+	 * Message: Couldn't load OpenCV's native library, so using Java image processing instead: {}
+	 */
+	public static final String WARN_036 = "WARN-036";
+	/**
+	 * Message: Error downloading image file ({}) from Fedora: {}
+	 */
+	public static final String EXC_081 = "EXC-081";
+	/**
+	 * Message: Invalid encoding profile configuration '{}', using the default: {}
+	 */
+	public static final String WARN_035 = "WARN-035";
+	/**
+	 * Message: Failed to send Fedora event to {}
+	 */
+	public static final String EXC_080 = "EXC-080";
+	/**
+	 * Message: Invalid tile streaming threshold, using the default: {} MB
+	 */
+	public static final String WARN_034 = "WARN-034";
+	/**
+	 * Message: Invalid HTTP server instance count, using the default: {}
+	 */
+	public static final String WARN_033 = "WARN-033";
+	/**
+	 * Message: Invalid {} size, using the default: {} MB
+	 */
+	public static final String WARN_032 = "WARN-032";
+	/**
+	 * Message: HTTP/2 requires ALPN support, which isn't available from OpenSSL or the JDK; serving HTTP/1.1 only
+	 */
+	public static final String WARN_031 = "WARN-031";
+	/**
+	 * Message: Invalid HTTP/2 setting, using the default: {}
+	 */
+	public static final String WARN_030 = "WARN-030";
+	/**
+	 * Message: Solr server URL is not well-formed: 
+	 */
+	public static final String EXC_079 = "EXC-079";
+	/**
+	 * Message: Unexpected Solr server status response: 
+	 */
+	public static final String EXC_078 = "EXC-078";
+	/**
+	 * Message: Failed to write manifest file: {}
+	 */
+	public static final String EXC_077 = "EXC-077";
+	/**
+	 * Message: Exception thrown while reading height and width
+	 */
+	public static final String EXC_076 = "EXC-076";
+	/**
+	 * Message: Unexpected exception thrown
+	 */
+	public static final String EXC_075 = "EXC-075";
+	/**
+	 * Message: Couldn't read image dimensions from {}: {}
+	 */
+	public static final String WARN_029 = "WARN-029";
+	/**
+	 * Message: Failed to write image properties file: {}
+	 */
+	public static final String EXC_074 = "EXC-074";
+	/**
+	 * Message: Supplied canonical requests setting isn't valid so using: {}
+	 */
+	public static final String WARN_028 = "WARN-028";
+	/**
+	 * Message: Argument is not a comma delimited size: {}
+	 */
+	public static final String EXC_073 = "EXC-073";
+	/**
+	 * Message: Supplied negative cache time to live isn't valid so using: {}
+	 */
+	public static final String WARN_027 = "WARN-027";
+	/**
+	 * Message: Unable to read byte array because there wasn't an appropriate reader
+	 */
+	public static final String EXC_072 = "EXC-072";
+	/**
+	 * Message: Supplied tile cache setting isn't valid so using: {}
+	 */
+	public static final String WARN_026 = "WARN-026";
+	/**
+	 * Message: Could not find a writer for {}
+	 */
+	public static final String EXC_071 = "EXC-071";
+	/**
+	 * Message: [No IP address?!]
+	 */
+	public static final String WARN_025 = "WARN-025";
+	/**
+	 * Message: A physical scale unit must be supplied
+	 */
+	public static final String EXC_070 = "EXC-070";
+	/**
+	 * Message: Something hit the /fcrepo-event endpoint from '{}' but didn't send valid parameters
+	 */
+	public static final String WARN_024 = "WARN-024";
+	/**
+	 * Message: Received a Fedora ingest request from '{}' but there is no allowed Fedora IP configured
+	 */
+	public static final String WARN_023 = "WARN-023";
+	/**
+	 * Message: Received an ingest request from an unrecognized IP: {}
+	 */
+	public static final String WARN_022 = "WARN-022";
+	/**
+	 * Message: Didn't write manifest because it already existed: {}
+	 */
+	public static final String WARN_021 = "WARN-021";
+	/**
+	 * Message: Prefix '{}' isn't valid so using '{}' instead
+	 */
+	public static final String WARN_020 = "WARN-020";
+	/**
+	 * Message: Solr search failed: {}
+	 */
+	public static final String EXC_069 = "EXC-069";
+	/**
+	 * Message: Search Error
+	 */
+	public static final String EXC_068 = "EXC-068";
+	/**
+	 * Message: Image properties file not found: {}
+	 */
+	public static final String EXC_067 = "EXC-067";
+	/**
+	 * Message: Image manifest file not found: {}
+	 */
+	public static final String EXC_066 = "EXC-066";
+	/**
+	 * Message: Failed to serve image manifest: {}
+	 */
+	public static final String EXC_065 = "EXC-065";
+	/**
+	 * Message: Supplied tile size isn't valid so trying to use {} instead
+	 */
+	public static final String WARN_019 = "WARN-019";
+	/**
+	 * Message: Not an allowed email: {}
+	 */
+	public static final String EXC_064 = "EXC-064";
+	/**
+	 * Message: Supplied redirect port isn't valid so trying to use {} instead
+	 */
+	public static final String WARN_018 = "WARN-018";
+	/**
+	 * Message: No email was retrieved from OAuth
+	 */
+	public static final String EXC_063 = "EXC-063";
+	/**
+	 * Message: Supplied port isn't valid so trying to use {} instead
+	 */
+	public static final String WARN_017 = "WARN-017";
+	/**
+	 * Message: Authentication did not succeed
+	 */
+	public static final String EXC_062 = "EXC-062";
+	/**
+	 * Message: Found {} set in system properties but its value ({}) isn't value so using: {}
+	 */
+	public static final String WARN_016 = "WARN-016";
+	/**
+	 * Message: Exception trying to send message to {}: {}
+	 */
+	public static final String EXC_061 = "EXC-061";
+	/**
+	 * Message: Tile path '{}' could not be added to queue
+	 */
+	public static final String WARN_015 = "WARN-015";
+	/**
+	 * Message: Failed to set default Jiiify data directory to: {}
+	 */
+	public static final String EXC_060 = "EXC-060";
+	/**
+	 * Message: Identifier contains characters invalid for a URI: {}
+	 */
+	public static final String WARN_014 = "WARN-014";
+	/**
+	 * Message: Supplied Solr query parameter is not an integer as expected: {}
+	 */
+	public static final String WARN_013 = "WARN-013";
+	/**
+	 * Message: Using RefreshHandler: {}
+	 */
+	public static final String WARN_012 = "WARN-012";
+	/**
+	 * Message: Redirecting unexpectedly to webroot... why?!
+	 */
+	public static final String WARN_011 = "WARN-011";
+	/**
+	 * Message: User login JWT does not contain a name
+	 */
+	public static final String WARN_010 = "WARN-010";
+	/**
+	 * Message: Couldn't connect to Solr server: [{}: {}]
+	 */
+	public static final String EXC_059 = "EXC-059";
+	/**
+	 * Message: Couldn't connect to Solr server: [{}]
+	 */
+	public static final String EXC_058 = "EXC-058";
+	/**
+	 * Message: Failed submitting thumbnail to Solr: {}
+	 */
+	public static final String EXC_057 = "EXC-057";
+	/**
+	 * Message: Unable to find or create object directory: {}
+	 */
+	public static final String EXC_056 = "EXC-056";
+	/**
+	 * Message: Failed to write image info file: {}
+	 */
+	public static final String EXC_055 = "EXC-055";
+	/**
+	 * Message: Received a {} request but only POST and GET are supported
+	 */
+	public static final String WARN_009 = "WARN-009";
+	/**
+	 * Message: Unable to create object directory: {}
+	 */
+	public static final String EXC_054 = "EXC-054";
+	/**
+	 * Message: Received a login POST message without a token
+	 */
+	public static final String WARN_008 = "WARN-008";
+	/**
+	 * Message: Failed submitting '{}' to Solr: {}
+	 */
+	public static final String EXC_053 = "EXC-053";
+	/**
+	 * Message: Unable to send message to {}; retrying: {}
+	 */
+	public static final String WARN_007 = "WARN-007";
+	/**
+	 * Message: Malformed logo URL: {}
+	 */
+	public static final String EXC_052 = "EXC-052";
+	/**
+	 * Message: {} verification responded with: {} [{}]
+	 */
+	public static final String EXC_051 = "EXC-051";
+	/**
+	 * Message: Failed to update ImageInfo's @id on '{}'
+	 */
+	public static final String EXC_050 = "EXC-050";
+	/**
+	 * Message: Scaling down image processing cores to '{}' [available memory: {} GiB]
+	 */
+	public static final String WARN_004 = "WARN-004";
+	/**
+	 * Message: It's not recommended to try to ingest images with less than 2 GB RAM available: {} GiB
+	 */
+	public static final String WARN_003 = "WARN-003";
+	/**
+	 * Message: Failed to send image path '{}' so trying again
+	 */
+	public static final String WARN_002 = "WARN-002";
+	/**
+	 * Message: Failed to send tile path ({}) so trying again
+	 */
+	public static final String WARN_001 = "WARN-001";
+	/**
+	 * Message: Failed to process non-cached image: {}
+	 */
+	public static final String EXC_049 = "EXC-049";
+	/**
+	 * Message: Image file not found: {}
+	 */
+	public static final String EXC_048 = "EXC-048";
+	/**
+	 * Message: Failed to read image info file
+	 */
+	public static final String EXC_047 = "EXC-047";
+	/**
+	 * Message: Height and/or width not found in image info file
+	 */
+	public static final String EXC_046 = "EXC-046";
+	/**
+	 * Message: Failed to start an ingest session for: {}
+	 */
+	public static final String EXC_045 = "EXC-045";
+	/**
+	 * Message: Failed to start server: {}
+	 */
+	public static final String EXC_044 = "EXC-044";
+	/**
+	 * Message: Failed to start server - couldn't read JKS configuration file: {}
+	 */
+	public static final String EXC_043 = "EXC-043";
+	/**
+	 * Message: Server failed to start at {}:{} - {}
+	 */
+	public static final String EXC_042 = "EXC-042";
+	/**
+	 * Message: Could not configure redirect port: {}
+	 */
+	public static final String EXC_041 = "EXC-041";
+	/**
+	 * Message: OutOfMemoryError: {}
+	 */
+	public static final String EXC_040 = "EXC-040";
+	/**
+	 * Message: Unable to send message to {}: {}
+	 */
+	public static final String EXC_039 = "EXC-039";
+	/**
+	 * Message: Image buffer is null because there wasn't an appropriate reader
+	 */
+	public static final String EXC_038 = "EXC-038";
+	/**
+	 * Message: Decoding image at 1/{} of its size for a size of {}
+	 */
+	public static final String DBG_139 = "DBG-139";
+	/**
+	 * Message: FileSystem exists checked failed: {}
+	 */
+	public static final String EXC_037 = "EXC-037";
+	/**
+	 * Message: Image format '{}' can't be read in bands so cascading the tiles of: {}
+	 */
+	public static final String DBG_138 = "DBG-138";
+	/**
+	 * Message: Cannot create the data directory: {}
+	 */
+	public static final String EXC_036 = "EXC-036";
+	/**
+	 * Message: Resampling {} to {}x{} with a parallelism of: {}
+	 */
+	public static final String DBG_137 = "DBG-137";
+	/**
+	 * Message: Cannot write to the data directory: {}
+	 */
+	public static final String EXC_035 = "EXC-035";
+	/**
+	 * Message: Loaded OpenCV's native library: {}
+	 */
+	public static final String DBG_136 = "DBG-136";
+	/**
+	 * Message: Unable to send tile path ({}) to image worker [{} attempts]: {}
+	 */
+	public static final String EXC_034 = "EXC-034";
+	/**
+	 * Message: Changing the quality of image {} to: {}
+	 */
+	public static final String DBG_135 = "DBG-135";
+	/**
+	 * Message: Tile size from {} wasn't valid so using the default '{}' instead
+	 */
+	public static final String EXC_033 = "EXC-033";
+	/**
+	 * Message: Streaming the tiles of ''{}'' ({}x{}) from its source image file
+	 */
+	public static final String DBG_134 = "DBG-134";
+	/**
+	 * Message: Failed to launch {}
+	 */
+	public static final String EXC_032 = "EXC-032";
+	/**
+	 * Message: Read a band of rows from a source image [Y: {}; Height: {}; Width: {}; ID: {}]
+	 */
+	public static final String DBG_133 = "DBG-133";
+	/**
+	 * Message: The polled WatchKey does not correspond to a watched directory
+	 */
+	public static final String EXC_031 = "EXC-031";
+	/**
+	 * Message: Cutting tiles for pyramid level {} from a {}x{} image
+	 */
+	public static final String DBG_132 = "DBG-132";
+	/**
+	 * Message: Failed to add new folder '{}' to watch list
+	 */
+	public static final String EXC_030 = "EXC-030";
+	/**
+	 * Message: Setting new logging level: {}
+	 */
+	public static final String DBG_099 = "DBG-099";
+	/**
+	 * Message: Decoding region {},{},{},{} of a {}x{} image with a subsampling of {}
+	 */
+	public static final String DBG_131 = "DBG-131";
+	/**
+	 * Message: Getting dimensions of '{}'
+	 */
+	public static final String DBG_098 = "DBG-098";
+	/**
+	 * Message: HTTP server listening on port {} [{}]
+	 */
+	public static final String DBG_130 = "DBG-130";
+	/**
+	 * Message: Tile path: {}
+	 */
+	public static final String DBG_097 = "DBG-097";
+	/**
+	 * Message: {} tiles needed for {}
+	 */
+	public static final String DBG_096 = "DBG-096";
+	/**
+	 * Message: Creating tiles using multiplier of {}
+	 */
+	public static final String DBG_095 = "DBG-095";
+	/**
+	 * Message: Generating tile paths [ID: {}; Tile Size: {}; Width: {}; Height: {}]
+	 */
+	public static final String DBG_094 = "DBG-094";
+	/**
+	 * Message: Handlebars template output: {}
+	 */
+	public static final String DBG_093 = "DBG-093";
+	/**
+	 * Message: Loading Handlebars template '{}' into cache
+	 */
+	public static final String DBG_092 = "DBG-092";
+	/**
+	 * Message: No skip paths, using passed template file: {}
+	 */
+	public static final String DBG_091 = "DBG-091";
+	/**
+	 * Message: Using skip paths ({}) to get template file: {}
+	 */
+	public static final String DBG_090 = "DBG-090";
+	/**
+	 * Message: Failed to add new image file '{}' to watch list
+	 */
+	public static final String EXC_029 = "EXC-029";
+	/**
+	 * Message: Unable to send image path '{}' to tile master [{} attempts]: {}
+	 */
+	public static final String EXC_027 = "EXC-027";
+	/**
+	 * Message: Redirecting image request {} to its canonical form: {}
+	 */
+	public static final String DBG_129 = "DBG-129";
+	/**
+	 * Message: No supported image reader available for {}
+	 */
+	public static final String EXC_026 = "EXC-026";
+	/**
+	 * Message: Rewriting image request {} to its canonical form: {}
+	 */
+	public static final String DBG_128 = "DBG-128";
+	/**
+	 * Message: Rotating derivative image {} for: {}
+	 */
+	public static final String DBG_127 = "DBG-127";
+	/**
+	 * Message: Cannot create the ingest watch folder: {}
+	 */
+	public static final String EXC_024 = "EXC-024";
+	/**
+	 * Message: Rotating image {} by: {}
+	 */
+	public static final String DBG_126 = "DBG-126";
+	/**
+	 * Message: Cannot write to the ingest watch folder: {}
+	 */
+	public static final String EXC_023 = "EXC-023";
+	/**
+	 * Message: Image couldn't be read so treating it as missing: {} ({})
+	 */
+	public static final String DBG_125 = "DBG-125";
+	/**
+	 * Message: Cannot create the file uploads directory: {}
+	 */
+	public static final String EXC_022 = "EXC-022";
+	/**
+	 * Message: Requested range ({}) can't be satisfied for: {}
+	 */
+	public static final String DBG_124 = "DBG-124";
+	/**
+	 * Message: Cannot write to the file uploads directory: {}
+	 */
+	public static final String EXC_021 = "EXC-021";
+	/**
+	 * Message: Client's copy is current, so sending a 304 (Not Modified) for: {}
+	 */
+	public static final String DBG_123 = "DBG-123";
+	/**
+	 * Message: Supplied region did not have four coordinates: {}
+	 */
+	public static final String EXC_020 = "EXC-020";
+	/**
+	 * Message: Evicting tile from cache: {}
+	 */
+	public static final String DBG_122 = "DBG-122";
+	/**
+	 * Message: Setting Handlebars max cache size: {}
+	 */
+	public static final String DBG_089 = "DBG-089";
+	/**
+	 * Message: Waiting on an in-progress creation of: {}
+	 */
+	public static final String DBG_121 = "DBG-121";
+	/**
+	 * Message: Setting Handlebars template extension: {}
+	 */
+	public static final String DBG_088 = "DBG-088";
+	/**
+	 * Message: Generating image on demand from source '{}': {}
+	 */
+	public static final String DBG_120 = "DBG-120";
+	/**
+	 * Message: Handlebars template engine created
+	 */
+	public static final String DBG_087 = "DBG-087";
+	/**
+	 * Message: Sending Solr query to: {}
+	 */
+	public static final String DBG_086 = "DBG-086";
+	/**
+	 * Message: Resizing [{}] to {},{}
+	 */
+	public static final String DBG_085 = "DBG-085";
+	/**
+	 * Message: Cropping {} to {},{},{},{}
+	 */
+	public static final String DBG_084 = "DBG-084";
+	/**
+	 * Message: Scaling resize value by: {}
+	 */
+	public static final String DBG_083 = "DBG-083";
+	/**
+	 * Message: Resize width: {} [Original: {}]
+	 */
+	public static final String DBG_082 = "DBG-082";
+	/**
+	 * Message: Resizing width set to actual image width: {}
+	 */
+	public static final String DBG_081 = "DBG-081";
+	/**
+	 * Message: Resizing width set to ImageRequest width: {}
+	 */
+	public static final String DBG_080 = "DBG-080";
+	/**
+	 * Message: Unexpected Region enumeration value: {}
+	 */
+	public static final String EXC_019 = "EXC-019";
+	/**
+	 * Message: Supplied region coordinate is not a float: {}
+	 */
+	public static final String EXC_018 = "EXC-018";
+	/**
+	 * Message: Supplied size {} is not an integer: {}
+	 */
+	public static final String EXC_017 = "EXC-017";
+	/**
+	 * Message: Writing '{}' image with encoding profile: {}
+	 */
+	public static final String DBG_119 = "DBG-119";
+	/**
+	 * Message: Supplied size has more than one comma: {}
+	 */
+	public static final String EXC_016 = "EXC-016";
+	/**
+	 * Message: Updating image metadata for '{}'
+	 */
+	public static final String DBG_118 = "DBG-118";
+	/**
+	 * Message: Supplied size only contained a comma, no height or width
+	 */
+	public static final String EXC_015 = "EXC-015";
+	/**
+	 * Message: Indexing image metadata for '{}'
+	 */
+	public static final String DBG_117 = "DBG-117";
+	/**
+	 * Message: Supplied size '{}' is not an integer between 1 and 100
+	 */
+	public static final String EXC_014 = "EXC-014";
+	/**
+	 * Message: Received image ingest request from: {} - {}
+	 */
+	public static final String DBG_116 = "DBG-116";
+	/**
+	 * Message: Supplied rotation '{}' is not a float in the range of 0 to 360
+	 */
+	public static final String EXC_013 = "EXC-013";
+	/**
+	 * Message: Receiving image ingest request from Fedora: {} ({})
+	 */
+	public static final String DBG_115 = "DBG-115";
+	/**
+	 * Message: Supplied quality '{}' is not one of the supported qualities: {}
+	 */
+	public static final String EXC_012 = "EXC-012";
+	/**
+	 * Message: Using a user supplied file uploads directory: {}
+	 */
+	public static final String DBG_114 = "DBG-114";
+	/**
+	 * Message: Supplied format '{}' is not one of the supported formats: {}
+	 */
+	public static final String EXC_011 = "EXC-011";
+	/**
+	 * Message: Using a temporary directory {} for file uploads
+	 */
+	public static final String DBG_113 = "DBG-113";
+	/**
+	 * Message: Found {} set in system properties as: {}
+	 */
+	public static final String DBG_112 = "DBG-112";
+	/**
+	 * Message: Resizing width is scaled width: {}
+	 */
+	public static final String DBG_079 = "DBG-079";
+	/**
+	 * Message: Found {} set in system properties
+	 */
+	public static final String DBG_111 = "DBG-111";
+	/**
+	 * Message: Resizing based on a percentage: {}
+	 */
+	public static final String DBG_078 = "DBG-078";
+	/**
+	 * Message: Trying to connect to Solr server: {}
+	 */
+	public static final String DBG_110 = "DBG-110";
+	/**
+	 * Message: Resize height: {} [Original: {}]
+	 */
+	public static final String DBG_077 = "DBG-077";
+	/**
+	 * Message: Resizing height set to actual image height: {}
+	 */
+	public static final String DBG_076 = "DBG-076";
+	/**
+	 * Message: Resizing height set to ImageRequest height: {}
+	 */
+	public static final String DBG_075 = "DBG-075";
+	/**
+	 * Message: Resizing height is scaled height: {}
+	 */
+	public static final String DBG_074 = "DBG-074";
+	/**
+	 * Message: Resizing based on a percentage: {}
+	 */
+	public static final String DBG_073 = "DBG-073";
+	/**
+	 * Message: Request [Prefix: {}], [ID: {}], [Region: {}], [Size: {}], [Rotation: {}], [File: {}]
+	 */
+	public static final String DBG_072 = "DBG-072";
+	/**
+	 * Message: Constructing image request from: {}
+	 */
+	public static final String DBG_071 = "DBG-071";
+	/**
+	 * Message: Constructing image info from ID: {}
+	 */
+	public static final String DBG_070 = "DBG-070";
+	/**
+	 * Message: Succeeded submitting thumbnail to Solr
+	 */
+	public static final String DBG_109 = "DBG-109";
+	/**
+	 * Message: Wrote manifest file: {}
+	 */
+	public static final String DBG_108 = "DBG-108";
+	/**
+	 * Message: Wrote image properties file: {}
+	 */
+	public static final String DBG_107 = "DBG-107";
+	/**
+	 * Message: Skipping image generation for: {}
+	 */
+	public static final String DBG_106 = "DBG-106";
+	/**
+	 * Message: Skipping property file generation for: {}
+	 */
+	public static final String DBG_105 = "DBG-105";
+	/**
+	 * Message: Skipping indexing for: {}
+	 */
+	public static final String DBG_104 = "DBG-104";
+	/**
+	 * Message: {}
+	 */
+	public static final String EXC_000 = "EXC-000";
+	/**
+	 * Message: Wrote JSON image info file: {}
+	 */
+	public static final String DBG_102 = "DBG-102";
+	/**
+	 * Message: Current page: {}
+	 */
+	public static final String DBG_069 = "DBG-069";
+	/**
+	 * Message: Succeeded submitting '{}' to Solr
+	 */
+	public static final String DBG_101 = "DBG-101";
+	/**
+	 * Message: Unexpected count on browse page: {}
+	 */
+	public static final String DBG_068 = "DBG-068";
+	/**
+	 * Message: Decoded '{}' to '{}'
+	 */
+	public static final String DBG_100 = "DBG-100";
+	/**
+	 * Message: Passing a search query: {}
+	 */
+	public static final String DBG_067 = "DBG-067";
+	/**
+	 * Message: Passing a browse query: {}
+	 */
+	public static final String DBG_066 = "DBG-066";
+	/**
+	 * Message: Unexpected filter value on browse page: {}
+	 */
+	public static final String DBG_065 = "DBG-065";
+	/**
+	 * Message: Solr response: {}
+	 */
+	public static final String DBG_064 = "DBG-064";
+	/**
+	 * Message: Constructing new Solr query: {}
+	 */
+	public static final String DBG_063 = "DBG-063";
+	/**
+	 * Message: Using RefreshHandler: {}
+	 */
+	public static final String DBG_062 = "DBG-062";
+	/**
+	 * Message: Redirecting to image info request path: {}
+	 */
+	public static final String DBG_061 = "DBG-061";
+	/**
+	 * Message: Checking for properties file: {}
+	 */
+	public static final String DBG_060 = "DBG-060";
+	/**
+	 * Message: Param: {} = {}
+	 */
+	public static final String DBG_059 = "DBG-059";
+	/**
+	 * Message: Handling: {}
+	 */
+	public static final String DBG_058 = "DBG-058";
+	/**
+	 * Message: Requested: {}
+	 */
+	public static final String DBG_057 = "DBG-057";
+	/**
+	 * Message: Something other than a JsonObject found: {}
+	 */
+	public static final String DBG_056 = "DBG-056";
+	/**
+	 * Message: Served IIIF manifest file: {}
+	 */
+	public static final String DBG_055 = "DBG-055";
+	/**
+	 * Message: Checking for IIIF manifest file: {}
+	 */
+	public static final String DBG_054 = "DBG-054";
+	/**
+	 * Message: Logging out of session '{}': {} ({})
+	 */
+	public static final String DBG_053 = "DBG-053";
+	/**
+	 * Message: User successfully validated
+	 */
+	public static final String DBG_052 = "DBG-052";
+	/**
+	 * Message: Token's decoded JSON contents: {}
+	 */
+	public static final String DBG_051 = "DBG-051";
+	/**
+	 * Message: {} handling body: {}
+	 */
+	public static final String DBG_050 = "DBG-050";
+	/**
+	 * Message: Verifying user login token with {}: {}
+	 */
+	public static final String DBG_049 = "DBG-049";
+	/**
+	 * Message: Processing {} login token: {}
+	 */
+	public static final String DBG_048 = "DBG-048";
+	/**
+	 * Message: {} is failing this RoutingContext
+	 */
+	public static final String DBG_047 = "DBG-047";
+	/**
+	 * Message: {} JSON passed to template page: {}
+	 */
+	public static final String DBG_046 = "DBG-046";
+	/**
+	 * Message: Getting item page for : {}
+	 */
+	public static final String DBG_045 = "DBG-045";
+	/**
+	 * Message: Sending message [sendTimeout: {}] from IngestHandler: {}
+	 */
+	public static final String DBG_044 = "DBG-044";
+	/**
+	 * Message: Slowing down the {}'s timeout to: {}
+	 */
+	public static final String DBG_043 = "DBG-043";
+	/**
+	 * Message: Invalid CSV values detected: {}
+	 */
+	public static final String DBG_042 = "DBG-042";
+	/**
+	 * Message: Added to ingest queue: {}
+	 */
+	public static final String DBG_041 = "DBG-041";
+	/**
+	 * Message: To be ingested: {} ({})
+	 */
+	public static final String DBG_040 = "DBG-040";
+	/**
+	 * Message: Successfully uploaded manifest: {}
+	 */
+	public static final String DBG_039 = "DBG-039";
+	/**
+	 * Message: New manifest upload [{}]
+	 */
+	public static final String DBG_038 = "DBG-038";
+	/**
+	 * Message: Manifest upload overwriting existing manifest [{}]
+	 */
+	public static final String DBG_037 = "DBG-037";
+	/**
+	 * Message: Served image info: {}
+	 */
+	public static final String DBG_036 = "DBG-036";
+	/**
+	 * Message: Checking for IIIF image info file: {}
+	 */
+	public static final String DBG_035 = "DBG-035";
+	/**
+	 * Message: Served image file: {}
+	 */
+	public static final String DBG_034 = "DBG-034";
+	/**
+	 * Message: Filesystem check for unrotated cache file failed: {}
+	 */
+	public static final String DBG_033 = "DBG-033";
+	/**
+	 * Message: Didn't find unrotated cache file: {}
+	 */
+	public static final String DBG_032 = "DBG-032";
+	/**
+	 * Message: Checking for default rotation: {}
+	 */
+	public static final String DBG_030 = "DBG-030";
+	/**
+	 * Message: test message: {} and {}
+	 */
+	public static final String TEST_002 = "TEST-002";
+	/**
+	 * Message: test message
+	 */
+	public static final String TEST_001 = "TEST-001";
+	/**
+	 * Message: Served image file: {}
+	 */
+	public static final String DBG_029 = "DBG-029";
+	/**
+	 * Message: Checking whether cached image file '{}' exists
+	 */
+	public static final String DBG_028 = "DBG-028";
+	/**
+	 * Message: IIIF Image request: {}
+	 */
+	public static final String DBG_027 = "DBG-027";
+	/**
+	 * Message: Sending file for browser download: {}
+	 */
+	public static final String DBG_026 = "DBG-026";
+	/**
+	 * Message: Number of tiles to be zipped: {}
+	 */
+	public static final String DBG_025 = "DBG-025";
+	/**
+	 * Message: Zipping up an object for download: {}
+	 */
+	public static final String DBG_024 = "DBG-024";
+	/**
+	 * Message: Download resource file not found: {}
+	 */
+	public static final String DBG_023 = "DBG-023";
+	/**
+	 * Message: Download resource file found: {}
+	 */
+	public static final String DBG_022 = "DBG-022";
+	/**
+	 * Message: Ingest session for '{}' started with request count: {}
+	 */
+	public static final String DBG_021 = "DBG-021";
+	/**
+	 * Message: Using the JWT authentication handler
+	 */
+	public static final String DBG_020 = "DBG-020";
+	/**
+	 * Message: Loading JKS configuration from Jiiify's Jar file
+	 */
+	public static final String DBG_019 = "DBG-019";
+	/**
+	 * Message: Trying to use the build's default JKS: {}
+	 */
+	public static final String DBG_018 = "DBG-018";
+	/**
+	 * Message: Attempted keystore password: {}
+	 */
+	public static final String DBG_017 = "DBG-017";
+	/**
+	 * Message: Redirecting HTTP request to: {}
+	 */
+	public static final String DBG_016 = "DBG-016";
+	/**
+	 * Message: Mapped source image {} into memory ({} bytes in {} chunks)
+	 */
+	public static final String DBG_014 = "DBG-014";
+	/**
+	 * Message: Using ingest session source image: {}
+	 */
+	public static final String DBG_013 = "DBG-013";
+	/**
+	 * Message: Ending ingest session for {}: {}
+	 */
+	public static final String DBG_012 = "DBG-012";
+	/**
+	 * Message: Creating derivative image for: {}
+	 */
+	public static final String DBG_011 = "DBG-011";
+	/**
+	 * Message: Reading non-cached source image '{}' for: 
+	 */
+	public static final String DBG_010 = "DBG-010";
+	/**
+	 * Message: Removing tiling image buffer for {}: {}
+	 */
+	public static final String DBG_008 = "DBG-008";
+	/**
+	 * Message: Server failed to start at port '{}'
+	 */
+	public static final String DBG_007 = "DBG-007";
+	/**
+	 * Message: Successfully deployed {} [{}]
+	 */
+	public static final String DBG_006 = "DBG-006";
+	/**
+	 * Message: Checking for new watch folder events
+	 */
+	public static final String DBG_005 = "DBG-005";
+	/**
+	 * Message: New file has been added to watched folder: {}
+	 */
+	public static final String DBG_004 = "DBG-004";
+	/**
+	 * Message: Unable to reset WatchKey for {} so removing it from the watch list
+	 */
+	public static final String DBG_003 = "DBG-003";
+	/**
+	 * Message: No more batch ingest folders are being watched
+	 */
+	public static final String DBG_002 = "DBG-002";
+	/**
+	 * Message: New ingest folder added to the watch list: {}
+	 */
+	public static final String DBG_001 = "DBG-001";
+	/**
+	 * Message: Successfully undeployed {} [{}]
+	 */
+	public static final String DBG_000 = "DBG-000";
+}
\ No newline at end of file
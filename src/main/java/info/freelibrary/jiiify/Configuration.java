@@ -1,21 +1,36 @@
 
 package info.freelibrary.jiiify;
 
+import static info.freelibrary.jiiify.Constants.CANONICAL_REQUESTS_PROP;
 import static info.freelibrary.jiiify.Constants.CONFIG_KEY;
 import static info.freelibrary.jiiify.Constants.DATA_DIR_PROP;
+import static info.freelibrary.jiiify.Constants.DYNAMIC_IMAGES_PROP;
+import static info.freelibrary.jiiify.Constants.ENCODING_PROFILES_PROP;
 import static info.freelibrary.jiiify.Constants.FACEBOOK_OAUTH_CLIENT_ID;
 import static info.freelibrary.jiiify.Constants.FEDORA_IP_PROP;
 import static info.freelibrary.jiiify.Constants.GOOGLE_OAUTH_CLIENT_ID;
+import static info.freelibrary.jiiify.Constants.HTTP2_MAX_STREAMS_PROP;
+import static info.freelibrary.jiiify.Constants.HTTP2_PROP;
+import static info.freelibrary.jiiify.Constants.HTTP2_WINDOW_SIZE_PROP;
 import static info.freelibrary.jiiify.Constants.HTTP_HOST_PROP;
+import static info.freelibrary.jiiify.Constants.HTTP_INSTANCES_PROP;
 import static info.freelibrary.jiiify.Constants.HTTP_PORT_PROP;
 import static info.freelibrary.jiiify.Constants.HTTP_PORT_REDIRECT_PROP;
+import static info.freelibrary.jiiify.Constants.INFO_CACHE_SIZE_PROP;
+import static info.freelibrary.jiiify.Constants.MANIFEST_CACHE_SIZE_PROP;
 import static info.freelibrary.jiiify.Constants.MESSAGES;
+import static info.freelibrary.jiiify.Constants.NATIVE_IMAGES_PROP;
+import static info.freelibrary.jiiify.Constants.NEGATIVE_CACHE_TTL_PROP;
 import static info.freelibrary.jiiify.Constants.OAUTH_USERS;
+import static info.freelibrary.jiiify.Constants.RASTER_POOL_SIZE_PROP;
 import static info.freelibrary.jiiify.Constants.SERVICE_PREFIX_PROP;
 import static info.freelibrary.jiiify.Constants.SHARED_DATA_KEY;
 import static info.freelibrary.jiiify.Constants.SLASH;
 import static info.freelibrary.jiiify.Constants.SOLR_SERVER_PROP;
+import static info.freelibrary.jiiify.Constants.TILE_CACHE_POLICY_PROP;
+import static info.freelibrary.jiiify.Constants.TILE_CACHE_SIZE_PROP;
 import static info.freelibrary.jiiify.Constants.TILE_SIZE_PROP;
+import static info.freelibrary.jiiify.Constants.TILE_STREAM_THRESHOLD_PROP;
 import static info.freelibrary.jiiify.Constants.UPLOADS_DIR_PROP;
 import static info.freelibrary.jiiify.Constants.URL_SCHEME_PROP;
 import static info.freelibrary.jiiify.Constants.WATCH_FOLDER_PROP;
@@ -33,20 +48,33 @@ import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import javax.naming.ConfigurationException;
 
+import info.freelibrary.jiiify.cache.DocumentCache;
+import info.freelibrary.jiiify.cache.EvictionPolicy;
+import info.freelibrary.jiiify.cache.LRUEvictionPolicy;
+import info.freelibrary.jiiify.cache.NegativeCache;
+import info.freelibrary.jiiify.cache.TileCache;
+import info.freelibrary.jiiify.cache.TinyLFUEvictionPolicy;
 import info.freelibrary.jiiify.handlers.LoginHandler;
 import info.freelibrary.jiiify.iiif.ImageFormat;
+import info.freelibrary.jiiify.image.EncodingProfile;
+import info.freelibrary.jiiify.image.RasterPool;
+import info.freelibrary.jiiify.util.ImageUtils;
 import info.freelibrary.jiiify.util.PathUtils;
 import info.freelibrary.pairtree.PairtreeFactory;
 import info.freelibrary.pairtree.PairtreeRoot;
+import info.freelibrary.pairtree.s3.S3Client;
 import info.freelibrary.util.FileUtils;
 import info.freelibrary.util.Logger;
 import info.freelibrary.util.LoggerFactory;
@@ -56,6 +84,7 @@ import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.http.Http2Settings;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.shareddata.Shareable;
@@ -77,6 +106,42 @@ public class Configuration implements Shareable {
 
     public static final int DEFAULT_TILE_SIZE = 1024;
 
+    public static final int DEFAULT_TILE_CACHE_SIZE = 128; // in megabytes
+
+    public static final int DEFAULT_INFO_CACHE_SIZE = 16; // in megabytes
+
+    public static final String INFO_CACHE = "info-cache";
+
+    public static final int DEFAULT_MANIFEST_CACHE_SIZE = 64; // in megabytes
+
+    public static final String MANIFEST_CACHE = "manifest-cache";
+
+    public static final int DEFAULT_RASTER_POOL_SIZE = 64; // in megabytes
+
+    public static final String RASTER_POOL = "raster-pool";
+
+    public static final int DEFAULT_NEGATIVE_CACHE_TTL = 60; // in seconds
+
+    public static final int NEGATIVE_CACHE_MAX_ENTRIES = 100000;
+
+    public static final String LRU_CACHE_POLICY = "lru";
+
+    public static final String TINYLFU_CACHE_POLICY = "tinylfu";
+
+    public static final String CANONICAL_OFF = "off";
+
+    public static final String CANONICAL_REWRITE = "rewrite";
+
+    public static final String CANONICAL_REDIRECT = "redirect";
+
+    public static final int DEFAULT_HTTP2_MAX_STREAMS = 256;
+
+    public static final int DEFAULT_HTTP2_WINDOW_SIZE = 1024; // in kilobytes
+
+    public static final int DEFAULT_HTTP_INSTANCES = 1;
+
+    public static final int DEFAULT_TILE_STREAM_THRESHOLD = 512; // in megabytes
+
     public static final long DEFAULT_SESSION_TIMEOUT = 7200000L; // two hours
 
     public static final String TMP_DIR_PROPERTY = "java.io.tmpdir";
@@ -101,12 +166,43 @@ public class Configuration implements Shareable {
 
     private static final String HTTP = "http";
 
+    /* Used to estimate how many entries the tile cache's frequency sketch should be sized for */
+    private static final int AVERAGE_TILE_SIZE = 64 * 1024;
+
+    private static final int MIN_EXPECTED_TILES = 1024;
+
     private final int myPort;
 
     private final int myRedirectPort;
 
     private final int myTileSize;
 
+    private final boolean myDynamicImages;
+
+    private final boolean myNativeImages;
+
+    private final TileCache myTileCache;
+
+    private final NegativeCache myNegativeCache;
+
+    private final DocumentCache myInfoCache;
+
+    private final DocumentCache myManifestCache;
+
+    private final RasterPool myRasterPool;
+
+    private final String myCanonicalRequests;
+
+    private final boolean myHttp2;
+
+    private final Http2Settings myHttp2Settings;
+
+    private final int myHttpInstances;
+
+    private final int myTileStreamThreshold;
+
+    private final Map<String, EncodingProfile> myEncodingProfiles;
+
     private final String myHost;
 
     private final String myServicePrefix;
@@ -117,6 +213,12 @@ public class Configuration implements Shareable {
 
     private URL mySolrServer;
 
+    private boolean myDataDirsAreFileSystem;
+
+    private S3Client myS3Client;
+
+    private String myS3Bucket;
+
     private final String myURLScheme;
 
     private final String myGoogleClientID;
@@ -152,6 +254,20 @@ public class Configuration implements Shareable {
         myRedirectPort = setRedirectPort(aConfig);
         myHost = setHost(aConfig);
         myTileSize = setTileSize(aConfig);
+        myDynamicImages = setDynamicImages(aConfig);
+        myNativeImages = setNativeImages(aConfig);
+        myTileCache = setTileCache(aConfig);
+        myNegativeCache = setNegativeCache(aConfig);
+        myInfoCache = setDocumentCache(aConfig, INFO_CACHE, INFO_CACHE_SIZE_PROP, DEFAULT_INFO_CACHE_SIZE);
+        myManifestCache = setDocumentCache(aConfig, MANIFEST_CACHE, MANIFEST_CACHE_SIZE_PROP,
+                DEFAULT_MANIFEST_CACHE_SIZE);
+        myRasterPool = setRasterPool(aConfig);
+        myCanonicalRequests = setCanonicalRequests(aConfig);
+        myHttp2 = setHttp2(aConfig);
+        myHttp2Settings = setHttp2Settings(aConfig);
+        myHttpInstances = setHttpInstances(aConfig);
+        myTileStreamThreshold = setTileStreamThreshold(aConfig);
+        myEncodingProfiles = setEncodingProfiles(aConfig);
         myURLScheme = setURLScheme(aConfig);
         // TODO: Handle OAuth configs better than this
         myGoogleClientID = setGoogleClientID(aConfig);
@@ -334,6 +450,169 @@ public class Configuration implements Shareable {
         return myTileSize;
     }
 
+    /**
+     * Returns true if images that weren't pre-generated at ingest time should be created when they're requested.
+     *
+     * @return True if images should be created on demand; else, false
+     */
+    public boolean servesDynamicImages() {
+        return myDynamicImages;
+    }
+
+    /**
+     * Returns true if images are processed with native (OpenCV) image libraries rather than with Java's. This is only
+     * true if native image processing was configured and OpenCV's native library could be loaded. Native libraries
+     * process requests for a full image and rotations of stored derivatives; requests for a region of an image, and
+     * the tile pyramids created at ingest, are still decoded with Java's image libraries, which read only the parts of
+     * the source image that they need.
+     *
+     * @return True if images are processed with native image libraries; else, false
+     */
+    public boolean usesNativeImages() {
+        return myNativeImages;
+    }
+
+    /**
+     * Gets the in-memory cache of recently served tiles.
+     *
+     * @return The tile cache
+     */
+    public TileCache getTileCache() {
+        return myTileCache;
+    }
+
+    /**
+     * Gets the time-bounded record of images that were recently found to be missing.
+     *
+     * @return The negative cache
+     */
+    public NegativeCache getNegativeCache() {
+        return myNegativeCache;
+    }
+
+    /**
+     * Gets the cache of image info files that have been rendered for this server.
+     *
+     * @return The image info cache
+     */
+    public DocumentCache getInfoCache() {
+        return myInfoCache;
+    }
+
+    /**
+     * Gets the cache of manifests that have been rewritten for this server.
+     *
+     * @return The manifest cache
+     */
+    public DocumentCache getManifestCache() {
+        return myManifestCache;
+    }
+
+    /**
+     * Gets the pool of images and scratch arrays that Java's image processing reuses.
+     *
+     * @return The raster pool
+     */
+    public RasterPool getRasterPool() {
+        return myRasterPool;
+    }
+
+    /**
+     * Returns true if image requests should be rewritten internally to their canonical form.
+     *
+     * @return True if image requests should be rewritten to their canonical form; else, false
+     */
+    public boolean rewritesToCanonicalRequests() {
+        return CANONICAL_REWRITE.equals(myCanonicalRequests);
+    }
+
+    /**
+     * Returns true if image requests should be redirected to their canonical form.
+     *
+     * @return True if image requests should be redirected to their canonical form; else, false
+     */
+    public boolean redirectsToCanonicalRequests() {
+        return CANONICAL_REDIRECT.equals(myCanonicalRequests);
+    }
+
+    /**
+     * Returns true if HTTP/2 should be offered (through ALPN) to clients connecting over HTTPS.
+     *
+     * @return True if HTTP/2 should be offered to clients; else, false
+     */
+    public boolean usesHttp2() {
+        return myHttp2;
+    }
+
+    /**
+     * Gets the HTTP/2 settings the server advertises to its clients: the number of concurrent streams a client may
+     * open on a connection and the initial flow-control window of each stream. The window is the server's receive
+     * window; it limits how much a client may send on a stream before the server acknowledges it, not how much the
+     * server may send (which is limited by the windows the client advertises).
+     *
+     * @return The server's HTTP/2 settings
+     */
+    public Http2Settings getHttp2Settings() {
+        return myHttp2Settings;
+    }
+
+    /**
+     * Gets the size, in bytes, of the server's connection-level HTTP/2 flow-control window. It's large enough for
+     * every concurrent stream to fill its own window, so the connection's default 64 KB window doesn't hold back
+     * streams that each have room. Like the stream windows, it's the server's receive window.
+     *
+     * @return The size of the server's connection-level flow-control window
+     */
+    public int getHttp2ConnectionWindowSize() {
+        final long windowSize = myHttp2Settings.getMaxConcurrentStreams() * myHttp2Settings.getInitialWindowSize();
+
+        return (int) Math.min(Integer.MAX_VALUE, windowSize);
+    }
+
+    /**
+     * Gets the number of instances of the HTTP server verticle to deploy. Each instance shares the server's port and
+     * runs on its own event loop, so requests can be handled on more than one core.
+     *
+     * @return The number of HTTP server verticle instances to deploy
+     */
+    public int getHttpInstances() {
+        return myHttpInstances;
+    }
+
+    /**
+     * Gets the size, in megabytes of decoded pixels, above which a source image's tiles are streamed from the image
+     * file a band of rows at a time instead of being cut from the fully decoded image.
+     *
+     * @return The size above which a source image's tiles are streamed
+     */
+    public int getTileStreamThreshold() {
+        return myTileStreamThreshold;
+    }
+
+    /**
+     * Gets the named image encoding profile (i.e., {@link EncodingProfile#TILE}, {@link EncodingProfile#THUMBNAIL},
+     * or {@link EncodingProfile#FULL}). The tile profile is returned for names that aren't known.
+     *
+     * @param aName The name of an encoding profile
+     * @return The encoding profile
+     */
+    public EncodingProfile getEncodingProfile(final String aName) {
+        final EncodingProfile profile = aName == null ? null : myEncodingProfiles.get(aName);
+        return profile == null ? myEncodingProfiles.get(EncodingProfile.TILE) : profile;
+    }
+
+    /**
+     * Returns whether the tiles of an image with the supplied dimensions should be streamed from its source file.
+     *
+     * @param aWidth The width of the source image
+     * @param aHeight The height of the source image
+     * @return True if the image decodes to more than the tile streaming threshold; else, false
+     */
+    public boolean streamsTiles(final int aWidth, final int aHeight) {
+        // Decoded images take four bytes per pixel
+        return (long) aWidth * aHeight * 4 > (long) myTileStreamThreshold * 1024 * 1024;
+    }
+
     /**
      * Gets the port at which Jiiify has been configured to run.
      *
@@ -419,6 +698,36 @@ public class Configuration implements Shareable {
         return myUploadsDir;
     }
 
+    /**
+     * Returns true if the data directories are on the local file system, rather than in an S3 bucket.
+     *
+     * @return True if the data directories are on the local file system; else, false
+     */
+    public boolean hasFileSystemDataDirs() {
+        return myDataDirsAreFileSystem;
+    }
+
+    /**
+     * Gets a client for the S3 bucket that holds the data directories. This is used for requests, like ones for just
+     * an object's metadata, that the Pairtree doesn't support.
+     *
+     * @return A client for the data directories' S3 bucket, or null if the data directories are on the local file
+     *         system
+     */
+    public S3Client getS3Client() {
+        return myS3Client;
+    }
+
+    /**
+     * Gets the name of the S3 bucket that holds the data directories.
+     *
+     * @return The name of the data directories' S3 bucket, or null if the data directories are on the local file
+     *         system
+     */
+    public String getS3Bucket() {
+        return myS3Bucket;
+    }
+
     /**
      * Gets the default non-prefixed data directory.
      *
@@ -656,6 +965,381 @@ public class Configuration implements Shareable {
         return tileSize;
     }
 
+    /**
+     * Sets whether images that weren't pre-generated should be created on demand.
+     *
+     * @param aConfig A JsonObject with configuration information
+     */
+    private boolean setDynamicImages(final JsonObject aConfig) {
+        final Properties properties = System.getProperties();
+        final boolean dynamicImages;
+
+        // We'll give command line properties first priority then fall back to our JSON configuration
+        if (properties.containsKey(DYNAMIC_IMAGES_PROP)) {
+            LOGGER.debug(MessageCodes.DBG_111, DYNAMIC_IMAGES_PROP);
+            dynamicImages = Boolean.parseBoolean(properties.getProperty(DYNAMIC_IMAGES_PROP));
+        } else {
+            dynamicImages = aConfig.getBoolean(DYNAMIC_IMAGES_PROP, false);
+        }
+
+        LOGGER.info(MessageCodes.INFO_019, dynamicImages);
+        return dynamicImages;
+    }
+
+    /**
+     * Sets whether images should be processed with native (OpenCV) image libraries. If OpenCV's native library can't
+     * be loaded, images are processed with Java's image libraries instead.
+     *
+     * @param aConfig A JsonObject with configuration information
+     */
+    private boolean setNativeImages(final JsonObject aConfig) {
+        final Properties properties = System.getProperties();
+        final boolean nativeImages;
+
+        // We'll give command line properties first priority then fall back to our JSON configuration
+        if (properties.containsKey(NATIVE_IMAGES_PROP)) {
+            LOGGER.debug(MessageCodes.DBG_111, NATIVE_IMAGES_PROP);
+            nativeImages = Boolean.parseBoolean(properties.getProperty(NATIVE_IMAGES_PROP));
+        } else {
+            nativeImages = aConfig.getBoolean(NATIVE_IMAGES_PROP, false);
+        }
+
+        ImageUtils.useNativeLibs(nativeImages);
+
+        LOGGER.info(MessageCodes.INFO_029, ImageUtils.useNativeLibs());
+        return ImageUtils.useNativeLibs();
+    }
+
+    /**
+     * Sets up the in-memory tile cache. Its size is configured in megabytes; a size of zero turns the cache off.
+     *
+     * @param aConfig A JsonObject with configuration information
+     */
+    private TileCache setTileCache(final JsonObject aConfig) {
+        final Properties properties = System.getProperties();
+        final EvictionPolicy policy;
+        final long maxBytes;
+
+        String policyName;
+        int cacheSize;
+
+        try {
+            // We'll give command line properties first priority then fall back to our JSON configuration
+            if (properties.containsKey(TILE_CACHE_SIZE_PROP)) {
+                LOGGER.debug(MessageCodes.DBG_111, TILE_CACHE_SIZE_PROP);
+                cacheSize = Integer.parseInt(properties.getProperty(TILE_CACHE_SIZE_PROP));
+            } else {
+                cacheSize = aConfig.getInteger(TILE_CACHE_SIZE_PROP, DEFAULT_TILE_CACHE_SIZE);
+            }
+        } catch (final NumberFormatException | ClassCastException details) {
+            LOGGER.warn(MessageCodes.WARN_026, DEFAULT_TILE_CACHE_SIZE);
+            cacheSize = DEFAULT_TILE_CACHE_SIZE;
+        }
+
+        if (properties.containsKey(TILE_CACHE_POLICY_PROP)) {
+            LOGGER.debug(MessageCodes.DBG_111, TILE_CACHE_POLICY_PROP);
+            policyName = properties.getProperty(TILE_CACHE_POLICY_PROP);
+        } else {
+            policyName = aConfig.getString(TILE_CACHE_POLICY_PROP, TINYLFU_CACHE_POLICY);
+        }
+
+        maxBytes = Math.max(0, cacheSize) * 1024L * 1024L;
+
+        if (LRU_CACHE_POLICY.equalsIgnoreCase(policyName)) {
+            policy = new LRUEvictionPolicy();
+        } else {
+            if (!TINYLFU_CACHE_POLICY.equalsIgnoreCase(policyName)) {
+                LOGGER.warn(MessageCodes.WARN_026, TINYLFU_CACHE_POLICY);
+                policyName = TINYLFU_CACHE_POLICY;
+            }
+
+            policy = new TinyLFUEvictionPolicy((int) Math.max(MIN_EXPECTED_TILES, maxBytes / AVERAGE_TILE_SIZE));
+        }
+
+        LOGGER.info(MessageCodes.INFO_020, Math.max(0, cacheSize), policyName.toLowerCase());
+        return new TileCache(maxBytes, policy);
+    }
+
+    /**
+     * Sets up the negative cache. Its time to live is configured in seconds; a time to live of zero turns it off.
+     *
+     * @param aConfig A JsonObject with configuration information
+     */
+    private NegativeCache setNegativeCache(final JsonObject aConfig) {
+        final Properties properties = System.getProperties();
+
+        int timeToLive;
+
+        try {
+            // We'll give command line properties first priority then fall back to our JSON configuration
+            if (properties.containsKey(NEGATIVE_CACHE_TTL_PROP)) {
+                LOGGER.debug(MessageCodes.DBG_111, NEGATIVE_CACHE_TTL_PROP);
+                timeToLive = Integer.parseInt(properties.getProperty(NEGATIVE_CACHE_TTL_PROP));
+            } else {
+                timeToLive = aConfig.getInteger(NEGATIVE_CACHE_TTL_PROP, DEFAULT_NEGATIVE_CACHE_TTL);
+            }
+        } catch (final NumberFormatException | ClassCastException details) {
+            LOGGER.warn(MessageCodes.WARN_027, DEFAULT_NEGATIVE_CACHE_TTL);
+            timeToLive = DEFAULT_NEGATIVE_CACHE_TTL;
+        }
+
+        timeToLive = Math.max(0, timeToLive);
+
+        LOGGER.info(MessageCodes.INFO_021, timeToLive);
+        return new NegativeCache(TimeUnit.SECONDS.toMillis(timeToLive), NEGATIVE_CACHE_MAX_ENTRIES);
+    }
+
+    /**
+     * Sets up a cache of rendered JSON documents. Its size is configured in megabytes; a size of zero turns it off.
+     *
+     * @param aConfig A JsonObject with configuration information
+     * @param aName The name of the cache
+     * @param aProperty The property that configures the cache's size
+     * @param aDefaultSize The default size of the cache
+     */
+    private DocumentCache setDocumentCache(final JsonObject aConfig, final String aName, final String aProperty,
+            final int aDefaultSize) {
+        final Properties properties = System.getProperties();
+
+        int cacheSize;
+
+        try {
+            // We'll give command line properties first priority then fall back to our JSON configuration
+            if (properties.containsKey(aProperty)) {
+                LOGGER.debug(MessageCodes.DBG_111, aProperty);
+                cacheSize = Integer.parseInt(properties.getProperty(aProperty));
+            } else {
+                cacheSize = aConfig.getInteger(aProperty, aDefaultSize);
+            }
+        } catch (final NumberFormatException | ClassCastException details) {
+            LOGGER.warn(MessageCodes.WARN_032, aName, aDefaultSize);
+            cacheSize = aDefaultSize;
+        }
+
+        cacheSize = Math.max(0, cacheSize);
+
+        LOGGER.info(MessageCodes.INFO_025, aName, cacheSize);
+        return new DocumentCache(aName, cacheSize * 1024L * 1024L);
+    }
+
+    /**
+     * Sets the size of the shared raster pool. Its size is configured in megabytes; a size of zero turns it off.
+     *
+     * @param aConfig A JsonObject with configuration information
+     */
+    private RasterPool setRasterPool(final JsonObject aConfig) {
+        final Properties properties = System.getProperties();
+        final RasterPool rasterPool = RasterPool.getShared();
+
+        int poolSize;
+
+        try {
+            // We'll give command line properties first priority then fall back to our JSON configuration
+            if (properties.containsKey(RASTER_POOL_SIZE_PROP)) {
+                LOGGER.debug(MessageCodes.DBG_111, RASTER_POOL_SIZE_PROP);
+                poolSize = Integer.parseInt(properties.getProperty(RASTER_POOL_SIZE_PROP));
+            } else {
+                poolSize = aConfig.getInteger(RASTER_POOL_SIZE_PROP, DEFAULT_RASTER_POOL_SIZE);
+            }
+        } catch (final NumberFormatException | ClassCastException details) {
+            LOGGER.warn(MessageCodes.WARN_032, RASTER_POOL, DEFAULT_RASTER_POOL_SIZE);
+            poolSize = DEFAULT_RASTER_POOL_SIZE;
+        }
+
+        poolSize = Math.max(0, poolSize);
+        rasterPool.setMaxSize(poolSize * 1024L * 1024L);
+
+        LOGGER.info(MessageCodes.INFO_030, poolSize);
+        return rasterPool;
+    }
+
+    /**
+     * Sets how non-canonical image requests are handled: <code>off</code> (served as requested),
+     * <code>rewrite</code> (served from their canonical form), or <code>redirect</code> (redirected to their
+     * canonical form).
+     *
+     * @param aConfig A JsonObject with configuration information
+     */
+    private String setCanonicalRequests(final JsonObject aConfig) {
+        final Properties properties = System.getProperties();
+
+        String canonicalRequests;
+
+        // We'll give command line properties first priority then fall back to our JSON configuration
+        if (properties.containsKey(CANONICAL_REQUESTS_PROP)) {
+            LOGGER.debug(MessageCodes.DBG_111, CANONICAL_REQUESTS_PROP);
+            canonicalRequests = properties.getProperty(CANONICAL_REQUESTS_PROP);
+        } else {
+            canonicalRequests = aConfig.getString(CANONICAL_REQUESTS_PROP, CANONICAL_OFF);
+        }
+
+        canonicalRequests = canonicalRequests.trim().toLowerCase();
+
+        if (!CANONICAL_REWRITE.equals(canonicalRequests) && !CANONICAL_REDIRECT.equals(canonicalRequests) &&
+                !CANONICAL_OFF.equals(canonicalRequests)) {
+            LOGGER.warn(MessageCodes.WARN_028, CANONICAL_OFF);
+            canonicalRequests = CANONICAL_OFF;
+        }
+
+        LOGGER.info(MessageCodes.INFO_022, canonicalRequests);
+        return canonicalRequests;
+    }
+
+    private boolean setHttp2(final JsonObject aConfig) {
+        final Properties properties = System.getProperties();
+
+        // We'll give command line properties first priority then fall back to our JSON configuration
+        if (properties.containsKey(HTTP2_PROP)) {
+            LOGGER.debug(MessageCodes.DBG_111, HTTP2_PROP);
+            return Boolean.parseBoolean(properties.getProperty(HTTP2_PROP));
+        } else {
+            return aConfig.getBoolean(HTTP2_PROP, false);
+        }
+    }
+
+    /**
+     * Sets up the HTTP/2 settings. A viewer requests many tiles at once, so we allow more concurrent streams than
+     * the HTTP/2 default and a larger initial stream flow-control window (configured in kilobytes). The window is
+     * how much a client may send on each stream before the server acknowledges it.
+     *
+     * @param aConfig A JsonObject with configuration information
+     */
+    private Http2Settings setHttp2Settings(final JsonObject aConfig) {
+        final Properties properties = System.getProperties();
+
+        int maxStreams;
+        int windowSize;
+
+        try {
+            // We'll give command line properties first priority then fall back to our JSON configuration
+            if (properties.containsKey(HTTP2_MAX_STREAMS_PROP)) {
+                LOGGER.debug(MessageCodes.DBG_111, HTTP2_MAX_STREAMS_PROP);
+                maxStreams = Integer.parseInt(properties.getProperty(HTTP2_MAX_STREAMS_PROP));
+            } else {
+                maxStreams = aConfig.getInteger(HTTP2_MAX_STREAMS_PROP, DEFAULT_HTTP2_MAX_STREAMS);
+            }
+        } catch (final NumberFormatException | ClassCastException details) {
+            maxStreams = 0;
+        }
+
+        if (maxStreams < 1) {
+            LOGGER.warn(MessageCodes.WARN_030, DEFAULT_HTTP2_MAX_STREAMS);
+            maxStreams = DEFAULT_HTTP2_MAX_STREAMS;
+        }
+
+        try {
+            if (properties.containsKey(HTTP2_WINDOW_SIZE_PROP)) {
+                LOGGER.debug(MessageCodes.DBG_111, HTTP2_WINDOW_SIZE_PROP);
+                windowSize = Integer.parseInt(properties.getProperty(HTTP2_WINDOW_SIZE_PROP));
+            } else {
+                windowSize = aConfig.getInteger(HTTP2_WINDOW_SIZE_PROP, DEFAULT_HTTP2_WINDOW_SIZE);
+            }
+        } catch (final NumberFormatException | ClassCastException details) {
+            windowSize = 0;
+        }
+
+        // HTTP/2 windows are at least the protocol's default (64 KB) and can't be larger than 2^31-1 bytes
+        if (windowSize < 64 || windowSize > Integer.MAX_VALUE / 1024) {
+            LOGGER.warn(MessageCodes.WARN_030, DEFAULT_HTTP2_WINDOW_SIZE);
+            windowSize = DEFAULT_HTTP2_WINDOW_SIZE;
+        }
+
+        LOGGER.info(MessageCodes.INFO_023, myHttp2, maxStreams, windowSize);
+        return new Http2Settings().setMaxConcurrentStreams(maxStreams).setInitialWindowSize(windowSize * 1024);
+    }
+
+    private int setHttpInstances(final JsonObject aConfig) {
+        final Properties properties = System.getProperties();
+
+        int instances;
+
+        try {
+            // We'll give command line properties first priority then fall back to our JSON configuration
+            if (properties.containsKey(HTTP_INSTANCES_PROP)) {
+                LOGGER.debug(MessageCodes.DBG_111, HTTP_INSTANCES_PROP);
+                instances = Integer.parseInt(properties.getProperty(HTTP_INSTANCES_PROP));
+            } else {
+                instances = aConfig.getInteger(HTTP_INSTANCES_PROP, DEFAULT_HTTP_INSTANCES);
+            }
+        } catch (final NumberFormatException | ClassCastException details) {
+            instances = 0;
+        }
+
+        if (instances < 1) {
+            LOGGER.warn(MessageCodes.WARN_033, DEFAULT_HTTP_INSTANCES);
+            instances = DEFAULT_HTTP_INSTANCES;
+        }
+
+        LOGGER.info(MessageCodes.INFO_026, instances);
+        return instances;
+    }
+
+    private int setTileStreamThreshold(final JsonObject aConfig) {
+        final Properties properties = System.getProperties();
+
+        int threshold;
+
+        try {
+            // We'll give command line properties first priority then fall back to our JSON configuration
+            if (properties.containsKey(TILE_STREAM_THRESHOLD_PROP)) {
+                LOGGER.debug(MessageCodes.DBG_111, TILE_STREAM_THRESHOLD_PROP);
+                threshold = Integer.parseInt(properties.getProperty(TILE_STREAM_THRESHOLD_PROP));
+            } else {
+                threshold = aConfig.getInteger(TILE_STREAM_THRESHOLD_PROP, DEFAULT_TILE_STREAM_THRESHOLD);
+            }
+        } catch (final NumberFormatException | ClassCastException details) {
+            threshold = -1;
+        }
+
+        if (threshold < 0) {
+            LOGGER.warn(MessageCodes.WARN_034, DEFAULT_TILE_STREAM_THRESHOLD);
+            threshold = DEFAULT_TILE_STREAM_THRESHOLD;
+        }
+
+        LOGGER.info(MessageCodes.INFO_027, threshold);
+        return threshold;
+    }
+
+    private Map<String, EncodingProfile> setEncodingProfiles(final JsonObject aConfig) {
+        final Map<String, EncodingProfile> profiles = new HashMap<>();
+        final EncodingProfile[] defaults = { EncodingProfile.DEFAULT_TILE, EncodingProfile.DEFAULT_THUMBNAIL,
+            EncodingProfile.DEFAULT_FULL };
+
+        JsonObject config;
+
+        try {
+            config = aConfig.getJsonObject(ENCODING_PROFILES_PROP, new JsonObject());
+        } catch (final ClassCastException details) {
+            LOGGER.warn(MessageCodes.WARN_035, ENCODING_PROFILES_PROP, Arrays.toString(defaults));
+            config = new JsonObject();
+        }
+
+        for (final EncodingProfile defaultProfile : defaults) {
+            final String name = defaultProfile.getName();
+
+            EncodingProfile profile;
+
+            // Settings that aren't configured are taken from the profile's default settings
+            try {
+                final JsonObject settings = config.getJsonObject(name, new JsonObject());
+                final float quality = settings.getFloat("quality", defaultProfile.getQuality());
+                final boolean progressive = settings.getBoolean("progressive", defaultProfile.isProgressive());
+                final String subsampling = settings.getString("subsampling", defaultProfile.getSubsampling());
+                final boolean optimized = settings.getBoolean("optimize", defaultProfile.isOptimized());
+
+                profile = new EncodingProfile(name, quality, progressive, subsampling, optimized);
+            } catch (final ClassCastException | IllegalArgumentException details) {
+                LOGGER.warn(MessageCodes.WARN_035, name, defaultProfile);
+                profile = defaultProfile;
+            }
+
+            LOGGER.info(MessageCodes.INFO_028, profile);
+            profiles.put(name, profile);
+        }
+
+        return Collections.unmodifiableMap(profiles);
+    }
+
     private String setServicePrefix(final JsonObject aConfig) {
         final Properties properties = System.getProperties();
 
@@ -765,13 +1449,18 @@ public class Configuration implements Shareable {
             if (s3Endpoint == null) {
                 pairtree = PairtreeFactory.getFactory(myVertx, S3Bucket).getPairtree(location, awsAccessKey,
                         awsSecretKey);
+                myS3Client = new S3Client(myVertx, awsAccessKey, awsSecretKey);
             } else {
                 LOGGER.info(MessageCodes.INFO_016, s3Endpoint);
                 pairtree = PairtreeFactory.getFactory(myVertx, S3Bucket).getPairtree(location, awsAccessKey,
                         awsSecretKey, s3Endpoint);
+                myS3Client = new S3Client(myVertx, awsAccessKey, awsSecretKey, s3Endpoint);
             }
+
+            myS3Bucket = location;
         } else {
             pairtree = PairtreeFactory.getFactory(myVertx).getPairtree(location);
+            myDataDirsAreFileSystem = true;
         }
 
         pairtree.create(handler -> {
@@ -24,6 +24,12 @@ public interface Constants {
 
     String JIIIFY_CORES_PROP = "jiiify.cores";
 
+    String HTTP_INSTANCES_PROP = "jiiify.http.instances";
+
+    String TILE_STREAM_THRESHOLD_PROP = "jiiify.tile.stream.threshold";
+
+    String ENCODING_PROFILES_PROP = "jiiify.encoding.profiles";
+
     String URL_SCHEME_PROP = "jiiify.url.scheme";
 
     String DATA_DIR_PROP = "jiiify.data.dir";
@@ -44,6 +50,30 @@ public interface Constants {
 
     String THUMBNAIL_SIZE_PROP = "jiiify.thumbnail.size";
 
+    String DYNAMIC_IMAGES_PROP = "jiiify.dynamic.images";
+
+    String NATIVE_IMAGES_PROP = "jiiify.native.images";
+
+    String TILE_CACHE_SIZE_PROP = "jiiify.tile.cache.size";
+
+    String TILE_CACHE_POLICY_PROP = "jiiify.tile.cache.policy";
+
+    String INFO_CACHE_SIZE_PROP = "jiiify.info.cache.size";
+
+    String MANIFEST_CACHE_SIZE_PROP = "jiiify.manifest.cache.size";
+
+    String NEGATIVE_CACHE_TTL_PROP = "jiiify.negative.cache.ttl";
+
+    String RASTER_POOL_SIZE_PROP = "jiiify.raster.pool.size";
+
+    String CANONICAL_REQUESTS_PROP = "jiiify.canonical.requests";
+
+    String HTTP2_PROP = "jiiify.http2";
+
+    String HTTP2_MAX_STREAMS_PROP = "jiiify.http2.max.streams";
+
+    String HTTP2_WINDOW_SIZE_PROP = "jiiify.http2.window.size";
+
     String KEY_PASS_PROP = "jiiify.key.pass";
 
     String JCEKS_PROP = "jiiify.jceks";
@@ -90,11 +120,19 @@ public interface Constants {
 
     String TILE_REQUEST_KEY = "jiiify.tile.request.id";
 
-    String IMAGE_BUFFER_KEY = "jiiify.image.buffer";
+    String INGEST_SESSIONS_KEY = "jiiify.ingest.sessions";
 
     String IMAGE_COUNTER_KEY = "jiiify.image.counter";
 
-    String IMAGE_TILE_COUNT = "jiiify.tile.count";
+    String TILE_PYRAMID_KEY = "jiiify.tile.pyramid";
+
+    String TILE_STREAM_KEY = "jiiify.tile.stream";
+
+    String ENCODING_PROFILE_KEY = "jiiify.encoding.profile";
+
+    String DYNAMIC_IMAGE_KEY = "jiiify.image.dynamic";
+
+    String DERIVATIVE_SOURCE_KEY = "jiiify.image.derivative";
 
     /* Message values */
 
@@ -102,6 +140,8 @@ public interface Constants {
 
     String FAILURE_RESPONSE = "failure";
 
+    String NOT_FOUND_RESPONSE = "not-found";
+
     /* Commonly used values */
 
     String SLASH = "/";
@@ -16,6 +16,22 @@ public interface Metadata {
 
     String CONTENT_DISPOSITION = "Content-Disposition";
 
+    String ETAG = "ETag";
+
+    String LAST_MODIFIED = "Last-Modified";
+
+    String IF_NONE_MATCH = "If-None-Match";
+
+    String IF_MODIFIED_SINCE = "If-Modified-Since";
+
+    String RANGE = "Range";
+
+    String IF_RANGE = "If-Range";
+
+    String ACCEPT_RANGES = "Accept-Ranges";
+
+    String CONTENT_RANGE = "Content-Range";
+
     String JSON_MIME_TYPE = "application/json";
 
     String TEXT_MIME_TYPE = "text/plain";
@@ -0,0 +1,176 @@
+
+package info.freelibrary.jiiify.cache;
+
+import static info.freelibrary.jiiify.Constants.METRICS_REG_PROP;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * An in-memory cache of rendered JSON documents (e.g., image info files and manifests), ready to be sent as they
+ * are. Each document is stored with the server it was rendered for and, when one is available, a validator for the
+ * stored file it was rendered from; a document rendered for another server or from an older file isn't returned.
+ * The cache is bounded by the total number of bytes it holds and evicts its least recently used documents.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class DocumentCache {
+
+    private final Map<String, Document> myDocuments = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final long myMaxSize;
+
+    private final Counter myHits;
+
+    private final Counter myMisses;
+
+    private long mySize;
+
+    /**
+     * Creates a document cache that reports to Jiiify's metrics registry.
+     *
+     * @param aName The name of the cache, used in the names of its metrics (e.g., "info-cache")
+     * @param aMaxSize The maximum number of bytes the cache should hold
+     */
+    public DocumentCache(final String aName, final long aMaxSize) {
+        this(aName, aMaxSize, SharedMetricRegistries.getOrCreate(METRICS_REG_PROP));
+    }
+
+    /**
+     * Creates a document cache that reports to the supplied metrics registry.
+     *
+     * @param aName The name of the cache, used in the names of its metrics (e.g., "info-cache")
+     * @param aMaxSize The maximum number of bytes the cache should hold
+     * @param aRegistry A metrics registry
+     */
+    public DocumentCache(final String aName, final long aMaxSize, final MetricRegistry aRegistry) {
+        final String sizeMetric = getMetricName(aName, "bytes");
+
+        myMaxSize = aMaxSize;
+        myHits = aRegistry.counter(getMetricName(aName, "hits"));
+        myMisses = aRegistry.counter(getMetricName(aName, "misses"));
+
+        // There is only one cache with a given name at a time so it replaces any previously registered size gauge
+        aRegistry.remove(sizeMetric);
+        aRegistry.register(sizeMetric, (Gauge<Long>) this::size);
+    }
+
+    /**
+     * Gets the name of one of a document cache's metrics.
+     *
+     * @param aName The name of the cache
+     * @param aMetric The metric (e.g., "hits" or "misses")
+     * @return The metric's name
+     */
+    public static String getMetricName(final String aName, final String aMetric) {
+        return "jiiify." + aName + "." + aMetric;
+    }
+
+    /**
+     * Gets a cached document. The returned buffer shares the cache's memory and must not be modified.
+     *
+     * @param aKey The key of the document
+     * @param aServer The server for which the document should have been rendered
+     * @param aValidator The validator of the stored file the document is rendered from, or null if none is available
+     * @return The cached document or null if there isn't a current one in the cache
+     */
+    public synchronized Buffer get(final String aKey, final String aServer, final String aValidator) {
+        final Document document = myDocuments.get(aKey);
+
+        if (document == null || !document.myServer.equals(aServer) ||
+                aValidator != null && !aValidator.equals(document.myValidator)) {
+            myMisses.inc();
+            return null;
+        }
+
+        myHits.inc();
+        return Buffer.buffer(Unpooled.wrappedBuffer(document.myBytes));
+    }
+
+    /**
+     * Puts a document into the cache, evicting the least recently used documents if needed to make room for it.
+     *
+     * @param aKey The key of the document
+     * @param aServer The server for which the document was rendered
+     * @param aValidator The validator of the stored file the document was rendered from, or null if none is available
+     * @param aDocument The rendered document
+     */
+    public synchronized void put(final String aKey, final String aServer, final String aValidator,
+            final Buffer aDocument) {
+        final Iterator<Document> iterator;
+
+        if (aDocument.length() > myMaxSize) {
+            return;
+        }
+
+        remove(aKey);
+
+        myDocuments.put(aKey, new Document(Objects.requireNonNull(aServer), aValidator, aDocument.getBytes()));
+        mySize += aDocument.length();
+        iterator = myDocuments.values().iterator();
+
+        while (mySize > myMaxSize && iterator.hasNext()) {
+            mySize -= iterator.next().myBytes.length;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Removes a document from the cache.
+     *
+     * @param aKey The key of the document
+     */
+    public synchronized void remove(final String aKey) {
+        final Document document = myDocuments.remove(aKey);
+
+        if (document != null) {
+            mySize -= document.myBytes.length;
+        }
+    }
+
+    /**
+     * Gets the number of bytes held in the cache.
+     *
+     * @return The number of bytes held in the cache
+     */
+    public synchronized long size() {
+        return mySize;
+    }
+
+    /**
+     * Returns whether the cache is configured to hold anything.
+     *
+     * @return True if the cache can hold documents; else, false
+     */
+    public boolean isEnabled() {
+        return myMaxSize > 0;
+    }
+
+    /**
+     * A rendered document, along with what it was rendered for and from.
+     */
+    private static final class Document {
+
+        private final String myServer;
+
+        private final String myValidator;
+
+        private final byte[] myBytes;
+
+        private Document(final String aServer, final String aValidator, final byte[] aBytes) {
+            myServer = aServer;
+            myValidator = aValidator;
+            myBytes = aBytes;
+        }
+    }
+}
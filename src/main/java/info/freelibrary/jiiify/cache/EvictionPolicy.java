@@ -0,0 +1,46 @@
+
+package info.freelibrary.jiiify.cache;
+
+/**
+ * A policy that decides which entry a {@link TileCache} should give up when it runs out of room.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public interface EvictionPolicy {
+
+    /**
+     * Records that a cached entry was requested.
+     *
+     * @param aKey The key of the requested entry
+     */
+    void onHit(String aKey);
+
+    /**
+     * Records that an entry was requested but wasn't in the cache.
+     *
+     * @param aKey The key of the requested entry
+     */
+    void onMiss(String aKey);
+
+    /**
+     * Records that an entry was added to the cache.
+     *
+     * @param aKey The key of the added entry
+     */
+    void onAdd(String aKey);
+
+    /**
+     * Records that an entry was removed from the cache.
+     *
+     * @param aKey The key of the removed entry
+     */
+    void onRemove(String aKey);
+
+    /**
+     * Gets the key of the entry that should be evicted next.
+     *
+     * @return The key of the entry that should be evicted next or null if the policy isn't tracking any entries
+     */
+    String nextVictim();
+
+}
@@ -0,0 +1,105 @@
+
+package info.freelibrary.jiiify.cache;
+
+/**
+ * A count-min sketch that estimates how often keys have been seen. Counts are halved periodically so that the sketch
+ * reflects recent popularity rather than all-time popularity.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+final class FrequencySketch {
+
+    private static final int[] SEEDS = { 0x97cb3127, 0xb7e15162, 0x3c6ef372, 0xa54ff53a };
+
+    private static final int MAX_COUNT = 15;
+
+    private static final int SAMPLE_MULTIPLIER = 10;
+
+    private final int[][] myCounts;
+
+    private final int myMask;
+
+    private final int mySampleSize;
+
+    private int myAdditions;
+
+    /**
+     * Creates a frequency sketch sized for the supplied number of entries.
+     *
+     * @param aExpectedEntries The number of entries the sketch is expected to track
+     */
+    FrequencySketch(final int aExpectedEntries) {
+        final int width = Integer.highestOneBit(Math.max(aExpectedEntries, 16) - 1) << 1;
+
+        myCounts = new int[SEEDS.length][width];
+        myMask = width - 1;
+        mySampleSize = SAMPLE_MULTIPLIER * width;
+    }
+
+    /**
+     * Increments the estimated frequency of the supplied key.
+     *
+     * @param aKey A key
+     */
+    void increment(final String aKey) {
+        final int hash = spread(aKey.hashCode());
+
+        boolean added = false;
+
+        for (int row = 0; row < SEEDS.length; row++) {
+            final int index = indexOf(hash, row);
+
+            if (myCounts[row][index] < MAX_COUNT) {
+                myCounts[row][index]++;
+                added = true;
+            }
+        }
+
+        if (added && (++myAdditions >= mySampleSize)) {
+            reset();
+        }
+    }
+
+    /**
+     * Gets the estimated frequency of the supplied key.
+     *
+     * @param aKey A key
+     * @return The estimated frequency of the key
+     */
+    int frequency(final String aKey) {
+        final int hash = spread(aKey.hashCode());
+
+        int frequency = MAX_COUNT;
+
+        for (int row = 0; row < SEEDS.length; row++) {
+            frequency = Math.min(frequency, myCounts[row][indexOf(hash, row)]);
+        }
+
+        return frequency;
+    }
+
+    /* Ages the sketch by halving all of its counts */
+    private void reset() {
+        for (final int[] row : myCounts) {
+            for (int index = 0; index < row.length; index++) {
+                row[index] >>>= 1;
+            }
+        }
+
+        myAdditions /= 2;
+    }
+
+    private int indexOf(final int aHash, final int aRow) {
+        int hash = (aHash + SEEDS[aRow]) * SEEDS[aRow];
+
+        hash += hash >>> 16;
+        return hash & myMask;
+    }
+
+    private static int spread(final int aHashCode) {
+        int hash = ((aHashCode >>> 16) ^ aHashCode) * 0x45d9f3b;
+
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
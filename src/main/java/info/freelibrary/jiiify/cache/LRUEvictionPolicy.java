@@ -0,0 +1,46 @@
+
+package info.freelibrary.jiiify.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * An eviction policy that evicts the least recently used entry.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class LRUEvictionPolicy implements EvictionPolicy {
+
+    /* Keys are kept in order from least to most recently used */
+    private final LinkedHashSet<String> myKeys = new LinkedHashSet<>();
+
+    @Override
+    public void onHit(final String aKey) {
+        if (myKeys.remove(aKey)) {
+            myKeys.add(aKey);
+        }
+    }
+
+    @Override
+    public void onMiss(final String aKey) {
+        // Misses don't change recency
+    }
+
+    @Override
+    public void onAdd(final String aKey) {
+        myKeys.remove(aKey);
+        myKeys.add(aKey);
+    }
+
+    @Override
+    public void onRemove(final String aKey) {
+        myKeys.remove(aKey);
+    }
+
+    @Override
+    public String nextVictim() {
+        final Iterator<String> iterator = myKeys.iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+}
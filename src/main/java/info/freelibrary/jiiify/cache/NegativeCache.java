@@ -0,0 +1,139 @@
+
+package info.freelibrary.jiiify.cache;
+
+import static info.freelibrary.jiiify.Constants.METRICS_REG_PROP;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+
+/**
+ * A time-bounded record of images that were recently requested but aren't in the Pairtree. Requests for them can
+ * then be turned away without another trip to storage. The record is exact (there are no false positives), it's
+ * bounded in the number of entries it holds, and entries are forgotten after a configured time to live.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class NegativeCache {
+
+    /**
+     * The name of the metric that counts requests that were turned away because of the negative cache.
+     */
+    public static final String HITS_METRIC = "jiiify.negative-cache.hits";
+
+    private final Map<String, Long> myEntries;
+
+    private final long myTimeToLive;
+
+    private final Counter myHits;
+
+    /**
+     * Creates a negative cache that reports to Jiiify's metrics registry.
+     *
+     * @param aTimeToLive How long, in milliseconds, a missing image is remembered
+     * @param aMaxEntries The maximum number of missing images that are remembered
+     */
+    public NegativeCache(final long aTimeToLive, final int aMaxEntries) {
+        this(aTimeToLive, aMaxEntries, SharedMetricRegistries.getOrCreate(METRICS_REG_PROP));
+    }
+
+    /**
+     * Creates a negative cache that reports to the supplied metrics registry.
+     *
+     * @param aTimeToLive How long, in milliseconds, a missing image is remembered
+     * @param aMaxEntries The maximum number of missing images that are remembered
+     * @param aRegistry A metrics registry
+     */
+    public NegativeCache(final long aTimeToLive, final int aMaxEntries, final MetricRegistry aRegistry) {
+        myTimeToLive = TimeUnit.MILLISECONDS.toNanos(aTimeToLive);
+        myHits = aRegistry.counter(HITS_METRIC);
+        myEntries = new LinkedHashMap<String, Long>() {
+
+            /**
+             * The <code>serialVersionUID</code> for this map.
+             */
+            private static final long serialVersionUID = -1904434208454254395L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Long> aEldest) {
+                return size() > aMaxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns whether the image with the supplied key was recently found to be missing.
+     *
+     * @param aKey The key of an image
+     * @return True if the image is known to be missing; else, false
+     */
+    public synchronized boolean contains(final String aKey) {
+        final Long expiration = myEntries.get(aKey);
+
+        if (expiration == null) {
+            return false;
+        } else if (expiration - System.nanoTime() <= 0) {
+            myEntries.remove(aKey);
+            return false;
+        }
+
+        myHits.inc();
+        return true;
+    }
+
+    /**
+     * Records that the image with the supplied key is missing.
+     *
+     * @param aKey The key of an image
+     */
+    public synchronized void add(final String aKey) {
+        if (isEnabled()) {
+            // Re-adding moves the key to the end of the eviction order
+            myEntries.remove(aKey);
+            myEntries.put(aKey, System.nanoTime() + myTimeToLive);
+            purgeExpired();
+        }
+    }
+
+    /**
+     * Forgets that the image with the supplied key is missing (e.g., because it has just been created).
+     *
+     * @param aKey The key of an image
+     */
+    public synchronized void remove(final String aKey) {
+        myEntries.remove(aKey);
+    }
+
+    /**
+     * Gets the number of missing images that are remembered.
+     *
+     * @return The number of missing images that are remembered
+     */
+    public synchronized int size() {
+        return myEntries.size();
+    }
+
+    /**
+     * Returns whether the negative cache is configured to remember anything.
+     *
+     * @return True if missing images are remembered; else, false
+     */
+    public boolean isEnabled() {
+        return myTimeToLive > 0;
+    }
+
+    /* Entries are in expiration order, so we only have to look until we find one that hasn't expired */
+    private void purgeExpired() {
+        final Iterator<Long> iterator = myEntries.values().iterator();
+        final long now = System.nanoTime();
+
+        while (iterator.hasNext() && iterator.next() - now <= 0) {
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,245 @@
+
+package info.freelibrary.jiiify.cache;
+
+import static info.freelibrary.jiiify.Constants.MESSAGES;
+import static info.freelibrary.jiiify.Constants.METRICS_REG_PROP;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+
+import info.freelibrary.jiiify.MessageCodes;
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * An in-memory cache of recently served tiles. Tile bytes are kept in direct buffers, outside of the Java heap, and
+ * the cache is bounded by the total number of bytes it holds. What gets evicted when it's full is decided by an
+ * {@link EvictionPolicy}.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class TileCache {
+
+    /**
+     * The name of the metric that counts cache hits.
+     */
+    public static final String HITS_METRIC = "jiiify.tile-cache.hits";
+
+    /**
+     * The name of the metric that counts cache misses.
+     */
+    public static final String MISSES_METRIC = "jiiify.tile-cache.misses";
+
+    /**
+     * The name of the metric that counts cache evictions.
+     */
+    public static final String EVICTIONS_METRIC = "jiiify.tile-cache.evictions";
+
+    /**
+     * The name of the metric that reports the number of bytes in the cache.
+     */
+    public static final String SIZE_METRIC = "jiiify.tile-cache.bytes";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TileCache.class, MESSAGES);
+
+    /* A single entry isn't allowed to take more than this fraction of the cache (e.g., large full-size images) */
+    private static final int MAX_ENTRY_FRACTION = 8;
+
+    private final Map<String, ByteBuffer> myEntries = new HashMap<>();
+
+    /* When the cached tiles were last modified in storage, so cache hits have the same validators as other reads */
+    private final Map<String, Long> myLastModified = new HashMap<>();
+
+    private final EvictionPolicy myPolicy;
+
+    private final long myMaxSize;
+
+    private final Counter myHits;
+
+    private final Counter myMisses;
+
+    private final Counter myEvictions;
+
+    private long mySize;
+
+    /**
+     * Creates a tile cache that reports to Jiiify's metrics registry.
+     *
+     * @param aMaxSize The maximum number of bytes the cache should hold
+     * @param aPolicy The policy that decides what to evict when the cache is full
+     */
+    public TileCache(final long aMaxSize, final EvictionPolicy aPolicy) {
+        this(aMaxSize, aPolicy, SharedMetricRegistries.getOrCreate(METRICS_REG_PROP));
+    }
+
+    /**
+     * Creates a tile cache that reports to the supplied metrics registry.
+     *
+     * @param aMaxSize The maximum number of bytes the cache should hold
+     * @param aPolicy The policy that decides what to evict when the cache is full
+     * @param aRegistry A metrics registry
+     */
+    public TileCache(final long aMaxSize, final EvictionPolicy aPolicy, final MetricRegistry aRegistry) {
+        myMaxSize = aMaxSize;
+        myPolicy = aPolicy;
+        myHits = aRegistry.counter(HITS_METRIC);
+        myMisses = aRegistry.counter(MISSES_METRIC);
+        myEvictions = aRegistry.counter(EVICTIONS_METRIC);
+
+        // There is only one tile cache at a time so it replaces any previously registered size gauge
+        aRegistry.remove(SIZE_METRIC);
+        aRegistry.register(SIZE_METRIC, (Gauge<Long>) this::size);
+    }
+
+    /**
+     * Gets a cached tile. The returned buffer shares the cache's memory and must not be modified.
+     *
+     * @param aKey The key of the tile
+     * @return The cached tile or null if it isn't in the cache
+     */
+    public synchronized Buffer get(final String aKey) {
+        final ByteBuffer bytes = myEntries.get(aKey);
+
+        if (bytes == null) {
+            myPolicy.onMiss(aKey);
+            myMisses.inc();
+
+            return null;
+        }
+
+        myPolicy.onHit(aKey);
+        myHits.inc();
+
+        return Buffer.buffer(Unpooled.wrappedBuffer(bytes.duplicate()));
+    }
+
+    /**
+     * Gets the time a cached tile was last modified in storage (without counting as a request for it).
+     *
+     * @param aKey The key of the tile
+     * @return The time, in milliseconds since the epoch, the tile was last modified, or -1 if it isn't known
+     */
+    public synchronized long getLastModified(final String aKey) {
+        return myLastModified.getOrDefault(aKey, -1L);
+    }
+
+    /**
+     * Puts a tile, whose last modified time isn't known, into the cache, evicting others if needed to make room for
+     * it.
+     *
+     * @param aKey The key of the tile
+     * @param aTile The tile's bytes
+     */
+    public void put(final String aKey, final Buffer aTile) {
+        put(aKey, aTile, -1);
+    }
+
+    /**
+     * Puts a tile into the cache, evicting others if needed to make room for it.
+     *
+     * @param aKey The key of the tile
+     * @param aTile The tile's bytes
+     * @param aLastModified The time, in milliseconds since the epoch, the tile was last modified in storage, or -1 if
+     *        it isn't known
+     */
+    public synchronized void put(final String aKey, final Buffer aTile, final long aLastModified) {
+        final int length = aTile.length();
+        final ByteBuffer bytes;
+
+        if (length > (myMaxSize / MAX_ENTRY_FRACTION)) {
+            return;
+        }
+
+        bytes = ByteBuffer.allocateDirect(length);
+        aTile.getByteBuf().getBytes(0, bytes);
+        bytes.flip();
+
+        remove(aKey);
+
+        myEntries.put(aKey, bytes);
+
+        if (aLastModified >= 0) {
+            myLastModified.put(aKey, aLastModified);
+        }
+
+        myPolicy.onAdd(aKey);
+        mySize += length;
+
+        while (mySize > myMaxSize) {
+            final String victim = myPolicy.nextVictim();
+
+            if (victim == null) {
+                break;
+            }
+
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(MessageCodes.DBG_122, victim);
+            }
+
+            remove(victim);
+            myEvictions.inc();
+        }
+    }
+
+    /**
+     * Removes a tile from the cache.
+     *
+     * @param aKey The key of the tile
+     */
+    public synchronized void remove(final String aKey) {
+        final ByteBuffer bytes = myEntries.remove(aKey);
+
+        myLastModified.remove(aKey);
+
+        if (bytes != null) {
+            myPolicy.onRemove(aKey);
+            mySize -= bytes.capacity();
+        }
+    }
+
+    /**
+     * Returns whether a tile is in the cache (without counting as a request for it).
+     *
+     * @param aKey The key of the tile
+     * @return True if the tile is in the cache; else, false
+     */
+    public synchronized boolean contains(final String aKey) {
+        return myEntries.containsKey(aKey);
+    }
+
+    /**
+     * Gets the number of bytes held in the cache.
+     *
+     * @return The number of bytes held in the cache
+     */
+    public synchronized long size() {
+        return mySize;
+    }
+
+    /**
+     * Gets the maximum number of bytes the cache will hold.
+     *
+     * @return The maximum number of bytes the cache will hold
+     */
+    public long getMaxSize() {
+        return myMaxSize;
+    }
+
+    /**
+     * Returns whether the cache is configured to hold anything.
+     *
+     * @return True if the cache can hold tiles; else, false
+     */
+    public boolean isEnabled() {
+        return myMaxSize > 0;
+    }
+}
@@ -0,0 +1,129 @@
+
+package info.freelibrary.jiiify.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * A W-TinyLFU eviction policy. New entries go into a small LRU window and then into the probationary part of a
+ * segmented LRU main space; entries that are requested again while on probation are promoted to its protected part.
+ * When something must be evicted, the oldest newcomer to the main space competes with the least recently used entry
+ * on probation and whichever has been requested less often, according to a frequency sketch, is evicted. This keeps
+ * one-time requests (e.g. a crawler walking every tile) from flushing out tiles that are popular.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class TinyLFUEvictionPolicy implements EvictionPolicy {
+
+    private static final float WINDOW_SHARE = 0.01f;
+
+    private static final float PROTECTED_SHARE = 0.8f;
+
+    private final FrequencySketch mySketch;
+
+    private final LinkedHashSet<String> myWindow = new LinkedHashSet<>();
+
+    private final LinkedHashSet<String> myProbation = new LinkedHashSet<>();
+
+    private final LinkedHashSet<String> myProtected = new LinkedHashSet<>();
+
+    /* Entries that have moved from the window to probation but haven't yet been requested again */
+    private final LinkedHashSet<String> myCandidates = new LinkedHashSet<>();
+
+    /**
+     * Creates a W-TinyLFU eviction policy sized for the supplied number of entries.
+     *
+     * @param aExpectedEntries The number of entries the cache is expected to hold
+     */
+    public TinyLFUEvictionPolicy(final int aExpectedEntries) {
+        mySketch = new FrequencySketch(aExpectedEntries);
+    }
+
+    @Override
+    public void onHit(final String aKey) {
+        mySketch.increment(aKey);
+
+        if (myWindow.remove(aKey)) {
+            myWindow.add(aKey);
+        } else if (myProbation.remove(aKey)) {
+            myCandidates.remove(aKey);
+            myProtected.add(aKey);
+
+            // Keep the protected segment from taking over the whole main space
+            while (myProtected.size() > Math.max(1, (int) (getMainSize() * PROTECTED_SHARE))) {
+                final String demoted = first(myProtected);
+
+                myProtected.remove(demoted);
+                myProbation.add(demoted);
+            }
+        } else if (myProtected.remove(aKey)) {
+            myProtected.add(aKey);
+        }
+    }
+
+    @Override
+    public void onMiss(final String aKey) {
+        mySketch.increment(aKey);
+    }
+
+    @Override
+    public void onAdd(final String aKey) {
+        onRemove(aKey);
+        myWindow.add(aKey);
+
+        // Entries that fall out of the window move to probation, where they'll have to compete to stay
+        while (myWindow.size() > Math.max(1, (int) (getSize() * WINDOW_SHARE))) {
+            final String candidate = first(myWindow);
+
+            myWindow.remove(candidate);
+            myProbation.add(candidate);
+            myCandidates.add(candidate);
+        }
+    }
+
+    @Override
+    public void onRemove(final String aKey) {
+        if (!myWindow.remove(aKey) && !myProbation.remove(aKey)) {
+            myProtected.remove(aKey);
+        }
+
+        myCandidates.remove(aKey);
+    }
+
+    @Override
+    public String nextVictim() {
+        final String candidate = first(myCandidates);
+        final String victim;
+
+        if (!myProbation.isEmpty()) {
+            victim = first(myProbation);
+        } else if (!myProtected.isEmpty()) {
+            victim = first(myProtected);
+        } else {
+            return first(myWindow);
+        }
+
+        if ((candidate == null) || candidate.equals(victim)) {
+            return victim;
+        } else if (mySketch.frequency(candidate) > mySketch.frequency(victim)) {
+            // The newcomer has been more popular, so it's admitted at the expense of the victim
+            myCandidates.remove(candidate);
+            return victim;
+        } else {
+            return candidate;
+        }
+    }
+
+    private int getMainSize() {
+        return myProbation.size() + myProtected.size();
+    }
+
+    private int getSize() {
+        return myWindow.size() + getMainSize();
+    }
+
+    private static String first(final LinkedHashSet<String> aSet) {
+        final Iterator<String> iterator = aSet.iterator();
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+}
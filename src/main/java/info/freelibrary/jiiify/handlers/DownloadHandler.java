@@ -41,7 +41,7 @@ import info.freelibrary.jiiify.Configuration;
 import info.freelibrary.jiiify.MessageCodes;
 import info.freelibrary.jiiify.iiif.IIIFException;
 import info.freelibrary.jiiify.iiif.ImageInfo;
-import info.freelibrary.jiiify.iiif.ImageRequest;
+import info.freelibrary.jiiify.iiif.ImageRequestParser;
 import info.freelibrary.jiiify.iiif.InvalidInfoException;
 import info.freelibrary.jiiify.util.ImageUtils;
 import info.freelibrary.jiiify.util.PathUtils;
@@ -146,7 +146,7 @@ public class DownloadHandler extends JiiifyHandler {
                         futures.add(future);
 
                         try {
-                            final String resourcePath = new ImageRequest(path).getPath();
+                            final String resourcePath = ImageRequestParser.parse(path).getPath();
 
                             paths.add(resourcePath);
 
@@ -125,7 +125,6 @@ public class FailureHandler extends JiiifyHandler {
 
                 // Pass through the output of templating process
                 response.end(handler.result());
-                response.close();
             }
         });
     }
@@ -53,7 +53,6 @@ public class FedoraHandler extends JiiifyHandler {
         aContext.vertx().eventBus().send(FedoraIngestVerticle.class.getName(), json, result -> {
             if (result.succeeded()) {
                 response.end();
-                response.close();
             } else {
                 fail(aContext, result.cause(), msg(MessageCodes.EXC_080, FedoraIngestVerticle.class));
             }
@@ -0,0 +1,137 @@
+
+package info.freelibrary.jiiify.handlers;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import info.freelibrary.jiiify.Configuration;
+import info.freelibrary.jiiify.iiif.ImageInfo;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.web.Router;
+
+/**
+ * The front door for all requests to the server. Public IIIF requests (images, image info files, and manifests) are
+ * recognized without regular expressions, by looking at the request's path once, and are sent to routers that only
+ * contain their IIIF handler; they skip the body, cookie, and session handling that the administrative interface
+ * needs. All other requests are passed on to the application's router.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class IIIFDispatcher implements Handler<HttpServerRequest> {
+
+    /**
+     * The kinds of public IIIF request.
+     */
+    public enum Route {
+        IMAGE, INFO, MANIFEST
+    }
+
+    private static final String INFO_FILE = "/" + ImageInfo.FILE_NAME;
+
+    private static final String MANIFEST = "/manifest";
+
+    /* The image qualities and formats that are accepted in image requests (as in RoutePatterns.IMAGE_REQUEST_RE) */
+    private static final Set<String> QUALITIES = new HashSet<>(Arrays.asList("default", "color", "gray",
+            "bitonal"));
+
+    private static final Set<String> FORMATS = new HashSet<>(Arrays.asList("jpg", "gif", "tif", "png", "jp2", "pdf",
+            "webp"));
+
+    private final Router myRouter;
+
+    private final Router myImageRouter;
+
+    private final Router myInfoRouter;
+
+    private final Router myManifestRouter;
+
+    private final String myServicePrefix;
+
+    /**
+     * Creates a front door for requests to the server.
+     *
+     * @param aVertx A Vert.x instance
+     * @param aConfig The application's configuration
+     * @param aRouter The router that handles requests that aren't public IIIF requests
+     */
+    public IIIFDispatcher(final Vertx aVertx, final Configuration aConfig, final Router aRouter) {
+        final IIIFErrorHandler errorHandler = new IIIFErrorHandler(aConfig);
+
+        myRouter = aRouter;
+        myServicePrefix = aConfig.getServicePrefix();
+        myImageRouter = Router.router(aVertx);
+        myInfoRouter = Router.router(aVertx);
+        myManifestRouter = Router.router(aVertx);
+
+        myImageRouter.route().handler(new ImageHandler(aConfig)).failureHandler(errorHandler);
+        myInfoRouter.route().handler(new ImageInfoHandler(aConfig)).failureHandler(errorHandler);
+        myManifestRouter.route().handler(new ManifestHandler(aConfig)).failureHandler(errorHandler);
+    }
+
+    @Override
+    public void handle(final HttpServerRequest aRequest) {
+        final Route route = aRequest.method() == HttpMethod.GET ? getRoute(aRequest.path(), myServicePrefix) : null;
+
+        if (route == null) {
+            myRouter.accept(aRequest);
+        } else {
+            switch (route) {
+                case IMAGE:
+                    myImageRouter.accept(aRequest);
+                    break;
+                case INFO:
+                    myInfoRouter.accept(aRequest);
+                    break;
+                default:
+                    myManifestRouter.accept(aRequest);
+            }
+        }
+    }
+
+    /**
+     * Gets the kind of public IIIF request that the supplied path is for.
+     *
+     * @param aPath The path of a request
+     * @param aServicePrefix The IIIF service prefix (e.g., /iiif)
+     * @return The kind of IIIF request or null if the path isn't for a public IIIF request
+     */
+    public static Route getRoute(final String aPath, final String aServicePrefix) {
+        final int prefixLength = aServicePrefix.length();
+        final int lastSlash;
+        final int dot;
+
+        if (aPath == null || !aPath.startsWith(aServicePrefix) || aPath.length() <= prefixLength || aPath.charAt(
+                prefixLength) != '/') {
+            return null;
+        }
+
+        lastSlash = aPath.lastIndexOf('/');
+
+        // There needs to be something (at least the ID) between the service prefix and the last path segment
+        if (lastSlash <= prefixLength + 1) {
+            return null;
+        }
+
+        if (aPath.endsWith(INFO_FILE)) {
+            return Route.INFO;
+        }
+
+        if (aPath.endsWith(MANIFEST)) {
+            return Route.MANIFEST;
+        }
+
+        dot = aPath.indexOf('.', lastSlash);
+
+        if (dot != -1 && QUALITIES.contains(aPath.substring(lastSlash + 1, dot)) && FORMATS.contains(aPath
+                .substring(dot + 1))) {
+            return Route.IMAGE;
+        }
+
+        return null;
+    }
+}
@@ -83,7 +83,6 @@ public class IIIFErrorHandler extends JiiifyHandler {
             response.setStatusCode(aContext.statusCode());
             response.setStatusMessage(errorMessage);
             response.end(errorMessage);
-            response.close();
         }
     }
 
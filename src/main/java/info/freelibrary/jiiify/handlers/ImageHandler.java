@@ -1,34 +1,56 @@
 
 package info.freelibrary.jiiify.handlers;
 
+import static info.freelibrary.jiiify.Constants.DERIVATIVE_SOURCE_KEY;
+import static info.freelibrary.jiiify.Constants.DYNAMIC_IMAGE_KEY;
+import static info.freelibrary.jiiify.Constants.FILE_PATH_KEY;
+import static info.freelibrary.jiiify.Constants.IIIF_PATH_KEY;
+import static info.freelibrary.jiiify.Constants.IMAGE_SOURCE_KEY;
 import static info.freelibrary.jiiify.Constants.MESSAGES;
+import static info.freelibrary.jiiify.Constants.NOT_FOUND_RESPONSE;
+import static info.freelibrary.jiiify.Metadata.PROPERTIES_FILE;
 import static info.freelibrary.jiiify.handlers.FailureHandler.ERROR_MESSAGE;
+import static info.freelibrary.jiiify.util.StorageUtils.isNotFound;
 
-import java.awt.image.BufferedImage;
-import java.awt.image.BufferedImageOp;
+import java.awt.Dimension;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-
-import javax.imageio.ImageIO;
-import javax.imageio.stream.MemoryCacheImageInputStream;
-
-import org.imgscalr.Scalr;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
 
 import info.freelibrary.jiiify.Configuration;
 import info.freelibrary.jiiify.MessageCodes;
 import info.freelibrary.jiiify.Metadata;
+import info.freelibrary.jiiify.cache.TileCache;
 import info.freelibrary.jiiify.iiif.ImageFormat;
+import info.freelibrary.jiiify.iiif.ImageInfo;
 import info.freelibrary.jiiify.iiif.ImageRequest;
+import info.freelibrary.jiiify.iiif.ImageRequestParser;
 import info.freelibrary.jiiify.iiif.ImageRotation;
+import info.freelibrary.jiiify.iiif.InvalidInfoException;
 import info.freelibrary.jiiify.iiif.InvalidRotationException;
+import info.freelibrary.jiiify.util.ByteRange;
+import info.freelibrary.jiiify.util.ImageRequestCoalescer;
+import info.freelibrary.jiiify.util.StorageUtils;
+import info.freelibrary.jiiify.verticles.ImageWorkerVerticle;
 import info.freelibrary.pairtree.PairtreeObject;
 import info.freelibrary.util.FileUtils;
 import info.freelibrary.util.Logger;
 import info.freelibrary.util.LoggerFactory;
 
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.file.FileProps;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
 
 /**
@@ -40,6 +62,28 @@ public class ImageHandler extends JiiifyHandler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ImageHandler.class, MESSAGES);
 
+    /* How long we'll wait for an image worker to create an image on demand */
+    private static final long GENERATION_TIMEOUT = 60000;
+
+    private static final ImageRequestCoalescer COALESCER = new ImageRequestCoalescer();
+
+    /* The number of image dimensions that are remembered for canonicalizing image requests */
+    private static final int MAX_DIMENSIONS = 10000;
+
+    private static final Map<String, Dimension> DIMENSIONS = Collections.synchronizedMap(
+            new LinkedHashMap<String, Dimension>(16, 0.75f, true) {
+
+                /**
+                 * The <code>serialVersionUID</code> for this map.
+                 */
+                private static final long serialVersionUID = 4326393003342391548L;
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, Dimension> aEldest) {
+                    return size() > MAX_DIMENSIONS;
+                }
+            });
+
     /**
      * Creates a IIIF image handler.
      *
@@ -59,84 +103,131 @@ public class ImageHandler extends JiiifyHandler {
         }
 
         try {
-            final ImageRequest imageRequest = new ImageRequest(request.path());
+            final ImageRequest imageRequest = ImageRequestParser.parse(request.path());
             final String id = imageRequest.getID();
             final PairtreeObject ptObj = myConfig.getDataDir(id).getObject(id);
-            final String requestPath = ptObj.getPath(imageRequest.getPath());
 
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug(MessageCodes.DBG_028, requestPath);
-            }
+            if (myConfig.rewritesToCanonicalRequests() || myConfig.redirectsToCanonicalRequests()) {
+                getImageDimension(ptObj, aContext, dimension -> {
+                    final ImageRequest canonicalRequest;
 
-            ptObj.find(imageRequest.getPath(), findHandler -> {
-                if (findHandler.succeeded()) {
-                    if (findHandler.result()) {
-                        serveCachedImageFile(ptObj, imageRequest.getPath(), aContext);
-                    } else if (imageRequest.getRotation().isRotated()) {
-                        checkUnrotatedSource(ptObj, imageRequest, aContext);
+                    // If we can't find the image's size, we just serve the request as it is
+                    if (dimension == null) {
+                        serveImageRequest(ptObj, imageRequest, aContext);
+                        return;
+                    }
+
+                    canonicalRequest = imageRequest.getCanonicalForm(dimension.width, dimension.height);
+
+                    if (canonicalRequest.toString().equals(imageRequest.toString())) {
+                        serveImageRequest(ptObj, imageRequest, aContext);
+                    } else if (myConfig.redirectsToCanonicalRequests()) {
+                        redirect(canonicalRequest, aContext);
                     } else {
-                        LOGGER.info(MessageCodes.INFO_007, requestPath);
-                        aContext.fail(404);
-                        aContext.put(ERROR_MESSAGE, msg(MessageCodes.EXC_048, requestPath));
+                        if (LOGGER.isDebugEnabled()) {
+                            LOGGER.debug(MessageCodes.DBG_128, imageRequest, canonicalRequest);
+                        }
+
+                        serveImageRequest(ptObj, canonicalRequest, aContext);
                     }
-                } else {
-                    LOGGER.info(MessageCodes.INFO_007, requestPath);
-                    aContext.fail(404);
-                    aContext.put(ERROR_MESSAGE, msg(MessageCodes.EXC_048, requestPath));
-                }
-            });
+                });
+            } else {
+                serveImageRequest(ptObj, imageRequest, aContext);
+            }
         } catch (final Exception details) {
             fail(aContext, details);
             aContext.put(ERROR_MESSAGE, details.getMessage());
         }
     }
 
-    private void serveRotatedImage(final PairtreeObject aPtObj, final ImageRequest aImageRequest,
-            final Scalr.Rotation aRotation, final RoutingContext aContext) {
-        final HttpServerRequest request = aContext.request();
-        final HttpServerResponse response = aContext.response();
+    private void serveImageRequest(final PairtreeObject aPtObj, final ImageRequest aImageRequest,
+            final RoutingContext aContext) {
+        final String requestPath = aPtObj.getPath(aImageRequest.getPath());
+        final TileCache tileCache = myConfig.getTileCache();
+        final Buffer cachedImage = tileCache.isEnabled() ? tileCache.get(requestPath) : null;
 
-        // Options: FileCacheImageInputStream or MemoryCacheImageInputStream or ?
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(MessageCodes.DBG_028, requestPath);
+        }
 
-        aPtObj.get(aImageRequest.getPath(), getHandler -> {
+        // Recently served images are kept in memory so we can skip the trip to the Pairtree
+        if (cachedImage != null) {
+            serveImage(cachedImage, tileCache.getLastModified(requestPath), aImageRequest.getFormat(), aContext);
+            return;
+        }
+
+        // Images that were recently found to be missing are turned away without another trip to storage
+        if (myConfig.getNegativeCache().contains(requestPath)) {
+            notFound(requestPath, aContext);
+            return;
+        }
+
+        // We try to read the image directly, treating a failed read as a miss, instead of checking for it first
+        serveCachedImageFile(aPtObj, aImageRequest.getPath(), aContext, missing -> {
+            if (aImageRequest.getRotation().isRotated()) {
+                checkUnrotatedSource(aPtObj, aImageRequest, aContext);
+            } else if (myConfig.servesDynamicImages()) {
+                generateImage(aPtObj, aImageRequest, aContext, image -> {
+                    serveNewImage(aPtObj, aImageRequest, image, aContext);
+                });
+            } else {
+                myConfig.getNegativeCache().add(requestPath);
+                notFound(requestPath, aContext);
+            }
+        });
+    }
+
+    /**
+     * Gets the dimensions of the requested image from its image info file. Dimensions are remembered so that they
+     * don't have to be read for every request. The supplied handler is passed null if the image info file can't be
+     * read.
+     *
+     * @param aPtObj The Pairtree object for the requested image
+     * @param aContext The routing context of the request
+     * @param aHandler A handler that receives the image's dimensions
+     */
+    private void getImageDimension(final PairtreeObject aPtObj, final RoutingContext aContext,
+            final Handler<Dimension> aHandler) {
+        final String infoPath = aPtObj.getPath(ImageInfo.FILE_NAME);
+        final Dimension dimension = DIMENSIONS.get(infoPath);
+
+        if (dimension != null) {
+            aHandler.handle(dimension);
+            return;
+        }
+
+        aPtObj.get(ImageInfo.FILE_NAME, getHandler -> {
             if (getHandler.succeeded()) {
                 try {
-                    final String mimeType = ImageFormat.getMIMEType(FileUtils.getExt(request.uri()));
-                    final ByteArrayInputStream inStream = new ByteArrayInputStream(getHandler.result().getBytes());
-                    final MemoryCacheImageInputStream cacheStream = new MemoryCacheImageInputStream(inStream);
-                    final BufferedImage image = ImageIO.read(cacheStream);
-                    final BufferedImage rotatedImage = Scalr.rotate(image, aRotation, (BufferedImageOp[]) null);
-                    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
-                    image.flush();
-                    ImageIO.write(rotatedImage, aImageRequest.getFormat().getExtension(), baos);
-                    baos.flush();
-
-                    final byte[] bytes = baos.toByteArray();
-                    rotatedImage.flush();
-
-                    response.putHeader(Metadata.CONTENT_TYPE, mimeType);
-                    response.putHeader(Metadata.CACHE_CONTROL, Metadata.DEFAULT_CACHE_CONTROL);
-                    response.putHeader(Metadata.CONTENT_LENGTH, Integer.toString(bytes.length));
-                    response.end(Buffer.buffer(bytes));
-                    response.close();
-
-                    if (LOGGER.isDebugEnabled()) {
-                        LOGGER.debug(MessageCodes.DBG_029, request.uri());
-                    }
-                } catch (final Exception details) {
-                    LOGGER.error(details.getMessage(), details);
-                    aContext.fail(500);
-                    aContext.put(ERROR_MESSAGE, details.getMessage());
+                    final ImageInfo info = new ImageInfo(getHandler.result().toJsonObject());
+                    final Dimension infoDimension = new Dimension(info.getWidth(), info.getHeight());
+
+                    DIMENSIONS.put(infoPath, infoDimension);
+                    aHandler.handle(infoDimension);
+                } catch (final InvalidInfoException | DecodeException details) {
+                    LOGGER.warn(MessageCodes.WARN_029, infoPath, details.getMessage());
+                    aHandler.handle(null);
                 }
             } else {
-                LOGGER.error(getHandler.cause().getMessage(), getHandler.cause());
-                aContext.fail(500);
-                aContext.put(ERROR_MESSAGE, getHandler.cause().getMessage());
+                aHandler.handle(null);
             }
         });
     }
 
+    private void redirect(final ImageRequest aCanonicalRequest, final RoutingContext aContext) {
+        final HttpServerResponse response = aContext.response();
+        final String location = aCanonicalRequest.toString();
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(MessageCodes.DBG_129, aContext.request().uri(), location);
+        }
+
+        response.setStatusCode(301);
+        response.putHeader(Metadata.LOCATION_HEADER, location);
+        response.putHeader(Metadata.CACHE_CONTROL, Metadata.DEFAULT_CACHE_CONTROL);
+        response.end();
+    }
+
     private void checkUnrotatedSource(final PairtreeObject aPtObj, final ImageRequest aImageRequest,
             final RoutingContext aContext) {
         final ImageRequest imageRequest = aImageRequest.clone();
@@ -148,66 +239,349 @@ public class ImageHandler extends JiiifyHandler {
             throw new RuntimeException(details); // This should never happen
         }
 
-        aPtObj.find(imageRequest.getPath(), findHandler -> {
-            if (findHandler.succeeded()) {
-                if (findHandler.result()) {
-                    final float degrees = aImageRequest.getRotation().getValue();
-                    final Scalr.Rotation rotation;
-
-                    if (degrees == 90f) {
-                        rotation = Scalr.Rotation.CW_90;
-                        serveRotatedImage(aPtObj, imageRequest, rotation, aContext);
-                    } else if (degrees == 180f) {
-                        rotation = Scalr.Rotation.CW_180;
-                        serveRotatedImage(aPtObj, imageRequest, rotation, aContext);
-                    } else if (degrees == 270f) {
-                        rotation = Scalr.Rotation.CW_270;
-                        serveRotatedImage(aPtObj, imageRequest, rotation, aContext);
-                    } else {
-                        if (LOGGER.isDebugEnabled()) {
-                            LOGGER.debug(MessageCodes.DBG_031, degrees);
-                        }
+        rotateUnrotatedSource(aPtObj, aImageRequest, imageRequest, aContext, missing -> {
+            final String requestPath = aPtObj.getPath(aImageRequest.getPath());
 
-                        aContext.fail(404);
-                    }
+            if (myConfig.servesDynamicImages()) {
+                generateImage(aPtObj, imageRequest, aContext, image -> {
+                    rotateUnrotatedSource(aPtObj, aImageRequest, imageRequest, aContext, failed -> {
+                        notFound(requestPath, aContext);
+                    });
+                });
+            } else {
+                myConfig.getNegativeCache().add(requestPath);
+                notFound(requestPath, aContext);
+            }
+        });
+    }
+
+    /**
+     * Creates a rotated image from its unrotated derivative. The rotation is done by an image worker, off the event
+     * loop, and the rotated image is written into the Pairtree so later requests for it are read like any other.
+     *
+     * @param aPtObj The Pairtree object for the requested image
+     * @param aImageRequest The request for the rotated image
+     * @param aUnrotatedRequest The request for the unrotated image from which the rotated one is created
+     * @param aContext The routing context of the request
+     * @param aMissHandler A handler that's called if the unrotated image doesn't exist; other failures to create the
+     *        rotated image fail the request with a 500 (Internal Server Error)
+     */
+    private void rotateUnrotatedSource(final PairtreeObject aPtObj, final ImageRequest aImageRequest,
+            final ImageRequest aUnrotatedRequest, final RoutingContext aContext, final Handler<Void> aMissHandler) {
+        final String requestPath = aPtObj.getPath(aImageRequest.getPath());
+        final Vertx vertx = aContext.vertx();
+
+        COALESCER.get(aImageRequest, future -> {
+            final JsonObject message = new JsonObject();
+
+            message.put(IIIF_PATH_KEY, aImageRequest.toString());
+            message.put(DERIVATIVE_SOURCE_KEY, aUnrotatedRequest.getPath());
+            message.put(DYNAMIC_IMAGE_KEY, true);
+
+            sendToImageWorker(message, requestPath, vertx, future);
+        }, result -> {
+            if (result.succeeded()) {
+                serveNewImage(aPtObj, aImageRequest, result.result(), aContext);
+            } else if (isNotFound(result.cause())) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug(MessageCodes.DBG_032, aPtObj.getPath(aUnrotatedRequest.getPath()));
+                }
+
+                aMissHandler.handle(null);
+            } else {
+                // A worker that timed out or couldn't read the image isn't a sign the image is missing
+                LOGGER.error(result.cause(), MessageCodes.EXC_088, requestPath);
+                fail(aContext, result.cause());
+            }
+        });
+    }
+
+    /**
+     * Creates an image that wasn't pre-generated from the source image recorded in the object's properties file. The
+     * new image is written into the Pairtree by the image worker so that later requests for it are cache hits.
+     *
+     * @param aPtObj The Pairtree object for the requested image
+     * @param aImageRequest The image request that needs to be fulfilled
+     * @param aContext The routing context of the request
+     * @param aHandler A handler that receives the newly created image
+     */
+    private void generateImage(final PairtreeObject aPtObj, final ImageRequest aImageRequest,
+            final RoutingContext aContext, final Handler<Buffer> aHandler) {
+        final String requestPath = aPtObj.getPath(aImageRequest.getPath());
+        final Vertx vertx = aContext.vertx();
+
+        // Concurrent requests for the same image share the result of the first request's image creation
+        COALESCER.get(aImageRequest, future -> createImage(aPtObj, aImageRequest, vertx, future), result -> {
+            if (result.succeeded()) {
+                aHandler.handle(result.result());
+            } else if (isNotFound(result.cause())) {
+                LOGGER.error(MessageCodes.EXC_088, requestPath);
+                notFound(requestPath, aContext);
+            } else {
+                LOGGER.error(result.cause(), MessageCodes.EXC_088, requestPath);
+                fail(aContext, result.cause());
+            }
+        });
+    }
+
+    private void createImage(final PairtreeObject aPtObj, final ImageRequest aImageRequest, final Vertx aVertx,
+            final Future<Buffer> aFuture) {
+        final String requestPath = aPtObj.getPath(aImageRequest.getPath());
+
+        aPtObj.get(PROPERTIES_FILE, getHandler -> {
+            if (getHandler.succeeded()) {
+                final ByteArrayInputStream inStream = new ByteArrayInputStream(getHandler.result().getBytes());
+                final Properties properties = new Properties();
+
+                try {
+                    properties.loadFromXML(inStream);
+                } catch (final IOException details) {
+                    aFuture.fail(details);
+                    return;
+                }
+
+                final String source = properties.getProperty(IMAGE_SOURCE_KEY);
+
+                if (source == null) {
+                    final String propertiesPath = aPtObj.getPath(PROPERTIES_FILE);
+
+                    LOGGER.error(MessageCodes.EXC_089, propertiesPath);
+                    aFuture.fail(new IOException(msg(MessageCodes.EXC_089, propertiesPath)));
                 } else {
+                    final JsonObject message = new JsonObject();
+
                     if (LOGGER.isDebugEnabled()) {
-                        LOGGER.debug(MessageCodes.DBG_032, aPtObj.getPath(imageRequest.getPath()));
+                        LOGGER.debug(MessageCodes.DBG_120, source, aImageRequest);
                     }
 
-                    aContext.fail(404);
+                    message.put(FILE_PATH_KEY, source);
+                    message.put(IIIF_PATH_KEY, aImageRequest.toString());
+                    message.put(DYNAMIC_IMAGE_KEY, true);
+
+                    sendToImageWorker(message, requestPath, aVertx, aFuture);
                 }
             } else {
-                if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug(MessageCodes.DBG_033, aPtObj.getPath(imageRequest.getPath()));
-                }
+                StorageUtils.checkFailure(myConfig, aVertx, aPtObj, PROPERTIES_FILE, getHandler.cause(),
+                        aFuture::fail);
+            }
+        });
+    }
 
-                aContext.fail(404);
+    private void sendToImageWorker(final JsonObject aMessage, final String aImagePath, final Vertx aVertx,
+            final Future<Buffer> aFuture) {
+        final DeliveryOptions options = new DeliveryOptions().setSendTimeout(GENERATION_TIMEOUT);
+        final String workerName = ImageWorkerVerticle.class.getName();
+
+        aVertx.eventBus().send(workerName, aMessage, options, response -> {
+            if (response.failed()) {
+                aFuture.fail(new IOException(msg(MessageCodes.EXC_088, aImagePath), response.cause()));
+            } else if (response.result().body() instanceof Buffer) {
+                aFuture.complete((Buffer) response.result().body());
+            } else if (NOT_FOUND_RESPONSE.equals(response.result().body())) {
+                aFuture.fail(new FileNotFoundException(msg(MessageCodes.EXC_097, aImagePath)));
+            } else {
+                aFuture.fail(new IOException(msg(MessageCodes.EXC_088, aImagePath)));
             }
         });
     }
 
-    private void serveCachedImageFile(final PairtreeObject aPtObj, final String aResourcePath,
+    /**
+     * Serves an image that was just created, and caches it. Its validators come from the copy of it that the image
+     * worker stored, so they're the same as the ones later requests for the image get.
+     *
+     * @param aPtObj The Pairtree object for the requested image
+     * @param aImageRequest The request for the image
+     * @param aImage The newly created image
+     * @param aContext The routing context of the request
+     */
+    private void serveNewImage(final PairtreeObject aPtObj, final ImageRequest aImageRequest, final Buffer aImage,
+            final RoutingContext aContext) {
+        final String requestPath = aPtObj.getPath(aImageRequest.getPath());
+
+        StorageUtils.getProps(myConfig, aContext.vertx(), aPtObj, aImageRequest.getPath(), propsHandler -> {
+            final long lastModified = propsHandler.succeeded() ? propsHandler.result().lastModifiedTime() : -1;
+
+            cacheImage(requestPath, aImage, lastModified);
+            serveImage(aImage, lastModified, aImageRequest.getFormat(), aContext);
+        });
+    }
+
+    private void serveImage(final Buffer aImage, final long aLastModified, final ImageFormat aFormat,
             final RoutingContext aContext) {
+        final HttpServerResponse response = aContext.response();
+
+        // Images without a known modified time (e.g., when storage couldn't be checked) are sent without validators
+        if (aLastModified >= 0 && isNotModified(aContext, aLastModified, aImage.length(), null)) {
+            return;
+        }
+
+        response.putHeader(Metadata.CONTENT_TYPE, aFormat.getMIMEType());
+        response.putHeader(Metadata.CACHE_CONTROL, Metadata.DEFAULT_CACHE_CONTROL);
+        sendImageBuffer(aImage, aContext);
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(MessageCodes.DBG_029, aContext.request().uri());
+        }
+    }
+
+    private void serveCachedImageFile(final PairtreeObject aPtObj, final String aResourcePath,
+            final RoutingContext aContext, final Handler<Void> aMissHandler) {
+        checkModified(aPtObj, aResourcePath, aContext, props -> {
+            if (props == null) {
+                aMissHandler.handle(null);
+            } else if (myConfig.hasFileSystemDataDirs()) {
+                // Files on the local file system are handed straight to the kernel rather than being read onto the heap
+                sendImageFile(aPtObj.getPath(aResourcePath), props, aContext);
+            } else {
+                readImageFile(aPtObj, aResourcePath, props, aContext, aMissHandler);
+            }
+        });
+    }
+
+    private void readImageFile(final PairtreeObject aPtObj, final String aResourcePath, final FileProps aProps,
+            final RoutingContext aContext, final Handler<Void> aMissHandler) {
         final HttpServerRequest request = aContext.request();
         final HttpServerResponse response = aContext.response();
 
         aPtObj.get(aResourcePath, getHandler -> {
             if (getHandler.succeeded()) {
+                cacheImage(aPtObj.getPath(aResourcePath), getHandler.result(), aProps.lastModifiedTime());
+
                 response.putHeader(Metadata.CONTENT_TYPE, ImageFormat.getMIMEType(FileUtils.getExt(request.uri())));
                 response.putHeader(Metadata.CACHE_CONTROL, Metadata.DEFAULT_CACHE_CONTROL);
-                response.end(getHandler.result());
-                response.close();
+                sendImageBuffer(getHandler.result(), aContext);
 
                 if (LOGGER.isDebugEnabled()) {
                     LOGGER.debug(MessageCodes.DBG_034, request.uri());
                 }
             } else {
-                fail(aContext, getHandler.cause());
+                final Vertx vertx = aContext.vertx();
+
+                StorageUtils.checkFailure(myConfig, vertx, aPtObj, aResourcePath, getHandler.cause(), cause -> {
+                    if (isNotFound(cause)) {
+                        if (LOGGER.isDebugEnabled()) {
+                            LOGGER.debug(MessageCodes.DBG_125, aPtObj.getPath(aResourcePath), cause);
+                        }
+
+                        aMissHandler.handle(null);
+                    } else {
+                        // Storage that's unavailable isn't a sign the image is missing, so the failure isn't remembered
+                        LOGGER.error(MessageCodes.EXC_095, aPtObj.getPath(aResourcePath), cause.getMessage());
+                        fail(aContext, cause);
+                    }
+                });
             }
         });
     }
 
+    private void sendImageFile(final String aFilePath, final FileProps aProps, final RoutingContext aContext) {
+        final HttpServerRequest request = aContext.request();
+        final HttpServerResponse response = aContext.response();
+        final ByteRange range = aProps == null ? null : getRange(aContext, aProps.size());
+        final long offset;
+        final long length;
+
+        response.putHeader(Metadata.CONTENT_TYPE, ImageFormat.getMIMEType(FileUtils.getExt(request.uri())));
+        response.putHeader(Metadata.CACHE_CONTROL, Metadata.DEFAULT_CACHE_CONTROL);
+        response.putHeader(Metadata.ACCEPT_RANGES, ByteRange.BYTES);
+
+        if (range == null) {
+            offset = 0;
+            length = Long.MAX_VALUE;
+        } else if (range.isSatisfiable()) {
+            offset = range.getStart();
+            length = range.getLength();
+
+            response.setStatusCode(206);
+            response.putHeader(Metadata.CONTENT_RANGE, range.toContentRange());
+        } else {
+            sendUnsatisfiableRange(range, aContext);
+            return;
+        }
+
+        // Content-Length is set by sendFile from the size of the file (or of the requested range)
+        response.sendFile(aFilePath, offset, length, sendHandler -> {
+            if (sendHandler.succeeded()) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug(MessageCodes.DBG_034, request.uri());
+                }
+            } else {
+                fail(aContext, sendHandler.cause());
+            }
+        });
+    }
+
+    private void sendImageBuffer(final Buffer aImage, final RoutingContext aContext) {
+        final HttpServerResponse response = aContext.response();
+        final ByteRange range = getRange(aContext, aImage.length());
+
+        response.putHeader(Metadata.ACCEPT_RANGES, ByteRange.BYTES);
+
+        if (range == null) {
+            response.putHeader(Metadata.CONTENT_LENGTH, Integer.toString(aImage.length()));
+            response.end(aImage);
+        } else if (range.isSatisfiable()) {
+            response.setStatusCode(206);
+            response.putHeader(Metadata.CONTENT_RANGE, range.toContentRange());
+            response.putHeader(Metadata.CONTENT_LENGTH, Long.toString(range.getLength()));
+            response.end(aImage.slice((int) range.getStart(), (int) range.getEnd() + 1));
+        } else {
+            sendUnsatisfiableRange(range, aContext);
+        }
+    }
+
+    /**
+     * Gets the byte range the client requested, if it requested one that can be served. A range is ignored (and the
+     * whole image sent) if the If-Range validator doesn't match the image's current ETag or Last-Modified date.
+     *
+     * @param aContext The routing context of the request
+     * @param aLength The length of the requested image
+     * @return The requested range or null if the whole image should be sent
+     */
+    private ByteRange getRange(final RoutingContext aContext, final long aLength) {
+        final HttpServerRequest request = aContext.request();
+        final String ifRange = request.getHeader(Metadata.IF_RANGE);
+
+        if (ifRange != null) {
+            final String etag = aContext.response().headers().get(Metadata.ETAG);
+            final String lastModified = aContext.response().headers().get(Metadata.LAST_MODIFIED);
+
+            // If-Range requires a strong comparison, so weak validators never match
+            if (!ifRange.equals(etag) && !ifRange.equals(lastModified)) {
+                return null;
+            }
+        }
+
+        return ByteRange.parse(request.getHeader(Metadata.RANGE), aLength);
+    }
+
+    private void sendUnsatisfiableRange(final ByteRange aRange, final RoutingContext aContext) {
+        final HttpServerResponse response = aContext.response();
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(MessageCodes.DBG_124, aRange, aContext.request().uri());
+        }
+
+        response.setStatusCode(416);
+        response.putHeader(Metadata.CONTENT_RANGE, aRange.toContentRange());
+        response.putHeader(Metadata.CONTENT_LENGTH, "0");
+        response.end();
+    }
+
+    private void notFound(final String aImagePath, final RoutingContext aContext) {
+        LOGGER.info(MessageCodes.INFO_007, aImagePath);
+        aContext.fail(404);
+        aContext.put(ERROR_MESSAGE, msg(MessageCodes.EXC_048, aImagePath));
+    }
+
+    private void cacheImage(final String aImagePath, final Buffer aImage, final long aLastModified) {
+        final TileCache tileCache = myConfig.getTileCache();
+
+        if (tileCache.isEnabled()) {
+            tileCache.put(aImagePath, aImage, aLastModified);
+        }
+    }
+
     @Override
     protected Logger getLogger() {
         return LOGGER;
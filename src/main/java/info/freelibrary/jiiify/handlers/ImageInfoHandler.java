@@ -12,7 +12,9 @@ import java.net.URISyntaxException;
 import info.freelibrary.jiiify.Configuration;
 import info.freelibrary.jiiify.MessageCodes;
 import info.freelibrary.jiiify.Metadata;
+import info.freelibrary.jiiify.cache.DocumentCache;
 import info.freelibrary.jiiify.iiif.ImageInfo;
+import info.freelibrary.jiiify.util.HttpUtils;
 import info.freelibrary.jiiify.util.PathUtils;
 import info.freelibrary.pairtree.PairtreeObject;
 import info.freelibrary.util.Logger;
@@ -51,57 +53,81 @@ public class ImageInfoHandler extends JiiifyHandler {
         final HttpServerRequest request = aContext.request();
         final String id = PathUtils.decode(request.uri().split("\\/")[2]);
         final PairtreeObject ptObj = myConfig.getDataDir(id).getObject(id);
+        final String path = ptObj.getPath(ImageInfo.FILE_NAME);
+        final String server = myConfig.getServer() + myConfig.getServicePrefix();
 
         if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug(MessageCodes.DBG_035, ptObj.getPath(ImageInfo.FILE_NAME));
+            LOGGER.debug(MessageCodes.DBG_035, path);
         }
 
         // FIXME: put this centrally for all IIIF routes(?)
         response.headers().set("Access-Control-Allow-Origin", "*");
 
-        ptObj.find(ImageInfo.FILE_NAME, existsResult -> {
-            if (existsResult.succeeded()) {
-                if (existsResult.result()) {
-                    ptObj.get(ImageInfo.FILE_NAME, getResult -> {
-                        if (getResult.succeeded()) {
-                            final JsonObject json = getResult.result().toJsonObject();
-                            final String server = myConfig.getServer() + myConfig.getServicePrefix();
-                            final Buffer buffer;
-
-                            try {
-                                json.put(ImageInfo.ID, server + "/" + PathUtils.encodeIdentifier(id));
-                            } catch (final URISyntaxException details) {
-                                LOGGER.error(details, MessageCodes.EXC_050, id);
-                            }
-
-                            buffer = Buffer.buffer(json.toString());
-
-                            response.putHeader(Metadata.CONTENT_LENGTH, Integer.toString(buffer.length()));
-                            response.putHeader(Metadata.CACHE_CONTROL, DEFAULT_CACHE_CONTROL);
-                            response.putHeader(Metadata.CONTENT_TYPE, JSON_MIME_TYPE);
-                            response.end(buffer);
-                            response.close();
+        // The server is part of the image info's ETag since the image info's ID is rewritten with it
+        checkModified(ptObj, ImageInfo.FILE_NAME, server, aContext, modified -> {
+            final DocumentCache cache = myConfig.getInfoCache();
+            final String validator = modified == null ? null : HttpUtils.getETag(modified.lastModifiedTime(),
+                    modified.size());
+            final Buffer cachedInfo = cache.isEnabled() ? cache.get(path, server, validator) : null;
+
+            // Image info files that have already been rendered for this server are sent without reading them again
+            if (cachedInfo != null) {
+                sendImageInfo(cachedInfo, aContext);
+                return;
+            }
 
-                            if (LOGGER.isDebugEnabled()) {
-                                LOGGER.debug(MessageCodes.DBG_036, request.uri());
+            ptObj.find(ImageInfo.FILE_NAME, existsResult -> {
+                if (existsResult.succeeded()) {
+                    if (existsResult.result()) {
+                        ptObj.get(ImageInfo.FILE_NAME, getResult -> {
+                            if (getResult.succeeded()) {
+                                final JsonObject json = getResult.result().toJsonObject();
+                                final Buffer buffer;
+
+                                try {
+                                    json.put(ImageInfo.ID, server + "/" + PathUtils.encodeIdentifier(id));
+                                } catch (final URISyntaxException details) {
+                                    LOGGER.error(details, MessageCodes.EXC_050, id);
+                                }
+
+                                buffer = Buffer.buffer(json.toString());
+
+                                if (cache.isEnabled()) {
+                                    cache.put(path, server, validator, buffer);
+                                }
+
+                                sendImageInfo(buffer, aContext);
+                            } else {
+                                fail(aContext, getResult.cause());
+                                error(aContext, request);
                             }
-                        } else {
-                            fail(aContext, existsResult.cause());
-                            error(aContext, request);
-                        }
-                    });
+                        });
+                    } else {
+                        aContext.fail(404);
+                        aContext.put(ERROR_HEADER, "Image Info File Not Found");
+                        aContext.put(ERROR_MESSAGE, msg("Image info file not found: " + request.uri()));
+                    }
                 } else {
-                    aContext.fail(404);
-                    aContext.put(ERROR_HEADER, "Image Info File Not Found");
-                    aContext.put(ERROR_MESSAGE, msg("Image info file not found: " + request.uri()));
+                    fail(aContext, existsResult.cause());
+                    error(aContext, request);
                 }
-            } else {
-                fail(aContext, existsResult.cause());
-                error(aContext, request);
-            }
+            });
         });
     }
 
+    private void sendImageInfo(final Buffer aImageInfo, final RoutingContext aContext) {
+        final HttpServerResponse response = aContext.response();
+
+        response.putHeader(Metadata.CONTENT_LENGTH, Integer.toString(aImageInfo.length()));
+        response.putHeader(Metadata.CACHE_CONTROL, DEFAULT_CACHE_CONTROL);
+        response.putHeader(Metadata.CONTENT_TYPE, JSON_MIME_TYPE);
+        response.end(aImageInfo);
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(MessageCodes.DBG_036, aContext.request().uri());
+        }
+    }
+
     private void error(final RoutingContext aContext, final HttpServerRequest aRequest) {
         aContext.put(ERROR_HEADER, "Image Info Request Error");
         aContext.put(ERROR_MESSAGE, msg("Failed to serve image info: {}", aRequest.uri()));
@@ -158,6 +158,9 @@ public class IngestHandler extends JiiifyHandler {
                         if (LOGGER.isDebugEnabled()) {
                             LOGGER.debug(MessageCodes.DBG_039, aPtObj.getPath(MANIFEST));
                         }
+
+                        // Any previously rewritten copy of the manifest is now out of date
+                        myConfig.getManifestCache().remove(aPtObj.getPath(MANIFEST));
                     } else {
                         fail(aContext, putHandler.cause());
                     }
@@ -1,15 +1,23 @@
 
 package info.freelibrary.jiiify.handlers;
 
+import static info.freelibrary.jiiify.util.StorageUtils.isNotFound;
+
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.github.jknack.handlebars.Context;
 import com.github.jknack.handlebars.JsonNodeValueResolver;
 
 import info.freelibrary.jiiify.Configuration;
 import info.freelibrary.jiiify.MessageCodes;
+import info.freelibrary.jiiify.Metadata;
+import info.freelibrary.jiiify.util.HttpUtils;
+import info.freelibrary.jiiify.util.StorageUtils;
+import info.freelibrary.pairtree.PairtreeObject;
 import info.freelibrary.util.Logger;
 
 import io.vertx.core.Handler;
+import io.vertx.core.file.FileProps;
+import io.vertx.core.http.HttpServerResponse;
 import io.vertx.ext.web.RoutingContext;
 
 /**
@@ -126,5 +134,100 @@ abstract class JiiifyHandler implements Handler<RoutingContext> {
         aContext.put(FailureHandler.ERROR_MESSAGE, aMessage);
     }
 
+    /**
+     * Checks whether the client's copy of a stored resource is still current, using the storage's last modified time
+     * and length so the resource itself doesn't have to be read. If it's current, a 304 (Not Modified) is sent;
+     * otherwise, the resource's validators are added to the response and the supplied handler is called to send it.
+     * The handler is passed the resource's properties, or null if the resource doesn't exist. Other failures to read
+     * the resource's properties fail the request with a 500 (Internal Server Error).
+     *
+     * @param aPtObj The Pairtree object that contains the resource
+     * @param aResource The path of the resource within the Pairtree object
+     * @param aContext The routing context of the request
+     * @param aHandler A handler that sends the resource
+     */
+    void checkModified(final PairtreeObject aPtObj, final String aResource, final RoutingContext aContext,
+            final Handler<FileProps> aHandler) {
+        checkModified(aPtObj, aResource, null, aContext, aHandler);
+    }
+
+    /**
+     * Checks whether the client's copy of a stored resource, which is rewritten for the supplied variant before it's
+     * sent, is still current. This works like {@link #checkModified(PairtreeObject, String, RoutingContext, Handler)}
+     * but the variant is part of the resource's ETag.
+     *
+     * @param aPtObj The Pairtree object that contains the resource
+     * @param aResource The path of the resource within the Pairtree object
+     * @param aVariant The variant the resource is rewritten for, or null if it's sent as it's stored
+     * @param aContext The routing context of the request
+     * @param aHandler A handler that sends the resource
+     */
+    void checkModified(final PairtreeObject aPtObj, final String aResource, final String aVariant,
+            final RoutingContext aContext, final Handler<FileProps> aHandler) {
+        StorageUtils.getProps(myConfig, aContext.vertx(), aPtObj, aResource, propsHandler -> {
+            if (propsHandler.succeeded()) {
+                final FileProps props = propsHandler.result();
+
+                if (!isNotModified(aContext, props.lastModifiedTime(), props.size(), aVariant)) {
+                    aHandler.handle(props);
+                }
+            } else if (isNotFound(propsHandler.cause())) {
+                // If the resource doesn't exist, we let the handler deal with the missing resource
+                aHandler.handle(null);
+            } else {
+                fail(aContext, propsHandler.cause());
+            }
+        });
+    }
+
+    /**
+     * Adds the validators of a stored resource to the response and checks whether the client's copy of the resource
+     * is still current. If it's current, a 304 (Not Modified) is sent.
+     *
+     * @param aContext The routing context of the request
+     * @param aLastModified The time, in milliseconds since the epoch, the resource was last modified in storage
+     * @param aLength The length of the stored resource
+     * @param aVariant The variant the resource is rewritten for, or null if it's sent as it's stored
+     * @return True if a 304 (Not Modified) response was sent; else, false
+     */
+    boolean isNotModified(final RoutingContext aContext, final long aLastModified, final long aLength,
+            final String aVariant) {
+        final HttpServerResponse response = aContext.response();
+        final String etag;
+
+        if (aVariant == null) {
+            etag = HttpUtils.getETag(aLastModified, aLength);
+        } else {
+            etag = HttpUtils.getETag(aLastModified, aLength, aVariant);
+        }
+
+        response.putHeader(Metadata.ETAG, etag);
+        response.putHeader(Metadata.LAST_MODIFIED, HttpUtils.formatDate(aLastModified));
+
+        if (HttpUtils.isNotModified(aContext.request().headers(), etag, aLastModified)) {
+            sendNotModified(aContext);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Sends a 304 (Not Modified) response.
+     *
+     * @param aContext The routing context of the request
+     */
+    void sendNotModified(final RoutingContext aContext) {
+        final HttpServerResponse response = aContext.response();
+
+        response.setStatusCode(304);
+        response.putHeader(Metadata.CACHE_CONTROL, Metadata.DEFAULT_CACHE_CONTROL);
+        response.end();
+
+        if (getLogger().isDebugEnabled()) {
+            getLogger().debug(MessageCodes.DBG_123, aContext.request().uri());
+        }
+    }
+
     protected abstract Logger getLogger();
 }
@@ -24,6 +24,8 @@ public class MetricsHandler extends JiiifyHandler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MetricsHandler.class, MESSAGES);
 
+    private static final String JIIIFY_METRICS = "jiiify";
+
     /**
      * Creates a metrics handler.
      *
@@ -39,11 +41,16 @@ public class MetricsHandler extends JiiifyHandler {
 
         final MetricsService metricsService = MetricsService.create(aContext.vertx());
         final JsonObject metrics = metricsService.getMetricsSnapshot(aContext.vertx());
+        final JsonObject jiiifyMetrics = metricsService.getMetricsSnapshot(JIIIFY_METRICS);
         final HttpServerResponse response = aContext.response();
 
+        // Add the metrics that Jiiify keeps about its own image handling
+        if (jiiifyMetrics != null) {
+            metrics.mergeIn(jiiifyMetrics);
+        }
+
         response.headers().add(CONTENT_TYPE, JSON_MIME_TYPE);
         response.end(metrics.toString());
-        response.close();
     }
 
     @Override
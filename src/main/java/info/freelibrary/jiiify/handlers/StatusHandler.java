@@ -66,8 +66,6 @@ public class StatusHandler extends JiiifyHandler {
                     response.end(UNKNOWN + "Jiiify Main Verticle state is unknown");
             }
         }
-
-        response.close();
     }
 
     @Override
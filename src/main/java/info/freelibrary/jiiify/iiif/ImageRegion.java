@@ -1,6 +1,8 @@
 
 package info.freelibrary.jiiify.iiif;
 
+import java.awt.Rectangle;
+
 import info.freelibrary.jiiify.MessageCodes;
 
 /**
@@ -104,6 +106,54 @@ public class ImageRegion {
         }
     }
 
+    /**
+     * Gets the pixel bounds of this region for an image with the supplied width and height. Percentages are converted
+     * to pixels and the returned bounds are clipped to the edges of the image.
+     *
+     * @param aImageWidth The width of the image from which the region is taken
+     * @param aImageHeight The height of the image from which the region is taken
+     * @return The pixel bounds of the region
+     */
+    public Rectangle getBounds(final int aImageWidth, final int aImageHeight) {
+        final Rectangle image = new Rectangle(0, 0, aImageWidth, aImageHeight);
+        final Rectangle region;
+
+        if (isFullImage()) {
+            return image;
+        } else if (usesPercentages()) {
+            final int x = Math.round((myDimensions[0] / 100f) * aImageWidth);
+            final int y = Math.round((myDimensions[1] / 100f) * aImageHeight);
+            final int width = Math.round((myDimensions[2] / 100f) * aImageWidth);
+            final int height = Math.round((myDimensions[3] / 100f) * aImageHeight);
+
+            region = new Rectangle(x, y, width, height);
+        } else {
+            region = new Rectangle(getInt(Region.X), getInt(Region.Y), getInt(Region.WIDTH), getInt(Region.HEIGHT));
+        }
+
+        return region.intersection(image);
+    }
+
+    /**
+     * Gets the canonical form of this region for an image of the supplied size: <code>full</code> if the region
+     * covers the whole image; else, the pixel region clipped to the image.
+     *
+     * @param aImageWidth The width of the image
+     * @param aImageHeight The height of the image
+     * @return The canonical form of this region
+     */
+    public ImageRegion getCanonicalForm(final int aImageWidth, final int aImageHeight) {
+        final Rectangle bounds = getBounds(aImageWidth, aImageHeight);
+
+        if (bounds.isEmpty()) {
+            return this; // The region doesn't overlap the image so we leave it for the request to fail normally
+        } else if (bounds.width == aImageWidth && bounds.height == aImageHeight) {
+            return isFullImage() ? this : new ImageRegion();
+        } else {
+            return new ImageRegion(bounds.x, bounds.y, bounds.width, bounds.height);
+        }
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder();
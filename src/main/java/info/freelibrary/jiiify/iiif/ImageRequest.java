@@ -3,8 +3,8 @@ package info.freelibrary.jiiify.iiif;
 
 import static info.freelibrary.jiiify.Constants.MESSAGES;
 
+import java.awt.Rectangle;
 import java.net.URISyntaxException;
-import java.nio.file.Paths;
 import java.util.StringJoiner;
 
 import info.freelibrary.jiiify.MessageCodes;
@@ -41,6 +41,9 @@ public class ImageRequest implements Cloneable {
 
     private ImageFormat myFormat;
 
+    /* The Pairtree path of the request, when it's known without being built from the request's parts */
+    private String myPath;
+
     /**
      * Creates a IIIF image request object for a particular image region.
      *
@@ -118,6 +121,31 @@ public class ImageRequest implements Cloneable {
         myFormat = aFormat;
     }
 
+    /**
+     * Creates a IIIF image request object from parts that have already been parsed from a request path.
+     *
+     * @param aID An ID for the image being requested
+     * @param aServicePrefix A IIIF service prefix, without slashes
+     * @param aRegion A region from the requested image
+     * @param aSize A requested image size
+     * @param aRotation A rotation to perform on the requested image region
+     * @param aQuality A quality of image to return
+     * @param aFormat A format of image to return
+     * @param aPath The Pairtree path of the request or null if it should be built from the request's parts
+     */
+    ImageRequest(final String aID, final String aServicePrefix, final ImageRegion aRegion, final ImageSize aSize,
+            final ImageRotation aRotation, final ImageQuality aQuality, final ImageFormat aFormat,
+            final String aPath) {
+        myID = aID;
+        myServicePrefix = aServicePrefix;
+        myRegion = aRegion;
+        mySize = aSize;
+        myRotation = aRotation;
+        myQuality = aQuality;
+        myFormat = aFormat;
+        myPath = aPath;
+    }
+
     /**
      * Takes a IIIF request in the form of /service-prefix/id/region/size/rotation/quality.format
      *
@@ -182,6 +210,7 @@ public class ImageRequest implements Cloneable {
      */
     public void setRegion(final ImageRegion aImageRegion) {
         myRegion = aImageRegion;
+        myPath = null;
     }
 
     /**
@@ -200,6 +229,7 @@ public class ImageRequest implements Cloneable {
      */
     public void setSize(final ImageSize aImageSize) {
         mySize = aImageSize;
+        myPath = null;
     }
 
     /**
@@ -218,6 +248,7 @@ public class ImageRequest implements Cloneable {
      */
     public void setRotation(final ImageRotation aImageRotation) {
         myRotation = aImageRotation;
+        myPath = null;
     }
 
     /**
@@ -236,6 +267,7 @@ public class ImageRequest implements Cloneable {
      */
     public void setQuality(final ImageQuality aImageQuality) {
         myQuality = aImageQuality;
+        myPath = null;
     }
 
     /**
@@ -254,6 +286,7 @@ public class ImageRequest implements Cloneable {
      */
     public void setFormat(final ImageFormat aImageFormat) {
         myFormat = aImageFormat;
+        myPath = null;
     }
 
     @Override
@@ -271,8 +304,35 @@ public class ImageRequest implements Cloneable {
      * @return A Pairtree object path for this image request
      */
     public String getPath() {
-        final String fileName = StringUtils.toString('.', myQuality, myFormat);
-        return Paths.get(myRegion.toString(), mySize.toString(), myRotation.toString(), fileName).toString();
+        if (myPath == null) {
+            myPath = new StringBuilder(myRegion.toString()).append(DELIM).append(mySize).append(DELIM).append(
+                    myRotation).append(DELIM).append(myQuality).append('.').append(myFormat).toString();
+        }
+
+        return myPath;
+    }
+
+    /**
+     * Gets the canonical form of this image request for an image of the supplied size. Requests that describe the
+     * same pixels (e.g., a <code>pct:</code> region and its pixel equivalent) have the same canonical form, and so
+     * the same Pairtree path.
+     *
+     * @param aImageWidth The width of the requested image
+     * @param aImageHeight The height of the requested image
+     * @return The canonical form of this image request
+     */
+    public ImageRequest getCanonicalForm(final int aImageWidth, final int aImageHeight) {
+        final ImageRequest request = clone();
+        final ImageRegion region = myRegion.getCanonicalForm(aImageWidth, aImageHeight);
+        final Rectangle bounds = region.getBounds(aImageWidth, aImageHeight);
+
+        request.setRegion(region);
+
+        if (!bounds.isEmpty()) {
+            request.setSize(mySize.getCanonicalForm(bounds.width, bounds.height));
+        }
+
+        return request;
     }
 
     /**
@@ -0,0 +1,244 @@
+
+package info.freelibrary.jiiify.iiif;
+
+import static info.freelibrary.jiiify.Constants.MESSAGES;
+
+import info.freelibrary.jiiify.MessageCodes;
+import info.freelibrary.jiiify.util.PathUtils;
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+/**
+ * A single-pass parser for IIIF image request paths (/service-prefix/id/region/size/rotation/quality.format). The
+ * path is scanned once to find its parts and the forms that tile requests use (<code>full</code>, integer regions
+ * and sizes, whole-degree rotations, and the supported qualities and formats) are read in place, without splitting
+ * the path or using regular expressions. Other forms (e.g., percentages, <code>!w,h</code> sizes, and mirrored
+ * rotations) are handed to the constructors of the request's parts.
+ * <p>
+ * When every part of the path is already in the form its parsed part would print, the request's Pairtree path is
+ * taken straight from the request path rather than being rebuilt.
+ * </p>
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public final class ImageRequestParser {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageRequestParser.class, MESSAGES);
+
+    private static final String[] QUALITIES = { ImageQuality.DEFAULT, ImageQuality.COLOR, ImageQuality.GRAY,
+        ImageQuality.BITONAL };
+
+    /* The supported formats that are also their own canonical form (i.e., not "tiff") */
+    private static final String[] FORMATS = { ImageFormat.JPG_EXT, ImageFormat.PNG_EXT, ImageFormat.GIF_EXT,
+        ImageFormat.TIF_EXT, ImageFormat.JP2_EXT, ImageFormat.PDF_EXT, ImageFormat.WEBP_EXT };
+
+    /* The number of parts in an image request path */
+    private static final int PART_COUNT = 6;
+
+    /* Region values with more digits than this print in exponent notation, so they're not read in place */
+    private static final int MAX_DIGITS = 7;
+
+    private static final int NOT_AN_INT = -1;
+
+    private ImageRequestParser() {
+    }
+
+    /**
+     * Parses a IIIF image request path.
+     *
+     * @param aPath A IIIF image request path in the form of /service-prefix/id/region/size/rotation/quality.format
+     * @return The image request
+     * @throws IIIFException If the supplied path isn't a valid IIIF image request
+     */
+    public static ImageRequest parse(final String aPath) throws IIIFException {
+        final int[] slashes = new int[PART_COUNT + 1];
+        final int length = aPath.length();
+
+        ImageRegion region;
+        ImageSize size;
+        ImageRotation rotation;
+        ImageQuality quality;
+        ImageFormat format;
+        boolean isCanonical = true;
+        int slashCount = 0;
+        int dot = -1;
+        String value;
+        String id;
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(MessageCodes.DBG_071, aPath);
+        }
+
+        // Find the boundaries of the parts of the path (and the dot in its last part) in one pass
+        for (int index = 0; index < length; index++) {
+            final char character = aPath.charAt(index);
+
+            if (character == '/') {
+                if (slashCount == PART_COUNT) {
+                    throw new IIIFException(MessageCodes.EXC_091, aPath);
+                }
+
+                slashes[slashCount++] = index;
+                dot = -1;
+            } else if (character == '.') {
+                dot = index;
+            }
+        }
+
+        if (slashCount != PART_COUNT || slashes[0] != 0 || dot == -1) {
+            throw new IIIFException(MessageCodes.EXC_091, aPath);
+        }
+
+        slashes[PART_COUNT] = length;
+
+        id = aPath.substring(slashes[1] + 1, slashes[2]);
+
+        // Only encoded IDs need to go through the (repeated) URL decoding
+        if (id.indexOf('%') != -1 || id.indexOf('+') != -1) {
+            id = PathUtils.decode(id);
+        }
+
+        region = parseRegion(aPath, slashes[2] + 1, slashes[3]);
+
+        if (region == null) {
+            region = new ImageRegion(aPath.substring(slashes[2] + 1, slashes[3]));
+            isCanonical = false;
+        }
+
+        size = parseSize(aPath, slashes[3] + 1, slashes[4]);
+
+        if (size == null) {
+            size = new ImageSize(aPath.substring(slashes[3] + 1, slashes[4]));
+            isCanonical = false;
+        }
+
+        rotation = parseRotation(aPath, slashes[4] + 1, slashes[5]);
+
+        if (rotation == null) {
+            rotation = new ImageRotation(aPath.substring(slashes[4] + 1, slashes[5]));
+            isCanonical = false;
+        }
+
+        value = find(QUALITIES, aPath, slashes[5] + 1, dot);
+        quality = new ImageQuality(value == null ? aPath.substring(slashes[5] + 1, dot) : value);
+        value = find(FORMATS, aPath, dot + 1, length);
+
+        if (value == null) {
+            format = new ImageFormat(aPath.substring(dot + 1));
+            isCanonical = false;
+        } else {
+            format = new ImageFormat(value);
+        }
+
+        return new ImageRequest(id, aPath.substring(1, slashes[1]), region, size, rotation, quality, format,
+                isCanonical ? aPath.substring(slashes[2] + 1) : null);
+    }
+
+    private static ImageRegion parseRegion(final String aPath, final int aStart, final int aEnd) {
+        final int[] commas = new int[3];
+        int commaCount = 0;
+
+        if (isFull(aPath, aStart, aEnd)) {
+            return new ImageRegion();
+        }
+
+        for (int index = aStart; index < aEnd; index++) {
+            if (aPath.charAt(index) == ',') {
+                if (commaCount == commas.length) {
+                    return null;
+                }
+
+                commas[commaCount++] = index;
+            }
+        }
+
+        if (commaCount == commas.length) {
+            final int x = parseInt(aPath, aStart, commas[0], MAX_DIGITS);
+            final int y = parseInt(aPath, commas[0] + 1, commas[1], MAX_DIGITS);
+            final int width = parseInt(aPath, commas[1] + 1, commas[2], MAX_DIGITS);
+            final int height = parseInt(aPath, commas[2] + 1, aEnd, MAX_DIGITS);
+
+            if (x != NOT_AN_INT && y != NOT_AN_INT && width != NOT_AN_INT && height != NOT_AN_INT) {
+                return new ImageRegion(x, y, width, height);
+            }
+        }
+
+        return null;
+    }
+
+    private static ImageSize parseSize(final String aPath, final int aStart, final int aEnd) {
+        final int comma = aPath.indexOf(',', aStart);
+        final int width;
+        final int height;
+
+        if (isFull(aPath, aStart, aEnd)) {
+            return new ImageSize();
+        }
+
+        if (comma == -1 || comma >= aEnd) {
+            return null;
+        }
+
+        // A missing width or height (as in "w," and ",h") is zero; written zeros aren't read in place
+        width = comma == aStart ? 0 : parseInt(aPath, aStart, comma, MAX_DIGITS);
+        height = comma + 1 == aEnd ? 0 : parseInt(aPath, comma + 1, aEnd, MAX_DIGITS);
+
+        if (width == NOT_AN_INT || height == NOT_AN_INT || (width == 0) == (comma != aStart) || (height == 0) == (
+                comma + 1 != aEnd) || width == 0 && height == 0) {
+            return null;
+        }
+
+        return new ImageSize(width, height);
+    }
+
+    private static ImageRotation parseRotation(final String aPath, final int aStart, final int aEnd)
+            throws InvalidRotationException {
+        final int rotation = parseInt(aPath, aStart, aEnd, 3);
+
+        return rotation == NOT_AN_INT || rotation > 360 ? null : new ImageRotation((float) rotation);
+    }
+
+    private static boolean isFull(final String aPath, final int aStart, final int aEnd) {
+        return aEnd - aStart == ImageRegion.FULL.length() && aPath.startsWith(ImageRegion.FULL, aStart);
+    }
+
+    /**
+     * Finds which of the supplied values is in the supplied part of the path.
+     *
+     * @return The value or null if none of the values is in that part of the path
+     */
+    private static String find(final String[] aValues, final String aPath, final int aStart, final int aEnd) {
+        for (final String value : aValues) {
+            if (aEnd - aStart == value.length() && aPath.startsWith(value, aStart)) {
+                return value;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Reads a non-negative integer, written without leading zeros, from part of the path.
+     *
+     * @return The integer or <code>NOT_AN_INT</code> if that part of the path isn't such an integer
+     */
+    private static int parseInt(final String aPath, final int aStart, final int aEnd, final int aMaxDigits) {
+        int value = 0;
+
+        if (aStart >= aEnd || aEnd - aStart > aMaxDigits || aPath.charAt(aStart) == '0' && aEnd - aStart > 1) {
+            return NOT_AN_INT;
+        }
+
+        for (int index = aStart; index < aEnd; index++) {
+            final char character = aPath.charAt(index);
+
+            if (character < '0' || character > '9') {
+                return NOT_AN_INT;
+            }
+
+            value = value * 10 + (character - '0');
+        }
+
+        return value;
+    }
+}
@@ -188,6 +188,51 @@ public class ImageSize {
         return myHeight != 0;
     }
 
+    /**
+     * Gets the canonical form of this size for a region of the supplied size: <code>full</code> if the region isn't
+     * scaled, <code>w,</code> if its aspect ratio is kept, or <code>w,h</code> if it's not. Like the image processing,
+     * requested sizes are capped at the size of the region. A <code>w,</code> size that's the region's width is kept
+     * as it is, though, since that's the form in which full resolution tiles are requested and stored.
+     *
+     * @param aRegionWidth The width of the region being sized
+     * @param aRegionHeight The height of the region being sized
+     * @return The canonical form of this size
+     */
+    public ImageSize getCanonicalForm(final int aRegionWidth, final int aRegionHeight) {
+        final int width;
+        final int height;
+
+        if (isPercentage) {
+            width = Math.round((myPercentage / 100f) * aRegionWidth);
+            height = Math.round((myPercentage / 100f) * aRegionHeight);
+        } else if (isScalable) {
+            final double scale = Math.min(1d, Math.min((double) myWidth / aRegionWidth, (double) myHeight /
+                    aRegionHeight));
+
+            width = (int) Math.round(scale * aRegionWidth);
+            height = (int) Math.round(scale * aRegionHeight);
+        } else if (!hasHeight()) {
+            width = Math.min(myWidth, aRegionWidth);
+            height = (int) Math.round((double) width / aRegionWidth * aRegionHeight);
+        } else if (!hasWidth()) {
+            height = Math.min(myHeight, aRegionHeight);
+            width = (int) Math.round((double) height / aRegionHeight * aRegionWidth);
+        } else {
+            width = Math.min(myWidth, aRegionWidth);
+            height = Math.min(myHeight, aRegionHeight);
+        }
+
+        if (width == aRegionWidth && height == aRegionHeight) {
+            final boolean isTileSize = !isPercentage && !isScalable && !hasHeight() && myWidth == aRegionWidth;
+
+            return isFullSize() || isTileSize ? this : new ImageSize();
+        } else if (height == Math.round((double) width / aRegionWidth * aRegionHeight)) {
+            return new ImageSize(width, 0);
+        } else {
+            return new ImageSize(width, height);
+        }
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder();
@@ -251,7 +296,7 @@ public class ImageSize {
         if (myHeight == 0) {
             if (isPercentage) {
                 LOGGER.debug(MessageCodes.DBG_073, myPercentage);
-                height = (myPercentage / 100) * aImageHeight;
+                height = Math.round((myPercentage / 100f) * aImageHeight);
             } else {
                 height = Math.round(scale(myWidth, aImageWidth) * aImageHeight);
                 LOGGER.debug(MessageCodes.DBG_074, height);
@@ -286,7 +331,7 @@ public class ImageSize {
         if (myWidth == 0) {
             if (isPercentage) {
                 LOGGER.debug(MessageCodes.DBG_078, myPercentage);
-                width = (myPercentage / 100) * aImageWidth;
+                width = Math.round((myPercentage / 100f) * aImageWidth);
             } else {
                 width = Math.round(scale(myHeight, aImageHeight) * aImageWidth);
                 LOGGER.debug(MessageCodes.DBG_079, width);
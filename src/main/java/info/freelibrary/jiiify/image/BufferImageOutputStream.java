@@ -0,0 +1,103 @@
+
+package info.freelibrary.jiiify.image;
+
+import java.io.IOException;
+
+import javax.imageio.stream.ImageOutputStreamImpl;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * An image output stream that writes straight into a Vert.x {@link io.vertx.core.buffer.Buffer}, so an encoded image
+ * doesn't need to be copied out of an intermediate stream. Image writers that seek back to patch what they've
+ * already written (e.g., the PNG writer's chunk lengths) write over the buffer's existing bytes.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+final class BufferImageOutputStream extends ImageOutputStreamImpl {
+
+    private final Buffer myBuffer;
+
+    /**
+     * Creates a new image output stream that writes into the supplied buffer.
+     *
+     * @param aBuffer An empty buffer
+     */
+    BufferImageOutputStream(final Buffer aBuffer) {
+        myBuffer = aBuffer;
+    }
+
+    /**
+     * Gets the buffer the stream has written into.
+     *
+     * @return The buffer the stream has written into
+     */
+    Buffer getBuffer() {
+        return myBuffer;
+    }
+
+    @Override
+    public void write(final int aByte) throws IOException {
+        checkClosed();
+        flushBits();
+
+        if (streamPos == myBuffer.length()) {
+            myBuffer.appendByte((byte) aByte);
+        } else {
+            myBuffer.setByte((int) streamPos, (byte) aByte);
+        }
+
+        streamPos += 1;
+    }
+
+    @Override
+    public void write(final byte[] aBytes, final int aOffset, final int aLength) throws IOException {
+        checkClosed();
+        flushBits();
+
+        if (streamPos == myBuffer.length()) {
+            myBuffer.appendBytes(aBytes, aOffset, aLength);
+        } else {
+            myBuffer.setBytes((int) streamPos, aBytes, aOffset, aLength);
+        }
+
+        streamPos += aLength;
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkClosed();
+        bitOffset = 0;
+
+        if (streamPos >= myBuffer.length()) {
+            return -1;
+        }
+
+        return myBuffer.getByte((int) streamPos++) & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] aBytes, final int aOffset, final int aLength) throws IOException {
+        final int length;
+
+        checkClosed();
+        bitOffset = 0;
+
+        if (aLength == 0) {
+            return 0;
+        } else if (streamPos >= myBuffer.length()) {
+            return -1;
+        }
+
+        length = (int) Math.min(aLength, myBuffer.length() - streamPos);
+        System.arraycopy(myBuffer.getBytes((int) streamPos, (int) streamPos + length), 0, aBytes, aOffset, length);
+        streamPos += length;
+
+        return length;
+    }
+
+    @Override
+    public long length() {
+        return myBuffer.length();
+    }
+}
@@ -0,0 +1,171 @@
+
+package info.freelibrary.jiiify.image;
+
+import java.util.Objects;
+
+/**
+ * A named set of encoding settings for a kind of derivative image (e.g., tiles, thumbnails, or full images). The
+ * quality, chroma subsampling and Huffman table settings only apply to JPEG images; progressive encoding applies to
+ * any format that supports it (e.g., PNG images are interlaced).
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public final class EncodingProfile {
+
+    /** The name of the profile for tiles */
+    public static final String TILE = "tile";
+
+    /** The name of the profile for thumbnails */
+    public static final String THUMBNAIL = "thumbnail";
+
+    /** The name of the profile for full images */
+    public static final String FULL = "full";
+
+    /** Chroma subsampling that halves the color resolution in both directions */
+    public static final String SUBSAMPLING_420 = "4:2:0";
+
+    /** Chroma subsampling that halves the color resolution horizontally */
+    public static final String SUBSAMPLING_422 = "4:2:2";
+
+    /** No chroma subsampling */
+    public static final String SUBSAMPLING_444 = "4:4:4";
+
+    /** The default profile for tiles, which are small and many, so they're encoded as cheaply as possible */
+    public static final EncodingProfile DEFAULT_TILE = new EncodingProfile(TILE, 0.8f, false, SUBSAMPLING_420,
+            false);
+
+    /** The default profile for thumbnails */
+    public static final EncodingProfile DEFAULT_THUMBNAIL = new EncodingProfile(THUMBNAIL, 0.85f, false,
+            SUBSAMPLING_420, true);
+
+    /** The default profile for full images, which are large enough to benefit from progressive encoding */
+    public static final EncodingProfile DEFAULT_FULL = new EncodingProfile(FULL, 0.9f, true, SUBSAMPLING_420, true);
+
+    private final String myName;
+
+    private final float myQuality;
+
+    private final boolean isProgressive;
+
+    private final String mySubsampling;
+
+    private final boolean isOptimized;
+
+    /**
+     * Creates a new encoding profile.
+     *
+     * @param aName The name of the profile
+     * @param aQuality The JPEG quality, from 0.0 to 1.0
+     * @param aProgressive Whether images are encoded progressively rather than as baseline images
+     * @param aSubsampling The JPEG chroma subsampling (i.e., <code>4:2:0</code>, <code>4:2:2</code>, or
+     *        <code>4:4:4</code>)
+     * @param aOptimized Whether optimized JPEG Huffman tables are computed for each image
+     * @throws IllegalArgumentException If the quality or chroma subsampling isn't valid
+     */
+    public EncodingProfile(final String aName, final float aQuality, final boolean aProgressive,
+            final String aSubsampling, final boolean aOptimized) {
+        if (aQuality < 0f || aQuality > 1f || Float.isNaN(aQuality)) {
+            throw new IllegalArgumentException(Float.toString(aQuality));
+        }
+
+        if (!SUBSAMPLING_420.equals(aSubsampling) && !SUBSAMPLING_422.equals(aSubsampling) && !SUBSAMPLING_444
+                .equals(aSubsampling)) {
+            throw new IllegalArgumentException(aSubsampling);
+        }
+
+        myName = aName;
+        myQuality = aQuality;
+        isProgressive = aProgressive;
+        mySubsampling = aSubsampling;
+        isOptimized = aOptimized;
+    }
+
+    /**
+     * Gets the name of the profile.
+     *
+     * @return The name of the profile
+     */
+    public String getName() {
+        return myName;
+    }
+
+    /**
+     * Gets the JPEG quality.
+     *
+     * @return The JPEG quality, from 0.0 to 1.0
+     */
+    public float getQuality() {
+        return myQuality;
+    }
+
+    /**
+     * Returns whether images are encoded progressively.
+     *
+     * @return True if images are encoded progressively; else, false
+     */
+    public boolean isProgressive() {
+        return isProgressive;
+    }
+
+    /**
+     * Gets the JPEG chroma subsampling.
+     *
+     * @return The JPEG chroma subsampling
+     */
+    public String getSubsampling() {
+        return mySubsampling;
+    }
+
+    /**
+     * Gets the horizontal sampling factor of a JPEG image's luma component, relative to its chroma components.
+     *
+     * @return The horizontal sampling factor of the luma component
+     */
+    int getHorizontalSampling() {
+        return SUBSAMPLING_444.equals(mySubsampling) ? 1 : 2;
+    }
+
+    /**
+     * Gets the vertical sampling factor of a JPEG image's luma component, relative to its chroma components.
+     *
+     * @return The vertical sampling factor of the luma component
+     */
+    int getVerticalSampling() {
+        return SUBSAMPLING_420.equals(mySubsampling) ? 2 : 1;
+    }
+
+    /**
+     * Returns whether optimized JPEG Huffman tables are computed for each image.
+     *
+     * @return True if optimized Huffman tables are computed; else, false
+     */
+    public boolean isOptimized() {
+        return isOptimized;
+    }
+
+    @Override
+    public boolean equals(final Object aObject) {
+        if (this == aObject) {
+            return true;
+        } else if (!(aObject instanceof EncodingProfile)) {
+            return false;
+        }
+
+        final EncodingProfile profile = (EncodingProfile) aObject;
+
+        return Objects.equals(myName, profile.myName) && Float.compare(myQuality, profile.myQuality) == 0 &&
+                isProgressive == profile.isProgressive && mySubsampling.equals(profile.mySubsampling) &&
+                isOptimized == profile.isOptimized;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(myName, myQuality, isProgressive, mySubsampling, isOptimized);
+    }
+
+    @Override
+    public String toString() {
+        return myName + " [quality: " + myQuality + "; progressive: " + isProgressive + "; subsampling: " +
+                mySubsampling + "; optimized: " + isOptimized + "]";
+    }
+}
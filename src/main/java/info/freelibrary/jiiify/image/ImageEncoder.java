@@ -0,0 +1,169 @@
+
+package info.freelibrary.jiiify.image;
+
+import static info.freelibrary.jiiify.Constants.MESSAGES;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOInvalidTreeException;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.plugins.jpeg.JPEGImageWriteParam;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import info.freelibrary.jiiify.MessageCodes;
+import info.freelibrary.jiiify.iiif.ImageFormat;
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * An encoder that writes images with the settings of an {@link EncodingProfile}. Image writers are looked up once
+ * per format on each thread and then reused, and images are written straight into the Vert.x buffers that are
+ * returned. Each thread also remembers how large the last image it encoded with a profile was, so the next buffer
+ * for that profile starts out large enough that it rarely needs to grow.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public final class ImageEncoder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageEncoder.class, MESSAGES);
+
+    private static final String JPEG_METADATA = "javax_imageio_jpeg_image_1.0";
+
+    /* The size of a new buffer when nothing's been encoded with a profile yet */
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /* Image writers, by MIME type, for each thread */
+    private static final ThreadLocal<Map<String, ImageWriter>> WRITERS = ThreadLocal.withInitial(HashMap::new);
+
+    /* The size of the last image encoded with each profile and format, for each thread */
+    private static final ThreadLocal<Map<String, Integer>> SIZES = ThreadLocal.withInitial(HashMap::new);
+
+    private ImageEncoder() {
+    }
+
+    /**
+     * Encodes an image with the settings of the supplied encoding profile.
+     *
+     * @param aImage An image
+     * @param aFileExt A file extension that indicates the desired output format
+     * @param aProfile An encoding profile
+     * @return A buffer with the encoded image
+     * @throws IOException If the image can't be encoded
+     */
+    public static Buffer encode(final BufferedImage aImage, final String aFileExt, final EncodingProfile aProfile)
+            throws IOException {
+        final String mimeType = ImageFormat.getMIMEType(aFileExt);
+        final ImageWriter writer = getWriter(mimeType);
+        final ImageWriteParam param = writer.getDefaultWriteParam();
+        final String sizeKey = aProfile.getName() + '.' + mimeType;
+        final Integer lastSize = SIZES.get().get(sizeKey);
+        final BufferImageOutputStream outStream = new BufferImageOutputStream(Buffer.buffer(lastSize == null
+                ? DEFAULT_BUFFER_SIZE : lastSize + lastSize / 4));
+        BufferedImage image = aImage;
+        IIOMetadata metadata = null;
+
+        if (param.canWriteProgressive()) {
+            param.setProgressiveMode(aProfile.isProgressive() ? ImageWriteParam.MODE_DEFAULT
+                    : ImageWriteParam.MODE_DISABLED);
+        }
+
+        if (param instanceof JPEGImageWriteParam) {
+            // JPEGs can't have one bit for each pixel, so bitonal images are written as (smaller) grayscale images
+            if (ImageTransforms.isBitonal(image)) {
+                image = ImageTransforms.toGray(image);
+            }
+
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(aProfile.getQuality());
+            ((JPEGImageWriteParam) param).setOptimizeHuffmanTables(aProfile.isOptimized());
+            metadata = getJPEGMetadata(writer, param, image, aProfile);
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(MessageCodes.DBG_119, aFileExt, aProfile);
+        }
+
+        try {
+            writer.setOutput(outStream);
+            // TODO: Keep metadata, too
+            writer.write(null, new IIOImage(image, null, metadata), param);
+            outStream.flush();
+            writer.reset();
+        } catch (final IOException | RuntimeException details) {
+            // A writer that failed may be in any state, so it's not reused
+            WRITERS.get().remove(mimeType);
+            writer.dispose();
+            throw details;
+        } finally {
+            outStream.close();
+        }
+
+        SIZES.get().put(sizeKey, outStream.getBuffer().length());
+        return outStream.getBuffer();
+    }
+
+    private static ImageWriter getWriter(final String aMimeType) throws IOException {
+        final Map<String, ImageWriter> writers = WRITERS.get();
+        ImageWriter writer = writers.get(aMimeType);
+
+        if (writer == null) {
+            final Iterator<ImageWriter> iterator = ImageIO.getImageWritersByMIMEType(aMimeType);
+
+            if (!iterator.hasNext()) {
+                throw new IOException(LOGGER.getMessage(MessageCodes.EXC_071, aMimeType));
+            }
+
+            writer = iterator.next();
+            writers.put(aMimeType, writer);
+        }
+
+        return writer;
+    }
+
+    /**
+     * Gets JPEG image metadata with the chroma subsampling of the supplied profile. Images that don't have three
+     * color components (e.g., grayscale images) get the writer's default metadata.
+     */
+    private static IIOMetadata getJPEGMetadata(final ImageWriter aWriter, final ImageWriteParam aParam,
+            final BufferedImage aImage, final EncodingProfile aProfile) throws IIOInvalidTreeException {
+        final ImageTypeSpecifier type = ImageTypeSpecifier.createFromRenderedImage(aImage);
+        final IIOMetadata metadata = aWriter.getDefaultImageMetadata(type, aParam);
+        final Node tree;
+        final NodeList components;
+
+        if (metadata == null || !JPEG_METADATA.equals(metadata.getNativeMetadataFormatName()) || aImage
+                .getColorModel().getNumColorComponents() != 3) {
+            return metadata;
+        }
+
+        tree = metadata.getAsTree(JPEG_METADATA);
+        components = ((Element) tree).getElementsByTagName("componentSpec");
+
+        // The first component is luma; the chroma components are sampled relative to it
+        for (int index = 0; index < components.getLength(); index++) {
+            final Element component = (Element) components.item(index);
+
+            component.setAttribute("HsamplingFactor", Integer.toString(index == 0 ? aProfile
+                    .getHorizontalSampling() : 1));
+            component.setAttribute("VsamplingFactor", Integer.toString(index == 0 ? aProfile.getVerticalSampling()
+                    : 1));
+        }
+
+        metadata.setFromTree(JPEG_METADATA, tree);
+        return metadata;
+    }
+}
@@ -77,4 +77,15 @@ public interface ImageObject {
      */
     Buffer toBuffer(String aFileExt) throws IOException;
 
+    /**
+     * Writes the image object to a Vertx {@link io.vertx.core.buffer.Buffer} with the settings of the supplied
+     * encoding profile.
+     *
+     * @param aFileExt A file extension to indicate desired image output format
+     * @param aProfile An encoding profile
+     * @throws IOException If there is trouble writing the image to the Vert.x buffer
+     * @return A Vert.x {@link io.vertx.core.buffer.Buffer}
+     */
+    Buffer toBuffer(String aFileExt, EncodingProfile aProfile) throws IOException;
+
 }
@@ -0,0 +1,455 @@
+
+package info.freelibrary.jiiify.image;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * The rotations and quality changes that are applied to images in the image worker's pipeline. Rotations by a
+ * multiple of ninety degrees (and mirroring) just move pixels around, a row at a time, so they're lossless and don't
+ * interpolate; only other angles are drawn with an affine transform. Gray and bitonal images are created with lookup
+ * tables rather than with a color conversion.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+final class ImageTransforms {
+
+    /* Fixed point luma weights (ITU-R BT.601) for each value of each color component */
+    private static final int[] RED_LUMA = new int[256];
+
+    private static final int[] GREEN_LUMA = new int[256];
+
+    private static final int[] BLUE_LUMA = new int[256];
+
+    /* The gray value at and above which a bitonal pixel is white */
+    private static final int BITONAL_THRESHOLD = 128;
+
+    /* The width and height of the blocks of pixels that are copied together when an image is rotated */
+    private static final int BLOCK_SIZE = 64;
+
+    private static final int FIXED_POINT_SHIFT = 16;
+
+    private static final int FIXED_POINT_ONE = 1 << FIXED_POINT_SHIFT;
+
+    static {
+        for (int value = 0; value < 256; value++) {
+            RED_LUMA[value] = (int) Math.round(0.299 * FIXED_POINT_ONE * value);
+            GREEN_LUMA[value] = (int) Math.round(0.587 * FIXED_POINT_ONE * value);
+            // The blue weights also round the sum of the weights to the nearest gray value
+            BLUE_LUMA[value] = (int) Math.round(0.114 * FIXED_POINT_ONE * value) + FIXED_POINT_ONE / 2;
+        }
+    }
+
+    private ImageTransforms() {
+    }
+
+    /**
+     * Rotates an image clockwise by a number of quarter turns, mirroring it first if requested. Pixels are copied
+     * without any interpolation: straight from the source's pixel array if it has one or, if not, a row or column of
+     * the source image at a time. The rotated image is drawn from the shared {@link RasterPool}.
+     *
+     * @param aImage An image
+     * @param aQuarterTurns The number of clockwise quarter turns, from zero to three
+     * @param aMirrored Whether the image is mirrored before it's rotated
+     * @return The rotated image
+     */
+    static BufferedImage transpose(final BufferedImage aImage, final int aQuarterTurns, final boolean aMirrored) {
+        final WritableRaster source = aImage.getRaster();
+        final int width = aImage.getWidth();
+        final int height = aImage.getHeight();
+        final boolean isSideways = aQuarterTurns % 2 == 1;
+        final int newWidth = isSideways ? height : width;
+        final int newHeight = isSideways ? width : height;
+        final BufferedImage image = RasterPool.getShared().getImage(aImage, newWidth, newHeight);
+        final WritableRaster raster = image.getRaster();
+        final int elements = source.getNumDataElements();
+
+        Object line = null;
+        Object reversedLine = null;
+
+        if (isPixelArray(source, width) && isPixelArray(raster, newWidth)) {
+            transpose(source, raster, aQuarterTurns, aMirrored);
+        } else {
+            for (int y = 0; y < newHeight; y++) {
+                final boolean isReversed;
+
+                switch (aQuarterTurns) {
+                    case 1:
+                        line = source.getDataElements(aMirrored ? width - 1 - y : y, 0, 1, height, line);
+                        isReversed = true;
+                        break;
+                    case 2:
+                        line = source.getDataElements(0, height - 1 - y, width, 1, line);
+                        isReversed = !aMirrored;
+                        break;
+                    case 3:
+                        line = source.getDataElements(aMirrored ? y : width - 1 - y, 0, 1, height, line);
+                        isReversed = false;
+                        break;
+                    default:
+                        line = source.getDataElements(0, y, width, 1, line);
+                        isReversed = aMirrored;
+                }
+
+                if (isReversed) {
+                    reversedLine = reverse(line, reversedLine, newWidth, elements);
+                    raster.setDataElements(0, y, newWidth, 1, reversedLine);
+                } else {
+                    raster.setDataElements(0, y, newWidth, 1, line);
+                }
+            }
+        }
+
+        return image;
+    }
+
+    /**
+     * Moves the pixels of a raster whose pixels are packed into one array into another such raster, rotated by a
+     * number of quarter turns. Each pixel of the new raster is copied from a pixel whose index in the source array
+     * changes by a fixed step along each of the new raster's rows and columns. The pixels are copied in small blocks
+     * so that the source's rows and columns both stay in the processor's cache.
+     */
+    private static void transpose(final WritableRaster aSource, final WritableRaster aRaster, final int aQuarterTurns,
+            final boolean aMirrored) {
+        final int width = aSource.getWidth();
+        final int height = aSource.getHeight();
+        final int newWidth = aRaster.getWidth();
+        final int newHeight = aRaster.getHeight();
+        final int start;
+        final int xStep;
+        final int yStep;
+
+        switch (aQuarterTurns) {
+            case 1:
+                start = (height - 1) * width + (aMirrored ? width - 1 : 0);
+                xStep = -width;
+                yStep = aMirrored ? -1 : 1;
+                break;
+            case 2:
+                start = (height - 1) * width + (aMirrored ? 0 : width - 1);
+                xStep = aMirrored ? 1 : -1;
+                yStep = -width;
+                break;
+            case 3:
+                start = aMirrored ? 0 : width - 1;
+                xStep = width;
+                yStep = aMirrored ? 1 : -1;
+                break;
+            default:
+                start = aMirrored ? width - 1 : 0;
+                xStep = aMirrored ? -1 : 1;
+                yStep = width;
+        }
+
+        if (aSource.getDataBuffer() instanceof DataBufferInt) {
+            final int[] source = ((DataBufferInt) aSource.getDataBuffer()).getData();
+            final int[] pixels = ((DataBufferInt) aRaster.getDataBuffer()).getData();
+
+            for (int blockY = 0; blockY < newHeight; blockY += BLOCK_SIZE) {
+                for (int blockX = 0; blockX < newWidth; blockX += BLOCK_SIZE) {
+                    final int maxY = Math.min(blockY + BLOCK_SIZE, newHeight);
+                    final int maxX = Math.min(blockX + BLOCK_SIZE, newWidth);
+
+                    for (int y = blockY; y < maxY; y++) {
+                        for (int x = blockX, from = start + blockX * xStep + y * yStep; x < maxX; x++, from += xStep) {
+                            pixels[y * newWidth + x] = source[from];
+                        }
+                    }
+                }
+            }
+        } else {
+            final byte[] source = ((DataBufferByte) aSource.getDataBuffer()).getData();
+            final byte[] pixels = ((DataBufferByte) aRaster.getDataBuffer()).getData();
+            final int elements = aSource.getNumDataElements();
+
+            for (int blockY = 0; blockY < newHeight; blockY += BLOCK_SIZE) {
+                for (int blockX = 0; blockX < newWidth; blockX += BLOCK_SIZE) {
+                    final int maxY = Math.min(blockY + BLOCK_SIZE, newHeight);
+                    final int maxX = Math.min(blockX + BLOCK_SIZE, newWidth);
+
+                    for (int y = blockY; y < maxY; y++) {
+                        int to = (y * newWidth + blockX) * elements;
+
+                        for (int x = blockX, from = (start + blockX * xStep + y * yStep) * elements; x < maxX;
+                                x++, from += xStep * elements) {
+                            switch (elements) {
+                                case 4:
+                                    pixels[to++] = source[from];
+                                    pixels[to++] = source[from + 1];
+                                    pixels[to++] = source[from + 2];
+                                    pixels[to++] = source[from + 3];
+                                    break;
+                                case 3:
+                                    pixels[to++] = source[from];
+                                    pixels[to++] = source[from + 1];
+                                    pixels[to++] = source[from + 2];
+                                    break;
+                                case 1:
+                                    pixels[to++] = source[from];
+                                    break;
+                                default:
+                                    System.arraycopy(source, from, pixels, to, elements);
+                                    to += elements;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether a raster's pixels are packed, one after another and row after row, into a single array of
+     * integers or bytes.
+     */
+    private static boolean isPixelArray(final WritableRaster aRaster, final int aWidth) {
+        final SampleModel model = aRaster.getSampleModel();
+        final DataBuffer buffer = aRaster.getDataBuffer();
+
+        if (aRaster.getSampleModelTranslateX() != 0 || aRaster.getSampleModelTranslateY() != 0 || buffer
+                .getNumBanks() != 1 || buffer.getOffset() != 0) {
+            return false;
+        } else if (model instanceof SinglePixelPackedSampleModel && buffer instanceof DataBufferInt) {
+            return ((SinglePixelPackedSampleModel) model).getScanlineStride() == aWidth;
+        } else if (model instanceof PixelInterleavedSampleModel && buffer instanceof DataBufferByte) {
+            final PixelInterleavedSampleModel interleavedModel = (PixelInterleavedSampleModel) model;
+            final int pixelStride = interleavedModel.getPixelStride();
+
+            return pixelStride == aRaster.getNumDataElements() && interleavedModel.getScanlineStride() == aWidth *
+                    pixelStride;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Rotates an image clockwise by an arbitrary angle. The new image is large enough to hold all of the rotated
+     * image and the corners that aren't covered by it are white (or transparent, if the image has an alpha channel).
+     *
+     * @param aImage An image
+     * @param aDegrees The number of degrees to rotate the image
+     * @return The rotated image
+     */
+    static BufferedImage rotate(final BufferedImage aImage, final double aDegrees) {
+        final double radians = Math.toRadians(aDegrees);
+        final double sin = Math.abs(Math.sin(radians));
+        final double cos = Math.abs(Math.cos(radians));
+        final int width = aImage.getWidth();
+        final int height = aImage.getHeight();
+        final int newWidth = (int) Math.ceil(width * cos + height * sin - 1e-9);
+        final int newHeight = (int) Math.ceil(width * sin + height * cos - 1e-9);
+        final AffineTransform transform = new AffineTransform();
+        final BufferedImage image;
+        final Graphics2D graphics;
+
+        if (aImage.getColorModel().hasAlpha()) {
+            image = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_ARGB);
+        } else if (aImage.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+            image = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_BYTE_GRAY);
+        } else {
+            // Bitonal images are rotated in color, with smooth edges, and are made bitonal again afterwards
+            image = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_RGB);
+        }
+
+        transform.translate(newWidth / 2d, newHeight / 2d);
+        transform.rotate(radians);
+        transform.translate(-width / 2d, -height / 2d);
+
+        graphics = image.createGraphics();
+
+        try {
+            if (!image.getColorModel().hasAlpha()) {
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, newWidth, newHeight);
+            }
+
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+            graphics.drawImage(aImage, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        return isBitonal(aImage) ? toBitonal(image) : image;
+    }
+
+    /**
+     * Converts an image to a grayscale image. Bitonal images are converted, too, since not every format can store one
+     * bit for each pixel (e.g., JPEG). The grayscale image is drawn from the shared {@link RasterPool}.
+     *
+     * @param aImage An image
+     * @return A grayscale image
+     */
+    static BufferedImage toGray(final BufferedImage aImage) {
+        final int width = aImage.getWidth();
+        final int height = aImage.getHeight();
+        final BufferedImage image;
+        final byte[] grays;
+
+        if (aImage.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+            return aImage;
+        }
+
+        image = RasterPool.getShared().getImage(BufferedImage.TYPE_BYTE_GRAY, width, height);
+        grays = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+
+        if (isBitonal(aImage)) {
+            final WritableRaster raster = aImage.getRaster();
+            final int[] samples = new int[width];
+
+            // The bits are unpacked a row at a time, with black at index zero and white at index one
+            for (int y = 0, index = 0; y < height; y++) {
+                raster.getSamples(0, y, width, 1, 0, samples);
+
+                for (int x = 0; x < width; x++, index++) {
+                    grays[index] = (byte) (samples[x] == 0 ? 0 : 0xFF);
+                }
+            }
+        } else {
+            forEachRow(aImage, (y, pixels, offset) -> {
+                for (int x = 0, index = y * width; x < width; x++, index++) {
+                    grays[index] = (byte) luma(pixels[offset + x]);
+                }
+            });
+        }
+
+        return image;
+    }
+
+    /**
+     * Converts an image to a bitonal image with one bit for each pixel.
+     *
+     * @param aImage An image
+     * @return A bitonal image
+     */
+    static BufferedImage toBitonal(final BufferedImage aImage) {
+        final int width = aImage.getWidth();
+        final int height = aImage.getHeight();
+        final BufferedImage image;
+        final WritableRaster raster;
+        final int stride;
+        final byte[] bits;
+
+        if (isBitonal(aImage)) {
+            return aImage;
+        }
+
+        image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY);
+        raster = image.getRaster();
+        stride = ((MultiPixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+        bits = ((DataBufferByte) raster.getDataBuffer()).getData();
+
+        // The bitonal image's color model has black at index zero and white at index one
+        if (aImage.getType() == BufferedImage.TYPE_BYTE_GRAY && aImage.getRaster().getParent() == null) {
+            final byte[] grays = ((DataBufferByte) aImage.getRaster().getDataBuffer()).getData();
+
+            // Gray values are compared as they are, since converting them to RGB would change them
+            for (int y = 0; y < height; y++) {
+                for (int x = 0, index = y * width; x < width; x++, index++) {
+                    if ((grays[index] & 0xFF) >= BITONAL_THRESHOLD) {
+                        bits[y * stride + (x >> 3)] |= 0x80 >> (x & 7);
+                    }
+                }
+            }
+        } else {
+            forEachRow(aImage, (y, pixels, offset) -> {
+                for (int x = 0; x < width; x++) {
+                    if (luma(pixels[offset + x]) >= BITONAL_THRESHOLD) {
+                        bits[y * stride + (x >> 3)] |= 0x80 >> (x & 7);
+                    }
+                }
+            });
+        }
+
+        return image;
+    }
+
+    /**
+     * Returns whether an image has one bit for each pixel.
+     *
+     * @param aImage An image
+     * @return True if the image has one bit for each pixel; else, false
+     */
+    static boolean isBitonal(final BufferedImage aImage) {
+        return aImage.getType() == BufferedImage.TYPE_BYTE_BINARY && aImage.getColorModel().getPixelSize() == 1;
+    }
+
+    private static int luma(final int aRGB) {
+        return RED_LUMA[aRGB >> 16 & 0xFF] + GREEN_LUMA[aRGB >> 8 & 0xFF] + BLUE_LUMA[aRGB & 0xFF] >>
+                FIXED_POINT_SHIFT;
+    }
+
+    /**
+     * Passes each row of an image's RGB pixels to the supplied row handler. Images with integer RGB pixels pass their
+     * own pixels; other images are converted a row at a time.
+     */
+    private static void forEachRow(final BufferedImage aImage, final RowHandler aHandler) {
+        final int width = aImage.getWidth();
+        final int height = aImage.getHeight();
+        final int type = aImage.getType();
+
+        if ((type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB) && aImage.getRaster()
+                .getParent() == null) {
+            final int[] pixels = ((DataBufferInt) aImage.getRaster().getDataBuffer()).getData();
+
+            for (int y = 0; y < height; y++) {
+                aHandler.handle(y, pixels, y * width);
+            }
+        } else {
+            final int[] row = new int[width];
+
+            for (int y = 0; y < height; y++) {
+                aImage.getRGB(0, y, width, 1, row, 0, width);
+                aHandler.handle(y, row, 0);
+            }
+        }
+    }
+
+    /**
+     * Copies a line of pixels, with any number of data elements per pixel, into another array in reverse order.
+     */
+    private static Object reverse(final Object aLine, final Object aReversedLine, final int aPixels,
+            final int aElements) {
+        final Object reversedLine = aReversedLine == null ? copyOf(aLine) : aReversedLine;
+
+        for (int index = 0; index < aPixels; index++) {
+            System.arraycopy(aLine, index * aElements, reversedLine, (aPixels - 1 - index) * aElements, aElements);
+        }
+
+        return reversedLine;
+    }
+
+    private static Object copyOf(final Object aArray) {
+        if (aArray instanceof byte[]) {
+            return ((byte[]) aArray).clone();
+        } else if (aArray instanceof short[]) {
+            return ((short[]) aArray).clone();
+        } else if (aArray instanceof int[]) {
+            return ((int[]) aArray).clone();
+        } else if (aArray instanceof float[]) {
+            return ((float[]) aArray).clone();
+        } else {
+            return ((double[]) aArray).clone();
+        }
+    }
+
+    /**
+     * A handler of a row of an image's RGB pixels.
+     */
+    @FunctionalInterface
+    private interface RowHandler {
+
+        void handle(int aY, int[] aPixels, int aOffset);
+    }
+}
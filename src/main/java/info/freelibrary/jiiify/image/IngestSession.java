@@ -0,0 +1,98 @@
+
+package info.freelibrary.jiiify.image;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.vertx.core.shareddata.Shareable;
+
+/**
+ * The ingest of a source image, which is shared by all the requests for the images that are created from it. The
+ * session owns the source image once it's been mapped into memory: the first request that asks for it maps it and
+ * the others are handed the same read-only mapping as soon as it's ready. Each request releases the session when
+ * it's done with the source image and the session ends when the last request has released it.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public final class IngestSession implements Shareable {
+
+    private final String myFilePath;
+
+    private final boolean myCleanup;
+
+    private final AtomicInteger myRequestCount;
+
+    private final AtomicBoolean isLoading = new AtomicBoolean();
+
+    private final CompletableFuture<MappedImageSource> mySource = new CompletableFuture<>();
+
+    /**
+     * Creates a new ingest session for a source image.
+     *
+     * @param aFilePath The path of the source image file
+     * @param aRequestCount The number of requests that will use the source image
+     * @param aCleanup Whether the source image file should be deleted when the session ends
+     */
+    public IngestSession(final String aFilePath, final int aRequestCount, final boolean aCleanup) {
+        myFilePath = aFilePath;
+        myRequestCount = new AtomicInteger(aRequestCount);
+        myCleanup = aCleanup;
+    }
+
+    /**
+     * Gets the path of the source image file.
+     *
+     * @return The path of the source image file
+     */
+    public String getFilePath() {
+        return myFilePath;
+    }
+
+    /**
+     * Returns whether the source image file should be deleted when the session ends.
+     *
+     * @return True if the source image file should be deleted; else, false
+     */
+    public boolean isCleanup() {
+        return myCleanup;
+    }
+
+    /**
+     * Gets the source image. The first request to ask for it maps it into memory, on the calling thread; the source
+     * image is completed for the other requests as soon as it's been mapped.
+     *
+     * @return The source image, or a failure if it couldn't be mapped
+     */
+    public CompletableFuture<MappedImageSource> getSource() {
+        if (isLoading.compareAndSet(false, true)) {
+            try {
+                mySource.complete(new MappedImageSource(new File(myFilePath)));
+            } catch (final IOException | RuntimeException details) {
+                mySource.completeExceptionally(details);
+            }
+        }
+
+        return mySource;
+    }
+
+    /**
+     * Releases the session for one of its requests.
+     *
+     * @return True if this was the last request and the session has ended; else, false
+     */
+    public boolean release() {
+        return myRequestCount.decrementAndGet() == 0;
+    }
+
+    /**
+     * Gets the number of requests that haven't yet released the session.
+     *
+     * @return The number of requests that haven't released the session
+     */
+    public int getRequestCount() {
+        return myRequestCount.get();
+    }
+}
@@ -3,35 +3,36 @@ package info.freelibrary.jiiify.image;
 
 import static info.freelibrary.jiiify.Constants.MESSAGES;
 
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
-import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
-import javax.imageio.ImageWriteParam;
-import javax.imageio.ImageWriter;
-import javax.imageio.stream.ImageOutputStream;
-
-import org.imgscalr.Scalr;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
 
 import info.freelibrary.jiiify.MessageCodes;
-import info.freelibrary.jiiify.iiif.ImageFormat;
 import info.freelibrary.jiiify.iiif.ImageQuality;
 import info.freelibrary.jiiify.iiif.ImageRegion;
-import info.freelibrary.jiiify.iiif.ImageRegion.Region;
 import info.freelibrary.jiiify.iiif.ImageRotation;
 import info.freelibrary.jiiify.iiif.ImageSize;
-import info.freelibrary.util.IOUtils;
 import info.freelibrary.util.Logger;
 import info.freelibrary.util.LoggerFactory;
 
 import io.vertx.core.buffer.Buffer;
 
 /**
- * A native Java image object.
+ * A native Java image object. The images it creates by writing every pixel (e.g., when resizing or rotating) are
+ * drawn from the shared {@link RasterPool}, when they can be, and all the images it creates, including the decoded
+ * one, are returned to it when they're replaced or when the image object is freed. Images are never decoded into a
+ * pooled image, since a reader that stops short (e.g., at the end of a truncated source) would leave the pixels of
+ * the image's last use in it.
  *
  * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
  */
@@ -45,6 +46,14 @@ public class JavaImageObject implements ImageObject {
 
     private BufferedImage myImage;
 
+    /* The image's size at the resolution of its source, which is larger than the image if it was subsampled */
+    private int myWidth;
+
+    private int myHeight;
+
+    /* The images this image object has created (e.g., the one its region was cut from), which go back to the pool */
+    private final List<BufferedImage> myCreatedImages = new ArrayList<>(2);
+
     /**
      * Creates new image using the pure Java image processing.
      *
@@ -52,79 +61,169 @@ public class JavaImageObject implements ImageObject {
      * @throws IOException If there is trouble reading the image file
      */
     public JavaImageObject(final byte[] aByteArray) throws IOException {
-        final ByteArrayInputStream inStream = new ByteArrayInputStream(aByteArray);
+        this(aByteArray, null, null);
+    }
 
-        myImage = ImageIO.read(inStream);
+    /**
+     * Creates a new image from a region of the source image, using the pure Java image processing. Only the pixels in
+     * the region are decoded and, when the image is going to be scaled down, only every nth pixel of them is, so the
+     * image that's decoded is no more than twice the requested size. The region doesn't need to be extracted from the
+     * new image, but the image still needs to be resized.
+     *
+     * @param aByteArray A source image in an array of bytes
+     * @param aRegion The region of the source image to decode or null to decode the full image
+     * @param aSize The size the image will be resized to or null if it won't be resized
+     * @throws IOException If there is trouble reading the image file
+     */
+    public JavaImageObject(final byte[] aByteArray, final ImageRegion aRegion, final ImageSize aSize)
+            throws IOException {
+        // The bytes are already in memory so there's no need to have ImageIO cache them in a file
+        read(new MemoryCacheImageInputStream(new ByteArrayInputStream(aByteArray)), aRegion, aSize);
+    }
 
-        if (myImage == null) {
-            LOGGER.error(MessageCodes.EXC_038);
-            throw new IOException(LOGGER.getMessage(MessageCodes.EXC_072));
-        }
+    /**
+     * Creates a new image from a region of the source image in the supplied image stream (e.g., one from a
+     * {@link MappedImageSource}), using the pure Java image processing. Only the pixels that are needed to create the
+     * requested region and size are decoded (as with {@link #JavaImageObject(byte[], ImageRegion, ImageSize)}) and
+     * the stream is closed afterwards.
+     *
+     * @param aInStream A source image stream
+     * @param aRegion The region of the source image to decode or null to decode the full image
+     * @param aSize The size the image will be resized to or null if it won't be resized
+     * @throws IOException If there is trouble reading the image stream
+     */
+    public JavaImageObject(final ImageInputStream aInStream, final ImageRegion aRegion, final ImageSize aSize)
+            throws IOException {
+        read(aInStream, aRegion, aSize);
+    }
 
-        IOUtils.closeQuietly(inStream);
+    /**
+     * Creates a new image from an image that's already been decoded, using the pure Java image processing.
+     *
+     * @param aImage A decoded image
+     * @param aWidth The width of the image at the resolution of its source
+     * @param aHeight The height of the image at the resolution of its source
+     */
+    public JavaImageObject(final BufferedImage aImage, final int aWidth, final int aHeight) {
+        myImage = aImage;
+        myWidth = aWidth;
+        myHeight = aHeight;
     }
 
     @Override
     public void extractRegion(final ImageRegion aRegion) throws IOException {
-        final int x = aRegion.getInt(Region.X);
-        final int y = aRegion.getInt(Region.Y);
-        final int width = aRegion.getInt(Region.WIDTH);
-        final int height = aRegion.getInt(Region.HEIGHT);
+        final Rectangle bounds = aRegion.getBounds(myWidth, myHeight);
+        final Rectangle crop;
+
+        // A subsampled image's region is scaled to the pixels that were decoded
+        if (myImage.getWidth() == myWidth && myImage.getHeight() == myHeight) {
+            crop = bounds;
+        } else {
+            final double xScale = (double) myImage.getWidth() / myWidth;
+            final double yScale = (double) myImage.getHeight() / myHeight;
+            final int x = (int) (bounds.x * xScale);
+            final int y = (int) (bounds.y * yScale);
+            final int width = Math.max(1, (int) Math.round(bounds.width * xScale));
+            final int height = Math.max(1, (int) Math.round(bounds.height * yScale));
+
+            crop = new Rectangle(x, y, width, height).intersection(new Rectangle(myImage.getWidth(), myImage
+                    .getHeight()));
+        }
+
+        if (crop.isEmpty()) {
+            throw new IOException(LOGGER.getMessage(MessageCodes.EXC_093, aRegion, myWidth, myHeight));
+        }
+
+        LOGGER.debug(MessageCodes.DBG_084, myImage, crop.x, crop.y, crop.width, crop.height);
 
-        LOGGER.debug(MessageCodes.DBG_084, myImage, x, y, width, height);
-        myImage = Scalr.crop(myImage, x, y, width, height, Scalr.OP_ANTIALIAS);
+        // The region shares the image's pixels, so nothing is copied (or returned to the pool until it's replaced)
+        myImage = myImage.getSubimage(crop.x, crop.y, crop.width, crop.height);
+        myWidth = bounds.width;
+        myHeight = bounds.height;
     }
 
     @Override
     public void resize(final ImageSize aSize) throws IOException {
         if (!aSize.isFullSize()) {
-            final int height = aSize.getHeight(myImage.getHeight(), myImage.getWidth());
-            final int width = aSize.getWidth(myImage.getWidth(), myImage.getHeight());
+            final float ratio = (float) myHeight / myWidth;
 
-            LOGGER.debug(MessageCodes.DBG_085, myImage, width, height);
-            myImage = Scalr.resize(myImage, width, height, Scalr.OP_ANTIALIAS);
+            int height = aSize.getHeight(myHeight, myWidth);
+            int width = aSize.getWidth(myWidth, myHeight);
+
+            // Keep the proportions of the source (as Scalr's automatic mode does) since a subsampled image's may be off
+            if (ratio <= 1f) {
+                height = Math.round(width * ratio);
+            } else {
+                width = Math.round(height / ratio);
+            }
+
+            if (width != myImage.getWidth() || height != myImage.getHeight()) {
+                LOGGER.debug(MessageCodes.DBG_085, myImage, width, height);
+                setImage(Resampler.resize(myImage, width, height));
+            }
+
+            myWidth = width;
+            myHeight = height;
         }
     }
 
     @Override
     public void rotate(final ImageRotation aRotation) throws IOException {
+        final float degrees = aRotation.getValue() % 360f;
+
+        LOGGER.debug(MessageCodes.DBG_126, myImage, aRotation);
+
+        // Quarter turns (and mirroring) just move pixels, so they're done without interpolating
+        if (degrees % 90f == 0f) {
+            final int quarterTurns = (int) (degrees / 90f);
 
+            if (quarterTurns != 0 || aRotation.isMirrored()) {
+                setImage(ImageTransforms.transpose(myImage, quarterTurns, aRotation.isMirrored()));
+            }
+
+            if (quarterTurns % 2 == 1) {
+                final int width = myWidth;
+
+                myWidth = myHeight;
+                myHeight = width;
+            }
+        } else {
+            final double radians = Math.toRadians(degrees);
+            final double sin = Math.abs(Math.sin(radians));
+            final double cos = Math.abs(Math.cos(radians));
+            final int width = myWidth;
+
+            if (aRotation.isMirrored()) {
+                setImage(ImageTransforms.transpose(myImage, 0, true));
+            }
+
+            setImage(ImageTransforms.rotate(myImage, degrees));
+            myWidth = (int) Math.ceil(width * cos + myHeight * sin - 1e-9);
+            myHeight = (int) Math.ceil(width * sin + myHeight * cos - 1e-9);
+        }
     }
 
     @Override
     public void adjustQuality(final ImageQuality aQuality) throws IOException {
+        final String quality = aQuality.getValue();
 
+        if (ImageQuality.GRAY.equals(quality)) {
+            LOGGER.debug(MessageCodes.DBG_135, myImage, quality);
+            setImage(ImageTransforms.toGray(myImage));
+        } else if (ImageQuality.BITONAL.equals(quality)) {
+            LOGGER.debug(MessageCodes.DBG_135, myImage, quality);
+            setImage(ImageTransforms.toBitonal(myImage));
+        }
     }
 
     @Override
     public Buffer toBuffer(final String aFileExt) throws IOException {
-        final String mimeType = ImageFormat.getMIMEType(aFileExt);
-        final Iterator<ImageWriter> iterator = ImageIO.getImageWritersByMIMEType(mimeType);
-
-        if (iterator.hasNext()) {
-            final ImageWriter writer = iterator.next();
-            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            final ImageOutputStream outStream = ImageIO.createImageOutputStream(baos);
-            final ImageWriteParam param = writer.getDefaultWriteParam();
-
-            if (param.canWriteProgressive()) {
-                LOGGER.debug(MessageCodes.DBG_119, aFileExt);
-                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
-            }
+        return toBuffer(aFileExt, EncodingProfile.DEFAULT_FULL);
+    }
 
-            try {
-                writer.setOutput(outStream);
-                // TODO: Keep metadata, too
-                writer.write(null, new IIOImage(myImage, null, null), param);
-                outStream.flush();
-                return Buffer.buffer(baos.toByteArray());
-            } finally {
-                outStream.close();
-                writer.dispose();
-            }
-        } else {
-            throw new IOException(LOGGER.getMessage(MessageCodes.EXC_071, mimeType));
-        }
+    @Override
+    public Buffer toBuffer(final String aFileExt, final EncodingProfile aProfile) throws IOException {
+        return ImageEncoder.encode(myImage, aFileExt, aProfile);
     }
 
     @Override
@@ -140,6 +239,139 @@ public class JavaImageObject implements ImageObject {
     @Override
     public void free() {
         myImage.flush();
-        myImage.getGraphics().dispose();
+        releaseImages();
+    }
+
+    /**
+     * Gets a reader for the supplied image stream.
+     *
+     * @param aInStream An image stream
+     * @return A reader for the image stream
+     * @throws IOException If there isn't a reader for the image stream
+     */
+    static ImageReader getReader(final ImageInputStream aInStream) throws IOException {
+        final Iterator<ImageReader> readers = aInStream == null ? null : ImageIO.getImageReaders(aInStream);
+
+        if (readers == null || !readers.hasNext()) {
+            if (aInStream != null) {
+                aInStream.close();
+            }
+
+            LOGGER.error(MessageCodes.EXC_038);
+            throw new IOException(LOGGER.getMessage(MessageCodes.EXC_072));
+        }
+
+        return readers.next();
+    }
+
+    /**
+     * Reads the requested region of an image from the supplied image stream, which is closed afterwards.
+     *
+     * @param aInStream An image stream
+     * @param aRegion The region of the source image to decode or null to decode the full image
+     * @param aSize The size the image will be resized to or null if it won't be resized
+     * @throws IOException If there is trouble reading the image stream
+     */
+    private void read(final ImageInputStream aInStream, final ImageRegion aRegion, final ImageSize aSize)
+            throws IOException {
+        final ImageReader reader = getReader(aInStream);
+
+        try {
+            reader.setInput(aInStream, true, true);
+            setImage(reader.read(0, getReadParam(reader, aRegion, aSize)));
+        } finally {
+            reader.dispose();
+            aInStream.close();
+        }
+    }
+
+    /**
+     * Replaces the image with a newly created one, returning the images this image object created before it to the
+     * raster pool. An image that's replaced by itself is left as it is.
+     *
+     * @param aImage A newly created image
+     */
+    private void setImage(final BufferedImage aImage) {
+        if (aImage != myImage) {
+            releaseImages();
+            myImage = aImage;
+            myCreatedImages.add(aImage);
+        }
+    }
+
+    /**
+     * Returns the images this image object created to the raster pool. Images that were passed to it aren't returned
+     * since they may still be in use.
+     */
+    private void releaseImages() {
+        final RasterPool pool = RasterPool.getShared();
+
+        for (final BufferedImage image : myCreatedImages) {
+            pool.release(image);
+        }
+
+        myCreatedImages.clear();
+    }
+
+    /**
+     * Gets the decoded image.
+     *
+     * @return The decoded image
+     */
+    BufferedImage getBufferedImage() {
+        return myImage;
+    }
+
+    /**
+     * Gets the parameters for decoding the requested region at the lowest resolution that will still scale down to the
+     * requested size smoothly (i.e., at least twice that size since subsampling just skips pixels).
+     *
+     * @param aReader The reader of the source image
+     * @param aRegion The requested region or null for the full image
+     * @param aSize The requested size or null for the full size
+     * @return The parameters for decoding the source image
+     * @throws IOException If the source image's size can't be read or the region is outside the image
+     */
+    private ImageReadParam getReadParam(final ImageReader aReader, final ImageRegion aRegion, final ImageSize aSize)
+            throws IOException {
+        final ImageReadParam param = aReader.getDefaultReadParam();
+        final int imageWidth = aReader.getWidth(0);
+        final int imageHeight = aReader.getHeight(0);
+        final Rectangle bounds;
+
+        int subsampling = 1;
+
+        if (aRegion == null || aRegion.isFullImage()) {
+            bounds = new Rectangle(imageWidth, imageHeight);
+        } else {
+            bounds = aRegion.getBounds(imageWidth, imageHeight);
+
+            if (bounds.isEmpty()) {
+                throw new IOException(LOGGER.getMessage(MessageCodes.EXC_093, aRegion, imageWidth, imageHeight));
+            }
+
+            param.setSourceRegion(bounds);
+        }
+
+        if (aSize != null && !aSize.isFullSize()) {
+            final int width = Math.max(1, aSize.getWidth(bounds.width, bounds.height));
+            final int height = Math.max(1, aSize.getHeight(bounds.height, bounds.width));
+
+            subsampling = Math.max(1, Math.min(bounds.width / width, bounds.height / height) / 2);
+
+            if (subsampling > 1) {
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+            }
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(MessageCodes.DBG_131, bounds.x, bounds.y, bounds.width, bounds.height, imageWidth,
+                    imageHeight, subsampling);
+        }
+
+        myWidth = bounds.width;
+        myHeight = bounds.height;
+
+        return param;
     }
 }
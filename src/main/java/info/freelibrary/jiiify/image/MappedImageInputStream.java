@@ -0,0 +1,92 @@
+
+package info.freelibrary.jiiify.image;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import javax.imageio.stream.ImageInputStreamImpl;
+
+/**
+ * An image input stream that reads from a {@link MappedImageSource}. Seeking is just a change of position, so image
+ * readers can jump around the source (e.g., to the tiles or strips of a TIFF) without anything being copied or
+ * cached.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+final class MappedImageInputStream extends ImageInputStreamImpl {
+
+    private final ByteBuffer[] myBuffers;
+
+    private final int myChunkSize;
+
+    private final long myLength;
+
+    /**
+     * Creates a new image input stream from views of a source's mapped chunks.
+     *
+     * @param aBuffers Views of the source's mapped chunks, which are only used by this stream
+     * @param aChunkSize The size of the source's mapped chunks
+     * @param aLength The length of the source
+     */
+    MappedImageInputStream(final ByteBuffer[] aBuffers, final int aChunkSize, final long aLength) {
+        myBuffers = aBuffers;
+        myChunkSize = aChunkSize;
+        myLength = aLength;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int value;
+
+        checkClosed();
+        bitOffset = 0;
+
+        if (streamPos >= myLength) {
+            return -1;
+        }
+
+        value = myBuffers[(int) (streamPos / myChunkSize)].get((int) (streamPos % myChunkSize)) & 0xFF;
+
+        streamPos += 1;
+        return value;
+    }
+
+    @Override
+    public int read(final byte[] aBytes, final int aOffset, final int aLength) throws IOException {
+        int count = 0;
+
+        checkClosed();
+
+        if (aOffset < 0 || aLength < 0 || aOffset + aLength > aBytes.length || aOffset + aLength < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        bitOffset = 0;
+
+        if (aLength == 0) {
+            return 0;
+        } else if (streamPos >= myLength) {
+            return -1;
+        }
+
+        // A read can span the boundary between two of the mapped chunks
+        while (count < aLength && streamPos < myLength) {
+            final ByteBuffer buffer = myBuffers[(int) (streamPos / myChunkSize)];
+            final int position = (int) (streamPos % myChunkSize);
+            final int length = Math.min(aLength - count, buffer.limit() - position);
+
+            buffer.position(position);
+            buffer.get(aBytes, aOffset + count, length);
+
+            count += length;
+            streamPos += length;
+        }
+
+        return count;
+    }
+
+    @Override
+    public long length() {
+        return myLength;
+    }
+}
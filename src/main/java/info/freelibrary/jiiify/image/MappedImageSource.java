@@ -0,0 +1,114 @@
+
+package info.freelibrary.jiiify.image;
+
+import static info.freelibrary.jiiify.Constants.MESSAGES;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import javax.imageio.stream.ImageInputStream;
+
+import info.freelibrary.jiiify.MessageCodes;
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+/**
+ * A source image file that's mapped, read-only, into memory. Image readers work directly off the operating system's
+ * page cache, rather than off a copy of the file on the heap, and one mapping can be shared by all the threads that
+ * read the image since each gets its own {@link ImageInputStream}. The mapping is released once the source is no
+ * longer referenced.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public final class MappedImageSource {
+
+    /* Files larger than a single mapping allows are mapped in chunks of this size */
+    private static final int CHUNK_SIZE = 1 << 30;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedImageSource.class, MESSAGES);
+
+    private final File myFile;
+
+    private final ByteBuffer[] myBuffers;
+
+    private final long myLength;
+
+    private final int myChunkSize;
+
+    /**
+     * Maps a source image file into memory.
+     *
+     * @param aImageFile A source image file
+     * @throws IOException If the file can't be mapped
+     */
+    public MappedImageSource(final File aImageFile) throws IOException {
+        this(aImageFile, CHUNK_SIZE);
+    }
+
+    /**
+     * Maps a source image file into memory in chunks of the supplied size.
+     *
+     * @param aImageFile A source image file
+     * @param aChunkSize The size of the mapped chunks
+     * @throws IOException If the file can't be mapped
+     */
+    MappedImageSource(final File aImageFile, final int aChunkSize) throws IOException {
+        myFile = aImageFile;
+        myChunkSize = aChunkSize;
+
+        try (RandomAccessFile file = new RandomAccessFile(aImageFile, "r"); FileChannel channel = file.getChannel()) {
+            myLength = channel.size();
+            myBuffers = new ByteBuffer[(int) ((myLength + aChunkSize - 1) / aChunkSize)];
+
+            for (int index = 0; index < myBuffers.length; index++) {
+                final long position = (long) index * aChunkSize;
+
+                myBuffers[index] = channel.map(MapMode.READ_ONLY, position, Math.min(aChunkSize, myLength -
+                        position));
+            }
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(MessageCodes.DBG_014, aImageFile, myLength, myBuffers.length);
+        }
+    }
+
+    /**
+     * Gets the source image file, for image libraries that read files themselves rather than from a stream.
+     *
+     * @return The source image file
+     */
+    public File getFile() {
+        return myFile;
+    }
+
+    /**
+     * Gets the length of the source image file.
+     *
+     * @return The length of the source image file in bytes
+     */
+    public long length() {
+        return myLength;
+    }
+
+    /**
+     * Gets a new image input stream that reads the source image from the start. Streams aren't thread-safe but any
+     * number of them can read from the same source at once.
+     *
+     * @return A new image input stream for the source image
+     */
+    public ImageInputStream newInputStream() {
+        final ByteBuffer[] buffers = new ByteBuffer[myBuffers.length];
+
+        // Each stream gets its own view of the mapping, so their positions don't interfere with each other
+        for (int index = 0; index < buffers.length; index++) {
+            buffers[index] = myBuffers[index].duplicate();
+        }
+
+        return new MappedImageInputStream(buffers, myChunkSize, myLength);
+    }
+}
@@ -1,116 +1,483 @@
 
 package info.freelibrary.jiiify.image;
 
+import static info.freelibrary.jiiify.Constants.MESSAGES;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferByte;
+import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
 
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
 import org.opencv.core.Mat;
 import org.opencv.core.MatOfByte;
+import org.opencv.core.MatOfInt;
+import org.opencv.core.Point;
 import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
 import org.opencv.core.Size;
 import org.opencv.imgcodecs.Imgcodecs;
 import org.opencv.imgproc.Imgproc;
 
+import info.freelibrary.jiiify.MessageCodes;
+import info.freelibrary.jiiify.iiif.ImageFormat;
 import info.freelibrary.jiiify.iiif.ImageQuality;
 import info.freelibrary.jiiify.iiif.ImageRegion;
-import info.freelibrary.jiiify.iiif.ImageRegion.Region;
 import info.freelibrary.jiiify.iiif.ImageRotation;
 import info.freelibrary.jiiify.iiif.ImageSize;
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
 
 import io.vertx.core.buffer.Buffer;
 
 /**
- * A native image object that uses OpenCV for image processing.
- * 
- * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ * A native image object that uses OpenCV for image processing. OpenCV decodes the whole source image, so the
+ * requested region is cut out of it as soon as it's decoded. When the whole image, read from a file, is going to be
+ * scaled down, it's decoded at a half, a quarter, or an eighth of its size instead (which, for JPEGs, skips most of
+ * the decoding work).
+ * Images are encoded by OpenCV too, except for formats that it can't write (e.g., GIF), which are encoded by the
+ * {@link ImageEncoder}.
  *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
  */
 public class NativeImageObject implements ImageObject {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(NativeImageObject.class, MESSAGES);
+
+    /* The formats that OpenCV can write */
+    private static final Set<String> NATIVE_FORMATS = new HashSet<>(Arrays.asList(ImageFormat.JPG_EXT, "jpeg",
+            ImageFormat.PNG_EXT, ImageFormat.TIF_EXT, ImageFormat.TIFF_EXT, ImageFormat.WEBP_EXT));
+
+    /* The gray value at and above which a bitonal pixel is white */
+    private static final int BITONAL_THRESHOLD = 128;
+
+    /* The scales, largest first, at which OpenCV can decode an image */
+    private static final int[] REDUCED_SCALES = { 8, 4, 2 };
+
+
     private Mat myImage;
 
+    private boolean isBitonal;
+
     /**
      * Creates new image using underlying native processing libraries.
      *
-     * @param aImgBuffer A source image wrapped in a Vertx {@link io.vertx.core.buffer.Buffer}
+     * @param aByteArray A source image in an array of bytes
+     * @throws IOException If the image can't be decoded
+     */
+    public NativeImageObject(final byte[] aByteArray) throws IOException {
+        this(aByteArray, null, null);
+    }
+
+    /**
+     * Creates a new image from a region of the source image, using the underlying native processing libraries. The
+     * region has already been extracted from the new image but the image still needs to be resized.
+     *
+     * @param aByteArray A source image in an array of bytes
+     * @param aRegion The region of the source image to keep or null to keep the full image
+     * @param aSize The size the image will be resized to or null if it won't be resized
+     * @throws IOException If the image can't be decoded or the region is outside the image
+     */
+    public NativeImageObject(final byte[] aByteArray, final ImageRegion aRegion, final ImageSize aSize)
+            throws IOException {
+        final MatOfByte bytes = new MatOfByte(aByteArray);
+
+        // OpenCV can only decode images at a reduced scale when it reads them from a file
+        try {
+            myImage = Imgcodecs.imdecode(bytes, Imgcodecs.IMREAD_UNCHANGED);
+        } finally {
+            bytes.release();
+        }
+
+        prepare(aRegion);
+    }
+
+    /**
+     * Creates a new image from a region of a source image file, using the underlying native processing libraries. If
+     * the full image is going to be scaled down, it's read at the smallest scale that's still no smaller than the
+     * requested size. As with {@link #NativeImageObject(byte[], ImageRegion, ImageSize)}, the region has already been
+     * extracted from the new image but the image still needs to be resized.
+     *
+     * @param aImageFile A source image file
+     * @param aRegion The region of the source image to keep or null to keep the full image
+     * @param aSize The size the image will be resized to or null if it won't be resized
+     * @throws IOException If the image can't be read or decoded or the region is outside the image
+     */
+    public NativeImageObject(final File aImageFile, final ImageRegion aRegion, final ImageSize aSize)
+            throws IOException {
+        myImage = Imgcodecs.imread(aImageFile.getAbsolutePath(), getReadFlags(aImageFile, aRegion, aSize));
+        prepare(aRegion);
+    }
+
+    /**
+     * Checks that the image was decoded, converts it to the samples that it's processed with, and cuts the requested
+     * region out of it.
+     *
+     * @param aRegion The region of the image to keep or null to keep the full image
+     * @throws IOException If the image wasn't decoded or the region is outside the image
      */
-    public NativeImageObject(final Buffer aImgBuffer) {
-        myImage = Imgcodecs.imdecode(new MatOfByte(aImgBuffer.getBytes()), Imgcodecs.CV_LOAD_IMAGE_UNCHANGED);
+    private void prepare(final ImageRegion aRegion) throws IOException {
+        if (myImage.empty()) {
+            myImage.release();
+            LOGGER.error(MessageCodes.EXC_038);
+            throw new IOException(LOGGER.getMessage(MessageCodes.EXC_072));
+        }
+
+        // Images with more than eight bits per sample (e.g., 16-bit TIFFs) are processed with eight
+        if (myImage.depth() != CvType.CV_8U) {
+            final Mat image = new Mat();
+
+            myImage.convertTo(image, CvType.CV_8U, myImage.depth() == CvType.CV_16U ? 1d / 256 : 1d);
+            replace(image);
+        }
+
+        // Gray images with an alpha channel are just processed as gray images
+        if (myImage.channels() == 2) {
+            final Mat image = new Mat();
+
+            Core.extractChannel(myImage, image, 0);
+            replace(image);
+        }
+
+        if (aRegion != null && !aRegion.isFullImage()) {
+            extractRegion(aRegion);
+        }
+    }
+
+    /**
+     * Gets the flags with which OpenCV should read an image. If the full image is going to be scaled down, and its
+     * header says it has no alpha channel for a reduced read to drop, it's read at the smallest scale that's still no
+     * smaller than the requested size. Otherwise, it's read at full size, as it's stored.
+     *
+     * @param aImageFile A source image file
+     * @param aRegion The region of the image that will be kept or null if the full image will be kept
+     * @param aSize The size the image will be resized to or null if it won't be resized
+     * @return The flags with which OpenCV should read the image
+     * @throws IOException If the image's header can't be read
+     */
+    private static int getReadFlags(final File aImageFile, final ImageRegion aRegion, final ImageSize aSize)
+            throws IOException {
+        if (aSize == null || aSize.isFullSize() || aRegion != null && !aRegion.isFullImage()) {
+            return Imgcodecs.IMREAD_UNCHANGED;
+        }
+
+        try (ImageInputStream inStream = ImageIO.createImageInputStream(aImageFile)) {
+            final Iterator<ImageReader> readers;
+            final ImageTypeSpecifier type;
+            final ImageReader reader;
+            final ColorModel colorModel;
+            final int width;
+            final int height;
+
+            if (inStream == null) {
+                throw new FileNotFoundException(aImageFile.getAbsolutePath());
+            }
+
+            readers = ImageIO.getImageReaders(inStream);
+
+            if (!readers.hasNext()) {
+                return Imgcodecs.IMREAD_UNCHANGED;
+            }
+
+            reader = readers.next();
+
+            try {
+                final Iterator<ImageTypeSpecifier> types;
+                final ImageTypeSpecifier rawType;
+
+                reader.setInput(inStream, true, true);
+                width = reader.getWidth(0);
+                height = reader.getHeight(0);
+
+                // Some readers (e.g., of JPEGs) don't have a raw type but they'll still list the types they can read
+                rawType = reader.getRawImageType(0);
+                types = reader.getImageTypes(0);
+                type = rawType != null || !types.hasNext() ? rawType : types.next();
+            } finally {
+                reader.dispose();
+            }
+
+            colorModel = type == null ? null : type.getColorModel();
+
+            if (colorModel == null || colorModel.hasAlpha()) {
+                return Imgcodecs.IMREAD_UNCHANGED;
+            }
+
+            for (final int scale : REDUCED_SCALES) {
+                if (width / scale >= aSize.getWidth(width, height) && height / scale >= aSize.getHeight(height,
+                        width)) {
+                    final boolean isGray = colorModel.getNumColorComponents() == 1;
+
+                    LOGGER.debug(MessageCodes.DBG_139, scale, aSize);
+
+                    // Reduced reads don't leave the image's orientation alone by default, as unchanged ones do
+                    return getReducedFlag(scale, isGray) | Imgcodecs.IMREAD_IGNORE_ORIENTATION;
+                }
+            }
+
+            return Imgcodecs.IMREAD_UNCHANGED;
+        }
+    }
+
+    /**
+     * Gets the flag with which OpenCV reads an image at a reduced scale.
+     *
+     * @param aScale The scale (i.e., two, four, or eight) by which the image is reduced
+     * @param aGray Whether the image is gray
+     * @return The flag with which OpenCV reads the image at the reduced scale
+     */
+    private static int getReducedFlag(final int aScale, final boolean aGray) {
+        switch (aScale) {
+            case 8:
+                return aGray ? Imgcodecs.IMREAD_REDUCED_GRAYSCALE_8 : Imgcodecs.IMREAD_REDUCED_COLOR_8;
+            case 4:
+                return aGray ? Imgcodecs.IMREAD_REDUCED_GRAYSCALE_4 : Imgcodecs.IMREAD_REDUCED_COLOR_4;
+            default:
+                return aGray ? Imgcodecs.IMREAD_REDUCED_GRAYSCALE_2 : Imgcodecs.IMREAD_REDUCED_COLOR_2;
+        }
     }
 
     @Override
     public int getWidth() {
-        return (int) myImage.size().width;
+        return myImage.width();
     }
 
     @Override
     public int getHeight() {
-        return (int) myImage.size().height;
+        return myImage.height();
     }
 
     @Override
-    public void flush() {
-        myImage.free();
+    public void free() {
+        myImage.release();
     }
 
     @Override
     public void extractRegion(final ImageRegion aRegion) throws IOException {
-        final Rect roi = new Rect();
-        final Mat newImage;
+        final Rectangle bounds = aRegion.getBounds(myImage.width(), myImage.height());
 
-        if (aRegion.isFullImage()) {
-            return;
-        } else if (aRegion.usesPercentages()) {
-            // TODO
-        } else {
-            roi.height = aRegion.getInt(Region.HEIGHT);
-            roi.width = aRegion.getInt(Region.WIDTH);
-            roi.x = aRegion.getInt(Region.X);
-            roi.y = aRegion.getInt(Region.Y);
+        if (bounds.isEmpty()) {
+            throw new IOException(LOGGER.getMessage(MessageCodes.EXC_093, aRegion, myImage.width(), myImage
+                    .height()));
         }
 
-        newImage = myImage.submat(roi);
-        myImage.free();
-        myImage = newImage;
+        if (bounds.width != myImage.width() || bounds.height != myImage.height()) {
+            LOGGER.debug(MessageCodes.DBG_084, myImage, bounds.x, bounds.y, bounds.width, bounds.height);
+            replace(myImage.submat(new Rect(bounds.x, bounds.y, bounds.width, bounds.height)));
+        }
     }
 
     @Override
     public void resize(final ImageSize aSize) throws IOException {
-        final Mat resizedImage;
-
         if (!aSize.isFullSize()) {
-            final int width = aSize.getWidth(myImage.width(), myImage.height());
-            final int height = aSize.getHeight(myImage.height(), myImage.width());
+            final int imageWidth = myImage.width();
+            final int imageHeight = myImage.height();
+            final float ratio = (float) imageHeight / imageWidth;
+
+            int height = aSize.getHeight(imageHeight, imageWidth);
+            int width = aSize.getWidth(imageWidth, imageHeight);
+
+            // Keep the proportions of the source, as the Java image object does
+            if (ratio <= 1f) {
+                height = Math.max(1, Math.round(width * ratio));
+            } else {
+                width = Math.max(1, Math.round(height / ratio));
+            }
 
-            resizedImage = new Mat(myImage.rows(), myImage.cols(), myImage.type());
-            Imgproc.resize(myImage, resizedImage, new Size(width, height));
-            myImage.free();
-            myImage = resizedImage;
+            if (width != imageWidth || height != imageHeight) {
+                final Mat resizedImage = new Mat();
+                // Area averaging is smoother when shrinking but it's blocky when enlarging
+                final int interpolation = width < imageWidth ? Imgproc.INTER_AREA : Imgproc.INTER_LINEAR;
+
+                LOGGER.debug(MessageCodes.DBG_085, myImage, width, height);
+                Imgproc.resize(myImage, resizedImage, new Size(width, height), 0, 0, interpolation);
+                replace(resizedImage);
+            }
         }
     }
 
     @Override
     public void rotate(final ImageRotation aRotation) throws IOException {
+        final float degrees = aRotation.getValue() % 360f;
+        final Mat rotatedImage = new Mat();
+
+        LOGGER.debug(MessageCodes.DBG_126, myImage, aRotation);
+
+        if (aRotation.isMirrored()) {
+            final Mat mirroredImage = new Mat();
 
+            Core.flip(myImage, mirroredImage, 1);
+            replace(mirroredImage);
+        }
+
+        // Quarter turns are a transpose and/or a flip, so they're done without interpolating
+        if (degrees == 90f) {
+            Core.transpose(myImage, rotatedImage);
+            Core.flip(rotatedImage, rotatedImage, 1);
+        } else if (degrees == 180f) {
+            Core.flip(myImage, rotatedImage, -1);
+        } else if (degrees == 270f) {
+            Core.transpose(myImage, rotatedImage);
+            Core.flip(rotatedImage, rotatedImage, 0);
+        } else if (degrees != 0f) {
+            final double radians = Math.toRadians(degrees);
+            final double sin = Math.abs(Math.sin(radians));
+            final double cos = Math.abs(Math.cos(radians));
+            final int width = myImage.width();
+            final int height = myImage.height();
+            final Size size = new Size(Math.ceil(width * cos + height * sin - 1e-9), Math.ceil(width * sin + height *
+                    cos - 1e-9));
+            // OpenCV's angles are counterclockwise
+            final Mat matrix = Imgproc.getRotationMatrix2D(new Point(width / 2d, height / 2d), -degrees, 1d);
+            // The corners are white, as with the Java image object, or transparent if the image has an alpha channel
+            final Scalar background = myImage.channels() == 4 ? Scalar.all(0) : Scalar.all(255);
+
+            // Move the rotated image into the middle of its new bounds
+            matrix.put(0, 2, matrix.get(0, 2)[0] + (size.width - width) / 2d);
+            matrix.put(1, 2, matrix.get(1, 2)[0] + (size.height - height) / 2d);
+
+            Imgproc.warpAffine(myImage, rotatedImage, matrix, size, Imgproc.INTER_LINEAR, Core.BORDER_CONSTANT,
+                    background);
+            matrix.release();
+
+            // Bitonal images are rotated with smooth edges and are made bitonal again afterwards
+            if (isBitonal) {
+                Imgproc.threshold(rotatedImage, rotatedImage, BITONAL_THRESHOLD - 1, 255, Imgproc.THRESH_BINARY);
+            }
+        } else {
+            rotatedImage.release();
+            return;
+        }
+
+        replace(rotatedImage);
     }
 
     @Override
     public void adjustQuality(final ImageQuality aQuality) throws IOException {
+        final String quality = aQuality.getValue();
+
+        if (ImageQuality.GRAY.equals(quality) || ImageQuality.BITONAL.equals(quality)) {
+            LOGGER.debug(MessageCodes.DBG_135, myImage, quality);
+
+            if (myImage.channels() > 1) {
+                final Mat grayImage = new Mat();
+
+                Imgproc.cvtColor(myImage, grayImage, myImage.channels() == 4 ? Imgproc.COLOR_BGRA2GRAY
+                        : Imgproc.COLOR_BGR2GRAY);
+                replace(grayImage);
+            }
 
+            if (ImageQuality.BITONAL.equals(quality) && !isBitonal) {
+                final Mat bitonalImage = new Mat();
+
+                Imgproc.threshold(myImage, bitonalImage, BITONAL_THRESHOLD - 1, 255, Imgproc.THRESH_BINARY);
+                replace(bitonalImage);
+                isBitonal = true;
+            }
+        }
     }
 
     @Override
     public Buffer toBuffer(final String aFileExt) throws IOException {
-        final int cols = myImage.cols();
-        final int rows = myImage.rows();
-        final int elemSize = (int) myImage.elemSize();
-        final byte[] bytes = new byte[cols * rows * elemSize];
+        return toBuffer(aFileExt, EncodingProfile.DEFAULT_FULL);
+    }
+
+    @Override
+    public Buffer toBuffer(final String aFileExt, final EncodingProfile aProfile) throws IOException {
+        final String fileExt = aFileExt.toLowerCase();
+        final MatOfInt params;
+        final MatOfByte bytes;
+
+        if (!NATIVE_FORMATS.contains(fileExt)) {
+            return ImageEncoder.encode(toBufferedImage(), fileExt, aProfile);
+        }
+
+        // OpenCV doesn't let us choose the chroma subsampling, so it's left to OpenCV's default
+        if (ImageFormat.JPG_EXT.equals(fileExt) || "jpeg".equals(fileExt)) {
+            params = new MatOfInt(Imgcodecs.IMWRITE_JPEG_QUALITY, Math.round(aProfile.getQuality() * 100),
+                    Imgcodecs.IMWRITE_JPEG_PROGRESSIVE, aProfile.isProgressive() ? 1 : 0,
+                    Imgcodecs.IMWRITE_JPEG_OPTIMIZE, aProfile.isOptimized() ? 1 : 0);
+        } else if (ImageFormat.PNG_EXT.equals(fileExt) && isBitonal) {
+            params = new MatOfInt(Imgcodecs.IMWRITE_PNG_BILEVEL, 1);
+        } else {
+            params = new MatOfInt();
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(MessageCodes.DBG_119, fileExt, aProfile);
+        }
+
+        bytes = new MatOfByte();
 
         try {
-            myImage.get(0, 0, bytes);
-            return Buffer.buffer(bytes);
+            if (!Imgcodecs.imencode('.' + fileExt, myImage, bytes, params)) {
+                throw new IOException(LOGGER.getMessage(MessageCodes.EXC_071, ImageFormat.getMIMEType(fileExt)));
+            }
+
+            return Buffer.buffer(bytes.toArray());
         } finally {
-            myImage.free();
+            params.release();
+            bytes.release();
         }
     }
 
+    /**
+     * Copies the image into a Java image, so that it can be written in formats that OpenCV can't write.
+     *
+     * @return A Java image with the same pixels as the native image
+     */
+    private BufferedImage toBufferedImage() {
+        final int channels = myImage.channels();
+        final BufferedImage image;
+        final Mat pixels;
+
+        // OpenCV's BGR samples are in the same order as a Java BGR image's; BGRA samples need their alpha moved first
+        if (channels == 1) {
+            image = new BufferedImage(myImage.width(), myImage.height(), BufferedImage.TYPE_BYTE_GRAY);
+            pixels = myImage.isContinuous() ? myImage : myImage.clone();
+        } else if (channels == 4) {
+            image = new BufferedImage(myImage.width(), myImage.height(), BufferedImage.TYPE_4BYTE_ABGR);
+            final MatOfInt fromTo = new MatOfInt(0, 1, 1, 2, 2, 3, 3, 0);
+
+            pixels = new Mat(myImage.size(), myImage.type());
+            Core.mixChannels(Arrays.asList(myImage), Arrays.asList(pixels), fromTo);
+            fromTo.release();
+        } else {
+            image = new BufferedImage(myImage.width(), myImage.height(), BufferedImage.TYPE_3BYTE_BGR);
+            pixels = myImage.isContinuous() ? myImage : myImage.clone();
+        }
+
+        pixels.get(0, 0, ((DataBufferByte) image.getRaster().getDataBuffer()).getData());
+
+        if (pixels != myImage) {
+            pixels.release();
+        }
+
+        return isBitonal ? ImageTransforms.toBitonal(image) : image;
+    }
+
+    /**
+     * Replaces the image with a new one, releasing the old one's native memory.
+     *
+     * @param aImage A new image
+     */
+    private void replace(final Mat aImage) {
+        if (aImage != myImage) {
+            myImage.release();
+            myImage = aImage;
+        }
+    }
 }
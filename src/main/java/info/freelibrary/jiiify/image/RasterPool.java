@@ -0,0 +1,363 @@
+
+package info.freelibrary.jiiify.image;
+
+import static info.freelibrary.jiiify.Constants.METRICS_REG_PROP;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+
+/**
+ * A pool of images, and of scratch arrays, that are reused rather than allocated for each image that's processed.
+ * Images are pooled by their type and dimensions and arrays by their capacity, which is always a power of two. The
+ * pool is bounded by the total number of bytes it holds; when it's full, pooled images and arrays are evicted to make
+ * room for the ones that are released. Eviction doesn't follow the age of the pool's entries across sizes, but among
+ * images (or arrays) of the same size the ones that were released first are evicted first.
+ * <p>
+ * The contents of a pooled image or array are whatever they were when it was released, so they should only be used
+ * by code that writes every pixel (or element) before it reads any. The number of bytes that are allocated and reused
+ * is reported, as a rate, to a metrics registry.
+ * </p>
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public final class RasterPool {
+
+    /**
+     * The default maximum number of bytes the shared raster pool holds.
+     */
+    public static final long DEFAULT_MAX_SIZE = 64L * 1024L * 1024L;
+
+    /**
+     * The name of the metric that meters the number of bytes that have been allocated for images and arrays.
+     */
+    public static final String ALLOCATED_METRIC = "jiiify.raster-pool.allocated";
+
+    /**
+     * The name of the metric that meters the number of bytes that have been reused from the pool.
+     */
+    public static final String REUSED_METRIC = "jiiify.raster-pool.reused";
+
+    /**
+     * The name of the metric that gauges the number of bytes the pool is holding.
+     */
+    public static final String SIZE_METRIC = "jiiify.raster-pool.bytes";
+
+    /* The largest power of two that's a valid array length */
+    private static final int MAX_CAPACITY_BITS = 30;
+
+    private static final RasterPool SHARED_POOL = new RasterPool(DEFAULT_MAX_SIZE);
+
+    /* Pooled images, by their type and dimensions; a deque is only changed in a map update and removed once empty */
+    private final Map<Long, Deque<BufferedImage>> myImages = new ConcurrentHashMap<>();
+
+    /* Pooled arrays, indexed by the power of two that's their capacity */
+    private final List<Deque<int[]>> myArrays = new ArrayList<>(MAX_CAPACITY_BITS + 1);
+
+    private final AtomicLong mySize = new AtomicLong();
+
+    private final Meter myAllocated;
+
+    private final Meter myReused;
+
+    private volatile long myMaxSize;
+
+    /**
+     * Creates a raster pool that reports to Jiiify's metrics registry.
+     *
+     * @param aMaxSize The maximum number of bytes the pool should hold
+     */
+    public RasterPool(final long aMaxSize) {
+        this(aMaxSize, SharedMetricRegistries.getOrCreate(METRICS_REG_PROP));
+    }
+
+    /**
+     * Creates a raster pool that reports to the supplied metrics registry.
+     *
+     * @param aMaxSize The maximum number of bytes the pool should hold
+     * @param aRegistry A metrics registry
+     */
+    public RasterPool(final long aMaxSize, final MetricRegistry aRegistry) {
+        myMaxSize = Math.max(0, aMaxSize);
+        myAllocated = aRegistry.meter(ALLOCATED_METRIC);
+        myReused = aRegistry.meter(REUSED_METRIC);
+
+        for (int index = 0; index <= MAX_CAPACITY_BITS; index++) {
+            myArrays.add(new ConcurrentLinkedDeque<>());
+        }
+
+        // The most recently created pool is the one whose size is reported
+        aRegistry.remove(SIZE_METRIC);
+        aRegistry.register(SIZE_METRIC, (Gauge<Long>) this::size);
+    }
+
+    /**
+     * Gets the raster pool that's shared by the image objects that use Java's image libraries.
+     *
+     * @return The shared raster pool
+     */
+    public static RasterPool getShared() {
+        return SHARED_POOL;
+    }
+
+    /**
+     * Sets the maximum number of bytes the pool should hold; a size of zero turns pooling off. If the pool holds more
+     * than its new maximum, images and arrays are evicted until it doesn't.
+     *
+     * @param aMaxSize The maximum number of bytes the pool should hold
+     */
+    public void setMaxSize(final long aMaxSize) {
+        myMaxSize = Math.max(0, aMaxSize);
+        evict(0);
+    }
+
+    /**
+     * Gets the maximum number of bytes the pool holds.
+     *
+     * @return The maximum number of bytes the pool holds
+     */
+    public long getMaxSize() {
+        return myMaxSize;
+    }
+
+    /**
+     * Gets the number of bytes the pool is holding.
+     *
+     * @return The number of bytes in the pool
+     */
+    public long size() {
+        return mySize.get();
+    }
+
+    /**
+     * Gets an image of the supplied type and dimensions, reusing a pooled image if there is one. The image's pixels
+     * may be left over from its last use.
+     *
+     * @param aType The type of image (e.g., <code>BufferedImage.TYPE_INT_RGB</code>)
+     * @param aWidth The width of the image
+     * @param aHeight The height of the image
+     * @return An image
+     */
+    public BufferedImage getImage(final int aType, final int aWidth, final int aHeight) {
+        final BufferedImage pooledImage = isPoolable(aType) ? poll(getKey(aType, aWidth, aHeight), true) : null;
+        final BufferedImage image;
+
+        if (pooledImage != null) {
+            final long size = getSize(pooledImage);
+
+            mySize.addAndGet(-size);
+            myReused.mark(size);
+            image = pooledImage;
+        } else {
+            image = new BufferedImage(aWidth, aHeight, aType);
+            myAllocated.mark(getSize(image));
+        }
+
+        return image;
+    }
+
+    /**
+     * Gets an image that's like the supplied one (i.e., that has the same color model and pixel layout), but with the
+     * supplied dimensions, reusing a pooled image if there is one. The image's pixels may be left over from its last
+     * use.
+     *
+     * @param aImage An image whose type the new image should have
+     * @param aWidth The width of the image
+     * @param aHeight The height of the image
+     * @return An image
+     */
+    public BufferedImage getImage(final BufferedImage aImage, final int aWidth, final int aHeight) {
+        final BufferedImage image;
+
+        if (isPoolable(aImage.getType())) {
+            image = getImage(aImage.getType(), aWidth, aHeight);
+        } else {
+            image = new BufferedImage(aImage.getColorModel(), aImage.getRaster().createCompatibleWritableRaster(
+                    aWidth, aHeight), aImage.isAlphaPremultiplied(), null);
+            myAllocated.mark(getSize(image));
+        }
+
+        return image;
+    }
+
+    /**
+     * Returns an image to the pool. Images that don't have a standard type (or that have their own color palette)
+     * and images that share their pixels with another image aren't pooled. The image mustn't be used after it's been
+     * returned.
+     *
+     * @param aImage An image that's no longer needed
+     */
+    public void release(final BufferedImage aImage) {
+        if (aImage != null && isPoolable(aImage.getType()) && aImage.getRaster().getParent() == null) {
+            final long key = getKey(aImage.getType(), aImage.getWidth(), aImage.getHeight());
+
+            if (reserve(getSize(aImage))) {
+                myImages.compute(key, (imageKey, images) -> {
+                    final Deque<BufferedImage> deque = images == null ? new ArrayDeque<>() : images;
+
+                    deque.offerFirst(aImage);
+                    return deque;
+                });
+            }
+        }
+    }
+
+    /**
+     * Gets an array with at least the supplied number of elements, reusing a pooled array if there is one. Its
+     * elements may be left over from its last use. Arrays that are too large to ever be pooled are allocated with
+     * exactly the supplied length rather than being rounded up to a power of two.
+     *
+     * @param aLength The minimum length of the array
+     * @return An array that's at least as long as the supplied length
+     */
+    public int[] getInts(final int aLength) {
+        final int bits = aLength <= 1 ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(aLength - 1);
+        final boolean isPoolable = bits <= MAX_CAPACITY_BITS && (long) Integer.BYTES << bits <= myMaxSize;
+        final int[] pooledArray = isPoolable ? myArrays.get(bits).pollFirst() : null;
+        final int[] array;
+
+        if (pooledArray != null) {
+            final long size = getSize(pooledArray);
+
+            mySize.addAndGet(-size);
+            myReused.mark(size);
+            array = pooledArray;
+        } else {
+            array = new int[isPoolable ? 1 << bits : aLength];
+            myAllocated.mark(getSize(array));
+        }
+
+        return array;
+    }
+
+    /**
+     * Returns an array that came from {@link #getInts(int)} to the pool. The array mustn't be used after it's been
+     * returned.
+     *
+     * @param aArray An array that's no longer needed
+     */
+    public void release(final int[] aArray) {
+        if (aArray != null && Integer.bitCount(aArray.length) == 1 && reserve(getSize(aArray))) {
+            myArrays.get(Integer.numberOfTrailingZeros(aArray.length)).offerFirst(aArray);
+        }
+    }
+
+    /**
+     * Makes room in the pool for the supplied number of bytes, evicting pooled images and arrays if need be.
+     *
+     * @param aSize A number of bytes to add to the pool
+     * @return True if there's room for the bytes; else, false
+     */
+    private boolean reserve(final long aSize) {
+        if (aSize > myMaxSize) {
+            return false;
+        }
+
+        // The size is only added if there's still room for it, so concurrent releases can't overfill the pool
+        while (true) {
+            final long size = mySize.get();
+
+            if (size + aSize > myMaxSize) {
+                if (!evict(aSize)) {
+                    return false;
+                }
+            } else if (mySize.compareAndSet(size, size + aSize)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Takes an image from the pool's images of the supplied type and dimensions, removing their deque once it's empty
+     * so the pool doesn't keep a key for every size of image it has ever seen.
+     *
+     * @param aKey The key of the images' type and dimensions
+     * @param aIsNewest True if the most recently released image should be taken; false for the least recently
+     * @return A pooled image or null if there aren't any of the supplied type and dimensions
+     */
+    private BufferedImage poll(final long aKey, final boolean aIsNewest) {
+        final BufferedImage[] image = new BufferedImage[1];
+
+        myImages.computeIfPresent(aKey, (imageKey, images) -> {
+            image[0] = aIsNewest ? images.pollFirst() : images.pollLast();
+            return images.isEmpty() ? null : images;
+        });
+
+        return image[0];
+    }
+
+    /**
+     * Evicts pooled images and arrays, the ones that were released first before the others of their size, until
+     * there's room for the supplied number of bytes.
+     *
+     * @param aSize A number of bytes that need to fit in the pool
+     * @return True if there's room for the bytes; else, false
+     */
+    private boolean evict(final long aSize) {
+        for (final Long key : myImages.keySet()) {
+            while (isFull(aSize)) {
+                final BufferedImage image = poll(key, false);
+
+                if (image == null) {
+                    break;
+                }
+
+                mySize.addAndGet(-getSize(image));
+            }
+        }
+
+        for (final Deque<int[]> arrays : myArrays) {
+            while (isFull(aSize) && !arrays.isEmpty()) {
+                final int[] array = arrays.pollLast();
+
+                if (array != null) {
+                    mySize.addAndGet(-getSize(array));
+                }
+            }
+        }
+
+        return !isFull(aSize);
+    }
+
+    private boolean isFull(final long aSize) {
+        return mySize.get() + aSize > myMaxSize;
+    }
+
+    /**
+     * Returns true if images of the supplied type can be pooled. Images with a palette aren't pooled since new images
+     * of their type have a default palette rather than the one they were created with.
+     *
+     * @param aType The type of image
+     * @return True if images of the type can be pooled; else, false
+     */
+    public static boolean isPoolable(final int aType) {
+        return aType != BufferedImage.TYPE_CUSTOM && aType != BufferedImage.TYPE_BYTE_BINARY &&
+                aType != BufferedImage.TYPE_BYTE_INDEXED;
+    }
+
+    private static long getKey(final int aType, final int aWidth, final int aHeight) {
+        return (long) aType << 56 | (long) aWidth << 28 | aHeight;
+    }
+
+    private static long getSize(final BufferedImage aImage) {
+        final DataBuffer buffer = aImage.getRaster().getDataBuffer();
+
+        return (long) buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+    }
+
+    private static long getSize(final int[] aArray) {
+        return (long) aArray.length * Integer.BYTES;
+    }
+}
@@ -0,0 +1,358 @@
+
+package info.freelibrary.jiiify.image;
+
+import static info.freelibrary.jiiify.Constants.MESSAGES;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import info.freelibrary.jiiify.MessageCodes;
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+/**
+ * A resampler that resizes images with a separable filter, first across the image's rows and then down its columns.
+ * Images are made smaller by area averaging (i.e., each new pixel is the average of the source pixels it covers) and
+ * larger by linear interpolation. The new image is made in strips of rows that are resampled in parallel on the
+ * common fork-join pool. Each strip resamples just the source rows it covers to the new width, in a scratch array
+ * drawn from the shared {@link RasterPool}, so only a few strips' worth of resampled rows are in memory at a time.
+ * Each new pixel is calculated the same way whichever strip it's in, so the results don't depend on how the work was
+ * split up.
+ * <p>
+ * The colors of images with transparency are weighted by their alpha (i.e., they're premultiplied) as they're
+ * averaged, so the colors of transparent pixels don't bleed into the ones next to them. Resampled rows are kept with
+ * sixteen bits for each sample, so a color isn't changed by being premultiplied and then divided by its alpha again.
+ * </p>
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+final class Resampler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Resampler.class, MESSAGES);
+
+    /* The largest array that can be allocated on all JVMs */
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    /* The number of resampled samples a strip can need and still be too small to be split into smaller strips */
+    private static final int STRIP_PIXELS = 64 * 1024;
+
+    /* The factor that scales an eight-bit sample to the sixteen bits with which resampled rows are kept */
+    private static final float WIDE = 257f;
+
+    private static final int WIDE_MAX = 0xFFFF;
+
+    private Resampler() {
+    }
+
+    /**
+     * Resizes an image to the supplied width and height.
+     *
+     * @param aImage An image
+     * @param aWidth The width of the resized image
+     * @param aHeight The height of the resized image
+     * @return The resized image
+     * @throws IOException If the resized image, or the source rows that one of its rows is made from, have too many
+     *         pixels to fit in an array
+     */
+    static BufferedImage resize(final BufferedImage aImage, final int aWidth, final int aHeight) throws IOException {
+        final RasterPool pool = RasterPool.getShared();
+        final int width = aImage.getWidth();
+        final int height = aImage.getHeight();
+        final boolean isGray = aImage.getType() == BufferedImage.TYPE_BYTE_GRAY;
+        final boolean hasAlpha = aImage.getColorModel().hasAlpha();
+        // Gray samples take one int in a resampled row and the four samples of a color pixel take two
+        final int stride = aWidth * (isGray ? 1 : 2);
+        final Weights columns;
+        final Weights rows;
+        final BufferedImage image;
+        final DataBuffer buffer;
+
+        // The new image, and the resampled source rows that each of its rows is made from, must fit in arrays
+        if ((long) aWidth * aHeight > MAX_ARRAY_LENGTH || (long) stride * ((height + aHeight - 1) / aHeight +
+                1) > MAX_ARRAY_LENGTH) {
+            throw new IOException(LOGGER.getMessage(MessageCodes.EXC_096, width, height, aWidth, aHeight));
+        }
+
+        columns = new Weights(width, aWidth);
+        rows = new Weights(height, aHeight);
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(MessageCodes.DBG_137, aImage, aWidth, aHeight, ForkJoinPool.getCommonPoolParallelism());
+        }
+
+        if (isGray) {
+            image = pool.getImage(BufferedImage.TYPE_BYTE_GRAY, aWidth, aHeight);
+        } else {
+            image = pool.getImage(hasAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB, aWidth,
+                    aHeight);
+        }
+
+        buffer = image.getRaster().getDataBuffer();
+
+        // Each strip of the new image resamples the source rows it covers and then the columns of those rows
+        ForkJoinPool.commonPool().invoke(new Strips(0, aHeight, stride * Math.max(1, height / aHeight), (start,
+                end) -> {
+            final int first = rows.myFirsts[start];
+            final int last = rows.getLast(start, end);
+            final int[] rowSamples = pool.getInts((last - first) * stride);
+
+            try {
+                resampleRows(aImage, isGray, hasAlpha, columns, rowSamples, first, last);
+                resampleColumns(rowSamples, first, isGray, hasAlpha, aWidth, rows, buffer, start, end);
+            } finally {
+                pool.release(rowSamples);
+            }
+        }));
+
+        return image;
+    }
+
+    /**
+     * Resamples a range of the source image's rows to the new width, with sixteen bits for each sample and with the
+     * colors premultiplied by their alpha.
+     */
+    private static void resampleRows(final BufferedImage aImage, final boolean aGray, final boolean aAlpha,
+            final Weights aWeights, final int[] aRowSamples, final int aStart, final int aEnd) {
+        final int width = aImage.getWidth();
+        final int newWidth = aWeights.mySize;
+        final int[] row = new int[width];
+
+        for (int y = aStart; y < aEnd; y++) {
+            final int offset = (y - aStart) * newWidth * (aGray ? 1 : 2);
+
+            if (aGray) {
+                // Gray samples are resampled as they are, since converting them to RGB would change them
+                aImage.getRaster().getSamples(0, y, width, 1, 0, row);
+            } else {
+                aImage.getRGB(0, y, width, 1, row, 0, width);
+            }
+
+            for (int x = 0; x < newWidth; x++) {
+                final int first = aWeights.myFirsts[x];
+                final float[] weights = aWeights.myWeights[x];
+
+                float alpha = 0f;
+                float red = 0f;
+                float green = 0f;
+                float blue = 0f;
+
+                for (int index = 0; index < weights.length; index++) {
+                    final int pixel = row[first + index];
+                    final int pixelAlpha = pixel >>> 24;
+                    final float weight = weights[index];
+                    final float colorWeight = aAlpha ? weight * pixelAlpha / 255f : weight;
+
+                    alpha += pixelAlpha * weight;
+                    red += (pixel >> 16 & 0xFF) * colorWeight;
+                    green += (pixel >> 8 & 0xFF) * colorWeight;
+                    blue += (pixel & 0xFF) * colorWeight;
+                }
+
+                if (aGray) {
+                    aRowSamples[offset + x] = toWide(blue);
+                } else {
+                    aRowSamples[offset + x * 2] = toWide(alpha) << 16 | toWide(red);
+                    aRowSamples[offset + x * 2 + 1] = toWide(green) << 16 | toWide(blue);
+                }
+            }
+        }
+    }
+
+    /**
+     * Resamples a range of the new image's rows from the columns of the resampled source rows, writing them straight
+     * into the new image's pixel array.
+     */
+    private static void resampleColumns(final int[] aRowSamples, final int aFirstRow, final boolean aGray,
+            final boolean aAlpha, final int aWidth, final Weights aWeights, final DataBuffer aBuffer,
+            final int aStart, final int aEnd) {
+        final int[] pixels = aBuffer instanceof DataBufferInt ? ((DataBufferInt) aBuffer).getData() : null;
+        final byte[] grays = pixels == null ? ((DataBufferByte) aBuffer).getData() : null;
+        final float[] alphas = new float[aWidth];
+        final float[] reds = new float[aWidth];
+        final float[] greens = new float[aWidth];
+        final float[] blues = new float[aWidth];
+
+        for (int y = aStart; y < aEnd; y++) {
+            final int first = aWeights.myFirsts[y];
+            final float[] weights = aWeights.myWeights[y];
+
+            // Rows are added one at a time, so the source rows are read in order rather than down each column
+            for (int index = 0; index < weights.length; index++) {
+                final float weight = weights[index] / WIDE;
+                final int offset = (first + index - aFirstRow) * aWidth * (aGray ? 1 : 2);
+
+                for (int x = 0; x < aWidth; x++) {
+                    if (aGray) {
+                        blues[x] = (index == 0 ? 0f : blues[x]) + aRowSamples[offset + x] * weight;
+                    } else {
+                        final int alphaRed = aRowSamples[offset + x * 2];
+                        final int greenBlue = aRowSamples[offset + x * 2 + 1];
+
+                        if (index == 0) {
+                            alphas[x] = (alphaRed >>> 16) * weight;
+                            reds[x] = (alphaRed & WIDE_MAX) * weight;
+                            greens[x] = (greenBlue >>> 16) * weight;
+                            blues[x] = (greenBlue & WIDE_MAX) * weight;
+                        } else {
+                            alphas[x] += (alphaRed >>> 16) * weight;
+                            reds[x] += (alphaRed & WIDE_MAX) * weight;
+                            greens[x] += (greenBlue >>> 16) * weight;
+                            blues[x] += (greenBlue & WIDE_MAX) * weight;
+                        }
+                    }
+                }
+            }
+
+            if (pixels == null) {
+                for (int x = 0; x < aWidth; x++) {
+                    grays[y * aWidth + x] = (byte) toSample(blues[x]);
+                }
+            } else {
+                for (int x = 0; x < aWidth; x++) {
+                    // The colors are divided by their alpha again, since the new image's colors aren't premultiplied
+                    final float scale = !aAlpha ? 1f : alphas[x] > 0f ? 255f / alphas[x] : 0f;
+
+                    pixels[y * aWidth + x] = toPixel(alphas[x], reds[x] * scale, greens[x] * scale, blues[x] *
+                            scale);
+                }
+            }
+        }
+    }
+
+    private static int toPixel(final float aAlpha, final float aRed, final float aGreen, final float aBlue) {
+        return toSample(aAlpha) << 24 | toSample(aRed) << 16 | toSample(aGreen) << 8 | toSample(aBlue);
+    }
+
+    private static int toSample(final float aValue) {
+        return Math.min(255, Math.max(0, Math.round(aValue)));
+    }
+
+    private static int toWide(final float aValue) {
+        return Math.min(WIDE_MAX, Math.max(0, Math.round(aValue * WIDE)));
+    }
+
+    /**
+     * The source pixels, and their weights, from which each pixel along one of the new image's dimensions is made.
+     */
+    private static final class Weights {
+
+        private final int mySize;
+
+        private final int[] myFirsts;
+
+        private final float[][] myWeights;
+
+        /**
+         * Calculates the weights for resampling a dimension of an image from its source size to a new size.
+         *
+         * @param aSourceSize The size of the source dimension
+         * @param aSize The new size of the dimension
+         */
+        private Weights(final int aSourceSize, final int aSize) {
+            final double scale = (double) aSourceSize / aSize;
+
+            mySize = aSize;
+            myFirsts = new int[aSize];
+            myWeights = new float[aSize][];
+
+            for (int index = 0; index < aSize; index++) {
+                if (scale > 1d) {
+                    // Each new pixel covers more than one source pixel, so it's weighted by how much of each it covers
+                    final double start = index * scale;
+                    final double end = Math.min(aSourceSize, start + scale);
+                    final int first = (int) start;
+                    final int last = Math.min(aSourceSize, (int) Math.ceil(end));
+                    final float[] weights = new float[last - first];
+
+                    for (int source = first; source < last; source++) {
+                        weights[source - first] = (float) ((Math.min(end, source + 1) - Math.max(start, source)) /
+                                (end - start));
+                    }
+
+                    myFirsts[index] = first;
+                    myWeights[index] = weights;
+                } else {
+                    // Each new pixel is between two source pixels (or on the edge), so it's interpolated between them
+                    final double center = Math.max(0d, Math.min(aSourceSize - 1d, (index + 0.5d) * scale - 0.5d));
+                    final int first = Math.min((int) center, Math.max(0, aSourceSize - 2));
+                    final float fraction = (float) (center - first);
+
+                    myFirsts[index] = first;
+                    myWeights[index] = aSourceSize == 1 ? new float[] { 1f } : new float[] { 1f - fraction,
+                        fraction };
+                }
+            }
+        }
+
+        /**
+         * Gets the end (exclusive) of the source pixels that a range of new pixels is made from. The range starts at
+         * the first source pixel of the first new pixel, since each new pixel starts at or after the one before it.
+         *
+         * @param aStart The first new pixel in the range
+         * @param aEnd The end (exclusive) of the range of new pixels
+         * @return The end of the source pixels that the range of new pixels is made from
+         */
+        private int getLast(final int aStart, final int aEnd) {
+            int last = 0;
+
+            for (int index = aStart; index < aEnd; index++) {
+                last = Math.max(last, myFirsts[index] + myWeights[index].length);
+            }
+
+            return last;
+        }
+    }
+
+    /**
+     * A range of rows that's split in half, and forked, until it's small enough to be resampled as one strip. The size
+     * of a row is the number of resampled samples it needs from the source rows it's made from.
+     */
+    private static final class Strips extends RecursiveAction {
+
+        /**
+         * The <code>serialVersionUID</code> for <code>Strips</code>.
+         */
+        private static final long serialVersionUID = -2877352185619428427L;
+
+        private final int myStart;
+
+        private final int myEnd;
+
+        private final int myRowSize;
+
+        private final StripHandler myHandler;
+
+        private Strips(final int aStart, final int aEnd, final int aRowSize, final StripHandler aHandler) {
+            myStart = aStart;
+            myEnd = aEnd;
+            myRowSize = aRowSize;
+            myHandler = aHandler;
+        }
+
+        @Override
+        protected void compute() {
+            if ((long) (myEnd - myStart) * myRowSize <= STRIP_PIXELS || myEnd - myStart == 1) {
+                myHandler.resample(myStart, myEnd);
+            } else {
+                final int middle = myStart + (myEnd - myStart) / 2;
+
+                invokeAll(new Strips(myStart, middle, myRowSize, myHandler), new Strips(middle, myEnd, myRowSize,
+                        myHandler));
+            }
+        }
+    }
+
+    /**
+     * A resampler of a strip of rows.
+     */
+    @FunctionalInterface
+    private interface StripHandler {
+
+        void resample(int aStart, int aEnd);
+    }
+}
@@ -0,0 +1,480 @@
+
+package info.freelibrary.jiiify.image;
+
+import static info.freelibrary.jiiify.Constants.MESSAGES;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+import info.freelibrary.jiiify.MessageCodes;
+import info.freelibrary.jiiify.iiif.ImageRegion;
+import info.freelibrary.jiiify.iiif.ImageRequest;
+import info.freelibrary.jiiify.iiif.ImageSize;
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+/**
+ * A tiling engine that creates all the tiles that {@link info.freelibrary.jiiify.util.ImageUtils#getTilePaths} lists
+ * for an image while decoding the image only once. The full resolution tiles are cut from the decoded image and each
+ * coarser level of the pyramid is created by scaling the level below it down by half, so no tile is ever scaled down
+ * from the full resolution image. Gray images stay gray, and images with transparency keep it, as they're scaled down.
+ * <p>
+ * The image can either be decoded all at once ({@link #cascade(byte[], TileHandler)}) or a band of rows at a time
+ * ({@link #stream(File, TileHandler)}). Both create the same tiles but, when streaming, only one band of each level
+ * is in memory at a time, so images larger than the heap can be tiled. Only TIFF images are streamed, since their
+ * readers can seek to a band's strips or tiles; readers of other formats decode every band from the image's first
+ * row, so those images are cascaded instead.
+ * </p>
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class TilePyramid {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TilePyramid.class, MESSAGES);
+
+    private final String myServicePrefix;
+
+    private final String myID;
+
+    private final int myTileSize;
+
+    /**
+     * A handler for the tiles that are created from a pyramid.
+     */
+    @FunctionalInterface
+    public interface TileHandler {
+
+        /**
+         * Handles a tile from the pyramid. The tile may share its pixels with the pyramid's working memory, so it
+         * must be used before this method returns.
+         *
+         * @param aRequest The image request for the tile
+         * @param aTile The tile, which is already at its requested region and size
+         * @throws IOException If there is trouble handling the tile
+         */
+        void handle(ImageRequest aRequest, ImageObject aTile) throws IOException;
+    }
+
+    /**
+     * Creates a new tile pyramid for an image.
+     *
+     * @param aServicePrefix A IIIF service prefix
+     * @param aID The ID of the image
+     * @param aTileSize The size of the image's tiles
+     */
+    public TilePyramid(final String aServicePrefix, final String aID, final int aTileSize) {
+        myServicePrefix = aServicePrefix;
+        myID = aID;
+        myTileSize = aTileSize;
+    }
+
+    /**
+     * Creates the pyramid's tiles from the supplied source image, from the finest level to the coarsest.
+     *
+     * @param aImage A source image in an array of bytes
+     * @param aHandler A handler for the created tiles
+     * @return The number of tiles that were created
+     * @throws IOException If the source image can't be read or a tile can't be handled
+     */
+    public int cascade(final byte[] aImage, final TileHandler aHandler) throws IOException {
+        return cascade(new MemoryCacheImageInputStream(new ByteArrayInputStream(aImage)), aHandler);
+    }
+
+    /**
+     * Creates the pyramid's tiles from the source image in the supplied image stream, which is closed afterwards.
+     *
+     * @param aInStream A source image stream
+     * @param aHandler A handler for the created tiles
+     * @return The number of tiles that were created
+     * @throws IOException If the source image can't be read or a tile can't be handled
+     */
+    public int cascade(final ImageInputStream aInStream, final TileHandler aHandler) throws IOException {
+        final BufferedImage image = new JavaImageObject(aInStream, null, null).getBufferedImage();
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+        final int longDim = Math.max(width, height);
+
+        BufferedImage level = image;
+        int tileCount = 0;
+
+        LOGGER.debug(MessageCodes.DBG_094, myID, myTileSize, width, height);
+
+        // These are the same levels, and the same tiles, as the ones listed by ImageUtils.getTilePaths()
+        for (int multiplier = 1; (multiplier * myTileSize) < longDim; multiplier *= 2) {
+            if (multiplier > 1) {
+                level = halve(level);
+            }
+
+            LOGGER.debug(MessageCodes.DBG_132, multiplier, level.getWidth(), level.getHeight());
+
+            for (int y = 0; y < level.getHeight(); y += myTileSize) {
+                final int bandHeight = Math.min(myTileSize, level.getHeight() - y);
+                final BufferedImage band = level.getSubimage(0, y, level.getWidth(), bandHeight);
+
+                tileCount += cutTiles(band, y, multiplier, width, height, aHandler);
+            }
+        }
+
+        LOGGER.debug(MessageCodes.DBG_096, tileCount, myID);
+        return tileCount;
+    }
+
+    /**
+     * Creates the pyramid's tiles from the supplied source image file, which is read in bands of rows that are each
+     * as high as a tile. Each band's full resolution tiles are created as soon as it's read and the band is scaled
+     * down into the band of the next level, whose tiles are created once it has been filled (and so on). At most one
+     * band of each level is kept in memory. Images that aren't TIFFs are cascaded instead.
+     *
+     * @param aImageFile A source image file
+     * @param aHandler A handler for the created tiles
+     * @return The number of tiles that were created
+     * @throws IOException If the source image can't be read or a tile can't be handled
+     */
+    public int stream(final File aImageFile, final TileHandler aHandler) throws IOException {
+        return stream(ImageIO.createImageInputStream(aImageFile), aHandler);
+    }
+
+    /**
+     * Creates the pyramid's tiles from the source image in the supplied image stream, which is read in bands of rows
+     * (as with {@link #stream(File, TileHandler)}) and closed afterwards.
+     *
+     * @param aInStream A source image stream
+     * @param aHandler A handler for the created tiles
+     * @return The number of tiles that were created
+     * @throws IOException If the source image can't be read or a tile can't be handled
+     */
+    public int stream(final ImageInputStream aInStream, final TileHandler aHandler) throws IOException {
+        final ImageReader reader = JavaImageObject.getReader(aInStream);
+
+        int tileCount = 0;
+
+        // Reading a band of a format without random access would decode all the rows above it again
+        if (!isRandomAccess(reader)) {
+            LOGGER.debug(MessageCodes.DBG_138, reader.getFormatName(), myID);
+            reader.dispose();
+            return cascade(aInStream, aHandler);
+        }
+
+        try {
+            final ImageReadParam param;
+            final int width;
+            final int height;
+            final int longDim;
+
+            Level next = null;
+
+            reader.setInput(aInStream, true, true);
+            param = reader.getDefaultReadParam();
+            width = reader.getWidth(0);
+            height = reader.getHeight(0);
+            longDim = Math.max(width, height);
+
+            LOGGER.debug(MessageCodes.DBG_094, myID, myTileSize, width, height);
+
+            for (int y = 0; y < height && myTileSize < longDim; y += myTileSize) {
+                final int bandHeight = Math.min(myTileSize, height - y);
+                final BufferedImage band;
+
+                param.setSourceRegion(new Rectangle(0, y, width, bandHeight));
+                band = reader.read(0, param);
+
+                // Set up the coarser levels from the top down, so each level can pass its rows to the next one
+                if (y == 0) {
+                    for (int multiplier = Integer.highestOneBit(Math.max(1, (longDim - 1) / myTileSize));
+                            multiplier > 1; multiplier /= 2) {
+                        next = new Level(multiplier, (width + multiplier - 1) / multiplier, getLevelType(band), width,
+                                height, next, aHandler);
+                    }
+                }
+
+                LOGGER.debug(MessageCodes.DBG_133, y, bandHeight, width, myID);
+                tileCount += cutTiles(band, y, 1, width, height, aHandler);
+
+                if (next != null) {
+                    final int[] row = new int[width];
+
+                    for (int index = 0; index < bandHeight; index++) {
+                        getRow(band, index, row);
+                        next.addSourceRow(row);
+                    }
+                }
+            }
+
+            if (next != null) {
+                tileCount += next.finish();
+            }
+        } finally {
+            reader.dispose();
+            aInStream.close();
+        }
+
+        LOGGER.debug(MessageCodes.DBG_096, tileCount, myID);
+        return tileCount;
+    }
+
+    /**
+     * Returns true if the supplied reader can decode a band of rows without decoding the rows above it.
+     *
+     * @param aReader An image reader
+     * @return True if the reader can seek to a band of rows; else, false
+     * @throws IOException If the reader's format can't be determined
+     */
+    private static boolean isRandomAccess(final ImageReader aReader) throws IOException {
+        final String format = aReader.getFormatName();
+
+        return "tif".equalsIgnoreCase(format) || "tiff".equalsIgnoreCase(format);
+    }
+
+    /**
+     * Cuts the tiles from a band of one of the pyramid's levels.
+     *
+     * @param aBand A band of rows from a level of the pyramid
+     * @param aBandY The row in the level where the band starts
+     * @param aMultiplier The multiplier of the band's level (i.e., how much it's been scaled down)
+     * @param aWidth The width of the full resolution image
+     * @param aHeight The height of the full resolution image
+     * @param aHandler A handler for the created tiles
+     * @return The number of tiles that were cut from the band
+     * @throws IOException If a tile can't be handled
+     */
+    private int cutTiles(final BufferedImage aBand, final int aBandY, final int aMultiplier, final int aWidth,
+            final int aHeight, final TileHandler aHandler) throws IOException {
+        final int regionSize = aMultiplier * myTileSize;
+        final int y = aBandY * aMultiplier;
+        final int regionHeight = Math.min(regionSize, aHeight - y);
+
+        int tileCount = 0;
+
+        for (int tileX = 0; tileX < aBand.getWidth(); tileX += myTileSize) {
+            final int x = tileX * aMultiplier;
+            final int regionWidth = Math.min(regionSize, aWidth - x);
+            final int tileWidth = Math.min(myTileSize, aBand.getWidth() - tileX);
+            final ImageRegion region = new ImageRegion(x, y, regionWidth, regionHeight);
+            final ImageSize size = new ImageSize(tileWidth, 0);
+            final ImageObject tile = new JavaImageObject(aBand.getSubimage(tileX, 0, tileWidth, aBand.getHeight()),
+                    regionWidth, regionHeight);
+
+            // Edge tiles may be a pixel off from the size that's computed from their region's proportions
+            tile.resize(size);
+            aHandler.handle(new ImageRequest(myID, myServicePrefix, region, size), tile);
+            tileCount += 1;
+        }
+
+        return tileCount;
+    }
+
+    /**
+     * Scales the supplied image down by half, rounding up odd dimensions so the last row and column of tiles aren't
+     * lost.
+     *
+     * @param aImage An image
+     * @return An image half the size of the supplied one
+     */
+    private static BufferedImage halve(final BufferedImage aImage) {
+        final int width = aImage.getWidth();
+        final int height = aImage.getHeight();
+        final BufferedImage image = new BufferedImage((width + 1) / 2, (height + 1) / 2, getLevelType(aImage));
+        final int[] firstRow = new int[width];
+        final int[] secondRow = new int[width];
+
+        for (int y = 0; y < height; y += 2) {
+            getRow(aImage, y, firstRow);
+            getRow(aImage, Math.min(y + 1, height - 1), secondRow);
+            setRow(image, y / 2, halve(firstRow, secondRow));
+        }
+
+        return image;
+    }
+
+    /**
+     * Gets the type of image that the supplied image's coarser levels should have. Gray images stay gray and images
+     * with transparency keep it; all others are RGB.
+     *
+     * @param aImage An image from the pyramid's finest level
+     * @return The type of image for the pyramid's coarser levels
+     */
+    private static int getLevelType(final BufferedImage aImage) {
+        if (aImage.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+            return BufferedImage.TYPE_BYTE_GRAY;
+        } else if (aImage.getColorModel().hasAlpha()) {
+            return BufferedImage.TYPE_INT_ARGB;
+        } else {
+            return BufferedImage.TYPE_INT_RGB;
+        }
+    }
+
+    /**
+     * Reads a row of the supplied image into an array. A gray image's row is read as gray samples; all other rows are
+     * read as ARGB pixels.
+     *
+     * @param aImage An image
+     * @param aY The row to read
+     * @param aRow An array into which to read the row
+     */
+    private static void getRow(final BufferedImage aImage, final int aY, final int[] aRow) {
+        final int width = aImage.getWidth();
+
+        if (aImage.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+            // Gray samples are used as they are, since converting them to RGB would change them
+            aImage.getRaster().getSamples(0, aY, width, 1, 0, aRow);
+        } else {
+            aImage.getRGB(0, aY, width, 1, aRow, 0, width);
+        }
+    }
+
+    /**
+     * Writes a row of gray samples or ARGB pixels, whichever the image has, into the supplied image.
+     *
+     * @param aImage An image
+     * @param aY The row to write
+     * @param aRow The row's samples or pixels
+     */
+    private static void setRow(final BufferedImage aImage, final int aY, final int[] aRow) {
+        if (aImage.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+            aImage.getRaster().setSamples(0, aY, aRow.length, 1, 0, aRow);
+        } else {
+            aImage.setRGB(0, aY, aRow.length, 1, aRow, 0, aRow.length);
+        }
+    }
+
+    /**
+     * Scales two rows of pixels down to one row, half as wide, by averaging each two by two block of pixels. A last
+     * odd pixel is averaged with itself. Gray samples are averaged like pixels whose only channel is blue.
+     *
+     * @param aFirstRow A row of ARGB pixels or gray samples
+     * @param aSecondRow The row of pixels or samples below it
+     * @return A row of pixels or samples half as wide as the supplied rows
+     */
+    private static int[] halve(final int[] aFirstRow, final int[] aSecondRow) {
+        final int width = aFirstRow.length;
+        final int[] row = new int[(width + 1) / 2];
+
+        for (int index = 0; index < row.length; index++) {
+            final int x1 = index * 2;
+            final int x2 = Math.min(x1 + 1, width - 1);
+
+            row[index] = average(aFirstRow[x1], aFirstRow[x2], aSecondRow[x1], aSecondRow[x2]);
+        }
+
+        return row;
+    }
+
+    private static int average(final int aPixel1, final int aPixel2, final int aPixel3, final int aPixel4) {
+        int pixel = 0;
+
+        for (int shift = 0; shift <= 24; shift += 8) {
+            final int sum = (aPixel1 >> shift & 0xFF) + (aPixel2 >> shift & 0xFF) + (aPixel3 >> shift & 0xFF) +
+                    (aPixel4 >> shift & 0xFF);
+
+            pixel |= (sum + 2) / 4 << shift;
+        }
+
+        return pixel;
+    }
+
+    /**
+     * A coarser level of a pyramid that's being streamed. It's filled a row at a time, from the rows of the level
+     * below it, and its tiles are cut whenever it has a full band of rows.
+     */
+    private final class Level {
+
+        private final int myMultiplier;
+
+        private final int myFullWidth;
+
+        private final int myFullHeight;
+
+        private final Level myNext;
+
+        private final TileHandler myHandler;
+
+        private final BufferedImage myBand;
+
+        /* A row from the level below that's waiting for the row that will be averaged with it */
+        private int[] mySourceRow;
+
+        /* The number of rows in the band */
+        private int myBandHeight;
+
+        /* The row in the level where the band starts */
+        private int myBandY;
+
+        private int myTileCount;
+
+        private Level(final int aMultiplier, final int aWidth, final int aType, final int aFullWidth,
+                final int aFullHeight, final Level aNext, final TileHandler aHandler) {
+            myMultiplier = aMultiplier;
+            myFullWidth = aFullWidth;
+            myFullHeight = aFullHeight;
+            myNext = aNext;
+            myHandler = aHandler;
+            myBand = new BufferedImage(aWidth, myTileSize, aType);
+        }
+
+        /**
+         * Adds a row from the level below this one.
+         *
+         * @param aRow A row of ARGB pixels or gray samples from the level below
+         * @throws IOException If a tile can't be handled
+         */
+        private void addSourceRow(final int[] aRow) throws IOException {
+            if (mySourceRow == null) {
+                mySourceRow = aRow.clone();
+            } else {
+                addRow(halve(mySourceRow, aRow));
+                mySourceRow = null;
+            }
+        }
+
+        private void addRow(final int[] aRow) throws IOException {
+            setRow(myBand, myBandHeight++, aRow);
+
+            if (myNext != null) {
+                myNext.addSourceRow(aRow);
+            }
+
+            if (myBandHeight == myTileSize) {
+                cutBand();
+            }
+        }
+
+        private void cutBand() throws IOException {
+            final BufferedImage band = myBand.getSubimage(0, 0, myBand.getWidth(), myBandHeight);
+
+            LOGGER.debug(MessageCodes.DBG_132, myMultiplier, myBand.getWidth(), myBandY + myBandHeight);
+
+            myTileCount += cutTiles(band, myBandY, myMultiplier, myFullWidth, myFullHeight, myHandler);
+            myBandY += myBandHeight;
+            myBandHeight = 0;
+        }
+
+        /**
+         * Finishes the level, and the levels above it, once the level below has added its last row.
+         *
+         * @return The number of tiles in this level and the levels above it
+         * @throws IOException If a tile can't be handled
+         */
+        private int finish() throws IOException {
+            // A last odd row is averaged with itself
+            if (mySourceRow != null) {
+                addRow(halve(mySourceRow, mySourceRow));
+                mySourceRow = null;
+            }
+
+            if (myBandHeight > 0) {
+                cutBand();
+            }
+
+            return myNext == null ? myTileCount : myTileCount + myNext.finish();
+        }
+    }
+}
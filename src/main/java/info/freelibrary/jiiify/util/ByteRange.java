@@ -0,0 +1,135 @@
+
+package info.freelibrary.jiiify.util;
+
+/**
+ * A single range of bytes requested through an HTTP Range header.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public final class ByteRange {
+
+    /**
+     * The unit of ranges that Jiiify supports.
+     */
+    public static final String BYTES = "bytes";
+
+    private static final String BYTES_PREFIX = BYTES + "=";
+
+    private final long myStart;
+
+    private final long myEnd;
+
+    private final long myTotalLength;
+
+    private ByteRange(final long aStart, final long aEnd, final long aTotalLength) {
+        myStart = aStart;
+        myEnd = aEnd;
+        myTotalLength = aTotalLength;
+    }
+
+    /**
+     * Parses an HTTP Range header for a resource of the supplied length. Only single ranges are supported; requests
+     * for multiple ranges (and malformed headers) return null, which means the whole resource should be sent.
+     *
+     * @param aRangeHeader The value of a Range header
+     * @param aTotalLength The length of the requested resource
+     * @return The requested range or null if the whole resource should be sent
+     */
+    public static ByteRange parse(final String aRangeHeader, final long aTotalLength) {
+        final String range;
+        final int dashIndex;
+
+        if (aRangeHeader == null || !aRangeHeader.startsWith(BYTES_PREFIX)) {
+            return null;
+        }
+
+        range = aRangeHeader.substring(BYTES_PREFIX.length()).trim();
+        dashIndex = range.indexOf('-');
+
+        if (dashIndex == -1 || range.indexOf(',') != -1) {
+            return null;
+        }
+
+        try {
+            final String first = range.substring(0, dashIndex).trim();
+            final String last = range.substring(dashIndex + 1).trim();
+
+            if (first.isEmpty()) {
+                // A suffix range requests the last N bytes of the resource
+                final long suffixLength = Long.parseLong(last);
+
+                if (suffixLength == 0) {
+                    return new ByteRange(aTotalLength, aTotalLength - 1, aTotalLength);
+                }
+
+                return new ByteRange(Math.max(0, aTotalLength - suffixLength), aTotalLength - 1, aTotalLength);
+            } else {
+                final long start = Long.parseLong(first);
+                final long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+
+                // A last byte position that's before the first makes the header invalid, so it's ignored
+                if (end < start) {
+                    return null;
+                }
+
+                return new ByteRange(start, Math.min(end, aTotalLength - 1), aTotalLength);
+            }
+        } catch (final NumberFormatException details) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns whether the range overlaps the resource. Unsatisfiable ranges should get a 416 response.
+     *
+     * @return True if the range can be served; else, false
+     */
+    public boolean isSatisfiable() {
+        return myStart < myTotalLength && myStart <= myEnd;
+    }
+
+    /**
+     * Gets the position of the first byte in the range.
+     *
+     * @return The position of the first byte in the range
+     */
+    public long getStart() {
+        return myStart;
+    }
+
+    /**
+     * Gets the position of the last byte in the range (inclusive).
+     *
+     * @return The position of the last byte in the range
+     */
+    public long getEnd() {
+        return myEnd;
+    }
+
+    /**
+     * Gets the number of bytes in the range.
+     *
+     * @return The number of bytes in the range
+     */
+    public long getLength() {
+        return myEnd - myStart + 1;
+    }
+
+    /**
+     * Gets the value of the Content-Range header for a response to this range.
+     *
+     * @return The value of a Content-Range header
+     */
+    public String toContentRange() {
+        if (isSatisfiable()) {
+            return BYTES + ' ' + myStart + '-' + myEnd + '/' + myTotalLength;
+        } else {
+            return BYTES + " */" + myTotalLength;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toContentRange();
+    }
+}
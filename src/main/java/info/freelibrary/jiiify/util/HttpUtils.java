@@ -0,0 +1,141 @@
+
+package info.freelibrary.jiiify.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.zip.CRC32;
+
+import info.freelibrary.jiiify.Metadata;
+
+import io.vertx.core.MultiMap;
+
+/**
+ * A utility class for HTTP caching validators (ETags and Last-Modified dates) and conditional requests.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public final class HttpUtils {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private static final String WILDCARD = "*";
+
+    private static final String QUOTE = "\"";
+
+    private HttpUtils() {
+    }
+
+    /**
+     * Gets an ETag for a stored file from its last modified time and length.
+     *
+     * @param aLastModified The time, in milliseconds since the epoch, the file was last modified
+     * @param aLength The length of the file
+     * @return A strong ETag
+     */
+    public static String getETag(final long aLastModified, final long aLength) {
+        return QUOTE + Long.toHexString(aLastModified) + '-' + Long.toHexString(aLength) + QUOTE;
+    }
+
+    /**
+     * Gets an ETag for a stored file that's rewritten before it's sent (e.g., with the server's URL). The variant
+     * that the file is rewritten for is part of the ETag so each rewritten variant of the file has its own ETag.
+     *
+     * @param aLastModified The time, in milliseconds since the epoch, the file was last modified
+     * @param aLength The length of the file
+     * @param aVariant The variant of the file that's sent
+     * @return A strong ETag
+     */
+    public static String getETag(final long aLastModified, final long aLength, final String aVariant) {
+        final CRC32 crc = new CRC32();
+
+        crc.update(aVariant.getBytes(StandardCharsets.UTF_8));
+
+        return QUOTE + Long.toHexString(aLastModified) + '-' + Long.toHexString(aLength) + '-' + Long.toHexString(
+                crc.getValue()) + QUOTE;
+    }
+
+    /**
+     * Formats the supplied time as an HTTP date.
+     *
+     * @param aTime A time in milliseconds since the epoch
+     * @return An HTTP date
+     */
+    public static String formatDate(final long aTime) {
+        final ZonedDateTime dateTime = Instant.ofEpochMilli(aTime).atZone(ZoneOffset.UTC);
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(dateTime);
+    }
+
+    /**
+     * Parses an HTTP date.
+     *
+     * @param aDate An HTTP date
+     * @return The time in milliseconds since the epoch, or -1 if the date is missing or can't be parsed
+     */
+    public static long parseDate(final String aDate) {
+        if (aDate == null) {
+            return -1;
+        }
+
+        try {
+            return ZonedDateTime.parse(aDate, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (final DateTimeParseException details) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns whether a conditional request can be answered with a 304 (Not Modified) response. If-None-Match takes
+     * precedence over If-Modified-Since, which is only consulted when there is no If-None-Match header.
+     *
+     * @param aHeaders The headers of a request
+     * @param aETag The current ETag of the requested resource, or null if it isn't known
+     * @param aLastModified The time the requested resource was last modified, or a negative number if it isn't known
+     * @return True if the client's copy of the resource is still current; else, false
+     */
+    public static boolean isNotModified(final MultiMap aHeaders, final String aETag, final long aLastModified) {
+        final String ifNoneMatch = aHeaders.get(Metadata.IF_NONE_MATCH);
+
+        if (ifNoneMatch != null) {
+            return aETag != null && matches(ifNoneMatch, aETag);
+        } else if (aLastModified >= 0) {
+            final long since = parseDate(aHeaders.get(Metadata.IF_MODIFIED_SINCE));
+
+            // HTTP dates only have a precision of seconds
+            if (since >= 0) {
+                return aLastModified / 1000 <= since / 1000;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns whether the supplied ETag is in the supplied list of ETags (using the weak comparison that's used for
+     * If-None-Match).
+     *
+     * @param aETagList A comma separated list of ETags, or a wildcard
+     * @param aETag An ETag
+     * @return True if the ETag is in the list; else, false
+     */
+    public static boolean matches(final String aETagList, final String aETag) {
+        final String etag = stripWeakPrefix(aETag);
+
+        for (final String listETag : aETagList.split(",")) {
+            final String trimmedETag = listETag.trim();
+
+            if (WILDCARD.equals(trimmedETag) || etag.equals(stripWeakPrefix(trimmedETag))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static String stripWeakPrefix(final String aETag) {
+        return aETag.startsWith(WEAK_PREFIX) ? aETag.substring(WEAK_PREFIX.length()) : aETag;
+    }
+}
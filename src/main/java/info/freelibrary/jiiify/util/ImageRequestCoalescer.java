@@ -0,0 +1,156 @@
+
+package info.freelibrary.jiiify.util;
+
+import static info.freelibrary.jiiify.Constants.MESSAGES;
+import static info.freelibrary.jiiify.Constants.METRICS_REG_PROP;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+
+import info.freelibrary.jiiify.MessageCodes;
+import info.freelibrary.jiiify.iiif.ImageRequest;
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Coalesces concurrent requests for the same derivative image. The first request for an image creates it and every
+ * request for that image that arrives while it's being created is handed the same result when creation finishes.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class ImageRequestCoalescer {
+
+    /**
+     * The name of the metric that counts the number of images that have been created.
+     */
+    public static final String GENERATED_METRIC = "jiiify.images.generated";
+
+    /**
+     * The name of the metric that counts the number of requests that waited on another request's image.
+     */
+    public static final String COALESCED_METRIC = "jiiify.images.coalesced";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageRequestCoalescer.class, MESSAGES);
+
+    private final Map<String, List<Waiter>> myRequests = new ConcurrentHashMap<>();
+
+    private final Counter myGeneratedCounter;
+
+    private final Counter myCoalescedCounter;
+
+    /**
+     * Creates a new image request coalescer that reports to Jiiify's metrics registry.
+     */
+    public ImageRequestCoalescer() {
+        this(SharedMetricRegistries.getOrCreate(METRICS_REG_PROP));
+    }
+
+    /**
+     * Creates a new image request coalescer that reports to the supplied metrics registry.
+     *
+     * @param aRegistry A metrics registry
+     */
+    public ImageRequestCoalescer(final MetricRegistry aRegistry) {
+        myGeneratedCounter = aRegistry.counter(GENERATED_METRIC);
+        myCoalescedCounter = aRegistry.counter(COALESCED_METRIC);
+    }
+
+    /**
+     * Gets the image for the supplied request. If the image isn't already being created, the supplied generator is
+     * asked to create it; otherwise, the supplied handler is queued to receive the in-progress result. Handlers are
+     * called back on the Vert.x context from which they were registered.
+     *
+     * @param aRequest An image request
+     * @param aGenerator A generator that creates the requested image and completes the future it's given
+     * @param aHandler A handler that receives the requested image
+     */
+    public void get(final ImageRequest aRequest, final Handler<Future<Buffer>> aGenerator,
+            final Handler<AsyncResult<Buffer>> aHandler) {
+        final String key = aRequest.toString();
+        final Waiter waiter = new Waiter(Vertx.currentContext(), aHandler);
+        final AtomicBoolean isFirst = new AtomicBoolean();
+
+        myRequests.compute(key, (requestKey, waiters) -> {
+            final List<Waiter> list = waiters == null ? new ArrayList<>() : waiters;
+
+            isFirst.set(waiters == null);
+            list.add(waiter);
+
+            return list;
+        });
+
+        if (isFirst.get()) {
+            final Future<Buffer> future = Future.future();
+
+            myGeneratedCounter.inc();
+
+            future.setHandler(result -> {
+                final List<Waiter> waiters = myRequests.remove(key);
+
+                for (final Waiter queuedWaiter : waiters) {
+                    queuedWaiter.handle(result);
+                }
+            });
+
+            try {
+                aGenerator.handle(future);
+            } catch (final RuntimeException details) {
+                if (!future.isComplete()) {
+                    future.fail(details);
+                }
+            }
+        } else {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(MessageCodes.DBG_121, key);
+            }
+
+            myCoalescedCounter.inc();
+        }
+    }
+
+    /**
+     * Returns the number of images that are currently being created.
+     *
+     * @return The number of images that are currently being created
+     */
+    public int size() {
+        return myRequests.size();
+    }
+
+    /**
+     * A handler that's waiting on a result, along with the context on which it should receive it.
+     */
+    private static final class Waiter {
+
+        private final Context myContext;
+
+        private final Handler<AsyncResult<Buffer>> myHandler;
+
+        private Waiter(final Context aContext, final Handler<AsyncResult<Buffer>> aHandler) {
+            myContext = aContext;
+            myHandler = aHandler;
+        }
+
+        private void handle(final AsyncResult<Buffer> aResult) {
+            if (myContext == null) {
+                myHandler.handle(aResult);
+            } else {
+                myContext.runOnContext(event -> myHandler.handle(aResult));
+            }
+        }
+    }
+}
@@ -17,12 +17,17 @@ import javax.imageio.ImageIO;
 import javax.imageio.ImageReader;
 import javax.imageio.stream.ImageInputStream;
 
+import org.opencv.core.Core;
+
 import info.freelibrary.jiiify.Constants;
 import info.freelibrary.jiiify.MessageCodes;
 import info.freelibrary.jiiify.iiif.ImageFormat;
 import info.freelibrary.jiiify.iiif.ImageRegion;
+import info.freelibrary.jiiify.iiif.ImageSize;
 import info.freelibrary.jiiify.image.ImageObject;
 import info.freelibrary.jiiify.image.JavaImageObject;
+import info.freelibrary.jiiify.image.MappedImageSource;
+import info.freelibrary.jiiify.image.NativeImageObject;
 import info.freelibrary.util.FileUtils;
 import info.freelibrary.util.IOUtils;
 import info.freelibrary.util.Logger;
@@ -31,6 +36,8 @@ import info.freelibrary.util.StringUtils;
 
 import io.vertx.core.json.JsonArray;
 
+import nu.pattern.OpenCV;
+
 /**
  * A utility class for some common image processing needs.
  *
@@ -40,15 +47,10 @@ public final class ImageUtils {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ImageUtils.class, MESSAGES);
 
-    private static boolean useNativeLibs = false;
+    private static volatile boolean useNativeLibs;
 
-    static {
-        /*
-         * try { NativeLibraryLoader.load(Core.NATIVE_LIBRARY_NAME); if (LOGGER.isDebugEnabled() && useNativeLibs) {
-         * LOGGER.debug("Using native image processing libraries"); } } catch (final IOException details) {
-         * LOGGER.warn("Error loading native libraries so using Java libraries instead: {}", details.getMessage()); }
-         */
-    }
+    /* Whether OpenCV's native library has been loaded, or null if loading it hasn't been tried yet */
+    private static Boolean isNativeLibLoaded;
 
     /* Template for the region part of the IIIF request */
     private static final String REGION = "{},{},{},{}";
@@ -177,12 +179,25 @@ public final class ImageUtils {
     }
 
     /**
-     * Sets whether to use native image libraries or to use the standard Java ones.
+     * Sets whether to use native image libraries or to use the standard Java ones. The native (OpenCV) library is
+     * loaded, from the OpenCV artifact on the classpath, the first time it's requested; if it can't be loaded, the
+     * Java image libraries are used instead.
      *
      * @param aFlagToUseNativeLibs A flag to indicate whether or not native libraries should be used
      */
-    public static void useNativeLibs(final boolean aFlagToUseNativeLibs) {
-        useNativeLibs = aFlagToUseNativeLibs;
+    public static synchronized void useNativeLibs(final boolean aFlagToUseNativeLibs) {
+        if (aFlagToUseNativeLibs && isNativeLibLoaded == null) {
+            try {
+                OpenCV.loadLocally();
+                LOGGER.debug(MessageCodes.DBG_136, Core.NATIVE_LIBRARY_NAME);
+                isNativeLibLoaded = true;
+            } catch (final RuntimeException | LinkageError details) {
+                LOGGER.warn(MessageCodes.WARN_036, details.getMessage());
+                isNativeLibLoaded = false;
+            }
+        }
+
+        useNativeLibs = aFlagToUseNativeLibs && isNativeLibLoaded;
     }
 
     /**
@@ -302,9 +317,7 @@ public final class ImageUtils {
         final ImageObject image;
 
         if (useNativeLibs) {
-            // FIXME:
-            // image = new NativeImageObject(aImageBuffer);
-            throw new RuntimeException("NativeImageObject not configured");
+            image = new NativeImageObject(aImage);
         } else {
             image = new JavaImageObject(aImage);
         }
@@ -312,6 +325,76 @@ public final class ImageUtils {
         return image;
     }
 
+    /**
+     * Gets an <code>ImageObject</code> for a region of the supplied image, decoded at the lowest resolution that's
+     * still useful for resizing it to the supplied size. The region has already been extracted from the returned
+     * image but it still needs to be resized. Since OpenCV decodes the whole image, requests for just a region of it
+     * are always decoded with Java's image libraries, which only decode the region.
+     *
+     * @param aImage An image in an array of bytes
+     * @param aRegion The region of the image to decode
+     * @param aSize The size to which the image region will be resized
+     * @return An <code>ImageObject</code> for the region of the supplied byte array
+     * @throws IOException If there is trouble reading the supplied byte array
+     */
+    public static ImageObject getImage(final byte[] aImage, final ImageRegion aRegion, final ImageSize aSize)
+            throws IOException {
+        final ImageObject image;
+
+        if (useNativeLibs && (aRegion == null || aRegion.isFullImage())) {
+            image = new NativeImageObject(aImage, aRegion, aSize);
+        } else {
+            image = new JavaImageObject(aImage, aRegion, aSize);
+        }
+
+        return image;
+    }
+
+    /**
+     * Gets an <code>ImageObject</code> for a region of the image in the supplied image stream, which is closed
+     * afterwards. As with {@link #getImage(byte[], ImageRegion, ImageSize)}, the region has already been extracted
+     * from the returned image but it still needs to be resized. Image streams (e.g., ones from a mapped source image)
+     * are always decoded with Java's image libraries, which read only the parts of the stream they need rather than
+     * copying all of it into memory as OpenCV would.
+     *
+     * @param aInStream An image stream
+     * @param aRegion The region of the image to decode
+     * @param aSize The size to which the image region will be resized
+     * @return An <code>ImageObject</code> for the region of the supplied image stream
+     * @throws IOException If there is trouble reading the supplied image stream
+     */
+    public static ImageObject getImage(final ImageInputStream aInStream, final ImageRegion aRegion,
+            final ImageSize aSize) throws IOException {
+        return new JavaImageObject(aInStream, aRegion, aSize);
+    }
+
+    /**
+     * Gets an <code>ImageObject</code> for a region of a mapped source image. As with
+     * {@link #getImage(byte[], ImageRegion, ImageSize)}, the region has already been extracted from the returned
+     * image but it still needs to be resized. Requests for the full image are decoded natively, from the source's
+     * file, if native libraries are being used, at the smallest scale that's still useful for the requested size.
+     * Requests for a region of the
+     * image are decoded with Java's image libraries, which read only the parts of the mapping that the region needs.
+     *
+     * @param aSource A mapped source image
+     * @param aRegion The region of the image to decode
+     * @param aSize The size to which the image region will be resized
+     * @return An <code>ImageObject</code> for the region of the mapped source image
+     * @throws IOException If there is trouble reading the mapped source image
+     */
+    public static ImageObject getImage(final MappedImageSource aSource, final ImageRegion aRegion,
+            final ImageSize aSize) throws IOException {
+        final ImageObject image;
+
+        if (useNativeLibs && (aRegion == null || aRegion.isFullImage())) {
+            image = new NativeImageObject(aSource.getFile(), aRegion, aSize);
+        } else {
+            image = new JavaImageObject(aSource.newInputStream(), aRegion, aSize);
+        }
+
+        return image;
+    }
+
     private static String getSize(final double aMultiplier, final int aXTileSize, final int aYTileSize) {
         return (int) Math.ceil(aXTileSize / aMultiplier) + "," + (int) Math.ceil(aYTileSize / aMultiplier);
     }
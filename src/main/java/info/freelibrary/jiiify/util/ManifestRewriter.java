@@ -0,0 +1,165 @@
+
+package info.freelibrary.jiiify.util;
+
+import static info.freelibrary.jiiify.Constants.MESSAGES;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import info.freelibrary.jiiify.MessageCodes;
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Rewrites the hosts of the IIIF URIs in a stored manifest so they point at this server. The manifest is streamed
+ * from its stored bytes to the rewritten bytes, one token at a time, so its tree is never built in memory.
+ * <p>
+ * The <code>@id</code>, <code>on</code>, <code>thumbnail</code>, and <code>logo</code> values of the manifest are
+ * rewritten, as are those of its <code>resource</code>, <code>service</code>, and <code>default</code> objects and of
+ * the objects in its <code>sequences</code>, <code>canvases</code>, <code>images</code>, and <code>item</code> arrays
+ * (at any depth of that nesting).
+ * </p>
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public final class ManifestRewriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ManifestRewriter.class, MESSAGES);
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private static final String THUMBNAIL = "thumbnail";
+
+    private static final String LOGO = "logo";
+
+    private static final String ID = "@id";
+
+    private static final String ON = "on";
+
+    private static final Set<String> OBJECTS = new HashSet<>(Arrays.asList("resource", "service", "default"));
+
+    private static final Set<String> ARRAYS = new HashSet<>(Arrays.asList("sequences", "canvases", "images",
+            "item"));
+
+    private ManifestRewriter() {
+    }
+
+    /**
+     * Rewrites the hosts of the IIIF URIs in the supplied manifest.
+     *
+     * @param aManifest A stored manifest
+     * @param aServer The server the manifest's URIs should point at (e.g., https://localhost:8443)
+     * @param aService The service prefix of the IIIF URIs (e.g., /iiif)
+     * @return The rewritten manifest
+     * @throws IOException If the manifest isn't valid JSON
+     */
+    public static Buffer rewrite(final Buffer aManifest, final String aServer, final String aService)
+            throws IOException {
+        final ByteBuf manifest = Unpooled.buffer(aManifest.length() + aManifest.length() / 8);
+        final String iiifService = aService + "/";
+        final Deque<Container> containers = new ArrayDeque<>();
+
+        try (JsonParser parser = FACTORY.createParser(new ByteBufInputStream(aManifest.getByteBuf()));
+                JsonGenerator generator = FACTORY.createGenerator(new ByteBufOutputStream(manifest))) {
+            JsonToken token;
+
+            while ((token = parser.nextToken()) != null) {
+                final Container container = containers.peek();
+
+                switch (token) {
+                    case START_OBJECT:
+                        containers.push(new Container(false, container == null || container.hasRewrittenObject()));
+                        generator.copyCurrentEvent(parser);
+                        break;
+                    case START_ARRAY:
+                        containers.push(new Container(true, container != null && container.hasRewrittenArray()));
+                        generator.copyCurrentEvent(parser);
+                        break;
+                    case END_OBJECT:
+                    case END_ARRAY:
+                        containers.pop();
+                        generator.copyCurrentEvent(parser);
+                        break;
+                    case FIELD_NAME:
+                        container.myField = parser.getCurrentName();
+                        generator.copyCurrentEvent(parser);
+                        break;
+                    case VALUE_STRING:
+                        if (container != null && !container.myArray && container.myRewritten) {
+                            generator.writeString(rewrite(container.myField, parser.getText(), aServer, iiifService));
+                        } else {
+                            generator.copyCurrentEvent(parser);
+                        }
+
+                        break;
+                    default:
+                        generator.copyCurrentEvent(parser);
+                }
+            }
+        }
+
+        return Buffer.buffer(manifest);
+    }
+
+    private static String rewrite(final String aField, final String aValue, final String aServer,
+            final String aIiifService) {
+        if (LOGO.equals(aField)) {
+            try {
+                return new URL(aServer + new URL(aValue).getPath()).toExternalForm();
+            } catch (final MalformedURLException details) {
+                LOGGER.error(MessageCodes.EXC_052, aValue, details);
+                return aValue;
+            }
+        }
+
+        if ((ID.equals(aField) || ON.equals(aField) || THUMBNAIL.equals(aField)) && aValue.contains(aIiifService)) {
+            return aServer + aValue.substring(aValue.indexOf(aIiifService));
+        }
+
+        return aValue;
+    }
+
+    /**
+     * An object or array that's open in the manifest, along with whether its URIs are rewritten.
+     */
+    private static final class Container {
+
+        private final boolean myArray;
+
+        private final boolean myRewritten;
+
+        private String myField;
+
+        private Container(final boolean aArray, final boolean aRewritten) {
+            myArray = aArray;
+            myRewritten = aRewritten;
+        }
+
+        /* Whether an object opened in this container has its URIs rewritten */
+        private boolean hasRewrittenObject() {
+            return myArray ? myRewritten : myRewritten && OBJECTS.contains(myField);
+        }
+
+        /* Whether the objects in an array opened in this container have their URIs rewritten */
+        private boolean hasRewrittenArray() {
+            return !myArray && myRewritten && ARRAYS.contains(myField);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+
+package info.freelibrary.jiiify.util;
+
+import static info.freelibrary.jiiify.Constants.MESSAGES;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+
+import info.freelibrary.jiiify.Configuration;
+import info.freelibrary.jiiify.MessageCodes;
+import info.freelibrary.jiiify.Metadata;
+import info.freelibrary.pairtree.PairtreeObject;
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.file.FileProps;
+
+/**
+ * A utility class for interpreting the results of reads from the Pairtree's storage.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public final class StorageUtils {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StorageUtils.class, MESSAGES);
+
+    private StorageUtils() {
+    }
+
+    /**
+     * Gets the properties (i.e., the size and last modified time) of a stored resource without reading it. Files on
+     * the local file system are stat'ed and objects in S3 are requested with a HEAD request. If the resource doesn't
+     * exist, the result fails with a <code>FileNotFoundException</code>.
+     *
+     * @param aConfig The configuration that has the Pairtree's storage
+     * @param aVertx A Vert.x instance
+     * @param aPtObj The Pairtree object that contains the resource
+     * @param aResource The path of the resource within the Pairtree object
+     * @param aHandler A handler that receives the resource's properties
+     */
+    public static void getProps(final Configuration aConfig, final Vertx aVertx, final PairtreeObject aPtObj,
+            final String aResource, final Handler<AsyncResult<FileProps>> aHandler) {
+        final String path = aPtObj.getPath(aResource);
+        final Future<FileProps> future = Future.future();
+
+        future.setHandler(aHandler);
+
+        if (aConfig.hasFileSystemDataDirs()) {
+            aVertx.fileSystem().props(path, future.completer());
+            return;
+        }
+
+        aConfig.getS3Client().createHeadRequest(aConfig.getS3Bucket(), path, response -> {
+            final int statusCode = response.statusCode();
+
+            if (statusCode == 200) {
+                final long lastModified = HttpUtils.parseDate(response.getHeader(Metadata.LAST_MODIFIED));
+                final String length = response.getHeader(Metadata.CONTENT_LENGTH);
+
+                future.complete(new ObjectProps(lastModified, length == null ? 0 : Long.parseLong(length)));
+            } else if (statusCode == 404) {
+                future.fail(new FileNotFoundException(path));
+            } else {
+                future.fail(new IOException(LOGGER.getMessage(MessageCodes.EXC_098, path, statusCode, response
+                        .statusMessage())));
+            }
+        }).exceptionHandler(future::fail).end();
+    }
+
+    /**
+     * Finds out why a read of a stored resource failed. Failed reads from S3 only have a message, rather than a
+     * status code, so the resource's properties are requested to learn whether it exists. The handler is passed a
+     * failure that {@link #isNotFound(Throwable)} recognizes if the resource doesn't exist; otherwise, it's passed the
+     * supplied failure.
+     *
+     * @param aConfig The configuration that has the Pairtree's storage
+     * @param aVertx A Vert.x instance
+     * @param aPtObj The Pairtree object that contains the resource
+     * @param aResource The path of the resource within the Pairtree object
+     * @param aFailure The failure of the read
+     * @param aHandler A handler that receives the reason the read failed
+     */
+    public static void checkFailure(final Configuration aConfig, final Vertx aVertx, final PairtreeObject aPtObj,
+            final String aResource, final Throwable aFailure, final Handler<Throwable> aHandler) {
+        if (isNotFound(aFailure)) {
+            aHandler.handle(aFailure);
+        } else {
+            getProps(aConfig, aVertx, aPtObj, aResource, propsHandler -> {
+                if (propsHandler.failed() && isNotFound(propsHandler.cause())) {
+                    aHandler.handle(propsHandler.cause());
+                } else {
+                    aHandler.handle(aFailure);
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns true if the supplied exception, or one of its causes, reports that a stored resource doesn't exist
+     * (i.e., a missing file on the file system, or a 404 from S3 as reported by {@link #getProps}), rather than that
+     * it couldn't be read.
+     *
+     * @param aThrowable An exception from an attempt to read a stored resource
+     * @return True if the resource doesn't exist; else, false
+     */
+    public static boolean isNotFound(final Throwable aThrowable) {
+        Throwable cause = aThrowable;
+
+        while (cause != null) {
+            if (cause instanceof FileNotFoundException || cause instanceof NoSuchFileException) {
+                return true;
+            }
+
+            cause = cause.getCause();
+        }
+
+        return false;
+    }
+
+    /**
+     * The properties of an object in S3, from the headers of a HEAD request for it.
+     */
+    private static final class ObjectProps implements FileProps {
+
+        private final long myLastModified;
+
+        private final long mySize;
+
+        private ObjectProps(final long aLastModified, final long aSize) {
+            myLastModified = aLastModified;
+            mySize = aSize;
+        }
+
+        @Override
+        public long creationTime() {
+            return myLastModified;
+        }
+
+        @Override
+        public long lastAccessTime() {
+            return myLastModified;
+        }
+
+        @Override
+        public long lastModifiedTime() {
+            return myLastModified;
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return false;
+        }
+
+        @Override
+        public boolean isOther() {
+            return false;
+        }
+
+        @Override
+        public boolean isRegularFile() {
+            return true;
+        }
+
+        @Override
+        public boolean isSymbolicLink() {
+            return false;
+        }
+
+        @Override
+        public long size() {
+            return mySize;
+        }
+    }
+}
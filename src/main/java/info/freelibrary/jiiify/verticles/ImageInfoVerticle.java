@@ -50,6 +50,9 @@ public class ImageInfoVerticle extends AbstractJiiifyVerticle {
                     ptObj.put(ImageInfo.FILE_NAME, buffer, writeHandler -> {
                         if (writeHandler.succeeded()) {
                             LOGGER.debug(MessageCodes.DBG_102, ptObj.getPath(ImageInfo.FILE_NAME));
+
+                            // Any previously rendered copy of the image info file is now out of date
+                            getConfig().getInfoCache().remove(ptObj.getPath(ImageInfo.FILE_NAME));
                             message.reply(SUCCESS_RESPONSE);
                         } else {
                             final String path = ptObj.getPath(ImageInfo.FILE_NAME);
@@ -1,37 +1,55 @@
 
 package info.freelibrary.jiiify.verticles;
 
+import static info.freelibrary.jiiify.Constants.DERIVATIVE_SOURCE_KEY;
+import static info.freelibrary.jiiify.Constants.DYNAMIC_IMAGE_KEY;
+import static info.freelibrary.jiiify.Constants.ENCODING_PROFILE_KEY;
 import static info.freelibrary.jiiify.Constants.FAILURE_RESPONSE;
 import static info.freelibrary.jiiify.Constants.FILE_PATH_KEY;
+import static info.freelibrary.jiiify.Constants.ID_KEY;
 import static info.freelibrary.jiiify.Constants.IIIF_PATH_KEY;
-import static info.freelibrary.jiiify.Constants.IMAGE_BUFFER_KEY;
-import static info.freelibrary.jiiify.Constants.IMAGE_CLEANUP_KEY;
-import static info.freelibrary.jiiify.Constants.IMAGE_TILE_COUNT;
+import static info.freelibrary.jiiify.Constants.INGEST_SESSIONS_KEY;
+import static info.freelibrary.jiiify.Constants.NOT_FOUND_RESPONSE;
 import static info.freelibrary.jiiify.Constants.SUCCESS_RESPONSE;
+import static info.freelibrary.jiiify.Constants.TILE_PYRAMID_KEY;
 import static info.freelibrary.jiiify.Constants.TILE_REQUEST_KEY;
+import static info.freelibrary.jiiify.Constants.TILE_SIZE_PROP;
+import static info.freelibrary.jiiify.Constants.TILE_STREAM_KEY;
+import static info.freelibrary.jiiify.util.StorageUtils.isNotFound;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.naming.ConfigurationException;
 
 import info.freelibrary.jiiify.Constants;
 import info.freelibrary.jiiify.MessageCodes;
 import info.freelibrary.jiiify.iiif.ImageQuality;
+import info.freelibrary.jiiify.iiif.ImageRegion;
 import info.freelibrary.jiiify.iiif.ImageRequest;
+import info.freelibrary.jiiify.iiif.ImageRequestParser;
+import info.freelibrary.jiiify.iiif.ImageSize;
+import info.freelibrary.jiiify.image.EncodingProfile;
 import info.freelibrary.jiiify.image.ImageObject;
-import info.freelibrary.jiiify.image.ImmutableBytes;
+import info.freelibrary.jiiify.image.IngestSession;
+import info.freelibrary.jiiify.image.MappedImageSource;
+import info.freelibrary.jiiify.image.TilePyramid;
 import info.freelibrary.jiiify.util.ImageUtils;
+import info.freelibrary.jiiify.util.StorageUtils;
 import info.freelibrary.pairtree.PairtreeObject;
 import info.freelibrary.util.Logger;
 import info.freelibrary.util.LoggerFactory;
 
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.WorkerExecutor;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.Message;
-import io.vertx.core.file.FileSystem;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.shareddata.LocalMap;
-import io.vertx.core.shareddata.SharedData;
 
 /**
  * A threaded verticle that handles image creation requests.
@@ -42,61 +60,61 @@ public class ImageWorkerVerticle extends AbstractJiiifyVerticle {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ImageWorkerVerticle.class, Constants.MESSAGES);
 
+    /* The number of a pyramid's tiles that can be waiting to be stored before no more tiles are created */
+    private static final int MAX_PENDING_TILES = 32;
+
+    /* Tile pyramids are created off this verticle's context, so its storage callbacks can run while they're created */
+    private WorkerExecutor myTileExecutor;
+
     @Override
     public void start() throws ConfigurationException, IOException {
+        // Large images take much longer to tile than Vert.x expects blocking code to take, so they're not timed
+        myTileExecutor = vertx.createSharedWorkerExecutor(TilePyramid.class.getSimpleName(), Runtime.getRuntime()
+                .availableProcessors(), Long.MAX_VALUE);
+
         getJsonConsumer().handler(message -> {
             final JsonObject json = message.body();
-            final FileSystem fileSystem = getVertx().fileSystem();
             final String filePath = json.getString(FILE_PATH_KEY);
 
             try {
-                final ImageRequest request = new ImageRequest(json.getString(IIIF_PATH_KEY));
-                final String id = request.getID();
-
-                /* Check whether our image request is coming from the tile master */
-                if (json.containsKey(TILE_REQUEST_KEY)) {
+                /* A tile pyramid request is for all of an image's tiles, rather than for a single image */
+                final boolean isPyramid = json.getBoolean(TILE_PYRAMID_KEY, false);
+                final ImageRequest request = isPyramid ? null : ImageRequestParser.parse(json.getString(
+                        IIIF_PATH_KEY));
+                final String id = isPyramid ? json.getString(ID_KEY) : request.getID();
+
+                /* Check whether our image request is derived from an image that's already in the Pairtree */
+                if (json.containsKey(DERIVATIVE_SOURCE_KEY)) {
+                    rotateDerivative(request, json.getString(DERIVATIVE_SOURCE_KEY), message);
+                } else if (json.containsKey(TILE_REQUEST_KEY)) {
+                    /* Our image request is coming from the tile master, which has started an ingest session */
                     final String tileRequestKey = json.getString(TILE_REQUEST_KEY);
-                    final SharedData sharedData = vertx.sharedData();
-
-                    sharedData.getCounter(tileRequestKey, getCounter -> {
-                        if (getCounter.succeeded()) {
-                            getCounter.result().decrementAndGet(decrementAndGet -> {
-                                if (decrementAndGet.succeeded()) {
-                                    /* Change the tile count to be 1-based instead of 0-based */
-                                    final long tileCount = decrementAndGet.result() + 1;
-                                    final byte[] bytes = getCachedImage(sharedData, json, tileCount, filePath, id);
-
-                                    try {
-                                        final ImageObject image = ImageUtils.getImage(bytes);
-
-                                        try {
-                                            processImage(request, image, message);
-                                        } catch (final Throwable details) {
-                                            LOGGER.error(details, details.getMessage());
-                                            image.free();
-                                            message.reply(FAILURE_RESPONSE);
-                                        }
-                                    } catch (final IOException details) {
-                                        LOGGER.error(details, details.getMessage());
-                                        message.reply(FAILURE_RESPONSE);
-                                    }
-                                } else {
-                                    final Throwable cause = decrementAndGet.cause();
-
-                                    LOGGER.error(cause, cause.getMessage());
-                                    message.reply(FAILURE_RESPONSE);
-                                }
-                            });
-                        } else {
-                            final Throwable cause = getCounter.cause();
-
-                            LOGGER.error(cause, cause.getMessage());
-                            message.reply(FAILURE_RESPONSE);
-                        }
-                    });
+                    final IngestSession session = getSessions().get(tileRequestKey);
+
+                    if (session == null) {
+                        LOGGER.error(MessageCodes.EXC_094, tileRequestKey, filePath);
+                        message.reply(FAILURE_RESPONSE);
+                    } else {
+                        final Context context = vertx.getOrCreateContext();
+
+                        /* The first request maps the source image; the others pick it up as soon as it's mapped */
+                        session.getSource().whenComplete((source, error) -> context.runOnContext(run -> {
+                            if (error != null) {
+                                LOGGER.error(error, MessageCodes.EXC_049, filePath);
+                                message.reply(FAILURE_RESPONSE);
+                                release(tileRequestKey, session, id);
+                            } else {
+                                LOGGER.debug(MessageCodes.DBG_013, filePath);
+                                processSource(request, id, json, source, message, done -> {
+                                    release(tileRequestKey, session, id);
+                                });
+                            }
+                        }));
+                    }
                 } else {
-                    final byte[] bytes = fileSystem.readFileBlocking(filePath).getBytes();
-                    final ImageObject image = ImageUtils.getImage(bytes);
+                    /* Only the parts of the source image that the request needs are read from its mapping */
+                    final MappedImageSource source = new MappedImageSource(new File(filePath));
+                    final ImageObject image = ImageUtils.getImage(source, request.getRegion(), request.getSize());
 
                     LOGGER.debug(MessageCodes.DBG_010, filePath);
 
@@ -110,74 +128,89 @@ public class ImageWorkerVerticle extends AbstractJiiifyVerticle {
                 }
             } catch (final Throwable details) {
                 LOGGER.error(details, details.getMessage());
-                message.reply(FAILURE_RESPONSE);
+                message.reply(isNotFound(details) ? NOT_FOUND_RESPONSE : FAILURE_RESPONSE);
             }
         });
     }
 
-    private byte[] getCachedImage(final SharedData aSharedData, final JsonObject aJson, final long aTileCount,
-            final String aFilePath, final String aID) {
-        final LocalMap<String, ImmutableBytes> dataMap = aSharedData.getLocalMap(IMAGE_BUFFER_KEY);
-        final String tileRequestKey = aJson.getString(TILE_REQUEST_KEY);
-        final int totalTileCount = aJson.getInteger(IMAGE_TILE_COUNT);
-        final FileSystem fileSystem = vertx.fileSystem();
-        final byte[] image;
-
-        boolean skipBuffer = false;
-
-        /* Check if we're processing the first tile from the batch */
-        if (totalTileCount == aTileCount) {
-            LOGGER.debug(MessageCodes.DBG_014, aFilePath);
-            image = fileSystem.readFileBlocking(aFilePath).getBytes();
-            dataMap.put(tileRequestKey, new ImmutableBytes(image));
+    /**
+     * Creates the requested image, or tiles, from an ingest session's source image.
+     *
+     * @param aRequest The image request or null if the request is for the image's tile pyramid
+     * @param aID The ID of the image
+     * @param aJson The message body of the request
+     * @param aSource The source image
+     * @param aMessage The message that requested the image
+     * @param aDoneHandler A handler that's called once the source image is no longer needed
+     */
+    private void processSource(final ImageRequest aRequest, final String aID, final JsonObject aJson,
+            final MappedImageSource aSource, final Message<JsonObject> aMessage, final Handler<Void> aDoneHandler) {
+        if (aRequest == null) {
+            createTiles(aID, aJson.getInteger(TILE_SIZE_PROP), aJson.getBoolean(TILE_STREAM_KEY, false), aSource,
+                    aMessage, aDoneHandler);
         } else {
-            /* Stall for a bit if we need to, so we're not double reading TIFF files */
-            for (int count = 0; !dataMap.keySet().contains(tileRequestKey); count++) {
-                try {
-                    Thread.sleep(TimeUnit.MILLISECONDS.convert(1, TimeUnit.SECONDS));
-
-                    /* This is just a wild unfounded amount of time based on nothing */
-                    if (count > (60 * 5)) {
-                        LOGGER.warn(MessageCodes.WARN_006, aFilePath);
-                        skipBuffer = true;
-                        break;
-                    }
-                } catch (final InterruptedException details) {
-                    final String verticleName = getClass().getSimpleName();
+            try {
+                final ImageObject image = ImageUtils.getImage(aSource, aRequest.getRegion(), aRequest.getSize());
 
-                    LOGGER.warn(MessageCodes.WARN_005, verticleName, details.getMessage());
+                try {
+                    processImage(aRequest, image, aMessage);
+                } catch (final Throwable details) {
+                    image.free();
+                    throw details;
                 }
+            } catch (final Throwable details) {
+                LOGGER.error(details, details.getMessage());
+                aMessage.reply(FAILURE_RESPONSE);
+            } finally {
+                aDoneHandler.handle(null);
             }
+        }
+    }
 
-            if (skipBuffer) {
-                LOGGER.debug(MessageCodes.DBG_009, aFilePath);
-                image = fileSystem.readFileBlocking(aFilePath).getBytes();
-            } else {
-                LOGGER.debug(MessageCodes.DBG_013, aFilePath);
-
-                if (aTileCount == 1) {
-                    final boolean cleanupSource = aJson.getBoolean(IMAGE_CLEANUP_KEY);
-
-                    LOGGER.debug(MessageCodes.DBG_012, aID, aFilePath);
-
-                    image = dataMap.remove(tileRequestKey).getBytes();
-
-                    if (cleanupSource) {
-                        vertx.fileSystem().delete(aFilePath, delete -> {
-                            if (!delete.succeeded()) {
-                                LOGGER.error(MessageCodes.EXC_083, aFilePath);
-                            }
-                        });
+    /**
+     * Releases an ingest session for a request that's done with its source image. The session ends, and its source
+     * image is deleted if that was requested, once all of its requests have released it.
+     *
+     * @param aSessionKey The key of the ingest session
+     * @param aSession The ingest session
+     * @param aID The ID of the source image
+     */
+    private void release(final String aSessionKey, final IngestSession aSession, final String aID) {
+        if (aSession.release()) {
+            final String filePath = aSession.getFilePath();
+
+            LOGGER.debug(MessageCodes.DBG_012, aID, filePath);
+            getSessions().remove(aSessionKey);
+
+            if (aSession.isCleanup()) {
+                vertx.fileSystem().delete(filePath, delete -> {
+                    if (!delete.succeeded()) {
+                        LOGGER.error(MessageCodes.EXC_083, filePath);
                     }
-                } else {
-                    image = dataMap.get(tileRequestKey).getBytes();
-                }
+                });
             }
         }
+    }
+
+    @Override
+    public void stop(final Future<Void> aFuture) {
+        myTileExecutor.close();
+        super.stop(aFuture);
+    }
 
-        return image;
+    private LocalMap<String, IngestSession> getSessions() {
+        return vertx.sharedData().getLocalMap(INGEST_SESSIONS_KEY);
     }
 
+    /**
+     * Creates and stores the requested image from an image object that holds the request's region of the source
+     * image (as returned by {@link ImageUtils#getImage(byte[], ImageRegion, ImageSize)}).
+     *
+     * @param aRequest The image request
+     * @param aImage The region of the source image
+     * @param aMessage The message that requested the image
+     * @throws IOException If the image can't be created
+     */
     private void processImage(final ImageRequest aRequest, final ImageObject aImage,
             final Message<JsonObject> aMessage) throws IOException {
         final PairtreeObject ptObj = getConfig().getDataDir(aRequest.getID()).getObject(aRequest.getID());
@@ -187,15 +220,12 @@ public class ImageWorkerVerticle extends AbstractJiiifyVerticle {
             LOGGER.debug(MessageCodes.DBG_011, aRequest.getID());
         }
 
-        if (!aRequest.getRegion().isFullImage()) {
-            aImage.extractRegion(aRequest.getRegion());
-        }
-
+        // The requested region was the only part of the source image that was decoded, so it doesn't need cropping
         if (!aRequest.getSize().isFullSize()) {
             aImage.resize(aRequest.getSize());
         }
 
-        if (aRequest.getRotation().isRotated()) {
+        if (aRequest.getRotation().isRotated() || aRequest.getRotation().isMirrored()) {
             aImage.rotate(aRequest.getRotation());
         }
 
@@ -203,12 +233,163 @@ public class ImageWorkerVerticle extends AbstractJiiifyVerticle {
             aImage.adjustQuality(aRequest.getQuality());
         }
 
-        imageBuffer = aImage.toBuffer(aRequest.getFormat().getExtension());
+        imageBuffer = aImage.toBuffer(aRequest.getFormat().getExtension(), getProfile(aRequest, aMessage.body()));
         aImage.free();
 
-        ptObj.put(aRequest.getPath(), imageBuffer, handler -> {
+        storeImage(ptObj, aRequest, imageBuffer, aMessage);
+    }
+
+    /**
+     * Creates all of an image's tiles, decoding the source image just once. The source image is either decoded all at
+     * once or, if it's too large for that, streamed a band of rows at a time. The tiles are created on the tile
+     * executor, rather than on this verticle's context, so that they can be stored as they're created; if too many
+     * are waiting to be stored, no more are created until some of them have been.
+     *
+     * @param aID The ID of the image
+     * @param aTileSize The size of the image's tiles
+     * @param aStream Whether the source image should be streamed
+     * @param aSource The source image
+     * @param aMessage The message that requested the tiles
+     * @param aDoneHandler A handler that's called once all the tiles have been created and stored
+     */
+    private void createTiles(final String aID, final int aTileSize, final boolean aStream,
+            final MappedImageSource aSource, final Message<JsonObject> aMessage, final Handler<Void> aDoneHandler) {
+        final Semaphore pendingTiles = new Semaphore(MAX_PENDING_TILES);
+        final AtomicBoolean isStored = new AtomicBoolean(true);
+
+        myTileExecutor.<Void>executeBlocking(future -> {
+            final PairtreeObject ptObj = getConfig().getDataDir(aID).getObject(aID);
+            final TilePyramid pyramid = new TilePyramid(getConfig().getServicePrefix(), aID, aTileSize);
+            final EncodingProfile profile = getConfig().getEncodingProfile(EncodingProfile.TILE);
+            final TilePyramid.TileHandler handler;
+
+            handler = (request, tile) -> {
+                final Buffer imageBuffer = tile.toBuffer(request.getFormat().getExtension(), profile);
+
+                tile.free();
+                pendingTiles.acquireUninterruptibly();
+
+                ptObj.put(request.getPath(), imageBuffer, put -> {
+                    if (put.succeeded()) {
+                        uncache(ptObj.getPath(request.getPath()));
+                    } else {
+                        LOGGER.error(put.cause(), MessageCodes.EXC_000, put.cause().getMessage());
+                        isStored.set(false);
+                    }
+
+                    pendingTiles.release();
+                });
+            };
+
+            try {
+                if (aStream) {
+                    pyramid.stream(aSource.newInputStream(), handler);
+                } else {
+                    pyramid.cascade(aSource.newInputStream(), handler);
+                }
+
+                future.complete();
+            } catch (final IOException details) {
+                future.fail(details);
+            } finally {
+                // Wait for the tiles that haven't been stored yet
+                pendingTiles.acquireUninterruptibly(MAX_PENDING_TILES);
+            }
+        }, false, result -> {
+            if (result.failed()) {
+                LOGGER.error(result.cause(), result.cause().getMessage());
+            }
+
+            aMessage.reply(result.succeeded() && isStored.get() ? SUCCESS_RESPONSE : FAILURE_RESPONSE);
+            aDoneHandler.handle(null);
+        });
+    }
+
+    /**
+     * Creates a rotated image from its unrotated derivative, which has already been cut and scaled, rather than from
+     * the source image. The requester is told, with a distinct reply, when the unrotated derivative doesn't exist so
+     * that it can be told apart from a failure to read or rotate it.
+     *
+     * @param aRequest The request for the rotated image
+     * @param aDerivativePath The IIIF path of the unrotated derivative in the Pairtree
+     * @param aMessage The message that requested the rotated image
+     */
+    private void rotateDerivative(final ImageRequest aRequest, final String aDerivativePath,
+            final Message<JsonObject> aMessage) {
+        final PairtreeObject ptObj = getConfig().getDataDir(aRequest.getID()).getObject(aRequest.getID());
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(MessageCodes.DBG_127, ptObj.getPath(aDerivativePath), aRequest);
+        }
+
+        ptObj.get(aDerivativePath, getHandler -> {
+            if (getHandler.succeeded()) {
+                ImageObject image = null;
+
+                try {
+                    image = ImageUtils.getImage(getHandler.result().getBytes());
+                    image.rotate(aRequest.getRotation());
+
+                    final Buffer imageBuffer = image.toBuffer(aRequest.getFormat().getExtension(), getProfile(
+                            aRequest, aMessage.body()));
+
+                    storeImage(ptObj, aRequest, imageBuffer, aMessage);
+                } catch (final IOException | RuntimeException details) {
+                    LOGGER.error(details, MessageCodes.EXC_049, ptObj.getPath(aDerivativePath));
+                    aMessage.reply(FAILURE_RESPONSE);
+                } finally {
+                    if (image != null) {
+                        image.free();
+                    }
+                }
+            } else {
+                StorageUtils.checkFailure(getConfig(), vertx, ptObj, aDerivativePath, getHandler.cause(), cause -> {
+                    if (isNotFound(cause)) {
+                        // The unrotated derivative doesn't exist (yet), which the requester can handle
+                        aMessage.reply(NOT_FOUND_RESPONSE);
+                    } else {
+                        LOGGER.error(cause, MessageCodes.EXC_095, ptObj.getPath(aDerivativePath), cause.getMessage());
+                        aMessage.reply(FAILURE_RESPONSE);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Gets the encoding profile for an image request. Requests from the tile master name their profile; other requests
+     * for full images use the full image profile and the rest (which are mostly for tiles) use the tile profile.
+     *
+     * @param aRequest An image request
+     * @param aJson The message body of the request
+     * @return The encoding profile for the image request
+     */
+    private EncodingProfile getProfile(final ImageRequest aRequest, final JsonObject aJson) {
+        final String name;
+
+        if (aJson.containsKey(ENCODING_PROFILE_KEY)) {
+            name = aJson.getString(ENCODING_PROFILE_KEY);
+        } else if (aRequest.getRegion().isFullImage() && aRequest.getSize().isFullSize()) {
+            name = EncodingProfile.FULL;
+        } else {
+            name = EncodingProfile.TILE;
+        }
+
+        return getConfig().getEncodingProfile(name);
+    }
+
+    private void storeImage(final PairtreeObject aPtObj, final ImageRequest aRequest, final Buffer aImageBuffer,
+            final Message<JsonObject> aMessage) {
+        aPtObj.put(aRequest.getPath(), aImageBuffer, handler -> {
             if (handler.succeeded()) {
-                aMessage.reply(SUCCESS_RESPONSE);
+                uncache(aPtObj.getPath(aRequest.getPath()));
+
+                /* On-demand requests get the image itself so the requester doesn't have to read it back again */
+                if (aMessage.body().getBoolean(DYNAMIC_IMAGE_KEY, false)) {
+                    aMessage.reply(aImageBuffer);
+                } else {
+                    aMessage.reply(SUCCESS_RESPONSE);
+                }
             } else {
                 final Throwable cause = handler.cause();
 
@@ -218,6 +399,17 @@ public class ImageWorkerVerticle extends AbstractJiiifyVerticle {
         });
     }
 
+    /**
+     * Removes an image that's been regenerated from the in-memory caches.
+     *
+     * @param aImagePath The path of the regenerated image
+     */
+    private void uncache(final String aImagePath) {
+        // A regenerated image replaces whatever copy of it, or record of its absence, that we have in memory
+        getConfig().getTileCache().remove(aImagePath);
+        getConfig().getNegativeCache().remove(aImagePath);
+    }
+
     @Override
     protected Logger getLogger() {
         return LOGGER;
@@ -1,17 +1,8 @@
 
 package info.freelibrary.jiiify.verticles;
 
-import static info.freelibrary.jiiify.Configuration.DEFAULT_SESSION_TIMEOUT;
-import static info.freelibrary.jiiify.Constants.JCEKS_PROP;
 import static info.freelibrary.jiiify.Constants.JIIIFY_CORES_PROP;
-import static info.freelibrary.jiiify.Constants.JKS_PROP;
-import static info.freelibrary.jiiify.Constants.KEY_PASS_PROP;
-import static info.freelibrary.jiiify.Metadata.CACHE_CONTROL;
-import static info.freelibrary.jiiify.Metadata.LOCATION_HEADER;
 
-import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
@@ -20,26 +11,6 @@ import java.util.List;
 import info.freelibrary.jiiify.Configuration;
 import info.freelibrary.jiiify.Constants;
 import info.freelibrary.jiiify.MessageCodes;
-import info.freelibrary.jiiify.RoutePatterns;
-import info.freelibrary.jiiify.handlers.DownloadHandler;
-import info.freelibrary.jiiify.handlers.FailureHandler;
-import info.freelibrary.jiiify.handlers.FedoraHandler;
-import info.freelibrary.jiiify.handlers.IIIFErrorHandler;
-import info.freelibrary.jiiify.handlers.ImageHandler;
-import info.freelibrary.jiiify.handlers.ImageInfoHandler;
-import info.freelibrary.jiiify.handlers.IngestHandler;
-import info.freelibrary.jiiify.handlers.ItemHandler;
-import info.freelibrary.jiiify.handlers.LoginHandler;
-import info.freelibrary.jiiify.handlers.LogoutHandler;
-import info.freelibrary.jiiify.handlers.ManifestHandler;
-import info.freelibrary.jiiify.handlers.MetricsHandler;
-import info.freelibrary.jiiify.handlers.PageHandler;
-import info.freelibrary.jiiify.handlers.PropertiesHandler;
-import info.freelibrary.jiiify.handlers.RefreshHandler;
-import info.freelibrary.jiiify.handlers.SearchHandler;
-import info.freelibrary.jiiify.handlers.StatusHandler;
-import info.freelibrary.jiiify.templates.HandlebarsTemplateEngine;
-import info.freelibrary.util.IOUtils;
 import info.freelibrary.util.Logger;
 import info.freelibrary.util.LoggerFactory;
 import info.freelibrary.util.StringUtils;
@@ -49,29 +20,14 @@ import io.vertx.core.CompositeFuture;
 import io.vertx.core.DeploymentOptions;
 import io.vertx.core.Future;
 import io.vertx.core.Handler;
-import io.vertx.core.buffer.Buffer;
-import io.vertx.core.http.HttpServerOptions;
-import io.vertx.core.http.HttpServerResponse;
-import io.vertx.core.json.JsonObject;
-import io.vertx.core.net.JksOptions;
-import io.vertx.ext.auth.jwt.JWTAuth;
-import io.vertx.ext.web.Router;
-import io.vertx.ext.web.handler.BodyHandler;
-import io.vertx.ext.web.handler.CookieHandler;
-import io.vertx.ext.web.handler.JWTAuthHandler;
-import io.vertx.ext.web.handler.SessionHandler;
-import io.vertx.ext.web.handler.StaticHandler;
-import io.vertx.ext.web.handler.TemplateHandler;
-import io.vertx.ext.web.handler.UserSessionHandler;
-import io.vertx.ext.web.sstore.LocalSessionStore;
-import io.vertx.ext.web.templ.TemplateEngine;
 
 /**
- * The main Jiiify verticle that route and creates other verticles.
+ * The main Jiiify verticle that creates the configuration and deploys the other verticles, including the
+ * {@link JiiifyServerVerticle} instances that serve HTTP requests.
  *
  * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
  */
-public class JiiifyMainVerticle extends AbstractJiiifyVerticle implements RoutePatterns {
+public class JiiifyMainVerticle extends AbstractJiiifyVerticle {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JiiifyMainVerticle.class, Constants.MESSAGES);
 
@@ -85,7 +41,7 @@ public class JiiifyMainVerticle extends AbstractJiiifyVerticle implements RouteP
 
                 deployJiiifyVerticles(deployHandler -> {
                     if (deployHandler.succeeded()) {
-                        initializeMainVerticle(aFuture);
+                        deployServerVerticles(aFuture);
                     } else {
                         aFuture.fail(deployHandler.cause());
                     }
@@ -96,226 +52,23 @@ public class JiiifyMainVerticle extends AbstractJiiifyVerticle implements RouteP
         });
     }
 
-    private void initializeMainVerticle(final Future<Void> aFuture) {
-        final SessionHandler sessionHandler = SessionHandler.create(LocalSessionStore.create(vertx));
-        final HttpServerOptions options = new HttpServerOptions();
-        final Router router = Router.router(vertx);
-
-        // Set the port on which we want to listen for connections
-        options.setPort(myConfig.getPort());
-        options.setHost("0.0.0.0");
-        options.setCompressionSupported(true);
-
-        // Bug somewhere: Browsers cancel some of the image requests in OSD
-        // options.setUseAlpn(true);
-
-        if (myConfig.usesHttps()) {
-            final String jksProperty = System.getProperty(JKS_PROP, JKS_PROP);
-            final String jceksProperty = System.getProperty(JCEKS_PROP, JCEKS_PROP);
-            final String ksPassword = System.getProperty(KEY_PASS_PROP, "");
-            final JksOptions jksOptions = new JksOptions().setPassword(ksPassword);
-            final JsonObject jceksConfig = new JsonObject();
-            final File jksFile = new File(jksProperty);
-
-            jceksConfig.put("path", jceksProperty).put("type", "jceks").put("password", ksPassword);
-
-            try {
-                /* This is where "Keystore was tampered with, or password was incorrect" is thrown */
-                final JWTAuth jwtAuth = JWTAuth.create(vertx, new JsonObject().put("keyStore", jceksConfig));
-
-                // Get JKS from an external configuration file
-                if (jksFile.exists()) {
-                    LOGGER.info(MessageCodes.INFO_004, jksFile);
-                    jksOptions.setPath(jksFile.getAbsolutePath());
-                } else {
-                    final InputStream inStream = getClass().getResourceAsStream("/" + jksProperty);
-
-                    /* Get JKS configuration from a configuration file in the jar file */
-                    if (inStream != null) {
-                        LOGGER.warn(MessageCodes.DBG_019);
-                        jksOptions.setValue(Buffer.buffer(IOUtils.readBytes(inStream)));
-                    } else {
-                        /* Get JKS configuration from the Maven build's target directory */
-                        LOGGER.warn(MessageCodes.DBG_018, jksProperty);
-                        jksOptions.setPath("target/classes/" + jksProperty);
-                    }
-                }
-
-                options.setSsl(true).setKeyStoreOptions(jksOptions);
-                sessionHandler.setCookieHttpOnlyFlag(true).setCookieSecureFlag(true);
-                sessionHandler.setSessionTimeout(DEFAULT_SESSION_TIMEOUT);
-
-                configureHttpRedirect(aFuture);
-                configureRouter(router, sessionHandler, jwtAuth);
-                startServer(router, options, aFuture);
-            } catch (final RuntimeException details) {
-                final Throwable cause = details.getCause();
-                final String message;
-
-                /* Let's report the underlying cause if there is one */
-                if (cause != null) {
-                    message = cause.getMessage();
-
-                    /* If issue is keystore password and we're running in debug mode, log password */
-                    if (message != null) {
-                        if (message.contains("password was incorrect")) {
-                            LOGGER.warn(MessageCodes.DBG_017, ksPassword);
-                        } else if (message.contains("Cannot recover key")) {
-                            LOGGER.warn(MessageCodes.DBG_017, ksPassword);
-                        }
-                    }
-                } else {
-                    message = details.getMessage();
-                }
-
-                LOGGER.error(MessageCodes.EXC_044, message);
-                aFuture.fail(message);
-            } catch (final IOException details) {
-                final String message = details.getMessage();
-
-                LOGGER.error(MessageCodes.EXC_043, message);
-                aFuture.fail(message);
-            }
-        } else {
-            configureRouter(router, sessionHandler);
-            startServer(router, options, aFuture);
-        }
-    }
-
-    private void startServer(final Router aRouter, final HttpServerOptions aOptions, final Future<Void> aFuture) {
-        vertx.createHttpServer(aOptions).requestHandler(aRouter::accept).listen(response -> {
-            if (response.succeeded()) {
-                LOGGER.info(MessageCodes.INFO_003, JiiifyMainVerticle.class.getSimpleName(), deploymentID());
-                aFuture.complete();
-            } else {
-                final String message = response.cause().getMessage();
-
-                LOGGER.error(MessageCodes.EXC_042, aOptions.getHost(), aOptions.getPort(), message);
-                aFuture.fail(response.cause());
-            }
-        });
-    }
-
-    private void configureRouter(final Router aRouter, final SessionHandler aSessionHandler) {
-        configureRouter(aRouter, aSessionHandler, null);
-    }
-
-    private void configureRouter(final Router aRouter, final SessionHandler aSessionHandler, final JWTAuth aJWTAuth) {
-        final TemplateEngine templateEngine = HandlebarsTemplateEngine.create();
-        final TemplateHandler templateHandler = TemplateHandler.create(templateEngine);
-
-        // Some reused handlers
-        final FailureHandler failureHandler = new FailureHandler(myConfig, templateEngine);
-        final DownloadHandler downloadHandler = new DownloadHandler(myConfig);
-        final SearchHandler searchHandler = new SearchHandler(myConfig);
-        final IngestHandler ingestHandler = new IngestHandler(myConfig);
-
-        // Configure some basics
-        aRouter.route().handler(BodyHandler.create().setUploadsDirectory(myConfig.getUploadsDir()));
-        aRouter.route().handler(CookieHandler.create());
-        aRouter.route().handler(aSessionHandler);
-
-        // Serve static files like images, scripts, css, etc.
-        aRouter.getWithRegex(STATIC_FILES_RE).handler(StaticHandler.create());
-
-        // Put everything in the administrative interface behind an authentication check
-        if ((aJWTAuth != null) && !"true".equals(System.getProperty("jiiify.ignore.auth"))) {
-            final UserSessionHandler userSessionHandler = UserSessionHandler.create(aJWTAuth);
-            final JWTAuthHandler jwtAuthHandler = JWTAuthHandler.create(aJWTAuth, LOGIN);
-
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug(MessageCodes.DBG_020);
-            }
-
-            // We don't want to restrict access to root but do want to know if logged in
-            aRouter.get(ROOT).handler(userSessionHandler);
-
-            // The admin pages we will restrict access to if not logged in
-            aRouter.route(ADMIN_UI).handler(userSessionHandler);
-            aRouter.route(ADMIN_UI).handler(jwtAuthHandler);
-            aRouter.route(ADMIN_UI).handler(handler -> {
-                handler.response().headers().add(CACHE_CONTROL, "no-store, no-cache");
-                handler.next();
-            });
-
-            aRouter.get(LOGOUT).handler(new LogoutHandler(myConfig));
-            aRouter.get(LOGIN).handler(new LoginHandler(myConfig, aJWTAuth));
-            aRouter.post(LOGIN).handler(new LoginHandler(myConfig, aJWTAuth));
-            aRouter.getWithRegex(LOGIN_RESPONSE_RE).handler(new LoginHandler(myConfig, aJWTAuth));
-            aRouter.getWithRegex(LOGIN_RESPONSE_RE).handler(templateHandler).failureHandler(failureHandler);
-        } else {
-            // Or, if no authentication check is configured, a logout will just do nothing
-            aRouter.get(LOGIN).handler(new LogoutHandler(myConfig));
-        }
-
-        // Configure our IIIF specific handlers
-        aRouter.getWithRegex(iiif(IMAGE_INFO_DOC_RE)).handler(new ImageInfoHandler(myConfig));
-        aRouter.getWithRegex(iiif(IMAGE_REQUEST_RE)).handler(new ImageHandler(myConfig));
-        aRouter.getWithRegex(iiif(IMAGE_MANIFEST_RE)).handler(new ManifestHandler(myConfig));
-        aRouter.get(iiif(IIIF_URI)).failureHandler(new IIIFErrorHandler(myConfig));
-
-        // Then we have the plain old administrative UI patterns
-        aRouter.getWithRegex(BROWSE_RE).handler(searchHandler);
-        aRouter.getWithRegex(SEARCH_RE).handler(searchHandler);
-        aRouter.getWithRegex(INGEST_RE).handler(ingestHandler);
-        aRouter.postWithRegex(INGEST_RE).handler(ingestHandler);
-        aRouter.postWithRegex(INGEST_RE).handler(templateHandler);
-        aRouter.getWithRegex(METRICS_RE).handler(new MetricsHandler(myConfig));
-        aRouter.get(ITEM).handler(new ItemHandler(myConfig));
-        aRouter.get(PROPERTIES).handler(new PropertiesHandler(myConfig));
-        aRouter.get(REFRESH).handler(new RefreshHandler(myConfig));
-        aRouter.getWithRegex(DOWNLOAD_RE).handler(downloadHandler);
-        aRouter.postWithRegex(DOWNLOAD_RE).handler(downloadHandler);
-        aRouter.get(ADMIN_UI).handler(templateHandler).failureHandler(failureHandler);
-
-        // Create a index handler just to test for session; this could go in template handler
-        aRouter.get(ROOT).handler(new PageHandler(myConfig));
-        aRouter.get(ROOT).handler(templateHandler).failureHandler(failureHandler);
-
-        aRouter.get(STATUS).handler(new StatusHandler(myConfig));
-
-        // Handle Camel events from Fedora
-        aRouter.get(FEDORA_EVENT).handler(new FedoraHandler(myConfig)).failureHandler(failureHandler);
-    }
-
     /**
-     * Redirect all requests to the non-secure port to the secure port when there is a secure port available.
+     * Deploys the verticles that serve HTTP requests. They're deployed after the other verticles so that requests
+     * aren't accepted before there is something to handle them.
      *
-     * @param aFuture A verticle future that we can fail if we can't bind to the redirect port
+     * @param aFuture The main verticle's start future
      */
-    private void configureHttpRedirect(final Future<Void> aFuture) {
-        vertx.createHttpServer().requestHandler(redirect -> {
-            final HttpServerResponse response = redirect.response();
-            final String httpsURL = "https://" + myConfig.getHost() + ":" + myConfig.getPort() + redirect.uri();
+    private void deployServerVerticles(final Future<Void> aFuture) {
+        final DeploymentOptions options = new DeploymentOptions().setInstances(myConfig.getHttpInstances());
 
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug(MessageCodes.DBG_016, httpsURL);
-            }
-
-            response.setStatusCode(303).putHeader(LOCATION_HEADER, httpsURL).end();
-            response.close();
-        }).listen(myConfig.getRedirectPort(), response -> {
-            if (response.failed()) {
-                if (response.cause() != null) {
-                    LOGGER.error(response.cause(), response.cause().getMessage());
-                }
-
-                aFuture.fail(LOGGER.getMessage(MessageCodes.EXC_041, myConfig.getRedirectPort()));
+        deployVerticle(JiiifyServerVerticle.class.getName(), options, Future.future()).setHandler(handler -> {
+            if (handler.succeeded()) {
+                LOGGER.info(MessageCodes.INFO_003, JiiifyMainVerticle.class.getSimpleName(), deploymentID());
+                aFuture.complete();
+            } else {
+                aFuture.fail(handler.cause());
             }
         });
-
-        // FIXME: Accidentally connecting to HTTP port with a HTTPS connection fails badly
-        // https://bugs.eclipse.org/bugs/show_bug.cgi?id=479488
-    }
-
-    /**
-     * A simple convenience method for building IIIF routes.
-     *
-     * @param aPattern A regular expression routing pattern
-     * @return The constructed path that should be used to route
-     */
-    private String iiif(final String aPattern) {
-        return StringUtils.format(aPattern, myConfig.getServicePrefix());
     }
 
     /**
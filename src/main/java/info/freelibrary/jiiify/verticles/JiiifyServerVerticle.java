@@ -0,0 +1,342 @@
+
+package info.freelibrary.jiiify.verticles;
+
+import static info.freelibrary.jiiify.Configuration.DEFAULT_SESSION_TIMEOUT;
+import static info.freelibrary.jiiify.Constants.JCEKS_PROP;
+import static info.freelibrary.jiiify.Constants.JKS_PROP;
+import static info.freelibrary.jiiify.Constants.KEY_PASS_PROP;
+import static info.freelibrary.jiiify.Metadata.CACHE_CONTROL;
+import static info.freelibrary.jiiify.Metadata.LOCATION_HEADER;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import info.freelibrary.jiiify.Configuration;
+import info.freelibrary.jiiify.Constants;
+import info.freelibrary.jiiify.MessageCodes;
+import info.freelibrary.jiiify.RoutePatterns;
+import info.freelibrary.jiiify.handlers.DownloadHandler;
+import info.freelibrary.jiiify.handlers.FailureHandler;
+import info.freelibrary.jiiify.handlers.FedoraHandler;
+import info.freelibrary.jiiify.handlers.IIIFDispatcher;
+import info.freelibrary.jiiify.handlers.IIIFErrorHandler;
+import info.freelibrary.jiiify.handlers.IngestHandler;
+import info.freelibrary.jiiify.handlers.ItemHandler;
+import info.freelibrary.jiiify.handlers.LoginHandler;
+import info.freelibrary.jiiify.handlers.LogoutHandler;
+import info.freelibrary.jiiify.handlers.MetricsHandler;
+import info.freelibrary.jiiify.handlers.PageHandler;
+import info.freelibrary.jiiify.handlers.PropertiesHandler;
+import info.freelibrary.jiiify.handlers.RefreshHandler;
+import info.freelibrary.jiiify.handlers.SearchHandler;
+import info.freelibrary.jiiify.handlers.StatusHandler;
+import info.freelibrary.jiiify.templates.HandlebarsTemplateEngine;
+import info.freelibrary.util.IOUtils;
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+import info.freelibrary.util.StringUtils;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.JdkSSLEngineOptions;
+import io.vertx.core.net.JksOptions;
+import io.vertx.core.net.OpenSSLEngineOptions;
+import io.vertx.ext.auth.jwt.JWTAuth;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.handler.BodyHandler;
+import io.vertx.ext.web.handler.CookieHandler;
+import io.vertx.ext.web.handler.JWTAuthHandler;
+import io.vertx.ext.web.handler.SessionHandler;
+import io.vertx.ext.web.handler.StaticHandler;
+import io.vertx.ext.web.handler.TemplateHandler;
+import io.vertx.ext.web.handler.UserSessionHandler;
+import io.vertx.ext.web.sstore.LocalSessionStore;
+import io.vertx.ext.web.templ.TemplateEngine;
+
+/**
+ * The verticle that routes and serves Jiiify's HTTP requests. The {@link JiiifyMainVerticle} deploys as many
+ * instances of it as are configured; they all listen on the same port, and Vert.x spreads the server's connections
+ * across them so each instance handles its share of requests on its own event loop.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class JiiifyServerVerticle extends AbstractJiiifyVerticle implements RoutePatterns {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JiiifyServerVerticle.class, Constants.MESSAGES);
+
+    private Configuration myConfig;
+
+    @Override
+    public void start(final Future<Void> aFuture) {
+        // The configuration is created once, by the main verticle, before any of the server instances are deployed
+        myConfig = getConfig();
+
+        if (myConfig == null) {
+            aFuture.fail(LOGGER.getMessage(MessageCodes.EXC_092));
+        } else {
+            initializeServer(aFuture);
+        }
+    }
+
+    private void initializeServer(final Future<Void> aFuture) {
+        final SessionHandler sessionHandler = SessionHandler.create(LocalSessionStore.create(vertx));
+        final HttpServerOptions options = new HttpServerOptions();
+        final Router router = Router.router(vertx);
+
+        // Set the port on which we want to listen for connections
+        options.setPort(myConfig.getPort());
+        options.setHost("0.0.0.0");
+        options.setCompressionSupported(true);
+
+        if (myConfig.usesHttps()) {
+            final String jksProperty = System.getProperty(JKS_PROP, JKS_PROP);
+            final String jceksProperty = System.getProperty(JCEKS_PROP, JCEKS_PROP);
+            final String ksPassword = System.getProperty(KEY_PASS_PROP, "");
+            final JksOptions jksOptions = new JksOptions().setPassword(ksPassword);
+            final JsonObject jceksConfig = new JsonObject();
+            final File jksFile = new File(jksProperty);
+
+            jceksConfig.put("path", jceksProperty).put("type", "jceks").put("password", ksPassword);
+
+            try {
+                /* This is where "Keystore was tampered with, or password was incorrect" is thrown */
+                final JWTAuth jwtAuth = JWTAuth.create(vertx, new JsonObject().put("keyStore", jceksConfig));
+
+                // Get JKS from an external configuration file
+                if (jksFile.exists()) {
+                    LOGGER.info(MessageCodes.INFO_004, jksFile);
+                    jksOptions.setPath(jksFile.getAbsolutePath());
+                } else {
+                    final InputStream inStream = getClass().getResourceAsStream("/" + jksProperty);
+
+                    /* Get JKS configuration from a configuration file in the jar file */
+                    if (inStream != null) {
+                        LOGGER.warn(MessageCodes.DBG_019);
+                        jksOptions.setValue(Buffer.buffer(IOUtils.readBytes(inStream)));
+                    } else {
+                        /* Get JKS configuration from the Maven build's target directory */
+                        LOGGER.warn(MessageCodes.DBG_018, jksProperty);
+                        jksOptions.setPath("target/classes/" + jksProperty);
+                    }
+                }
+
+                options.setSsl(true).setKeyStoreOptions(jksOptions);
+
+                // HTTP/2 is negotiated through ALPN, which is only part of the TLS handshake
+                if (myConfig.usesHttp2()) {
+                    configureHttp2(options, myConfig);
+                }
+
+                sessionHandler.setCookieHttpOnlyFlag(true).setCookieSecureFlag(true);
+                sessionHandler.setSessionTimeout(DEFAULT_SESSION_TIMEOUT);
+
+                configureHttpRedirect(aFuture);
+                configureRouter(router, sessionHandler, jwtAuth);
+                startServer(router, options, aFuture);
+            } catch (final RuntimeException details) {
+                final Throwable cause = details.getCause();
+                final String message;
+
+                /* Let's report the underlying cause if there is one */
+                if (cause != null) {
+                    message = cause.getMessage();
+
+                    /* If issue is keystore password and we're running in debug mode, log password */
+                    if (message != null) {
+                        if (message.contains("password was incorrect")) {
+                            LOGGER.warn(MessageCodes.DBG_017, ksPassword);
+                        } else if (message.contains("Cannot recover key")) {
+                            LOGGER.warn(MessageCodes.DBG_017, ksPassword);
+                        }
+                    }
+                } else {
+                    message = details.getMessage();
+                }
+
+                LOGGER.error(MessageCodes.EXC_044, message);
+                aFuture.fail(message);
+            } catch (final IOException details) {
+                final String message = details.getMessage();
+
+                LOGGER.error(MessageCodes.EXC_043, message);
+                aFuture.fail(message);
+            }
+        } else {
+            configureRouter(router, sessionHandler);
+            startServer(router, options, aFuture);
+        }
+    }
+
+    /**
+     * Configures the server to offer HTTP/2 to clients that support it. OpenSSL (from the bundled netty-tcnative) is
+     * preferred because the JDK's TLS engine only supports ALPN from Java 8u252 on.
+     *
+     * @param aOptions The options of the HTTPS server
+     * @param aConfig The application's configuration
+     * @return True if HTTP/2 will be offered; else, false
+     */
+    static boolean configureHttp2(final HttpServerOptions aOptions, final Configuration aConfig) {
+        if (OpenSSLEngineOptions.isAlpnAvailable()) {
+            LOGGER.info(MessageCodes.INFO_024, "OpenSSL");
+            aOptions.setOpenSslEngineOptions(new OpenSSLEngineOptions());
+        } else if (JdkSSLEngineOptions.isAlpnAvailable()) {
+            LOGGER.info(MessageCodes.INFO_024, "JDK");
+            aOptions.setJdkSslEngineOptions(new JdkSSLEngineOptions());
+        } else {
+            LOGGER.warn(MessageCodes.WARN_031);
+            return false;
+        }
+
+        aOptions.setUseAlpn(true).setInitialSettings(aConfig.getHttp2Settings());
+        aOptions.setHttp2ConnectionWindowSize(aConfig.getHttp2ConnectionWindowSize());
+        return true;
+    }
+
+    private void startServer(final Router aRouter, final HttpServerOptions aOptions, final Future<Void> aFuture) {
+        final IIIFDispatcher dispatcher = new IIIFDispatcher(vertx, myConfig, aRouter);
+
+        vertx.createHttpServer(aOptions).requestHandler(dispatcher).listen(response -> {
+            if (response.succeeded()) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug(MessageCodes.DBG_130, aOptions.getPort(), deploymentID());
+                }
+
+                aFuture.complete();
+            } else {
+                final String message = response.cause().getMessage();
+
+                LOGGER.error(MessageCodes.EXC_042, aOptions.getHost(), aOptions.getPort(), message);
+                aFuture.fail(response.cause());
+            }
+        });
+    }
+
+    private void configureRouter(final Router aRouter, final SessionHandler aSessionHandler) {
+        configureRouter(aRouter, aSessionHandler, null);
+    }
+
+    private void configureRouter(final Router aRouter, final SessionHandler aSessionHandler, final JWTAuth aJWTAuth) {
+        final TemplateEngine templateEngine = HandlebarsTemplateEngine.create();
+        final TemplateHandler templateHandler = TemplateHandler.create(templateEngine);
+
+        // Some reused handlers
+        final FailureHandler failureHandler = new FailureHandler(myConfig, templateEngine);
+        final DownloadHandler downloadHandler = new DownloadHandler(myConfig);
+        final SearchHandler searchHandler = new SearchHandler(myConfig);
+        final IngestHandler ingestHandler = new IngestHandler(myConfig);
+
+        // Configure some basics
+        aRouter.route().handler(BodyHandler.create().setUploadsDirectory(myConfig.getUploadsDir()));
+        aRouter.route().handler(CookieHandler.create());
+        aRouter.route().handler(aSessionHandler);
+
+        // Serve static files like images, scripts, css, etc.
+        aRouter.getWithRegex(STATIC_FILES_RE).handler(StaticHandler.create());
+
+        // Put everything in the administrative interface behind an authentication check
+        if ((aJWTAuth != null) && !"true".equals(System.getProperty("jiiify.ignore.auth"))) {
+            final UserSessionHandler userSessionHandler = UserSessionHandler.create(aJWTAuth);
+            final JWTAuthHandler jwtAuthHandler = JWTAuthHandler.create(aJWTAuth, LOGIN);
+
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(MessageCodes.DBG_020);
+            }
+
+            // We don't want to restrict access to root but do want to know if logged in
+            aRouter.get(ROOT).handler(userSessionHandler);
+
+            // The admin pages we will restrict access to if not logged in
+            aRouter.route(ADMIN_UI).handler(userSessionHandler);
+            aRouter.route(ADMIN_UI).handler(jwtAuthHandler);
+            aRouter.route(ADMIN_UI).handler(handler -> {
+                handler.response().headers().add(CACHE_CONTROL, "no-store, no-cache");
+                handler.next();
+            });
+
+            aRouter.get(LOGOUT).handler(new LogoutHandler(myConfig));
+            aRouter.get(LOGIN).handler(new LoginHandler(myConfig, aJWTAuth));
+            aRouter.post(LOGIN).handler(new LoginHandler(myConfig, aJWTAuth));
+            aRouter.getWithRegex(LOGIN_RESPONSE_RE).handler(new LoginHandler(myConfig, aJWTAuth));
+            aRouter.getWithRegex(LOGIN_RESPONSE_RE).handler(templateHandler).failureHandler(failureHandler);
+        } else {
+            // Or, if no authentication check is configured, a logout will just do nothing
+            aRouter.get(LOGIN).handler(new LogoutHandler(myConfig));
+        }
+
+        // Public IIIF requests are sent to their handlers by the IIIFDispatcher; this catches failures of the others
+        aRouter.get(iiif(IIIF_URI)).failureHandler(new IIIFErrorHandler(myConfig));
+
+        // Then we have the plain old administrative UI patterns
+        aRouter.getWithRegex(BROWSE_RE).handler(searchHandler);
+        aRouter.getWithRegex(SEARCH_RE).handler(searchHandler);
+        aRouter.getWithRegex(INGEST_RE).handler(ingestHandler);
+        aRouter.postWithRegex(INGEST_RE).handler(ingestHandler);
+        aRouter.postWithRegex(INGEST_RE).handler(templateHandler);
+        aRouter.getWithRegex(METRICS_RE).handler(new MetricsHandler(myConfig));
+        aRouter.get(ITEM).handler(new ItemHandler(myConfig));
+        aRouter.get(PROPERTIES).handler(new PropertiesHandler(myConfig));
+        aRouter.get(REFRESH).handler(new RefreshHandler(myConfig));
+        aRouter.getWithRegex(DOWNLOAD_RE).handler(downloadHandler);
+        aRouter.postWithRegex(DOWNLOAD_RE).handler(downloadHandler);
+        aRouter.get(ADMIN_UI).handler(templateHandler).failureHandler(failureHandler);
+
+        // Create a index handler just to test for session; this could go in template handler
+        aRouter.get(ROOT).handler(new PageHandler(myConfig));
+        aRouter.get(ROOT).handler(templateHandler).failureHandler(failureHandler);
+
+        aRouter.get(STATUS).handler(new StatusHandler(myConfig));
+
+        // Handle Camel events from Fedora
+        aRouter.get(FEDORA_EVENT).handler(new FedoraHandler(myConfig)).failureHandler(failureHandler);
+    }
+
+    /**
+     * Redirect all requests to the non-secure port to the secure port when there is a secure port available.
+     *
+     * @param aFuture A verticle future that we can fail if we can't bind to the redirect port
+     */
+    private void configureHttpRedirect(final Future<Void> aFuture) {
+        vertx.createHttpServer().requestHandler(redirect -> {
+            final HttpServerResponse response = redirect.response();
+            final String httpsURL = "https://" + myConfig.getHost() + ":" + myConfig.getPort() + redirect.uri();
+
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(MessageCodes.DBG_016, httpsURL);
+            }
+
+            response.setStatusCode(303).putHeader(LOCATION_HEADER, httpsURL).end();
+            response.close();
+        }).listen(myConfig.getRedirectPort(), response -> {
+            if (response.failed()) {
+                if (response.cause() != null) {
+                    LOGGER.error(response.cause(), response.cause().getMessage());
+                }
+
+                aFuture.fail(LOGGER.getMessage(MessageCodes.EXC_041, myConfig.getRedirectPort()));
+            }
+        });
+
+        // FIXME: Accidentally connecting to HTTP port with a HTTPS connection fails badly
+        // https://bugs.eclipse.org/bugs/show_bug.cgi?id=479488
+    }
+
+    /**
+     * A simple convenience method for building IIIF routes.
+     *
+     * @param aPattern A regular expression routing pattern
+     * @return The constructed path that should be used to route
+     */
+    private String iiif(final String aPattern) {
+        return StringUtils.format(aPattern, myConfig.getServicePrefix());
+    }
+
+    @Override
+    protected Logger getLogger() {
+        return LOGGER;
+    }
+
+}
@@ -1,20 +1,24 @@
 
 package info.freelibrary.jiiify.verticles;
 
+import static info.freelibrary.jiiify.Constants.ENCODING_PROFILE_KEY;
 import static info.freelibrary.jiiify.Constants.FAILURE_RESPONSE;
 import static info.freelibrary.jiiify.Constants.FILE_PATH_KEY;
 import static info.freelibrary.jiiify.Constants.ID_KEY;
 import static info.freelibrary.jiiify.Constants.IIIF_PATH_KEY;
 import static info.freelibrary.jiiify.Constants.IMAGE_CLEANUP_KEY;
-import static info.freelibrary.jiiify.Constants.IMAGE_TILE_COUNT;
+import static info.freelibrary.jiiify.Constants.INGEST_SESSIONS_KEY;
 import static info.freelibrary.jiiify.Constants.SUCCESS_RESPONSE;
+import static info.freelibrary.jiiify.Constants.TILE_PYRAMID_KEY;
 import static info.freelibrary.jiiify.Constants.TILE_REQUEST_KEY;
 import static info.freelibrary.jiiify.Constants.TILE_SIZE_PROP;
+import static info.freelibrary.jiiify.Constants.TILE_STREAM_KEY;
 
 import java.awt.Dimension;
 import java.io.File;
 import java.io.IOException;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 
 import javax.naming.ConfigurationException;
@@ -26,13 +30,14 @@ import info.freelibrary.jiiify.iiif.ImageRegion;
 import info.freelibrary.jiiify.iiif.ImageRegion.Region;
 import info.freelibrary.jiiify.iiif.ImageRequest;
 import info.freelibrary.jiiify.iiif.ImageSize;
+import info.freelibrary.jiiify.image.EncodingProfile;
+import info.freelibrary.jiiify.image.IngestSession;
 import info.freelibrary.jiiify.util.ImageUtils;
 import info.freelibrary.util.Logger;
 import info.freelibrary.util.LoggerFactory;
 
-import io.vertx.core.eventbus.Message;
 import io.vertx.core.json.JsonObject;
-import io.vertx.core.shareddata.SharedData;
+import io.vertx.core.shareddata.LocalMap;
 
 /**
  * A verticle that calculates needed tiles and triggers their production.
@@ -46,7 +51,6 @@ public class TileMasterVerticle extends AbstractJiiifyVerticle {
     @Override
     public void start() throws ConfigurationException, IOException {
         getJsonConsumer().handler(message -> {
-            final SharedData sharedData = vertx.sharedData();
             final JsonObject json = message.body();
             final String id = json.getString(ID_KEY);
             final int tileSize = json.getInteger(TILE_SIZE_PROP);
@@ -58,54 +62,57 @@ public class TileMasterVerticle extends AbstractJiiifyVerticle {
                 final Dimension dim = ImageUtils.getImageDimension(file);
                 final String prefix = getConfig().getServicePrefix();
                 final String tileRequestKey = UUID.randomUUID().toString();
-                /* Get tiles */
-                final List<String> tiles = ImageUtils.getTilePaths(prefix, id, tileSize, dim.width, dim.height);
+                /* Images other than the tiles (which one worker cascades down the pyramid) and their profiles */
+                final Map<String, String> tiles = new LinkedHashMap<>();
                 /* Get thumbnail */
                 final ImageRegion region = ImageUtils.getCenter(file);
                 final ImageSize size = new ImageSize(150); // TODO: make this configurable
                 final String thumbnailPath = new ImageRequest(id, prefix, region, size).toString();
                 /* Get whether source image should be deleted afterwards */
                 final boolean cleanup = json.getBoolean(IMAGE_CLEANUP_KEY, false);
+                /* Get whether the image is too large to decode all at once */
+                final boolean stream = getConfig().streamsTiles(dim.width, dim.height);
+                /* Our ingest sessions, which share each source image with all the requests for it */
+                final LocalMap<String, IngestSession> sessions = vertx.sharedData().getLocalMap(INGEST_SESSIONS_KEY);
+                final int requestCount;
 
                 /* Add a thumbnail to the requested tiles */
-                tiles.add(thumbnailPath);
-
-                /* Add a full-sized image to the requested tiles */
-                tiles.add(new ImageRequest(id, prefix, new ImageRegion(), new ImageSize()).toString());
+                tiles.put(thumbnailPath, EncodingProfile.THUMBNAIL);
+
+                /*
+                 * Add a full-sized image to the requested tiles, unless it's too large to hold in memory. A scaled-down
+                 * level of the pyramid isn't a substitute, since a full-sized image must have all the source's pixels;
+                 * like other images that aren't created at ingest, it's created on demand if dynamic images are served.
+                 */
+                if (stream) {
+                    LOGGER.debug(MessageCodes.DBG_134, id, dim.width, dim.height);
+                } else {
+                    tiles.put(new ImageRequest(id, prefix, new ImageRegion(), new ImageSize()).toString(),
+                            EncodingProfile.FULL);
+                }
 
                 newMessage.put(FILE_PATH_KEY, filePath);
                 newMessage.put(TILE_REQUEST_KEY, tileRequestKey);
-                newMessage.put(IMAGE_CLEANUP_KEY, cleanup);
-
-                sharedData.getCounter(tileRequestKey, getCounter -> {
-                    if (getCounter.succeeded()) {
-                        getCounter.result().compareAndSet(0, tiles.size(), compareAndSet -> {
-                            if (compareAndSet.succeeded()) {
-                                if (compareAndSet.result()) {
-                                    LOGGER.debug(MessageCodes.DBG_021, id, tiles.size());
-
-                                    queueImageInfo(newMessage, dim, id, tileSize);
-                                    queueTileCreation(newMessage.copy(), tiles, message);
-
-                                    if (!json.getBoolean(SolrMetadata.SKIP_INDEXING, false)) {
-                                        queueIndexing(newMessage.copy(), thumbnailPath);
-                                    }
-
-                                    message.reply(SUCCESS_RESPONSE);
-                                } else {
-                                    LOGGER.error(MessageCodes.EXC_045, id);
-                                    message.reply(FAILURE_RESPONSE);
-                                }
-                            } else {
-                                LOGGER.error(compareAndSet.cause(), compareAndSet.cause().getMessage());
-                                message.reply(FAILURE_RESPONSE);
-                            }
-                        });
-                    } else {
-                        LOGGER.error(getCounter.cause(), getCounter.cause().getMessage());
-                        message.reply(FAILURE_RESPONSE);
+                newMessage.put(TILE_STREAM_KEY, stream);
+
+                /* The tile pyramid is one more request for the source image */
+                requestCount = tiles.size() + 1;
+
+                if (sessions.putIfAbsent(tileRequestKey, new IngestSession(filePath, requestCount, cleanup)) == null) {
+                    LOGGER.debug(MessageCodes.DBG_021, id, requestCount);
+
+                    queueImageInfo(newMessage, dim, id, tileSize);
+                    queueTileCreation(newMessage.copy(), id, tileSize, tiles);
+
+                    if (!json.getBoolean(SolrMetadata.SKIP_INDEXING, false)) {
+                        queueIndexing(newMessage.copy(), thumbnailPath);
                     }
-                });
+
+                    message.reply(SUCCESS_RESPONSE);
+                } else {
+                    LOGGER.error(MessageCodes.EXC_045, id);
+                    message.reply(FAILURE_RESPONSE);
+                }
             } catch (final IOException details) {
                 LOGGER.error(details, details.getMessage());
                 message.reply(FAILURE_RESPONSE);
@@ -123,11 +130,17 @@ public class TileMasterVerticle extends AbstractJiiifyVerticle {
         sendMessage(aMessage, ImageInfoVerticle.class.getName(), INGEST_TIMEOUT);
     }
 
-    private void queueTileCreation(final JsonObject aMessage, final List<String> aTilesList,
-            final Message<JsonObject> aResponse) {
-        aTilesList.forEach(path -> {
+    private void queueTileCreation(final JsonObject aMessage, final String aID, final int aTileSize,
+            final Map<String, String> aTilesMap) {
+        final JsonObject pyramidMessage = aMessage.copy();
+
+        pyramidMessage.put(TILE_PYRAMID_KEY, true).put(ID_KEY, aID).put(TILE_SIZE_PROP, aTileSize);
+
+        sendMessage(pyramidMessage, ImageWorkerVerticle.class.getName(), INGEST_TIMEOUT);
+
+        aTilesMap.forEach((path, profile) -> {
             aMessage.put(IIIF_PATH_KEY, path);
-            aMessage.put(IMAGE_TILE_COUNT, aTilesList.size());
+            aMessage.put(ENCODING_PROFILE_KEY, profile);
 
             sendMessage(aMessage, ImageWorkerVerticle.class.getName(), INGEST_TIMEOUT);
         });
@@ -30,6 +30,7 @@ JKS_CONFIG=""
 JCEKS_CONFIG=""
 XMX_CONFIG="${jiiify.memory}"
 JIIIFY_CORES="-Djiiify.cores=${jiiify.cores}"
+HTTP_INSTANCES="-Djiiify.http.instances=${jiiify.http.instances}"
 HEAP_DUMP_CONFIG="-XX:+HeapDumpOnOutOfMemoryError"
 AUTH_CONFIG="-Djiiify.ignore.auth=${jiiify.ignore.auth}"
 
@@ -127,5 +128,5 @@ else
 fi
 
 $AUTHBIND java $HEAP_DUMP_CONFIG $XMX_CONFIG $LOG_DELEGATE $KEY_PASS_CONFIG $WATCH_FOLDER_DIR \
-  $JKS_CONFIG $JCEKS_CONFIG $AUTH_CONFIG $JIIIFY_PORT $JIIIFY_HOST $TOOLING $JIIIFY_CORES $1 \
+  $JKS_CONFIG $JCEKS_CONFIG $AUTH_CONFIG $JIIIFY_PORT $JIIIFY_HOST $TOOLING $JIIIFY_CORES $HTTP_INSTANCES $1 \
   -jar target/build-artifact/jiiify-${project.version}.jar $JIIIFY_CONFIG
@@ -1,10 +1,18 @@
 
 package info.freelibrary.jiiify;
 
+import static info.freelibrary.jiiify.Configuration.DEFAULT_HTTP_INSTANCES;
 import static info.freelibrary.jiiify.Configuration.DEFAULT_PORT;
+import static info.freelibrary.jiiify.Configuration.DEFAULT_RASTER_POOL_SIZE;
+import static info.freelibrary.jiiify.Configuration.DEFAULT_TILE_STREAM_THRESHOLD;
 import static info.freelibrary.jiiify.Configuration.DEFAULT_UPLOADS_DIR;
+import static info.freelibrary.jiiify.Constants.ENCODING_PROFILES_PROP;
+import static info.freelibrary.jiiify.Constants.HTTP_INSTANCES_PROP;
 import static info.freelibrary.jiiify.Constants.HTTP_PORT_PROP;
+import static info.freelibrary.jiiify.Constants.NATIVE_IMAGES_PROP;
+import static info.freelibrary.jiiify.Constants.RASTER_POOL_SIZE_PROP;
 import static info.freelibrary.jiiify.Constants.SERVICE_PREFIX_PROP;
+import static info.freelibrary.jiiify.Constants.TILE_STREAM_THRESHOLD_PROP;
 import static info.freelibrary.jiiify.Constants.UPLOADS_DIR_PROP;
 import static java.util.UUID.randomUUID;
 
@@ -18,6 +26,9 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import info.freelibrary.jiiify.image.EncodingProfile;
+import info.freelibrary.jiiify.image.RasterPool;
+import info.freelibrary.jiiify.util.ImageUtils;
 import info.freelibrary.jiiify.util.LoggingUtils;
 import info.freelibrary.util.Logger;
 import info.freelibrary.util.LoggerFactory;
@@ -81,6 +92,157 @@ public class ConfigurationTest {
         });
     }
 
+    @Test
+    public void testGetHttpInstances(final TestContext aContext) {
+        final Async async = aContext.async();
+
+        new Configuration(new JsonObject().put(HTTP_INSTANCES_PROP, 8), myVertx, handler -> {
+            if (handler.failed()) {
+                aContext.fail(handler.cause());
+            } else {
+                aContext.assertEquals(8, handler.result().getHttpInstances());
+            }
+
+            async.complete();
+        });
+    }
+
+    @Test
+    public void testGetBadHttpInstances(final TestContext aContext) {
+        final Async async = aContext.async();
+
+        new Configuration(new JsonObject().put(HTTP_INSTANCES_PROP, 0), myVertx, handler -> {
+            if (handler.failed()) {
+                aContext.fail(handler.cause());
+            } else {
+                aContext.assertEquals(DEFAULT_HTTP_INSTANCES, handler.result().getHttpInstances());
+            }
+
+            async.complete();
+        });
+    }
+
+    @Test
+    public void testUsesNativeImages(final TestContext aContext) {
+        final Async async = aContext.async();
+
+        new Configuration(new JsonObject().put(NATIVE_IMAGES_PROP, false), myVertx, handler -> {
+            if (handler.failed()) {
+                aContext.fail(handler.cause());
+            } else {
+                aContext.assertFalse(handler.result().usesNativeImages());
+                aContext.assertFalse(ImageUtils.useNativeLibs());
+            }
+
+            async.complete();
+        });
+    }
+
+    @Test
+    public void testGetRasterPool(final TestContext aContext) {
+        final Async async = aContext.async();
+
+        new Configuration(new JsonObject().put(RASTER_POOL_SIZE_PROP, 8), myVertx, handler -> {
+            if (handler.failed()) {
+                aContext.fail(handler.cause());
+            } else {
+                aContext.assertEquals(RasterPool.getShared(), handler.result().getRasterPool());
+                aContext.assertEquals(8L * 1024L * 1024L, handler.result().getRasterPool().getMaxSize());
+            }
+
+            async.complete();
+        });
+    }
+
+    @Test
+    public void testGetBadRasterPool(final TestContext aContext) {
+        final Async async = aContext.async();
+
+        new Configuration(new JsonObject().put(RASTER_POOL_SIZE_PROP, "eight"), myVertx, handler -> {
+            if (handler.failed()) {
+                aContext.fail(handler.cause());
+            } else {
+                aContext.assertEquals(DEFAULT_RASTER_POOL_SIZE * 1024L * 1024L, handler.result().getRasterPool()
+                        .getMaxSize());
+            }
+
+            async.complete();
+        });
+    }
+
+    @Test
+    public void testGetTileStreamThreshold(final TestContext aContext) {
+        final Async async = aContext.async();
+
+        new Configuration(new JsonObject().put(TILE_STREAM_THRESHOLD_PROP, 1), myVertx, handler -> {
+            if (handler.failed()) {
+                aContext.fail(handler.cause());
+            } else {
+                aContext.assertEquals(1, handler.result().getTileStreamThreshold());
+                aContext.assertTrue(handler.result().streamsTiles(1024, 257));
+                aContext.assertFalse(handler.result().streamsTiles(1024, 256));
+            }
+
+            async.complete();
+        });
+    }
+
+    @Test
+    public void testGetBadTileStreamThreshold(final TestContext aContext) {
+        final Async async = aContext.async();
+
+        new Configuration(new JsonObject().put(TILE_STREAM_THRESHOLD_PROP, -1), myVertx, handler -> {
+            if (handler.failed()) {
+                aContext.fail(handler.cause());
+            } else {
+                aContext.assertEquals(DEFAULT_TILE_STREAM_THRESHOLD, handler.result().getTileStreamThreshold());
+            }
+
+            async.complete();
+        });
+    }
+
+    @Test
+    public void testGetEncodingProfile(final TestContext aContext) {
+        final Async async = aContext.async();
+        final JsonObject profiles = new JsonObject().put(EncodingProfile.TILE, new JsonObject().put("quality", 0.5)
+                .put("subsampling", EncodingProfile.SUBSAMPLING_444));
+
+        new Configuration(new JsonObject().put(ENCODING_PROFILES_PROP, profiles), myVertx, handler -> {
+            if (handler.failed()) {
+                aContext.fail(handler.cause());
+            } else {
+                final EncodingProfile tile = handler.result().getEncodingProfile(EncodingProfile.TILE);
+                final EncodingProfile full = handler.result().getEncodingProfile(EncodingProfile.FULL);
+
+                aContext.assertEquals(0.5f, tile.getQuality());
+                aContext.assertEquals(EncodingProfile.SUBSAMPLING_444, tile.getSubsampling());
+                aContext.assertEquals(EncodingProfile.DEFAULT_TILE.isProgressive(), tile.isProgressive());
+                aContext.assertEquals(EncodingProfile.DEFAULT_FULL, full);
+            }
+
+            async.complete();
+        });
+    }
+
+    @Test
+    public void testGetBadEncodingProfile(final TestContext aContext) {
+        final Async async = aContext.async();
+        final JsonObject profiles = new JsonObject().put(EncodingProfile.THUMBNAIL, new JsonObject().put("quality",
+                2));
+
+        new Configuration(new JsonObject().put(ENCODING_PROFILES_PROP, profiles), myVertx, handler -> {
+            if (handler.failed()) {
+                aContext.fail(handler.cause());
+            } else {
+                aContext.assertEquals(EncodingProfile.DEFAULT_THUMBNAIL, handler.result().getEncodingProfile(
+                        EncodingProfile.THUMBNAIL));
+            }
+
+            async.complete();
+        });
+    }
+
     @Test
     public void testGetServicePrefix(final TestContext aContext) {
         final Async async = aContext.async();
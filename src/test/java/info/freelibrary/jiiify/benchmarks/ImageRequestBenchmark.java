@@ -0,0 +1,101 @@
+
+package info.freelibrary.jiiify.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import info.freelibrary.jiiify.iiif.IIIFException;
+import info.freelibrary.jiiify.iiif.ImageRequest;
+import info.freelibrary.jiiify.iiif.ImageRequestParser;
+
+/**
+ * A benchmark of parsing IIIF image requests with the ImageRequest constructor and with the ImageRequestParser. The
+ * benchmarks are only generated when the tests are compiled with the <code>benchmarks</code> profile, after which
+ * they can be run from the command line with:
+ * <p>
+ * <code>mvn -Pbenchmarks test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * -Dexec.args="-cp %classpath info.freelibrary.jiiify.benchmarks.ImageRequestBenchmark"</code>
+ * </p>
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageRequestBenchmark {
+
+    @Param({ "/iiif/asdf/0,0,1024,1024/1024,/0/default.jpg", "/iiif/asdf/full/full/0/default.jpg",
+        "/iiif/ark%3A%2F21198%2Fz1000001/2048,1024,512,512/,256/90/gray.png",
+        "/iiif/asdf/pct:10,10,80,80/!200,200/0/default.jpg" })
+    public String myPath;
+
+    /**
+     * Parses the image request with the ImageRequest constructor.
+     *
+     * @return The image request
+     * @throws IIIFException If the image request isn't valid
+     */
+    @Benchmark
+    public ImageRequest constructor() throws IIIFException {
+        return new ImageRequest(myPath);
+    }
+
+    /**
+     * Parses the image request with the ImageRequestParser.
+     *
+     * @return The image request
+     * @throws IIIFException If the image request isn't valid
+     */
+    @Benchmark
+    public ImageRequest parser() throws IIIFException {
+        return ImageRequestParser.parse(myPath);
+    }
+
+    /**
+     * Parses and gets the Pairtree path of the image request with the ImageRequest constructor.
+     *
+     * @return The image request's path
+     * @throws IIIFException If the image request isn't valid
+     */
+    @Benchmark
+    public String constructorPath() throws IIIFException {
+        return new ImageRequest(myPath).getPath();
+    }
+
+    /**
+     * Parses and gets the Pairtree path of the image request with the ImageRequestParser.
+     *
+     * @return The image request's path
+     * @throws IIIFException If the image request isn't valid
+     */
+    @Benchmark
+    public String parserPath() throws IIIFException {
+        return ImageRequestParser.parse(myPath).getPath();
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args Command line arguments
+     * @throws RunnerException If the benchmark can't be run
+     */
+    public static void main(final String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ImageRequestBenchmark.class.getSimpleName()).build()).run();
+    }
+}
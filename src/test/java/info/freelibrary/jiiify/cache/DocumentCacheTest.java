@@ -0,0 +1,132 @@
+
+package info.freelibrary.jiiify.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * A test of {@link info.freelibrary.jiiify.cache.DocumentCache}
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class DocumentCacheTest {
+
+    private static final String NAME = "test-cache";
+
+    private static final String INFO_FILE = "/jiiify_data/pairtree_root/as/df/asdf/info.json";
+
+    private static final String SERVER = "https://localhost:8443/iiif";
+
+    private static final String VALIDATOR = "\"1000-200\"";
+
+    private static final Buffer INFO = Buffer.buffer("{\"@id\":\"https://localhost:8443/iiif/asdf\"}");
+
+    private MetricRegistry myRegistry;
+
+    @Before
+    public void setUp() {
+        myRegistry = new MetricRegistry();
+    }
+
+    /**
+     * Tests that a cached document is returned for the server and file it was rendered for.
+     */
+    @Test
+    public void testPutGet() {
+        final DocumentCache cache = new DocumentCache(NAME, 1024, myRegistry);
+
+        assertNull(cache.get(INFO_FILE, SERVER, VALIDATOR));
+
+        cache.put(INFO_FILE, SERVER, VALIDATOR, INFO);
+
+        assertEquals(INFO, cache.get(INFO_FILE, SERVER, VALIDATOR));
+        assertEquals(INFO.length(), cache.size());
+        assertEquals(1, myRegistry.counter(DocumentCache.getMetricName(NAME, "hits")).getCount());
+        assertEquals(1, myRegistry.counter(DocumentCache.getMetricName(NAME, "misses")).getCount());
+    }
+
+    /**
+     * Tests that a document without a validator is returned when there's no validator to check.
+     */
+    @Test
+    public void testGetWithoutValidator() {
+        final DocumentCache cache = new DocumentCache(NAME, 1024, myRegistry);
+
+        cache.put(INFO_FILE, SERVER, null, INFO);
+
+        assertEquals(INFO, cache.get(INFO_FILE, SERVER, null));
+    }
+
+    /**
+     * Tests that a document rendered from an older copy of the file isn't returned.
+     */
+    @Test
+    public void testGetStale() {
+        final DocumentCache cache = new DocumentCache(NAME, 1024, myRegistry);
+
+        cache.put(INFO_FILE, SERVER, VALIDATOR, INFO);
+
+        assertNull(cache.get(INFO_FILE, SERVER, "\"2000-200\""));
+    }
+
+    /**
+     * Tests that a document rendered for another server isn't returned.
+     */
+    @Test
+    public void testGetOtherServer() {
+        final DocumentCache cache = new DocumentCache(NAME, 1024, myRegistry);
+
+        cache.put(INFO_FILE, SERVER, VALIDATOR, INFO);
+
+        assertNull(cache.get(INFO_FILE, "http://example.com/iiif", VALIDATOR));
+    }
+
+    /**
+     * Tests that a removed document isn't returned.
+     */
+    @Test
+    public void testRemove() {
+        final DocumentCache cache = new DocumentCache(NAME, 1024, myRegistry);
+
+        cache.put(INFO_FILE, SERVER, VALIDATOR, INFO);
+        cache.remove(INFO_FILE);
+
+        assertNull(cache.get(INFO_FILE, SERVER, VALIDATOR));
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Tests that the least recently used documents are evicted when the cache is full.
+     */
+    @Test
+    public void testEviction() {
+        final DocumentCache cache = new DocumentCache(NAME, INFO.length() * 2, myRegistry);
+
+        cache.put("one", SERVER, null, INFO);
+        cache.put("two", SERVER, null, INFO);
+        cache.get("one", SERVER, null);
+        cache.put("three", SERVER, null, INFO);
+
+        assertTrue(cache.get("one", SERVER, null) != null);
+        assertNull(cache.get("two", SERVER, null));
+        assertTrue(cache.get("three", SERVER, null) != null);
+        assertEquals(INFO.length() * 2, cache.size());
+    }
+
+    /**
+     * Tests that a cache with no room is disabled.
+     */
+    @Test
+    public void testDisabled() {
+        assertFalse(new DocumentCache(NAME, 0, myRegistry).isEnabled());
+    }
+}
@@ -0,0 +1,103 @@
+
+package info.freelibrary.jiiify.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * A test of {@link info.freelibrary.jiiify.cache.NegativeCache}
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class NegativeCacheTest {
+
+    private static final String MISSING_TILE = "/iiif/asdf/0,0,1024,1024/1024,/0/default.jpg";
+
+    private static final long ONE_MINUTE = 60000;
+
+    private MetricRegistry myRegistry;
+
+    @Before
+    public void setUp() {
+        myRegistry = new MetricRegistry();
+    }
+
+    /**
+     * Tests that a missing image is remembered.
+     */
+    @Test
+    public void testAddContains() {
+        final NegativeCache cache = new NegativeCache(ONE_MINUTE, 10, myRegistry);
+
+        assertFalse(cache.contains(MISSING_TILE));
+
+        cache.add(MISSING_TILE);
+
+        assertTrue(cache.contains(MISSING_TILE));
+        assertEquals(1, myRegistry.counter(NegativeCache.HITS_METRIC).getCount());
+    }
+
+    /**
+     * Tests that a missing image is forgotten when it's removed.
+     */
+    @Test
+    public void testRemove() {
+        final NegativeCache cache = new NegativeCache(ONE_MINUTE, 10, myRegistry);
+
+        cache.add(MISSING_TILE);
+        cache.remove(MISSING_TILE);
+
+        assertFalse(cache.contains(MISSING_TILE));
+    }
+
+    /**
+     * Tests that a missing image is forgotten after its time to live.
+     *
+     * @throws InterruptedException If the test is interrupted while waiting for the entry to expire
+     */
+    @Test
+    public void testExpiration() throws InterruptedException {
+        final NegativeCache cache = new NegativeCache(1, 10, myRegistry);
+
+        cache.add(MISSING_TILE);
+        Thread.sleep(10);
+
+        assertFalse(cache.contains(MISSING_TILE));
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Tests that the negative cache is bounded.
+     */
+    @Test
+    public void testBounded() {
+        final NegativeCache cache = new NegativeCache(ONE_MINUTE, 10, myRegistry);
+
+        for (int index = 0; index < 25; index++) {
+            cache.add(Integer.toString(index));
+        }
+
+        assertEquals(10, cache.size());
+        assertFalse(cache.contains("0"));
+        assertTrue(cache.contains("24"));
+    }
+
+    /**
+     * Tests that a negative cache without a time to live doesn't remember anything.
+     */
+    @Test
+    public void testDisabled() {
+        final NegativeCache cache = new NegativeCache(0, 10, myRegistry);
+
+        cache.add(MISSING_TILE);
+
+        assertFalse(cache.isEnabled());
+        assertFalse(cache.contains(MISSING_TILE));
+    }
+}
@@ -0,0 +1,183 @@
+
+package info.freelibrary.jiiify.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * A test of {@link info.freelibrary.jiiify.cache.TileCache}
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class TileCacheTest {
+
+    private static final int TILE_SIZE = 100;
+
+    private static final int CACHE_SIZE = TILE_SIZE * 10;
+
+    private static final String HOT_TILE = "/iiif/asdf/0,0,1024,1024/1024,/0/default.jpg";
+
+    private MetricRegistry myRegistry;
+
+    @Before
+    public void setUp() {
+        myRegistry = new MetricRegistry();
+    }
+
+    /**
+     * Tests getting a tile that has been put into the cache.
+     */
+    @Test
+    public void testPutGet() {
+        final TileCache cache = new TileCache(CACHE_SIZE, new LRUEvictionPolicy(), myRegistry);
+        final Buffer tile = getTile(1);
+
+        assertNull(cache.get(HOT_TILE));
+
+        cache.put(HOT_TILE, tile);
+
+        assertEquals(tile, cache.get(HOT_TILE));
+        assertEquals(TILE_SIZE, cache.size());
+        assertEquals(1, myRegistry.counter(TileCache.HITS_METRIC).getCount());
+        assertEquals(1, myRegistry.counter(TileCache.MISSES_METRIC).getCount());
+    }
+
+    /**
+     * Tests that a cached tile's last modified time is kept with it.
+     */
+    @Test
+    public void testLastModified() {
+        final TileCache cache = new TileCache(CACHE_SIZE, new LRUEvictionPolicy(), myRegistry);
+
+        cache.put(HOT_TILE, getTile(1), 1500000000000L);
+
+        assertEquals(1500000000000L, cache.getLastModified(HOT_TILE));
+
+        cache.put(HOT_TILE, getTile(2));
+
+        assertEquals(-1, cache.getLastModified(HOT_TILE));
+
+        cache.put(HOT_TILE, getTile(3), 1500000000000L);
+        cache.remove(HOT_TILE);
+
+        assertEquals(-1, cache.getLastModified(HOT_TILE));
+    }
+
+    /**
+     * Tests that a replaced tile doesn't get counted twice.
+     */
+    @Test
+    public void testReplace() {
+        final TileCache cache = new TileCache(CACHE_SIZE, new LRUEvictionPolicy(), myRegistry);
+
+        cache.put(HOT_TILE, getTile(1));
+        cache.put(HOT_TILE, getTile(2));
+
+        assertEquals(getTile(2), cache.get(HOT_TILE));
+        assertEquals(TILE_SIZE, cache.size());
+    }
+
+    /**
+     * Tests removing a tile from the cache.
+     */
+    @Test
+    public void testRemove() {
+        final TileCache cache = new TileCache(CACHE_SIZE, new LRUEvictionPolicy(), myRegistry);
+
+        cache.put(HOT_TILE, getTile(1));
+        cache.remove(HOT_TILE);
+
+        assertFalse(cache.contains(HOT_TILE));
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Tests that the cache doesn't grow beyond its maximum size.
+     */
+    @Test
+    public void testBounded() {
+        final TileCache cache = new TileCache(CACHE_SIZE, new LRUEvictionPolicy(), myRegistry);
+
+        for (int index = 0; index < 25; index++) {
+            cache.put(Integer.toString(index), getTile(index));
+        }
+
+        assertEquals(CACHE_SIZE, cache.size());
+        assertEquals(15, myRegistry.counter(TileCache.EVICTIONS_METRIC).getCount());
+        assertFalse(cache.contains("0"));
+        assertTrue(cache.contains("24"));
+    }
+
+    /**
+     * Tests that tiles too large for the cache aren't stored and that a zero sized cache is disabled.
+     */
+    @Test
+    public void testOversized() {
+        final TileCache cache = new TileCache(CACHE_SIZE, new LRUEvictionPolicy(), myRegistry);
+        final TileCache disabledCache = new TileCache(0, new LRUEvictionPolicy(), myRegistry);
+
+        cache.put(HOT_TILE, Buffer.buffer(new byte[CACHE_SIZE]));
+        disabledCache.put(HOT_TILE, getTile(1));
+
+        assertFalse(cache.contains(HOT_TILE));
+        assertFalse(disabledCache.contains(HOT_TILE));
+        assertFalse(disabledCache.isEnabled());
+    }
+
+    /**
+     * Tests that a scan of one-time requests pushes a popular tile out of an LRU cache.
+     */
+    @Test
+    public void testLRUScan() {
+        assertFalse(scan(new LRUEvictionPolicy()).contains(HOT_TILE));
+    }
+
+    /**
+     * Tests that a scan of one-time requests doesn't push a popular tile out of a TinyLFU cache.
+     */
+    @Test
+    public void testTinyLFUScan() {
+        assertTrue(scan(new TinyLFUEvictionPolicy(1024)).contains(HOT_TILE));
+    }
+
+    private TileCache scan(final EvictionPolicy aPolicy) {
+        final TileCache cache = new TileCache(CACHE_SIZE, aPolicy, myRegistry);
+
+        cache.put(HOT_TILE, getTile(0));
+        cache.put("warm", getTile(1));
+
+        for (int index = 0; index < 5; index++) {
+            cache.get(HOT_TILE);
+        }
+
+        // Simulates a crawler requesting lots of tiles once each
+        for (int index = 0; index < 100; index++) {
+            final String key = "scan-" + index;
+
+            if (cache.get(key) == null) {
+                cache.put(key, getTile(index));
+            }
+        }
+
+        return cache;
+    }
+
+    private static Buffer getTile(final int aSeed) {
+        final byte[] bytes = new byte[TILE_SIZE];
+
+        for (int index = 0; index < bytes.length; index++) {
+            bytes[index] = (byte) (aSeed + index);
+        }
+
+        return Buffer.buffer(bytes);
+    }
+}
@@ -0,0 +1,54 @@
+
+package info.freelibrary.jiiify.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import info.freelibrary.jiiify.handlers.IIIFDispatcher.Route;
+
+/**
+ * A test of {@link info.freelibrary.jiiify.handlers.IIIFDispatcher}
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class IIIFDispatcherTest {
+
+    private static final String PREFIX = "/iiif";
+
+    /**
+     * Tests that image requests are recognized.
+     */
+    @Test
+    public void testGetRouteImage() {
+        assertEquals(Route.IMAGE, IIIFDispatcher.getRoute("/iiif/asdf/full/full/0/default.jpg", PREFIX));
+        assertEquals(Route.IMAGE, IIIFDispatcher.getRoute("/iiif/ark%3A%2F1234/0,0,512,512/512,/90/gray.png",
+                PREFIX));
+        assertEquals(Route.IMAGE, IIIFDispatcher.getRoute("/iiif/asdf/full/!200,200/0/bitonal.webp", PREFIX));
+    }
+
+    /**
+     * Tests that image info and manifest requests are recognized.
+     */
+    @Test
+    public void testGetRouteInfoManifest() {
+        assertEquals(Route.INFO, IIIFDispatcher.getRoute("/iiif/asdf/info.json", PREFIX));
+        assertEquals(Route.MANIFEST, IIIFDispatcher.getRoute("/iiif/asdf/manifest", PREFIX));
+    }
+
+    /**
+     * Tests that requests that aren't public IIIF requests are left for the application's router.
+     */
+    @Test
+    public void testGetRouteOther() {
+        assertNull(IIIFDispatcher.getRoute("/admin/item/asdf", PREFIX));
+        assertNull(IIIFDispatcher.getRoute("/iiif", PREFIX));
+        assertNull(IIIFDispatcher.getRoute("/iiif/info.json", PREFIX));
+        assertNull(IIIFDispatcher.getRoute("/iiifx/asdf/info.json", PREFIX));
+        assertNull(IIIFDispatcher.getRoute("/iiif/asdf/full/full/0/native.jpg", PREFIX));
+        assertNull(IIIFDispatcher.getRoute("/iiif/asdf/full/full/0/default.bmp", PREFIX));
+        assertNull(IIIFDispatcher.getRoute("/iiif/asdf/full/full/0/default", PREFIX));
+        assertNull(IIIFDispatcher.getRoute("/css/default.png", PREFIX));
+    }
+}
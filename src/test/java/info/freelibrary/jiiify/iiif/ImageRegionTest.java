@@ -6,6 +6,8 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.awt.Rectangle;
+
 import org.junit.Test;
 
 import info.freelibrary.jiiify.iiif.ImageRegion.Region;
@@ -117,6 +119,16 @@ public class ImageRegionTest {
         assertEquals("pct:50,50,50,50", new ImageRegion("pct:50,50,50,50").toString());
     }
 
+    @Test
+    public void testGetBounds() throws InvalidRegionException {
+        assertEquals(new Rectangle(0, 0, 400, 200), new ImageRegion().getBounds(400, 200));
+        assertEquals(new Rectangle(100, 50, 200, 100), new ImageRegion("pct:25,25,50,50").getBounds(400, 200));
+        assertEquals(new Rectangle(10, 20, 30, 40), new ImageRegion("10,20,30,40").getBounds(400, 200));
+
+        // Regions that extend past the edge of the image are clipped to its bounds
+        assertEquals(new Rectangle(300, 100, 100, 100), new ImageRegion("300,100,500,500").getBounds(400, 200));
+    }
+
     @Test
     public void testIsFullImage() {
         try {
@@ -0,0 +1,116 @@
+
+package info.freelibrary.jiiify.iiif;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * A test of {@link info.freelibrary.jiiify.iiif.ImageRequestParser}
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class ImageRequestParserTest {
+
+    private static final String[] PATHS = { "/iiif/asdf/full/full/0/default.jpg",
+        "/iiif/asdf/0,0,1024,1024/1024,/0/default.jpg", "/iiif/asdf/1024,2048,512,300/,150/90/gray.png",
+        "/iiif/asdf/full/200,300/180/color.tif", "/iiif/asdf/pct:10,10,80,80/pct:50/0/default.jpg",
+        "/iiif/asdf/full/!200,200/!90/bitonal.webp", "/iiif/asdf/10.5,20,30,40/full/22.5/default.gif",
+        "/iiif/asdf/full/full/090/default.jpg", "/iiif/asdf/full/full/0/default.tiff",
+        "/iiif/ark%3A%2F21198%2Fz1000001/full/300,/0/default.jpg", "/iiif/asdf/00,0,10,10/full/0/default.jpg",
+        "/iiif/asdf/0,0,12345678,10/full/0/default.jpg" };
+
+    /**
+     * Tests that parsed requests print the same as those created by the ImageRequest constructor.
+     */
+    @Test
+    public void testParse() throws IIIFException {
+        for (final String path : PATHS) {
+            final ImageRequest expected = new ImageRequest(path);
+            final ImageRequest request = ImageRequestParser.parse(path);
+
+            assertEquals(path, expected.getID(), request.getID());
+            assertEquals(path, expected.getPrefix(), request.getPrefix());
+            assertEquals(path, expected.getPath(), request.getPath());
+            assertEquals(path, expected.toString(), request.toString());
+        }
+    }
+
+    /**
+     * Tests that the Pairtree path is taken from a request path that's already in its canonical form.
+     */
+    @Test
+    public void testParsePath() throws IIIFException {
+        final ImageRequest request = ImageRequestParser.parse("/iiif/asdf/0,0,1024,1024/1024,/0/default.jpg");
+
+        assertEquals("0,0,1024,1024/1024,/0/default.jpg", request.getPath());
+
+        request.setRotation(new ImageRotation(90f));
+
+        assertEquals("0,0,1024,1024/1024,/90/default.jpg", request.getPath());
+    }
+
+    /**
+     * Tests that a path with too few parts isn't parsed.
+     */
+    @Test(expected = IIIFException.class)
+    public void testParseTooShort() throws IIIFException {
+        ImageRequestParser.parse("/iiif/asdf/full/full/default.jpg");
+    }
+
+    /**
+     * Tests that a path with too many parts isn't parsed.
+     */
+    @Test(expected = IIIFException.class)
+    public void testParseTooLong() throws IIIFException {
+        ImageRequestParser.parse("/iiif/asdf/more/full/full/0/default.jpg");
+    }
+
+    /**
+     * Tests that a path without a format isn't parsed.
+     */
+    @Test(expected = IIIFException.class)
+    public void testParseNoFormat() throws IIIFException {
+        ImageRequestParser.parse("/iiif/asdf/full/full/0/default");
+    }
+
+    /**
+     * Tests that an invalid region is reported as it is by the ImageRegion constructor.
+     */
+    @Test(expected = InvalidRegionException.class)
+    public void testParseBadRegion() throws IIIFException {
+        ImageRequestParser.parse("/iiif/asdf/0,0,10/full/0/default.jpg");
+    }
+
+    /**
+     * Tests that an invalid size is reported as it is by the ImageSize constructor.
+     */
+    @Test(expected = InvalidSizeException.class)
+    public void testParseBadSize() throws IIIFException {
+        ImageRequestParser.parse("/iiif/asdf/full/pct:0/0/default.jpg");
+    }
+
+    /**
+     * Tests that an invalid rotation is reported as it is by the ImageRotation constructor.
+     */
+    @Test(expected = InvalidRotationException.class)
+    public void testParseBadRotation() throws IIIFException {
+        ImageRequestParser.parse("/iiif/asdf/full/full/400/default.jpg");
+    }
+
+    /**
+     * Tests that an unsupported quality is reported as it is by the ImageQuality constructor.
+     */
+    @Test(expected = UnsupportedQualityException.class)
+    public void testParseBadQuality() throws IIIFException {
+        ImageRequestParser.parse("/iiif/asdf/full/full/0/native.jpg");
+    }
+
+    /**
+     * Tests that an unsupported format is reported as it is by the ImageFormat constructor.
+     */
+    @Test(expected = UnsupportedFormatException.class)
+    public void testParseBadFormat() throws IIIFException {
+        ImageRequestParser.parse("/iiif/asdf/full/full/0/default.bmp");
+    }
+}
@@ -6,8 +6,11 @@ import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.List;
+
 import org.junit.Test;
 
+import info.freelibrary.jiiify.util.ImageUtils;
 import info.freelibrary.jiiify.util.LoggingUtils;
 
 import ch.qos.logback.classic.Level;
@@ -129,4 +132,50 @@ public class ImageRequestTest {
         }
     }
 
+    @Test
+    public void testGetCanonicalForm() throws IIIFException {
+        assertEquals(IMAGE_REQUEST, canonicalize("/iiif/asdf/0,0,4000,3000/full/0/default.jpg"));
+        assertEquals(IMAGE_REQUEST, canonicalize("/iiif/asdf/pct:0,0,100,100/pct:100/0/default.jpg"));
+        assertEquals(IMAGE_REQUEST, canonicalize("/iiif/asdf/full/4000,3000/0/default.jpg"));
+        assertEquals(IMAGE_REQUEST, canonicalize("/iiif/asdf/full/8000,/0/default.jpg"));
+    }
+
+    @Test
+    public void testGetCanonicalFormRegion() throws IIIFException {
+        final String canonical = "/iiif/asdf/0,0,2000,1500/full/0/default.jpg";
+
+        assertEquals(canonical, canonicalize("/iiif/asdf/pct:0,0,50,50/full/0/default.jpg"));
+        assertEquals(canonical, canonicalize(canonical));
+        assertEquals("/iiif/asdf/3000,0,1000,3000/full/0/default.jpg", canonicalize(
+                "/iiif/asdf/3000,0,5000,5000/full/0/default.jpg"));
+    }
+
+    @Test
+    public void testGetCanonicalFormSize() throws IIIFException {
+        final String canonical = "/iiif/asdf/full/1000,/0/default.jpg";
+
+        assertEquals(canonical, canonicalize("/iiif/asdf/full/pct:25/0/default.jpg"));
+        assertEquals(canonical, canonicalize("/iiif/asdf/full/,750/0/default.jpg"));
+        assertEquals(canonical, canonicalize("/iiif/asdf/full/1000,750/0/default.jpg"));
+        assertEquals(canonical, canonicalize("/iiif/asdf/full/!1000,1000/0/default.jpg"));
+        assertEquals(canonical, canonicalize(canonical));
+        assertEquals("/iiif/asdf/full/1000,1000/0/default.jpg", canonicalize(
+                "/iiif/asdf/full/1000,1000/0/default.jpg"));
+    }
+
+    @Test
+    public void testGetCanonicalFormTilePaths() throws IIIFException {
+        final List<String> paths = ImageUtils.getTilePaths("/iiif", "asdf", 1024, 4000, 3000);
+
+        assertTrue(paths.contains("/iiif/asdf/0,0,1024,1024/1024,/0/default.jpg"));
+
+        // Tiles are stored under their paths, so their canonical forms must be the same
+        for (final String path : paths) {
+            assertEquals(path, canonicalize(path));
+        }
+    }
+
+    private String canonicalize(final String aRequest) throws IIIFException {
+        return new ImageRequest(aRequest).getCanonicalForm(4000, 3000).toString();
+    }
 }
@@ -295,6 +295,12 @@ public class ImageSizeTest {
         } catch (final InvalidSizeException details) {
             fail(details.getMessage());
         }
+
+        try {
+            assertEquals(25, new ImageSize("pct:50").getHeight(50, 100));
+        } catch (final InvalidSizeException details) {
+            fail(details.getMessage());
+        }
     }
 
     @Test
@@ -331,6 +337,12 @@ public class ImageSizeTest {
         } catch (final InvalidSizeException details) {
             fail(details.getMessage());
         }
+
+        try {
+            assertEquals(25, new ImageSize("pct:50").getWidth(50, 100));
+        } catch (final InvalidSizeException details) {
+            fail(details.getMessage());
+        }
     }
 
 }
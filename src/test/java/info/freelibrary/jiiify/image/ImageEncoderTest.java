@@ -0,0 +1,146 @@
+
+package info.freelibrary.jiiify.image;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+/**
+ * A test of {@link info.freelibrary.jiiify.image.ImageEncoder}
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class ImageEncoderTest {
+
+    private static final String JPEG_METADATA = "javax_imageio_jpeg_image_1.0";
+
+    /* The JPEG start of frame process for baseline images */
+    private static final String BASELINE = "0";
+
+    /* The JPEG start of frame process for progressive images */
+    private static final String PROGRESSIVE = "2";
+
+    private BufferedImage myImage;
+
+    /**
+     * Creates a test image.
+     */
+    @Before
+    public void setUp() {
+        final Random random = new Random(256);
+
+        myImage = new BufferedImage(256, 128, BufferedImage.TYPE_INT_RGB);
+
+        for (int y = 0; y < myImage.getHeight(); y++) {
+            for (int x = 0; x < myImage.getWidth(); x++) {
+                myImage.setRGB(x, y, x << 16 | y << 8 | random.nextInt(64));
+            }
+        }
+    }
+
+    /**
+     * Tests that a baseline profile writes a baseline JPEG with the profile's chroma subsampling.
+     *
+     * @throws IOException If the image can't be encoded
+     */
+    @Test
+    public void testBaseline() throws IOException {
+        final EncodingProfile profile = new EncodingProfile("test", 0.8f, false, EncodingProfile.SUBSAMPLING_422,
+                false);
+        final Element tree = getMetadata(ImageEncoder.encode(myImage, "jpg", profile).getBytes());
+        final Element luma = (Element) tree.getElementsByTagName("componentSpec").item(0);
+
+        assertEquals(BASELINE, ((Element) tree.getElementsByTagName("sof").item(0)).getAttribute("process"));
+        assertEquals("2", luma.getAttribute("HsamplingFactor"));
+        assertEquals("1", luma.getAttribute("VsamplingFactor"));
+    }
+
+    /**
+     * Tests that a progressive profile writes a progressive JPEG.
+     *
+     * @throws IOException If the image can't be encoded
+     */
+    @Test
+    public void testProgressive() throws IOException {
+        final Element tree = getMetadata(ImageEncoder.encode(myImage, "jpg", EncodingProfile.DEFAULT_FULL)
+                .getBytes());
+
+        assertEquals(PROGRESSIVE, ((Element) tree.getElementsByTagName("sof").item(0)).getAttribute("process"));
+    }
+
+    /**
+     * Tests that a JPEG without chroma subsampling keeps all of its components at full resolution.
+     *
+     * @throws IOException If the image can't be encoded
+     */
+    @Test
+    public void testNoSubsampling() throws IOException {
+        final EncodingProfile profile = new EncodingProfile("test", 0.9f, false, EncodingProfile.SUBSAMPLING_444,
+                true);
+        final Element tree = getMetadata(ImageEncoder.encode(myImage, "jpg", profile).getBytes());
+        final Element luma = (Element) tree.getElementsByTagName("componentSpec").item(0);
+
+        assertEquals("1", luma.getAttribute("HsamplingFactor"));
+        assertEquals("1", luma.getAttribute("VsamplingFactor"));
+    }
+
+    /**
+     * Tests that images encoded one after another, with the same pooled writer, are the same.
+     *
+     * @throws IOException If the image can't be encoded
+     */
+    @Test
+    public void testWriterReuse() throws IOException {
+        final byte[] first = ImageEncoder.encode(myImage, "jpg", EncodingProfile.DEFAULT_TILE).getBytes();
+        final byte[] second = ImageEncoder.encode(myImage, "jpg", EncodingProfile.DEFAULT_TILE).getBytes();
+
+        assertArrayEquals(first, second);
+    }
+
+    /**
+     * Tests that a PNG image, whose writer seeks back over what it's written, is written correctly.
+     *
+     * @throws IOException If the image can't be encoded
+     */
+    @Test
+    public void testPNG() throws IOException {
+        final byte[] bytes = ImageEncoder.encode(myImage, "png", EncodingProfile.DEFAULT_TILE).getBytes();
+        final BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes));
+        final int width = myImage.getWidth();
+        final int height = myImage.getHeight();
+
+        assertArrayEquals(myImage.getRGB(0, 0, width, height, null, 0, width), image.getRGB(0, 0, width, height,
+                null, 0, width));
+    }
+
+    /**
+     * Tests that an invalid chroma subsampling isn't accepted.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSubsampling() {
+        new EncodingProfile("test", 0.8f, false, "4:1:1", false);
+    }
+
+    private Element getMetadata(final byte[] aJPEG) throws IOException {
+        final ImageReader reader = ImageIO.getImageReadersByFormatName("jpeg").next();
+
+        try (ImageInputStream inStream = ImageIO.createImageInputStream(new ByteArrayInputStream(aJPEG))) {
+            reader.setInput(inStream);
+            return (Element) reader.getImageMetadata(0).getAsTree(JPEG_METADATA);
+        } finally {
+            reader.dispose();
+        }
+    }
+}
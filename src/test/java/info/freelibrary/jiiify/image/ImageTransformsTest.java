@@ -0,0 +1,135 @@
+
+package info.freelibrary.jiiify.image;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * A test of {@link info.freelibrary.jiiify.image.ImageTransforms}
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class ImageTransformsTest {
+
+    private static final int WIDTH = 13;
+
+    private static final int HEIGHT = 7;
+
+    /* Image types with a pixel array of integers, a pixel array of bytes, and without a pixel array */
+    private static final int[] TYPES = { BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_3BYTE_BGR,
+        BufferedImage.TYPE_BYTE_GRAY, BufferedImage.TYPE_BYTE_BINARY, BufferedImage.TYPE_USHORT_565_RGB };
+
+    /**
+     * Tests that every quarter turn, with and without mirroring, moves each pixel to where it belongs.
+     */
+    @Test
+    public void testTranspose() {
+        final Random random = new Random(WIDTH);
+
+        for (final int type : TYPES) {
+            final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, type);
+
+            for (int y = 0; y < HEIGHT; y++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    image.setRGB(x, y, random.nextInt());
+                }
+            }
+
+            for (int quarterTurns = 0; quarterTurns < 4; quarterTurns++) {
+                assertTransposed(image, quarterTurns, false);
+                assertTransposed(image, quarterTurns, true);
+            }
+        }
+    }
+
+    /**
+     * Tests rotating an image by an angle that's not a multiple of ninety degrees.
+     */
+    @Test
+    public void testRotate() {
+        final BufferedImage image = ImageTransforms.rotate(new BufferedImage(WIDTH, HEIGHT,
+                BufferedImage.TYPE_INT_RGB), 30);
+
+        assertEquals((int) Math.ceil(WIDTH * Math.cos(Math.PI / 6) + HEIGHT * 0.5), image.getWidth());
+        assertEquals((int) Math.ceil(WIDTH * 0.5 + HEIGHT * Math.cos(Math.PI / 6)), image.getHeight());
+        assertEquals(0xFFFFFF, image.getRGB(0, 0) & 0xFFFFFF);
+        assertEquals(0x000000, image.getRGB(image.getWidth() / 2, image.getHeight() / 2) & 0xFFFFFF);
+    }
+
+    /**
+     * Tests that gray values are the luma of the colors they replace.
+     */
+    @Test
+    public void testToGray() {
+        final BufferedImage gray = ImageTransforms.toGray(getColors());
+
+        assertEquals(BufferedImage.TYPE_BYTE_GRAY, gray.getType());
+        assertEquals(255, gray.getRaster().getSample(0, 0, 0));
+        assertEquals(128, gray.getRaster().getSample(1, 0, 0));
+        assertEquals(127, gray.getRaster().getSample(2, 0, 0));
+        assertEquals(76, gray.getRaster().getSample(3, 0, 0));
+    }
+
+    /**
+     * Tests that bitonal images have one bit for each pixel and that their pixels are split at the middle gray.
+     */
+    @Test
+    public void testToBitonal() {
+        final BufferedImage bitonal = ImageTransforms.toBitonal(getColors());
+
+        assertTrue(ImageTransforms.isBitonal(bitonal));
+        assertEquals(1, bitonal.getRaster().getSample(0, 0, 0));
+        assertEquals(1, bitonal.getRaster().getSample(1, 0, 0));
+        assertEquals(0, bitonal.getRaster().getSample(2, 0, 0));
+        assertEquals(0, bitonal.getRaster().getSample(3, 0, 0));
+        assertEquals(255, ImageTransforms.toGray(bitonal).getRaster().getSample(0, 0, 0));
+    }
+
+    private BufferedImage getColors() {
+        final BufferedImage image = new BufferedImage(4, 1, BufferedImage.TYPE_INT_RGB);
+
+        image.setRGB(0, 0, 0xFFFFFF);
+        image.setRGB(1, 0, 0x808080);
+        image.setRGB(2, 0, 0x7F7F7F);
+        image.setRGB(3, 0, 0xFF0000);
+
+        return image;
+    }
+
+    private void assertTransposed(final BufferedImage aImage, final int aQuarterTurns, final boolean aMirrored) {
+        final BufferedImage image = ImageTransforms.transpose(aImage, aQuarterTurns, aMirrored);
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                final int mirroredX = aMirrored ? WIDTH - 1 - x : x;
+                final int newX;
+                final int newY;
+
+                switch (aQuarterTurns) {
+                    case 1:
+                        newX = HEIGHT - 1 - y;
+                        newY = mirroredX;
+                        break;
+                    case 2:
+                        newX = WIDTH - 1 - mirroredX;
+                        newY = HEIGHT - 1 - y;
+                        break;
+                    case 3:
+                        newX = y;
+                        newY = WIDTH - 1 - mirroredX;
+                        break;
+                    default:
+                        newX = mirroredX;
+                        newY = y;
+                }
+
+                assertEquals(aImage.getType() + ": " + aQuarterTurns, aImage.getRGB(x, y), image.getRGB(newX, newY));
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+
+package info.freelibrary.jiiify.image;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Test;
+
+/**
+ * A test of {@link info.freelibrary.jiiify.image.IngestSession}
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class IngestSessionTest {
+
+    /**
+     * Tests that the source image is only mapped once and is shared by all the session's requests.
+     *
+     * @throws IOException If the test source can't be written
+     * @throws ExecutionException If the source image can't be mapped
+     * @throws InterruptedException If the test is interrupted
+     */
+    @Test
+    public void testGetSource() throws IOException, ExecutionException, InterruptedException {
+        final File file = File.createTempFile("ingest-session-", ".tif");
+        final IngestSession session = new IngestSession(file.getAbsolutePath(), 3, false);
+        final MappedImageSource source;
+
+        file.deleteOnExit();
+        Files.write(file.toPath(), new byte[] { 1, 2, 3 });
+
+        source = session.getSource().get();
+
+        assertEquals(3, source.length());
+        assertSame(source, session.getSource().get());
+        assertSame(source, session.getSource().get());
+    }
+
+    /**
+     * Tests that a source image that can't be mapped fails for all of the session's requests.
+     */
+    @Test
+    public void testGetSourceFailure() {
+        final IngestSession session = new IngestSession("/tmp/missing-ingest-session-source.tif", 2, false);
+
+        assertTrue(session.getSource().isCompletedExceptionally());
+        assertTrue(session.getSource().isCompletedExceptionally());
+    }
+
+    /**
+     * Tests that the session ends when the last of its requests releases it.
+     */
+    @Test
+    public void testRelease() {
+        final IngestSession session = new IngestSession("/tmp/source.tif", 2, true);
+
+        assertFalse(session.release());
+        assertEquals(1, session.getRequestCount());
+        assertTrue(session.release());
+        assertEquals(0, session.getRequestCount());
+        assertTrue(session.isCleanup());
+    }
+}
@@ -0,0 +1,304 @@
+
+package info.freelibrary.jiiify.image;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import info.freelibrary.jiiify.iiif.IIIFException;
+import info.freelibrary.jiiify.iiif.ImageQuality;
+import info.freelibrary.jiiify.iiif.ImageRegion;
+import info.freelibrary.jiiify.iiif.ImageRotation;
+import info.freelibrary.jiiify.iiif.ImageSize;
+import info.freelibrary.jiiify.iiif.InvalidRotationException;
+import info.freelibrary.jiiify.iiif.UnsupportedQualityException;
+
+/**
+ * A test of {@link info.freelibrary.jiiify.image.JavaImageObject}
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class JavaImageObjectTest {
+
+    private static final int WIDTH = 40;
+
+    private static final int HEIGHT = 20;
+
+    private static final int MARKER = 0xFF0000;
+
+    private static final int REGION_MARKER = 0x00FF00;
+
+    private static final int LARGE_WIDTH = 400;
+
+    private static final int LARGE_HEIGHT = 200;
+
+    private byte[] myImageBytes;
+
+    private byte[] myLargeImageBytes;
+
+    /**
+     * Creates a small test image with a marker pixel in its top-left corner.
+     *
+     * @throws IOException If the test image can't be written
+     */
+    @Before
+    public void setUp() throws IOException {
+        final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+        image.setRGB(0, 0, MARKER);
+        image.setRGB(10, 5, REGION_MARKER);
+        ImageIO.write(image, "png", baos);
+        myImageBytes = baos.toByteArray();
+
+        baos.reset();
+        ImageIO.write(new BufferedImage(LARGE_WIDTH, LARGE_HEIGHT, BufferedImage.TYPE_INT_RGB), "png", baos);
+        myLargeImageBytes = baos.toByteArray();
+    }
+
+    /**
+     * Tests decoding just a region of an image.
+     *
+     * @throws IOException If the image can't be read or written
+     * @throws IIIFException If the region or size isn't valid
+     */
+    @Test
+    public void testDecodeRegion() throws IOException, IIIFException {
+        final BufferedImage image = decode(myImageBytes, "10,5,20,10", "full");
+
+        assertEquals(20, image.getWidth());
+        assertEquals(10, image.getHeight());
+        assertEquals(REGION_MARKER, image.getRGB(0, 0) & 0xFFFFFF);
+    }
+
+    /**
+     * Tests that an image that's subsampled when it's decoded is still resized to the requested size.
+     *
+     * @throws IOException If the image can't be read or written
+     * @throws IIIFException If the region or size isn't valid
+     */
+    @Test
+    public void testDecodeSubsampled() throws IOException, IIIFException {
+        final BufferedImage image = decode(myLargeImageBytes, "full", "50,");
+
+        assertEquals(50, image.getWidth());
+        assertEquals(25, image.getHeight());
+    }
+
+    /**
+     * Tests that a percentage size is a percentage of the region, not of the subsampled image.
+     *
+     * @throws IOException If the image can't be read or written
+     * @throws IIIFException If the region or size isn't valid
+     */
+    @Test
+    public void testDecodeSubsampledPercentage() throws IOException, IIIFException {
+        final BufferedImage image = decode(myLargeImageBytes, "0,0,200,200", "pct:10");
+
+        assertEquals(20, image.getWidth());
+        assertEquals(20, image.getHeight());
+    }
+
+    /**
+     * Tests that the region and size are the same whether or not the region was decoded by itself.
+     *
+     * @throws IOException If the image can't be read or written
+     * @throws IIIFException If the region or size isn't valid
+     */
+    @Test
+    public void testDecodeRegionMatchesCrop() throws IOException, IIIFException {
+        final JavaImageObject image = new JavaImageObject(myLargeImageBytes);
+        final BufferedImage decoded = decode(myLargeImageBytes, "100,50,300,150", "!30,30");
+
+        image.extractRegion(new ImageRegion("100,50,300,150"));
+        image.resize(new ImageSize("!30,30"));
+
+        assertEquals(image.getWidth(), decoded.getWidth());
+        assertEquals(image.getHeight(), decoded.getHeight());
+    }
+
+    /**
+     * Tests that a region that's extracted from a decoded image has the same pixels as the image.
+     *
+     * @throws IOException If the image can't be read or written
+     * @throws IIIFException If the region isn't valid
+     */
+    @Test
+    public void testExtractRegion() throws IOException, IIIFException {
+        final JavaImageObject image = new JavaImageObject(myImageBytes);
+
+        image.extractRegion(new ImageRegion("10,5,20,10"));
+
+        assertEquals(20, image.getWidth());
+        assertEquals(10, image.getHeight());
+        assertEquals(REGION_MARKER, image.getBufferedImage().getRGB(0, 0) & 0xFFFFFF);
+        assertEquals(0x000000, image.getBufferedImage().getRGB(1, 0) & 0xFFFFFF);
+    }
+
+    /**
+     * Tests that a freed image is returned to the raster pool, and is reused, even after a region was extracted.
+     *
+     * @throws IOException If the image can't be read
+     * @throws IIIFException If the region isn't valid
+     */
+    @Test
+    public void testFree() throws IOException, IIIFException {
+        final JavaImageObject image = new JavaImageObject(myImageBytes);
+        final BufferedImage decoded = image.getBufferedImage();
+
+        image.extractRegion(new ImageRegion("10,5,20,10"));
+        image.free();
+
+        assertSame(decoded, RasterPool.getShared().getImage(decoded.getType(), WIDTH, HEIGHT));
+    }
+
+    /**
+     * Tests that an image isn't decoded into a pooled image, which could be left with another image's pixels.
+     *
+     * @throws IOException If the image can't be read
+     */
+    @Test
+    public void testDecodeNotPooled() throws IOException {
+        final BufferedImage pooled = new BufferedImage(WIDTH, HEIGHT, new JavaImageObject(myImageBytes)
+                .getBufferedImage().getType());
+
+        RasterPool.getShared().release(pooled);
+
+        assertNotSame(pooled, new JavaImageObject(myImageBytes).getBufferedImage());
+        assertSame(pooled, RasterPool.getShared().getImage(pooled.getType(), WIDTH, HEIGHT));
+    }
+
+    /**
+     * Tests that a region outside of the image isn't decoded.
+     *
+     * @throws IOException If the image can't be read or written
+     * @throws IIIFException If the region or size isn't valid
+     */
+    @Test(expected = IOException.class)
+    public void testDecodeRegionOutsideImage() throws IOException, IIIFException {
+        decode(myImageBytes, "100,100,10,10", "full");
+    }
+
+    /**
+     * Tests rotating an image by ninety degrees.
+     *
+     * @throws IOException If the image can't be read or written
+     * @throws InvalidRotationException If the rotation isn't valid
+     */
+    @Test
+    public void testRotate90() throws IOException, InvalidRotationException {
+        final BufferedImage image = rotate("90");
+
+        assertEquals(HEIGHT, image.getWidth());
+        assertEquals(WIDTH, image.getHeight());
+        assertEquals(MARKER, image.getRGB(HEIGHT - 1, 0) & 0xFFFFFF);
+    }
+
+    /**
+     * Tests rotating an image by one hundred and eighty degrees.
+     *
+     * @throws IOException If the image can't be read or written
+     * @throws InvalidRotationException If the rotation isn't valid
+     */
+    @Test
+    public void testRotate180() throws IOException, InvalidRotationException {
+        final BufferedImage image = rotate("180");
+
+        assertEquals(WIDTH, image.getWidth());
+        assertEquals(MARKER, image.getRGB(WIDTH - 1, HEIGHT - 1) & 0xFFFFFF);
+    }
+
+    /**
+     * Tests mirroring an image.
+     *
+     * @throws IOException If the image can't be read or written
+     * @throws InvalidRotationException If the rotation isn't valid
+     */
+    @Test
+    public void testMirror() throws IOException, InvalidRotationException {
+        assertEquals(MARKER, rotate("!0").getRGB(WIDTH - 1, 0) & 0xFFFFFF);
+    }
+
+    /**
+     * Tests rotating an image by an angle that's not a multiple of ninety degrees.
+     *
+     * @throws IOException If the image can't be read or written
+     * @throws InvalidRotationException If the rotation isn't valid
+     */
+    @Test
+    public void testRotateArbitrary() throws IOException, InvalidRotationException {
+        final BufferedImage image = rotate("45");
+
+        // The rotated image fits in a larger image with a white background
+        assertEquals(43, image.getWidth());
+        assertEquals(43, image.getHeight());
+        assertEquals(0xFFFFFF, image.getRGB(0, 0) & 0xFFFFFF);
+        assertEquals(0x000000, image.getRGB(21, 21) & 0xFFFFFF);
+    }
+
+    /**
+     * Tests changing an image's quality to gray.
+     *
+     * @throws IOException If the image can't be read or written
+     * @throws UnsupportedQualityException If the quality isn't supported
+     */
+    @Test
+    public void testGray() throws IOException, UnsupportedQualityException {
+        final BufferedImage image = adjustQuality(ImageQuality.GRAY);
+
+        assertEquals(BufferedImage.TYPE_BYTE_GRAY, image.getType());
+        assertEquals(76, image.getRaster().getSample(0, 0, 0));
+        assertEquals(150, image.getRaster().getSample(10, 5, 0));
+    }
+
+    /**
+     * Tests changing an image's quality to bitonal, which is written with one bit for each pixel.
+     *
+     * @throws IOException If the image can't be read or written
+     * @throws UnsupportedQualityException If the quality isn't supported
+     */
+    @Test
+    public void testBitonal() throws IOException, UnsupportedQualityException {
+        final BufferedImage image = adjustQuality(ImageQuality.BITONAL);
+
+        assertEquals(1, image.getColorModel().getPixelSize());
+        assertEquals(0x000000, image.getRGB(0, 0) & 0xFFFFFF);
+        assertEquals(0xFFFFFF, image.getRGB(10, 5) & 0xFFFFFF);
+    }
+
+    private BufferedImage decode(final byte[] aImage, final String aRegion, final String aSize) throws IOException,
+            IIIFException {
+        final ImageSize size = new ImageSize(aSize);
+        final JavaImageObject image = new JavaImageObject(aImage, new ImageRegion(aRegion), size);
+
+        image.resize(size);
+
+        return ImageIO.read(new ByteArrayInputStream(image.toBuffer("png").getBytes()));
+    }
+
+    private BufferedImage rotate(final String aRotation) throws IOException, InvalidRotationException {
+        final JavaImageObject image = new JavaImageObject(myImageBytes);
+
+        image.rotate(new ImageRotation(aRotation));
+
+        return ImageIO.read(new ByteArrayInputStream(image.toBuffer("png").getBytes()));
+    }
+
+    private BufferedImage adjustQuality(final String aQuality) throws IOException, UnsupportedQualityException {
+        final JavaImageObject image = new JavaImageObject(myImageBytes);
+
+        image.adjustQuality(new ImageQuality(aQuality));
+
+        return ImageIO.read(new ByteArrayInputStream(image.toBuffer("png").getBytes()));
+    }
+}
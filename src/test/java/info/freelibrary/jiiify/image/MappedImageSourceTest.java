@@ -0,0 +1,113 @@
+
+package info.freelibrary.jiiify.image;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A test of {@link info.freelibrary.jiiify.image.MappedImageSource}
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class MappedImageSourceTest {
+
+    /* A chunk size that's small enough that the test image spans many chunks */
+    private static final int CHUNK_SIZE = 97;
+
+    private File myImageFile;
+
+    private byte[] myImageBytes;
+
+    /**
+     * Writes a test image file.
+     *
+     * @throws IOException If the test image can't be written
+     */
+    @Before
+    public void setUp() throws IOException {
+        final BufferedImage image = new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB);
+        final Random random = new Random(CHUNK_SIZE);
+
+        // Random pixels don't compress, so the image file spans many chunks
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+
+        myImageFile = File.createTempFile("mapped-image-", ".png");
+        myImageFile.deleteOnExit();
+        ImageIO.write(image, "png", myImageFile);
+        myImageBytes = Files.readAllBytes(myImageFile.toPath());
+    }
+
+    /**
+     * Tests reading a mapped source, a byte and a block at a time, across the boundaries of its chunks.
+     *
+     * @throws IOException If the source can't be read
+     */
+    @Test
+    public void testRead() throws IOException {
+        final MappedImageSource source = new MappedImageSource(myImageFile, CHUNK_SIZE);
+        final byte[] bytes = new byte[myImageBytes.length];
+
+        assertEquals(myImageBytes.length, source.length());
+
+        try (ImageInputStream inStream = source.newInputStream()) {
+            for (int index = 0; index < 10; index++) {
+                bytes[index] = (byte) inStream.read();
+            }
+
+            inStream.readFully(bytes, 10, bytes.length - 10);
+            assertEquals(-1, inStream.read());
+        }
+
+        assertArrayEquals(myImageBytes, bytes);
+    }
+
+    /**
+     * Tests that seeking in one stream doesn't affect another stream from the same source.
+     *
+     * @throws IOException If the source can't be read
+     */
+    @Test
+    public void testSeek() throws IOException {
+        final MappedImageSource source = new MappedImageSource(myImageFile, CHUNK_SIZE);
+
+        try (ImageInputStream first = source.newInputStream(); ImageInputStream second = source.newInputStream()) {
+            first.seek(CHUNK_SIZE * 2 - 1);
+            assertEquals(myImageBytes[0] & 0xFF, second.read());
+            assertEquals(myImageBytes[CHUNK_SIZE * 2 - 1] & 0xFF, first.read());
+            assertEquals(myImageBytes[CHUNK_SIZE * 2] & 0xFF, first.read());
+        }
+    }
+
+    /**
+     * Tests that an image decoded from a mapped source is the same as one decoded from its file.
+     *
+     * @throws IOException If the image can't be decoded
+     */
+    @Test
+    public void testDecode() throws IOException {
+        final BufferedImage expected = ImageIO.read(myImageFile);
+        final BufferedImage found = new JavaImageObject(new MappedImageSource(myImageFile, CHUNK_SIZE)
+                .newInputStream(), null, null).getBufferedImage();
+        final int width = expected.getWidth();
+        final int height = expected.getHeight();
+
+        assertArrayEquals(expected.getRGB(0, 0, width, height, null, 0, width), found.getRGB(0, 0, width, height,
+                null, 0, width));
+    }
+}
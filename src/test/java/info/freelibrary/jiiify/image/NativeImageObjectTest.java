@@ -0,0 +1,246 @@
+
+package info.freelibrary.jiiify.image;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import info.freelibrary.jiiify.iiif.IIIFException;
+import info.freelibrary.jiiify.iiif.ImageQuality;
+import info.freelibrary.jiiify.iiif.ImageRegion;
+import info.freelibrary.jiiify.iiif.ImageRotation;
+import info.freelibrary.jiiify.iiif.ImageSize;
+import info.freelibrary.jiiify.util.ImageUtils;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * A test of {@link info.freelibrary.jiiify.image.NativeImageObject}, which is skipped if OpenCV's native library
+ * can't be loaded on the platform running the tests.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class NativeImageObjectTest {
+
+    private static final int WIDTH = 40;
+
+    private static final int HEIGHT = 20;
+
+    private static final int MARKER = 0xFF0000;
+
+    private static final int REGION_MARKER = 0x00FF00;
+
+    private byte[] myImageBytes;
+
+    /**
+     * Loads OpenCV's native library and creates a small test image with a marker pixel in its top-left corner.
+     *
+     * @throws IOException If the test image can't be written
+     */
+    @Before
+    public void setUp() throws IOException {
+        final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+        ImageUtils.useNativeLibs(true);
+        assumeTrue(ImageUtils.useNativeLibs());
+
+        image.setRGB(0, 0, MARKER);
+        image.setRGB(10, 5, REGION_MARKER);
+        ImageIO.write(image, "png", baos);
+        myImageBytes = baos.toByteArray();
+    }
+
+    /**
+     * Goes back to using Java's image libraries.
+     */
+    @After
+    public void tearDown() {
+        ImageUtils.useNativeLibs(false);
+    }
+
+    /**
+     * Tests that the image utilities create native image objects when native libraries are used.
+     *
+     * @throws IOException If the image can't be read
+     */
+    @Test
+    public void testGetImage() throws IOException {
+        assertEquals(NativeImageObject.class, ImageUtils.getImage(myImageBytes).getClass());
+    }
+
+    /**
+     * Tests that image streams, and requests for a region of an image, are decoded with Java's image libraries since
+     * they only decode what's needed.
+     *
+     * @throws IOException If the image can't be read
+     * @throws IIIFException If the region or size isn't valid
+     */
+    @Test
+    public void testGetImageFallback() throws IOException, IIIFException {
+        final ImageRegion region = new ImageRegion("10,5,20,10");
+        final ImageSize size = new ImageSize("10,");
+        final ImageInputStream inStream = new MemoryCacheImageInputStream(new ByteArrayInputStream(myImageBytes));
+
+        assertEquals(JavaImageObject.class, ImageUtils.getImage(inStream, new ImageRegion(), size).getClass());
+        assertEquals(JavaImageObject.class, ImageUtils.getImage(myImageBytes, region, size).getClass());
+        assertEquals(NativeImageObject.class, ImageUtils.getImage(myImageBytes, new ImageRegion(), size).getClass());
+    }
+
+    /**
+     * Tests that requests for a full image from a mapped source are decoded natively, and that requests for a region
+     * of it are decoded with Java's image libraries.
+     *
+     * @throws IOException If the image can't be read
+     * @throws IIIFException If the region or size isn't valid
+     */
+    @Test
+    public void testGetMappedImage() throws IOException, IIIFException {
+        final File imageFile = File.createTempFile("native-image-", ".png");
+
+        try {
+            final MappedImageSource source;
+            final ImageObject image;
+
+            Files.write(imageFile.toPath(), myImageBytes);
+            source = new MappedImageSource(imageFile);
+            image = ImageUtils.getImage(source, new ImageRegion(), new ImageSize("20,"));
+
+            assertEquals(NativeImageObject.class, image.getClass());
+            assertEquals(WIDTH / 2, image.getWidth());
+            assertEquals(JavaImageObject.class, ImageUtils.getImage(source, new ImageRegion("10,5,20,10"),
+                    new ImageSize("10,")).getClass());
+        } finally {
+            imageFile.delete();
+        }
+    }
+
+    /**
+     * Tests that a full image that's going to be scaled down is read at the smallest scale that's still no smaller
+     * than the requested size.
+     *
+     * @throws IOException If the image can't be read or written
+     * @throws IIIFException If the region or size isn't valid
+     */
+    @Test
+    public void testReducedRead() throws IOException, IIIFException {
+        final BufferedImage image = new BufferedImage(WIDTH * 10, HEIGHT * 10, BufferedImage.TYPE_INT_RGB);
+        final File imageFile = File.createTempFile("native-image-", ".jpg");
+        final ImageRegion full = new ImageRegion();
+
+        try {
+            ImageIO.write(image, "jpg", imageFile);
+
+            assertEquals(WIDTH * 10 / 8, new NativeImageObject(imageFile, full, new ImageSize("50,")).getWidth());
+            assertEquals(WIDTH * 10 / 4, new NativeImageObject(imageFile, full, new ImageSize("60,")).getWidth());
+            assertEquals(WIDTH * 10, new NativeImageObject(imageFile, full, new ImageSize("300,")).getWidth());
+
+            // A region is cut from the image at its full size
+            assertEquals(WIDTH, new NativeImageObject(imageFile, new ImageRegion("0,0,40,20"), new ImageSize("5,"))
+                    .getWidth());
+        } finally {
+            imageFile.delete();
+        }
+    }
+
+    /**
+     * Tests extracting a region that's expressed in percentages.
+     *
+     * @throws IOException If the image can't be read or written
+     * @throws IIIFException If the region or size isn't valid
+     */
+    @Test
+    public void testPercentageRegion() throws IOException, IIIFException {
+        final NativeImageObject image = new NativeImageObject(myImageBytes, new ImageRegion("pct:25,25,50,50"),
+                new ImageSize());
+        final BufferedImage region = read(image.toBuffer("png"));
+
+        assertEquals(WIDTH / 2, region.getWidth());
+        assertEquals(HEIGHT / 2, region.getHeight());
+        assertEquals(REGION_MARKER, region.getRGB(0, 0) & 0xFFFFFF);
+    }
+
+    /**
+     * Tests resizing an image.
+     *
+     * @throws IOException If the image can't be read or written
+     * @throws IIIFException If the size isn't valid
+     */
+    @Test
+    public void testResize() throws IOException, IIIFException {
+        final NativeImageObject image = new NativeImageObject(myImageBytes);
+
+        image.resize(new ImageSize("20,"));
+
+        assertEquals(20, image.getWidth());
+        assertEquals(10, image.getHeight());
+    }
+
+    /**
+     * Tests rotating an image by ninety degrees.
+     *
+     * @throws IOException If the image can't be read or written
+     * @throws IIIFException If the rotation isn't valid
+     */
+    @Test
+    public void testRotate90() throws IOException, IIIFException {
+        final NativeImageObject image = new NativeImageObject(myImageBytes);
+        final BufferedImage rotated;
+
+        image.rotate(new ImageRotation("90"));
+        rotated = read(image.toBuffer("png"));
+
+        assertEquals(HEIGHT, rotated.getWidth());
+        assertEquals(WIDTH, rotated.getHeight());
+        assertEquals(MARKER, rotated.getRGB(HEIGHT - 1, 0) & 0xFFFFFF);
+    }
+
+    /**
+     * Tests that a bitonal image is written with one bit for each pixel.
+     *
+     * @throws IOException If the image can't be read or written
+     * @throws IIIFException If the quality isn't supported
+     */
+    @Test
+    public void testBitonal() throws IOException, IIIFException {
+        final NativeImageObject image = new NativeImageObject(myImageBytes);
+        final BufferedImage bitonal;
+
+        image.adjustQuality(new ImageQuality(ImageQuality.BITONAL));
+        bitonal = read(image.toBuffer("png"));
+
+        assertEquals(1, bitonal.getColorModel().getPixelSize());
+        assertEquals(0xFFFFFF, bitonal.getRGB(10, 5) & 0xFFFFFF);
+    }
+
+    /**
+     * Tests that an image in a format OpenCV can't write is still written.
+     *
+     * @throws IOException If the image can't be read or written
+     */
+    @Test
+    public void testGIF() throws IOException {
+        final BufferedImage gif = read(new NativeImageObject(myImageBytes).toBuffer("gif"));
+
+        assertEquals(WIDTH, gif.getWidth());
+        assertEquals(MARKER, gif.getRGB(0, 0) & 0xFFFFFF);
+    }
+
+    private BufferedImage read(final Buffer aBuffer) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(aBuffer.getBytes()));
+    }
+}
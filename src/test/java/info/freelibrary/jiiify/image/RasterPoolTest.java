@@ -0,0 +1,191 @@
+
+package info.freelibrary.jiiify.image;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * A test of {@link info.freelibrary.jiiify.image.RasterPool}
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class RasterPoolTest {
+
+    private static final int WIDTH = 64;
+
+    private static final int HEIGHT = 32;
+
+    /* The number of bytes in an RGB image with integer pixels */
+    private static final long IMAGE_SIZE = WIDTH * HEIGHT * 4L;
+
+    private MetricRegistry myRegistry;
+
+    private RasterPool myPool;
+
+    /**
+     * Creates a raster pool with room for two images.
+     */
+    @Before
+    public void setUp() {
+        myRegistry = new MetricRegistry();
+        myPool = new RasterPool(IMAGE_SIZE * 2, myRegistry);
+    }
+
+    /**
+     * Tests that a released image is reused for an image with the same type and dimensions.
+     */
+    @Test
+    public void testReuseImage() {
+        final BufferedImage image = myPool.getImage(BufferedImage.TYPE_INT_RGB, WIDTH, HEIGHT);
+
+        myPool.release(image);
+
+        assertEquals(IMAGE_SIZE, myPool.size());
+        assertNotSame(image, myPool.getImage(BufferedImage.TYPE_INT_ARGB, WIDTH, HEIGHT));
+        assertNotSame(image, myPool.getImage(BufferedImage.TYPE_INT_RGB, HEIGHT, WIDTH));
+        assertSame(image, myPool.getImage(BufferedImage.TYPE_INT_RGB, WIDTH, HEIGHT));
+        assertEquals(0, myPool.size());
+    }
+
+    /**
+     * Tests that images like the supplied image are reused if they have a standard type.
+     */
+    @Test
+    public void testReuseImageLike() {
+        final BufferedImage image = myPool.getImage(BufferedImage.TYPE_INT_RGB, WIDTH, HEIGHT);
+        final BufferedImage bitonal = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_BYTE_BINARY);
+
+        myPool.release(image);
+        myPool.release(myPool.getImage(bitonal, WIDTH, HEIGHT));
+
+        assertSame(image, myPool.getImage(image, WIDTH, HEIGHT));
+        assertEquals(BufferedImage.TYPE_BYTE_BINARY, myPool.getImage(bitonal, HEIGHT, WIDTH).getType());
+        assertEquals(0, myPool.size());
+    }
+
+    /**
+     * Tests that images which share their pixels with another image, or that have a palette, aren't pooled.
+     */
+    @Test
+    public void testReleaseUnpoolable() {
+        final BufferedImage image = myPool.getImage(BufferedImage.TYPE_INT_RGB, WIDTH * 2, HEIGHT);
+
+        myPool.release(image.getSubimage(0, 0, WIDTH, HEIGHT));
+        myPool.release(new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_BYTE_INDEXED));
+
+        assertEquals(0, myPool.size());
+    }
+
+    /**
+     * Tests that the pool doesn't grow larger than its maximum size.
+     */
+    @Test
+    public void testMaxSize() {
+        final BufferedImage first = myPool.getImage(BufferedImage.TYPE_INT_RGB, WIDTH, HEIGHT);
+        final BufferedImage second = myPool.getImage(BufferedImage.TYPE_INT_RGB, WIDTH, HEIGHT);
+        final BufferedImage third = myPool.getImage(BufferedImage.TYPE_INT_RGB, WIDTH, HEIGHT);
+
+        myPool.release(first);
+        myPool.release(second);
+        myPool.release(third);
+
+        assertEquals(IMAGE_SIZE * 2, myPool.size());
+
+        myPool.release(myPool.getImage(BufferedImage.TYPE_INT_RGB, WIDTH * 3, HEIGHT));
+
+        assertEquals(IMAGE_SIZE * 2, myPool.size());
+
+        myPool.setMaxSize(IMAGE_SIZE);
+
+        assertEquals(IMAGE_SIZE, myPool.size());
+
+        myPool.setMaxSize(0);
+
+        assertEquals(0, myPool.size());
+    }
+
+    /**
+     * Tests that images that are released at the same time don't fill the pool past its maximum size.
+     *
+     * @throws InterruptedException If the test is interrupted while waiting for the releases
+     */
+    @Test
+    public void testConcurrentRelease() throws InterruptedException {
+        final List<Thread> threads = new ArrayList<>();
+
+        for (int index = 0; index < 8; index++) {
+            final int width = WIDTH / 2 + index;
+
+            threads.add(new Thread(() -> {
+                for (int count = 0; count < 100; count++) {
+                    myPool.release(new BufferedImage(width, HEIGHT, BufferedImage.TYPE_INT_RGB));
+                }
+            }));
+        }
+
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(myPool.size() <= IMAGE_SIZE * 2);
+    }
+
+    /**
+     * Tests that arrays are pooled by their capacity.
+     */
+    @Test
+    public void testReuseInts() {
+        final int[] array = myPool.getInts(1000);
+
+        assertEquals(1024, array.length);
+
+        myPool.release(array);
+        myPool.release(new int[1000]);
+
+        assertEquals(1024L * 4, myPool.size());
+        assertSame(array, myPool.getInts(513));
+        assertEquals(1, myPool.getInts(0).length);
+    }
+
+    /**
+     * Tests that arrays too large for the pool to hold aren't rounded up to a power of two.
+     */
+    @Test
+    public void testUnpoolableInts() {
+        final int[] array = myPool.getInts(5000);
+
+        assertEquals(5000, array.length);
+        assertEquals(4096, myPool.getInts(3000).length);
+
+        myPool.release(array);
+
+        assertEquals(0, myPool.size());
+    }
+
+    /**
+     * Tests that the bytes that are allocated, and reused, are metered.
+     */
+    @Test
+    public void testMetrics() {
+        myPool.release(myPool.getImage(BufferedImage.TYPE_INT_RGB, WIDTH, HEIGHT));
+        myPool.getImage(BufferedImage.TYPE_INT_RGB, WIDTH, HEIGHT);
+
+        assertEquals(IMAGE_SIZE, myRegistry.meter(RasterPool.ALLOCATED_METRIC).getCount());
+        assertEquals(IMAGE_SIZE, myRegistry.meter(RasterPool.REUSED_METRIC).getCount());
+    }
+}
@@ -0,0 +1,164 @@
+
+package info.freelibrary.jiiify.image;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+import org.imgscalr.Scalr;
+import org.junit.Test;
+
+/**
+ * A test of {@link info.freelibrary.jiiify.image.Resampler}
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class ResamplerTest {
+
+    private static final int WIDTH = 1200;
+
+    private static final int HEIGHT = 800;
+
+    private static final int COLOR = 0x80336699;
+
+    /**
+     * Tests that an image is resampled the same way each time, however its strips were resampled.
+     *
+     * @throws IOException If the image can't be resampled
+     */
+    @Test
+    public void testDeterministic() throws IOException {
+        final BufferedImage image = getPattern();
+        final int[] pixels = getPixels(Resampler.resize(image, 500, 333));
+
+        for (int count = 0; count < 3; count++) {
+            assertArrayEquals(pixels, getPixels(Resampler.resize(image, 500, 333)));
+        }
+    }
+
+    /**
+     * Tests that resampled images are close to what Scalr would have made.
+     *
+     * @throws IOException If the image can't be resampled
+     */
+    @Test
+    public void testMatchesScalr() throws IOException {
+        final BufferedImage image = getPattern();
+        final BufferedImage resampled = Resampler.resize(image, WIDTH / 4, HEIGHT / 4);
+        final BufferedImage scaled = Scalr.resize(image, Scalr.Mode.FIT_EXACT, WIDTH / 4, HEIGHT / 4,
+                Scalr.OP_ANTIALIAS);
+
+        long difference = 0;
+
+        assertEquals(scaled.getWidth(), resampled.getWidth());
+        assertEquals(scaled.getHeight(), resampled.getHeight());
+
+        // Edges are skipped because Scalr's anti-aliasing doesn't change them
+        for (int y = 1; y < resampled.getHeight() - 1; y++) {
+            for (int x = 1; x < resampled.getWidth() - 1; x++) {
+                final int pixel = resampled.getRGB(x, y);
+                final int scaledPixel = scaled.getRGB(x, y);
+
+                for (int shift = 0; shift < 24; shift += 8) {
+                    difference += Math.abs((pixel >> shift & 0xFF) - (scaledPixel >> shift & 0xFF));
+                }
+            }
+        }
+
+        assertTrue(difference / ((resampled.getWidth() - 2) * (resampled.getHeight() - 2) * 3d) < 2d);
+    }
+
+    /**
+     * Tests that an image of one color stays that color, and keeps its transparency, when it's made smaller or larger.
+     *
+     * @throws IOException If the image can't be resampled
+     */
+    @Test
+    public void testUniformColor() throws IOException {
+        final BufferedImage image = new BufferedImage(37, 23, BufferedImage.TYPE_INT_ARGB);
+        final int[][] sizes = { { 10, 7 }, { 100, 60 }, { 37, 23 }, { 1, 1 } };
+
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, COLOR);
+            }
+        }
+
+        for (final int[] size : sizes) {
+            final BufferedImage resampled = Resampler.resize(image, size[0], size[1]);
+
+            assertEquals(BufferedImage.TYPE_INT_ARGB, resampled.getType());
+
+            for (final int pixel : getPixels(resampled)) {
+                assertEquals(COLOR, pixel);
+            }
+        }
+    }
+
+    /**
+     * Tests that the colors of transparent pixels don't bleed into the colors of the pixels they're averaged with.
+     *
+     * @throws IOException If the image can't be resampled
+     */
+    @Test
+    public void testPremultiplied() throws IOException {
+        final BufferedImage image = new BufferedImage(2, 1, BufferedImage.TYPE_INT_ARGB);
+        final int pixel;
+
+        image.setRGB(0, 0, 0xFFFF0000);
+        image.setRGB(1, 0, 0x0000FF00);
+        pixel = Resampler.resize(image, 1, 1).getRGB(0, 0);
+
+        assertEquals(0x80, pixel >>> 24);
+        assertEquals(0xFF0000, pixel & 0xFFFFFF);
+    }
+
+    /**
+     * Tests that gray images stay gray and that each new pixel is the average of the pixels it covers.
+     *
+     * @throws IOException If the image can't be resampled
+     */
+    @Test
+    public void testGray() throws IOException {
+        final BufferedImage image = new BufferedImage(20, 10, BufferedImage.TYPE_BYTE_GRAY);
+        final BufferedImage resampled;
+
+        image.getRaster().setSample(0, 0, 0, 200);
+        resampled = Resampler.resize(image.getSubimage(0, 0, 10, 10), 5, 5);
+
+        assertEquals(BufferedImage.TYPE_BYTE_GRAY, resampled.getType());
+        assertEquals(50, resampled.getRaster().getSample(0, 0, 0));
+        assertEquals(0, resampled.getRaster().getSample(1, 0, 0));
+    }
+
+    /**
+     * Tests that an image isn't resampled to a size that has too many pixels for an array.
+     *
+     * @throws IOException If the image can't be resampled
+     */
+    @Test(expected = IOException.class)
+    public void testTooLarge() throws IOException {
+        Resampler.resize(new BufferedImage(1, 70000, BufferedImage.TYPE_BYTE_GRAY), 40000, 70000);
+    }
+
+    private BufferedImage getPattern() {
+        final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                final int wave = (int) (127 + 120 * Math.sin(x / 40d) * Math.cos(y / 55d));
+
+                image.setRGB(x, y, wave << 16 | x * 255 / WIDTH << 8 | y * 255 / HEIGHT);
+            }
+        }
+
+        return image;
+    }
+
+    private int[] getPixels(final BufferedImage aImage) {
+        return aImage.getRGB(0, 0, aImage.getWidth(), aImage.getHeight(), null, 0, aImage.getWidth());
+    }
+}
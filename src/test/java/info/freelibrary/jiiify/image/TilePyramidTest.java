@@ -0,0 +1,241 @@
+
+package info.freelibrary.jiiify.image;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import info.freelibrary.jiiify.util.ImageUtils;
+
+/**
+ * A test of {@link info.freelibrary.jiiify.image.TilePyramid}
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class TilePyramidTest {
+
+    private static final String PREFIX = "/iiif";
+
+    private static final String ID = "pyramid-test";
+
+    private static final int TILE_SIZE = 64;
+
+    private static final int WIDTH = 301;
+
+    private static final int HEIGHT = 199;
+
+    private static final int TRANSPARENT_COLOR = 0x80336699;
+
+    private byte[] myImageBytes;
+
+    private File myImageFile;
+
+    private File myPngFile;
+
+    /**
+     * Creates a test image with odd dimensions, so the edge tiles at each level are partial.
+     *
+     * @throws IOException If the test image can't be written
+     */
+    @Before
+    public void setUp() throws IOException {
+        final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final Random random = new Random(WIDTH * HEIGHT);
+
+        // Random pixels make sure that the streamed levels are scaled down the same as the cascaded ones
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+
+        ImageIO.write(image, "png", baos);
+        myImageBytes = baos.toByteArray();
+
+        // TIFFs are read a band at a time, so the streaming test needs one
+        myImageFile = File.createTempFile("pyramid-test-", ".tif");
+        myImageFile.deleteOnExit();
+        ImageIO.write(image, "tiff", myImageFile);
+
+        myPngFile = File.createTempFile("pyramid-test-", ".png");
+        myPngFile.deleteOnExit();
+        ImageIO.write(image, "png", myPngFile);
+    }
+
+    /**
+     * Tests that the pyramid creates the tiles that are listed for the image.
+     *
+     * @throws IOException If the tiles can't be created
+     */
+    @Test
+    public void testCascade() throws IOException {
+        final Set<String> expected = new HashSet<>(ImageUtils.getTilePaths(PREFIX, ID, TILE_SIZE, WIDTH, HEIGHT));
+        final Set<String> found = new HashSet<>();
+        final int tileCount;
+
+        tileCount = new TilePyramid(PREFIX, ID, TILE_SIZE).cascade(myImageBytes, (request, tile) -> {
+            assertTrue(request.toString(), found.add(request.toString()));
+        });
+
+        assertEquals(expected.size(), tileCount);
+        assertEquals(expected, found);
+    }
+
+    /**
+     * Tests that the tiles are the same size as they'd be if they were created from the full resolution image.
+     *
+     * @throws IOException If the tiles can't be created
+     */
+    @Test
+    public void testCascadeTileSizes() throws IOException {
+        new TilePyramid(PREFIX, ID, TILE_SIZE).cascade(myImageBytes, (request, tile) -> {
+            final JavaImageObject image = new JavaImageObject(myImageBytes, request.getRegion(), request.getSize());
+
+            image.resize(request.getSize());
+
+            assertEquals(request.toString(), image.getWidth(), tile.getWidth());
+            assertEquals(request.toString(), image.getHeight(), tile.getHeight());
+        });
+    }
+
+    /**
+     * Tests that streaming the pyramid from an image file creates the same tiles as cascading down the pyramid.
+     *
+     * @throws IOException If the tiles can't be created
+     */
+    @Test
+    public void testStream() throws IOException {
+        final TilePyramid pyramid = new TilePyramid(PREFIX, ID, TILE_SIZE);
+        final Map<String, int[]> expected = new HashMap<>();
+        final Map<String, int[]> found = new HashMap<>();
+        final int tileCount;
+
+        pyramid.cascade(myImageBytes, (request, tile) -> expected.put(request.toString(), getPixels(tile)));
+        tileCount = pyramid.stream(myImageFile, (request, tile) -> found.put(request.toString(), getPixels(tile)));
+
+        assertEquals(expected.size(), tileCount);
+        assertEquals(expected.keySet(), found.keySet());
+
+        for (final String request : expected.keySet()) {
+            assertArrayEquals(request, expected.get(request), found.get(request));
+        }
+    }
+
+    /**
+     * Tests that streaming an image that can't be read a band at a time falls back to cascading down the pyramid.
+     *
+     * @throws IOException If the tiles can't be created
+     */
+    @Test
+    public void testStreamFallback() throws IOException {
+        final TilePyramid pyramid = new TilePyramid(PREFIX, ID, TILE_SIZE);
+        final Map<String, int[]> expected = new HashMap<>();
+        final Map<String, int[]> found = new HashMap<>();
+        final int tileCount;
+
+        pyramid.cascade(myImageBytes, (request, tile) -> expected.put(request.toString(), getPixels(tile)));
+        tileCount = pyramid.stream(myPngFile, (request, tile) -> found.put(request.toString(), getPixels(tile)));
+
+        assertEquals(expected.size(), tileCount);
+        assertEquals(expected.keySet(), found.keySet());
+
+        for (final String request : expected.keySet()) {
+            assertArrayEquals(request, expected.get(request), found.get(request));
+        }
+    }
+
+    /**
+     * Tests that a gray image's tiles stay gray at every level, whether the pyramid is cascaded or streamed.
+     *
+     * @throws IOException If the tiles can't be created
+     */
+    @Test
+    public void testGray() throws IOException {
+        final TilePyramid pyramid = new TilePyramid(PREFIX, ID, TILE_SIZE);
+        final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        final File imageFile = File.createTempFile("pyramid-test-", ".tif");
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final Map<String, int[]> expected = new HashMap<>();
+        final Map<String, int[]> found = new HashMap<>();
+        final Random random = new Random(WIDTH + HEIGHT);
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                image.getRaster().setSample(x, y, 0, random.nextInt(256));
+            }
+        }
+
+        ImageIO.write(image, "png", baos);
+        imageFile.deleteOnExit();
+        ImageIO.write(image, "tiff", imageFile);
+
+        pyramid.cascade(baos.toByteArray(), (request, tile) -> {
+            assertEquals(request.toString(), BufferedImage.TYPE_BYTE_GRAY, getType(tile));
+            expected.put(request.toString(), getPixels(tile));
+        });
+
+        pyramid.stream(imageFile, (request, tile) -> {
+            assertEquals(request.toString(), BufferedImage.TYPE_BYTE_GRAY, getType(tile));
+            found.put(request.toString(), getPixels(tile));
+        });
+
+        assertEquals(expected.keySet(), found.keySet());
+
+        for (final String request : expected.keySet()) {
+            assertArrayEquals(request, expected.get(request), found.get(request));
+        }
+    }
+
+    /**
+     * Tests that an image's transparency is kept in the tiles of its coarser levels.
+     *
+     * @throws IOException If the tiles can't be created
+     */
+    @Test
+    public void testAlpha() throws IOException {
+        final BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                image.setRGB(x, y, TRANSPARENT_COLOR);
+            }
+        }
+
+        ImageIO.write(image, "png", baos);
+
+        new TilePyramid(PREFIX, ID, TILE_SIZE).cascade(baos.toByteArray(), (request, tile) -> {
+            for (final int pixel : getPixels(tile)) {
+                assertEquals(request.toString(), TRANSPARENT_COLOR, pixel);
+            }
+        });
+    }
+
+    private int getType(final ImageObject aTile) {
+        return ((JavaImageObject) aTile).getBufferedImage().getType();
+    }
+
+    private int[] getPixels(final ImageObject aTile) {
+        final BufferedImage image = ((JavaImageObject) aTile).getBufferedImage();
+        final int width = image.getWidth();
+        final int height = image.getHeight();
+
+        return image.getRGB(0, 0, width, height, null, 0, width);
+    }
+}
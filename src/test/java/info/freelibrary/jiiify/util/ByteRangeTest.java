@@ -0,0 +1,88 @@
+
+package info.freelibrary.jiiify.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests for <code>ByteRange</code>.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class ByteRangeTest {
+
+    private static final long LENGTH = 10000;
+
+    /**
+     * Tests a range with a first and last byte position.
+     */
+    @Test
+    public void testRange() {
+        final ByteRange range = ByteRange.parse("bytes=0-499", LENGTH);
+
+        assertTrue(range.isSatisfiable());
+        assertEquals(0, range.getStart());
+        assertEquals(499, range.getEnd());
+        assertEquals(500, range.getLength());
+        assertEquals("bytes 0-499/10000", range.toContentRange());
+    }
+
+    /**
+     * Tests a range without a last byte position.
+     */
+    @Test
+    public void testOpenRange() {
+        final ByteRange range = ByteRange.parse("bytes=9500-", LENGTH);
+
+        assertEquals(9500, range.getStart());
+        assertEquals(9999, range.getEnd());
+    }
+
+    /**
+     * Tests a range whose last byte position is beyond the end of the resource.
+     */
+    @Test
+    public void testLongRange() {
+        assertEquals(9999, ByteRange.parse("bytes=9500-20000", LENGTH).getEnd());
+    }
+
+    /**
+     * Tests a range for the last bytes of a resource.
+     */
+    @Test
+    public void testSuffixRange() {
+        final ByteRange range = ByteRange.parse("bytes=-500", LENGTH);
+
+        assertEquals(9500, range.getStart());
+        assertEquals(9999, range.getEnd());
+        assertEquals(0, ByteRange.parse("bytes=-20000", LENGTH).getStart());
+    }
+
+    /**
+     * Tests ranges that can't be satisfied.
+     */
+    @Test
+    public void testUnsatisfiableRange() {
+        final ByteRange range = ByteRange.parse("bytes=10000-", LENGTH);
+
+        assertFalse(range.isSatisfiable());
+        assertEquals("bytes */10000", range.toContentRange());
+        assertFalse(ByteRange.parse("bytes=-0", LENGTH).isSatisfiable());
+    }
+
+    /**
+     * Tests ranges that are ignored.
+     */
+    @Test
+    public void testIgnoredRange() {
+        assertNull(ByteRange.parse(null, LENGTH));
+        assertNull(ByteRange.parse("items=0-10", LENGTH));
+        assertNull(ByteRange.parse("bytes=0-10,20-30", LENGTH));
+        assertNull(ByteRange.parse("bytes=500-100", LENGTH));
+        assertNull(ByteRange.parse("bytes=abc-", LENGTH));
+    }
+}
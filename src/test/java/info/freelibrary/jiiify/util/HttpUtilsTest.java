@@ -0,0 +1,109 @@
+
+package info.freelibrary.jiiify.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import info.freelibrary.jiiify.Metadata;
+
+import io.vertx.core.MultiMap;
+
+/**
+ * Tests for <code>HttpUtils</code>.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class HttpUtilsTest {
+
+    private static final long LAST_MODIFIED = 1500000000000L;
+
+    private static final String LAST_MODIFIED_DATE = "Fri, 14 Jul 2017 02:40:00 GMT";
+
+    /**
+     * Tests <code>getETag()</code> with a last modified time and length.
+     */
+    @Test
+    public void testGetFileETag() {
+        assertEquals("\"15d3ef79800-400\"", HttpUtils.getETag(LAST_MODIFIED, 1024));
+        assertNotEquals(HttpUtils.getETag(LAST_MODIFIED, 1024), HttpUtils.getETag(LAST_MODIFIED, 1025));
+    }
+
+    /**
+     * Tests <code>getETag()</code> with the variant of a rewritten file.
+     */
+    @Test
+    public void testGetVariantETag() {
+        final String etag = HttpUtils.getETag(LAST_MODIFIED, 1024, "http://localhost:8443/iiif");
+
+        assertEquals(etag, HttpUtils.getETag(LAST_MODIFIED, 1024, "http://localhost:8443/iiif"));
+        assertNotEquals(etag, HttpUtils.getETag(LAST_MODIFIED, 1024, "https://example.org/iiif"));
+        assertNotEquals(etag, HttpUtils.getETag(LAST_MODIFIED, 1024));
+        assertTrue(etag.startsWith("\"15d3ef79800-400-") && etag.endsWith("\""));
+    }
+
+    /**
+     * Tests <code>parseDate()</code>.
+     */
+    @Test
+    public void testParseDate() {
+        assertEquals(LAST_MODIFIED, HttpUtils.parseDate(LAST_MODIFIED_DATE));
+        assertEquals(-1, HttpUtils.parseDate("not a date"));
+        assertEquals(-1, HttpUtils.parseDate(null));
+    }
+
+    /**
+     * Tests <code>formatDate()</code>.
+     */
+    @Test
+    public void testFormatDate() {
+        assertEquals(LAST_MODIFIED_DATE, HttpUtils.formatDate(LAST_MODIFIED));
+    }
+
+    /**
+     * Tests <code>isNotModified()</code> with If-None-Match.
+     */
+    @Test
+    public void testIfNoneMatch() {
+        final String etag = HttpUtils.getETag(LAST_MODIFIED, 1024);
+        final MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+
+        headers.set(Metadata.IF_NONE_MATCH, "\"abc\", W/" + etag);
+        assertTrue(HttpUtils.isNotModified(headers, etag, LAST_MODIFIED));
+
+        headers.set(Metadata.IF_NONE_MATCH, "*");
+        assertTrue(HttpUtils.isNotModified(headers, etag, LAST_MODIFIED));
+
+        // If-None-Match takes precedence over If-Modified-Since
+        headers.set(Metadata.IF_NONE_MATCH, "\"abc\"");
+        headers.set(Metadata.IF_MODIFIED_SINCE, LAST_MODIFIED_DATE);
+        assertFalse(HttpUtils.isNotModified(headers, etag, LAST_MODIFIED));
+    }
+
+    /**
+     * Tests <code>isNotModified()</code> with If-Modified-Since.
+     */
+    @Test
+    public void testIfModifiedSince() {
+        final MultiMap headers = MultiMap.caseInsensitiveMultiMap();
+
+        headers.set(Metadata.IF_MODIFIED_SINCE, LAST_MODIFIED_DATE);
+        assertTrue(HttpUtils.isNotModified(headers, null, LAST_MODIFIED + 500));
+        assertFalse(HttpUtils.isNotModified(headers, null, LAST_MODIFIED + 1000));
+        assertFalse(HttpUtils.isNotModified(headers, null, -1));
+
+        headers.set(Metadata.IF_MODIFIED_SINCE, "not a date");
+        assertFalse(HttpUtils.isNotModified(headers, null, LAST_MODIFIED));
+    }
+
+    /**
+     * Tests <code>isNotModified()</code> without any conditional headers.
+     */
+    @Test
+    public void testUnconditional() {
+        assertFalse(HttpUtils.isNotModified(MultiMap.caseInsensitiveMultiMap(), "\"abc\"", LAST_MODIFIED));
+    }
+}
@@ -0,0 +1,92 @@
+
+package info.freelibrary.jiiify.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+import info.freelibrary.jiiify.iiif.IIIFException;
+import info.freelibrary.jiiify.iiif.ImageRequest;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * A test of {@link info.freelibrary.jiiify.util.ImageRequestCoalescer}
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class ImageRequestCoalescerTest {
+
+    private static final String IMAGE_REQUEST = "/iiif/asdf/full/400,/0/default.jpg";
+
+    private MetricRegistry myRegistry;
+
+    private ImageRequestCoalescer myCoalescer;
+
+    @Before
+    public void setUp() {
+        myRegistry = new MetricRegistry();
+        myCoalescer = new ImageRequestCoalescer(myRegistry);
+    }
+
+    @Test
+    public void testGetCoalesces() throws IIIFException {
+        final List<Future<Buffer>> generators = new ArrayList<>();
+        final List<AsyncResult<Buffer>> results = new ArrayList<>();
+        final Buffer image = Buffer.buffer("image");
+
+        myCoalescer.get(new ImageRequest(IMAGE_REQUEST), future -> generators.add(future), results::add);
+        myCoalescer.get(new ImageRequest(IMAGE_REQUEST), future -> fail("Image was created twice"), results::add);
+
+        assertEquals(1, generators.size());
+        assertEquals(1, myCoalescer.size());
+        assertTrue(results.isEmpty());
+
+        generators.get(0).complete(image);
+
+        assertEquals(2, results.size());
+        assertSame(image, results.get(0).result());
+        assertSame(image, results.get(1).result());
+        assertEquals(0, myCoalescer.size());
+        assertEquals(1, myRegistry.counter(ImageRequestCoalescer.GENERATED_METRIC).getCount());
+        assertEquals(1, myRegistry.counter(ImageRequestCoalescer.COALESCED_METRIC).getCount());
+    }
+
+    @Test
+    public void testGetAfterCompletion() throws IIIFException {
+        final List<AsyncResult<Buffer>> results = new ArrayList<>();
+
+        myCoalescer.get(new ImageRequest(IMAGE_REQUEST), future -> future.fail("failed"), results::add);
+        myCoalescer.get(new ImageRequest(IMAGE_REQUEST), future -> future.complete(Buffer.buffer()), results::add);
+
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).failed());
+        assertTrue(results.get(1).succeeded());
+        assertEquals(2, myRegistry.counter(ImageRequestCoalescer.GENERATED_METRIC).getCount());
+        assertEquals(0, myRegistry.counter(ImageRequestCoalescer.COALESCED_METRIC).getCount());
+    }
+
+    @Test
+    public void testGetWithGeneratorException() throws IIIFException {
+        final List<AsyncResult<Buffer>> results = new ArrayList<>();
+
+        myCoalescer.get(new ImageRequest(IMAGE_REQUEST), future -> {
+            throw new IllegalStateException();
+        }, results::add);
+
+        assertEquals(1, results.size());
+        assertTrue(results.get(0).cause() instanceof IllegalStateException);
+        assertEquals(0, myCoalescer.size());
+    }
+}
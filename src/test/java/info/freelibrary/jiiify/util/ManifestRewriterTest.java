@@ -0,0 +1,85 @@
+
+package info.freelibrary.jiiify.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A test of {@link info.freelibrary.jiiify.util.ManifestRewriter}
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+public class ManifestRewriterTest {
+
+    private static final String OLD_SERVER = "http://old.example.com:8000";
+
+    private static final String SERVER = "https://localhost:8443";
+
+    private static final String SERVICE = "/iiif";
+
+    private static final String MANIFEST = "/iiif/asdf/manifest";
+
+    private static final String CANVAS = "/iiif/asdf/canvas/1";
+
+    private static final String IMAGE = "/iiif/asdf/full/full/0/default.jpg";
+
+    private static final String SERVICE_ID = "/iiif/asdf";
+
+    private static final String ID = "@id";
+
+    /**
+     * Tests that the URIs of a manifest and its nested resources are rewritten to point at the server.
+     */
+    @Test
+    public void testRewrite() throws IOException {
+        final JsonObject resource = new JsonObject().put(ID, OLD_SERVER + IMAGE).put("service", new JsonObject()
+                .put(ID, OLD_SERVER + SERVICE_ID).put("profile", "http://iiif.io/api/image/2/level0.json"));
+        final JsonObject image = new JsonObject().put(ID, OLD_SERVER + IMAGE).put("on", OLD_SERVER + CANVAS).put(
+                "resource", resource);
+        final JsonObject canvas = new JsonObject().put(ID, OLD_SERVER + CANVAS).put("height", 3000).put("images",
+                new JsonArray().add(image));
+        final JsonObject manifest = new JsonObject().put(ID, OLD_SERVER + MANIFEST).put("label", "A manifest").put(
+                "logo", OLD_SERVER + "/logo.png").put("thumbnail", OLD_SERVER + IMAGE).put("sequences",
+                        new JsonArray().add(new JsonObject().put("canvases", new JsonArray().add(canvas))));
+        final JsonObject result = ManifestRewriter.rewrite(Buffer.buffer(manifest.encode()), SERVER, SERVICE)
+                .toJsonObject();
+        final JsonObject resultCanvas = result.getJsonArray("sequences").getJsonObject(0).getJsonArray("canvases")
+                .getJsonObject(0);
+        final JsonObject resultImage = resultCanvas.getJsonArray("images").getJsonObject(0);
+
+        assertEquals(SERVER + MANIFEST, result.getString(ID));
+        assertEquals(SERVER + "/logo.png", result.getString("logo"));
+        assertEquals(SERVER + IMAGE, result.getString("thumbnail"));
+        assertEquals("A manifest", result.getString("label"));
+        assertEquals(SERVER + CANVAS, resultCanvas.getString(ID));
+        assertEquals(3000, (int) resultCanvas.getInteger("height"));
+        assertEquals(SERVER + IMAGE, resultImage.getString(ID));
+        assertEquals(SERVER + CANVAS, resultImage.getString("on"));
+        assertEquals(SERVER + IMAGE, resultImage.getJsonObject("resource").getString(ID));
+        assertEquals(SERVER + SERVICE_ID, resultImage.getJsonObject("resource").getJsonObject("service").getString(
+                ID));
+    }
+
+    /**
+     * Tests that URIs outside of the IIIF service and outside of the rewritten resources are left alone.
+     */
+    @Test
+    public void testRewriteLeavesOthers() throws IOException {
+        final String other = "http://example.com/other/resource";
+        final JsonObject manifest = new JsonObject().put(ID, other).put("related", OLD_SERVER + IMAGE).put(
+                "metadata", new JsonArray().add(new JsonObject().put(ID, OLD_SERVER + IMAGE)));
+        final JsonObject result = ManifestRewriter.rewrite(Buffer.buffer(manifest.encode()), SERVER, SERVICE)
+                .toJsonObject();
+
+        assertEquals(other, result.getString(ID));
+        assertEquals(OLD_SERVER + IMAGE, result.getString("related"));
+        assertEquals(OLD_SERVER + IMAGE, result.getJsonArray("metadata").getJsonObject(0).getString(ID));
+    }
+}
@@ -0,0 +1,184 @@
+
+package info.freelibrary.jiiify.verticles;
+
+import static info.freelibrary.jiiify.Constants.HTTP2_MAX_STREAMS_PROP;
+import static info.freelibrary.jiiify.Constants.HTTP2_PROP;
+import static info.freelibrary.jiiify.Constants.HTTP2_WINDOW_SIZE_PROP;
+import static info.freelibrary.jiiify.Constants.JKS_PROP;
+import static info.freelibrary.jiiify.Constants.KEY_PASS_PROP;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.freelibrary.jiiify.Configuration;
+import info.freelibrary.jiiify.handlers.IIIFDispatcher;
+import info.freelibrary.util.IOUtils;
+import info.freelibrary.util.StringUtils;
+
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.net.JksOptions;
+import io.vertx.core.net.OpenSSLEngineOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.ext.web.Router;
+
+/**
+ * Tests that a viewer's concurrent tile requests can share a single HTTP/2 connection. Ending a response by closing
+ * it closes the whole HTTP/2 connection, which cancels every other tile request that's in flight on it. The requests
+ * are made over clear text HTTP/2 and, when the build's test keystore and ALPN are available, over HTTP/2 that's
+ * negotiated through ALPN as the HTTPS server does it.
+ *
+ * @author <a href="mailto:ksclarke@ksclarke.io">Kevin S. Clarke</a>
+ */
+@RunWith(VertxUnitRunner.class)
+public class Http2ServerTest {
+
+    private static final String TILE = "{}/http2-test/{},0,256,256/256,/0/default.jpg";
+
+    private static final int TILE_COUNT = 64;
+
+    /* Pairtree factories hold on to the first Vertx they're given, so the tests share one */
+    private static Vertx myVertx;
+
+    private static Configuration myConfig;
+
+    /* The number of connections the server has accepted */
+    private final AtomicInteger myConnections = new AtomicInteger();
+
+    @BeforeClass
+    public static void setUp(final TestContext aContext) {
+        final JsonObject config = new JsonObject().put(HTTP2_PROP, true);
+        final Async async = aContext.async();
+
+        config.put(HTTP2_MAX_STREAMS_PROP, TILE_COUNT * 2).put(HTTP2_WINDOW_SIZE_PROP, 2048);
+        myVertx = Vertx.vertx();
+
+        new Configuration(config, myVertx, configHandler -> {
+            if (configHandler.failed()) {
+                aContext.fail(configHandler.cause());
+            } else {
+                myConfig = configHandler.result();
+                async.complete();
+            }
+        });
+    }
+
+    @AfterClass
+    public static void tearDown(final TestContext aContext) {
+        myVertx.close(aContext.asyncAssertSuccess());
+    }
+
+    @Test
+    public void testHttp2Settings(final TestContext aContext) {
+        aContext.assertTrue(myConfig.usesHttp2());
+        aContext.assertEquals((long) TILE_COUNT * 2, myConfig.getHttp2Settings().getMaxConcurrentStreams());
+        aContext.assertEquals(2048 * 1024, myConfig.getHttp2Settings().getInitialWindowSize());
+        aContext.assertEquals(TILE_COUNT * 2 * 2048 * 1024, myConfig.getHttp2ConnectionWindowSize());
+    }
+
+    @Test
+    public void testConfigureHttp2(final TestContext aContext) {
+        final HttpServerOptions options = new HttpServerOptions();
+
+        if (JiiifyServerVerticle.configureHttp2(options, myConfig)) {
+            aContext.assertTrue(options.isUseAlpn());
+            aContext.assertEquals(myConfig.getHttp2Settings(), options.getInitialSettings());
+            aContext.assertEquals(myConfig.getHttp2ConnectionWindowSize(), options.getHttp2ConnectionWindowSize());
+        } else {
+            aContext.assertFalse(options.isUseAlpn());
+        }
+    }
+
+    @Test
+    public void testConcurrentTileRequests(final TestContext aContext) throws IOException {
+        final HttpServerOptions options = new HttpServerOptions();
+        final HttpClientOptions clientOptions = new HttpClientOptions().setHttp2ClearTextUpgrade(false);
+
+        // Clear text HTTP/2 doesn't depend on having ALPN support
+        options.setInitialSettings(myConfig.getHttp2Settings());
+        options.setHttp2ConnectionWindowSize(myConfig.getHttp2ConnectionWindowSize());
+
+        requestTiles(aContext, options, clientOptions);
+    }
+
+    @Test
+    public void testConcurrentTileRequestsOverTls(final TestContext aContext) throws IOException {
+        final InputStream keystore = getClass().getResourceAsStream("/" + JKS_PROP);
+        final String password = System.getProperty(KEY_PASS_PROP);
+        final HttpServerOptions options = new HttpServerOptions();
+        final HttpClientOptions clientOptions = new HttpClientOptions().setSsl(true).setUseAlpn(true);
+
+        // The build creates the test keystore and passes its password to the tests
+        Assume.assumeTrue(keystore != null && password != null);
+        Assume.assumeTrue(OpenSSLEngineOptions.isAlpnAvailable());
+
+        options.setSsl(true).setKeyStoreOptions(new JksOptions().setPassword(password).setValue(Buffer.buffer(
+                IOUtils.readBytes(keystore))));
+
+        // The server negotiates HTTP/2 the same way the HTTPS server does
+        aContext.assertTrue(JiiifyServerVerticle.configureHttp2(options, myConfig));
+
+        // The keystore's certificate is self-signed
+        clientOptions.setTrustAll(true).setVerifyHost(false).setOpenSslEngineOptions(new OpenSSLEngineOptions());
+
+        requestTiles(aContext, options, clientOptions);
+    }
+
+    /**
+     * Starts a server with the supplied options and has a client request a viewport's worth of tiles from it at
+     * once. Each request should be answered over HTTP/2 and none should be cancelled or need another connection.
+     */
+    private void requestTiles(final TestContext aContext, final HttpServerOptions aOptions,
+            final HttpClientOptions aClientOptions) throws IOException {
+        final IIIFDispatcher dispatcher = new IIIFDispatcher(myVertx, myConfig, Router.router(myVertx));
+        final ServerSocket socket = new ServerSocket(0);
+        final Async async = aContext.async(TILE_COUNT);
+        final int port = socket.getLocalPort();
+
+        socket.close();
+        aOptions.setPort(port).setHost("localhost");
+
+        myVertx.createHttpServer(aOptions).connectionHandler(connection -> myConnections.incrementAndGet())
+                .requestHandler(dispatcher).listen(aContext.asyncAssertSuccess(server -> {
+                    final HttpClient client = myVertx.createHttpClient(aClientOptions.setProtocolVersion(
+                            HttpVersion.HTTP_2));
+
+                    // A viewer asks for all the tiles in its viewport at once; none of them should be cancelled
+                    for (int index = 0; index < TILE_COUNT; index++) {
+                        client.get(port, "localhost", getTile(index), getResponseHandler(aContext, async))
+                                .exceptionHandler(aContext::fail).end();
+                    }
+                }));
+    }
+
+    private Handler<HttpClientResponse> getResponseHandler(final TestContext aContext, final Async aAsync) {
+        return response -> {
+            aContext.assertEquals(HttpVersion.HTTP_2, response.version());
+            aContext.assertEquals(404, response.statusCode());
+            aContext.assertEquals(1, myConnections.get());
+
+            response.bodyHandler(body -> aAsync.countDown());
+        };
+    }
+
+    private String getTile(final int aIndex) {
+        return StringUtils.format(TILE, myConfig.getServicePrefix(), Integer.toString(aIndex * 256));
+    }
+}